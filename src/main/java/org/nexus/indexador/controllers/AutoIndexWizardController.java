@@ -246,16 +246,10 @@ public class AutoIndexWizardController {
 
     try {
       int fileNum = Integer.parseInt(fileNumStr);
-      String graphicsDir = mainController.getConfigManager().getGraphicsDir();
-      String imagePath = graphicsDir + java.io.File.separator + fileNum + ".png";
-      java.io.File f = new java.io.File(imagePath);
-      if (!f.exists()) {
-        imagePath = graphicsDir + java.io.File.separator + fileNum + ".bmp";
-        f = new java.io.File(imagePath);
-      }
+      String imagePath = org.nexus.indexador.utils.GraphicsIndex.getInstance().getImagePath(fileNum);
 
-      if (f.exists()) {
-        javafx.scene.image.Image img = new javafx.scene.image.Image(f.toURI().toString());
+      if (imagePath != null) {
+        javafx.scene.image.Image img = new javafx.scene.image.Image(new java.io.File(imagePath).toURI().toString());
         if (imgPreview != null)
           imgPreview.setImage(img);
         if (lblNoImage != null)
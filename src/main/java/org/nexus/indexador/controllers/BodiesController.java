@@ -1,8 +1,5 @@
 package org.nexus.indexador.controllers;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
@@ -18,20 +15,19 @@ import javafx.scene.control.Slider;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
 import javafx.scene.Group;
-import javafx.util.Duration;
 import org.nexus.indexador.gamedata.DataManager;
+import org.nexus.indexador.gamedata.GrhIndex;
 import org.nexus.indexador.gamedata.models.BodyData;
 import org.nexus.indexador.gamedata.models.GrhData;
 import org.nexus.indexador.gamedata.models.HeadData;
 import org.nexus.indexador.utils.AnimationState;
 import org.nexus.indexador.utils.ConfigManager;
+import org.nexus.indexador.utils.GraphicsIndex;
 import org.nexus.indexador.utils.ImageCache;
+import org.nexus.indexador.utils.LiveValidator;
 import org.nexus.indexador.utils.ImageUtils;
 import org.nexus.indexador.utils.Logger;
 
-import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
 
 public class BodiesController {
 
@@ -94,10 +90,11 @@ public class BodiesController {
   private ConfigManager configManager;
   private DataManager dataManager;
   private ImageCache imageCache;
+  private GraphicsIndex graphicsIndex;
   private Logger logger;
 
   private AnimationState animationState;
-  private Map<Integer, GrhData> grhDataMap;
+  private GrhIndex grhIndex;
 
   private BodyData selectedBody;
   private int currentHeading = 0; // 0: Sur, 1: Norte, 2: Oeste, 3: Este
@@ -112,6 +109,7 @@ public class BodiesController {
     try {
       dataManager = DataManager.getInstance();
       imageCache = ImageCache.getInstance();
+      graphicsIndex = GraphicsIndex.getInstance();
       logger = Logger.getInstance();
 
       // Initialize single animation state
@@ -144,10 +142,7 @@ public class BodiesController {
   private void loadBodyData() {
     bodyList = dataManager.getBodyList();
     grhList = dataManager.getGrhList();
-    grhDataMap = new HashMap<>();
-    for (GrhData grh : grhList) {
-      grhDataMap.put(grh.getGrh(), grh);
-    }
+    grhIndex = dataManager.getGrhIndex();
 
     ObservableList<String> bodyIndices = FXCollections.observableArrayList();
     for (int i = 1; i <= bodyList.size(); i++) {
@@ -359,42 +354,20 @@ public class BodiesController {
       return;
 
     int headingIdx = getHeadingIndex();
-    int grhIndex = selectedBody.getBody()[headingIdx];
+    int grhId = selectedBody.getBody()[headingIdx];
 
-    if (grhIndex <= 0) {
+    if (grhId <= 0) {
       imgPreview.setImage(null);
-      if (animationState.getTimeline() != null)
-        animationState.getTimeline().stop();
+      animationState.stop();
       return;
     }
 
-    GrhData grh = grhDataMap.get(grhIndex);
+    GrhData grh = grhIndex.get(grhId);
     if (grh == null)
       return;
 
-    Timeline timeline = animationState.getTimeline();
-    if (timeline != null)
-      timeline.stop();
-    timeline.getKeyFrames().clear();
-
-    animationState.setCurrentFrameIndex(1); // 1-based frames usually
-    int nFrames = grh.getNumFrames();
-
-    if (nFrames <= 1) {
-      // Static image
-      updateFrame(grh);
-    } else {
-      // Animated
-      timeline.getKeyFrames().add(new KeyFrame(Duration.millis(250), e -> {
-        updateFrame(grh);
-        int next = animationState.getCurrentFrameIndex() + 1;
-        if (next > nFrames)
-          next = 1;
-        animationState.setCurrentFrameIndex(next);
-      }));
-      timeline.setCycleCount(Animation.INDEFINITE);
-      timeline.play();
-    }
+    // Estático o animado: el reloj compartido solo avanza si hay más de un frame
+    animationState.start(imgPreview, grh.getNumFrames(), grh.getSpeed(), () -> updateFrame(grh));
   }
 
   private void requestFrameUpdate() {
@@ -402,8 +375,8 @@ public class BodiesController {
     if (selectedBody == null)
       return;
     int headingIdx = getHeadingIndex();
-    int grhIndex = selectedBody.getBody()[headingIdx];
-    GrhData grh = grhDataMap.get(grhIndex);
+    int grhId = selectedBody.getBody()[headingIdx];
+    GrhData grh = grhIndex.get(grhId);
     if (grh != null)
       updateFrame(grh); // Uses current frame index stored in state
   }
@@ -411,34 +384,28 @@ public class BodiesController {
   private void updateFrame(GrhData rootGrh) {
     // Resolve current frame GRH
     int frameIdx = animationState.getCurrentFrameIndex();
-    int[] frames = rootGrh.getFrames();
+    int nFrames = rootGrh.getNumFrames();
 
     // Safety check
-    if (frames == null || frames.length == 0) {
-      // If no frames, try to render the root grh itself if it's a valid image
-      // reference
-      // But usually rootGrh of an animation just points to frames.
-      // If it has fileNum > 0, maybe it's a single static image treated as GRH?
+    if (nFrames <= 1) {
+      // Sin frames de animación: si apunta a una imagen, se dibuja el propio GRH
       if (rootGrh.getFileNum() > 0) {
         renderComposite(rootGrh);
       }
       return;
     }
 
-    if (frameIdx < 1 || frameIdx > frames.length)
+    if (frameIdx < 1 || frameIdx > nFrames)
       frameIdx = 1;
 
-    // Double check valid index
-    if (frameIdx - 1 >= 0 && frameIdx - 1 < frames.length) {
-      int frameGrhIndex = frames[frameIdx - 1]; // Array is 0-indexed
-      GrhData currentFrame = grhDataMap.get(frameGrhIndex);
-
-      if (currentFrame != null) {
-        renderComposite(currentFrame);
-      }
+    // Los frames tienen base 1; getFrame evita copiar el array en cada tick
+    GrhData currentFrame = grhIndex.get(rootGrh.getFrame(frameIdx));
+    if (currentFrame != null) {
+      renderComposite(currentFrame);
     }
   }
 
+
   private void renderComposite(GrhData bodyGrh) {
     Image bodyImg = cropGrh(bodyGrh);
     if (bodyImg == null)
@@ -479,10 +446,8 @@ public class BodiesController {
   private Image cropGrh(GrhData grh) {
     if (grh == null)
       return null;
-    String path = configManager.getGraphicsDir() + grh.getFileNum() + ".png";
-    if (!new File(path).exists())
-      path = configManager.getGraphicsDir() + grh.getFileNum() + ".bmp";
-    if (!new File(path).exists())
+    String path = graphicsIndex.getImagePath(grh.getFileNum());
+    if (path == null)
       return null;
 
     return imageCache.getCroppedImage(path, grh.getsX(), grh.getsY(), grh.getTileWidth(), grh.getTileHeight());
@@ -498,16 +463,12 @@ public class BodiesController {
       if (grhs == null || headingIdx >= grhs.length)
         return null;
       int hGrhIndex = grhs[headingIdx];
-      GrhData hGrh = grhDataMap.get(hGrhIndex);
+      GrhData hGrh = grhIndex.get(hGrhIndex);
       if (hGrh == null)
         return null;
       // Asumimos que la cabeza no está animada para la vista previa, usamos frame 1
-      if (hGrh.getNumFrames() > 0) {
-        int[] frames = hGrh.getFrames();
-        if (frames != null && frames.length > 0) {
-          int frame1 = frames[0];
-          hGrh = grhDataMap.get(frame1);
-        }
+      if (hGrh.getNumFrames() > 1) {
+        hGrh = grhIndex.get(hGrh.getFrame(1));
       }
       return cropGrh(hGrh);
     } else {
@@ -526,6 +487,8 @@ public class BodiesController {
       bodies[2] = Integer.parseInt(txtSur.getText());
       bodies[3] = Integer.parseInt(txtOeste.getText());
       selectedBody.setBody(bodies);
+      LiveValidator.getInstance().entityChanged(LiveValidator.BODY, bodyList.indexOf(selectedBody),
+          bodies);
 
       selectedBody.setHeadOffsetX(Short.parseShort(txtHeadOffsetX.getText()));
       selectedBody.setHeadOffsetY(Short.parseShort(txtHeadOffsetY.getText()));
@@ -1,8 +1,5 @@
 package org.nexus.indexador.controllers;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -17,19 +14,18 @@ import org.nexus.indexador.utils.ImageUtils;
 import javafx.scene.paint.Color;
 import javafx.scene.layout.StackPane; // Import StackPane
 
-import javafx.util.Duration;
 import org.nexus.indexador.gamedata.DataManager;
+import org.nexus.indexador.gamedata.GrhIndex;
 import org.nexus.indexador.gamedata.models.FXData;
 import org.nexus.indexador.gamedata.models.GrhData;
 import org.nexus.indexador.utils.AnimationState;
 import org.nexus.indexador.utils.ConfigManager;
+import org.nexus.indexador.utils.GraphicsIndex;
 import org.nexus.indexador.utils.ImageCache;
+import org.nexus.indexador.utils.LiveValidator;
 import org.nexus.indexador.utils.Logger;
 
-import java.io.File;
 
-import java.util.HashMap;
-import java.util.Map;
 
 public class FxsController {
 
@@ -78,18 +74,14 @@ public class FxsController {
   private ConfigManager configManager;
   private DataManager dataManager;
   private ImageCache imageCache;
+  private GraphicsIndex graphicsIndex;
   private Logger logger;
 
-  // Mapa de estados de animación
-  private Map<Integer, AnimationState> animationStates = new HashMap<>();
+  // Animación del visor, avanzada por el reloj compartido
+  private final AnimationState animationState = new AnimationState();
 
   // Mapa para búsqueda rápida de datos Grh
-  private Map<Integer, GrhData> grhDataMap;
-
-  // Índice del frame actual en la animación.
-  private int currentFrameIndex = 1;
-  // Línea de tiempo que controla la animación de los frames en el visor.
-  private Timeline animationTimeline;
+  private GrhIndex grhIndex;
 
   /**
    * Inicializa el controlador, cargando la configuración y los datos de los FXs.
@@ -100,16 +92,11 @@ public class FxsController {
     try {
       dataManager = DataManager.getInstance();
       imageCache = ImageCache.getInstance();
+      graphicsIndex = GraphicsIndex.getInstance();
       logger = Logger.getInstance();
 
       fxDataManager = new FXData();
 
-      // Inicializar estados (si fueran necesarios por índice)
-      animationStates.put(0, new AnimationState());
-      animationStates.put(1, new AnimationState());
-      animationStates.put(2, new AnimationState());
-      animationStates.put(3, new AnimationState());
-
       loadFxData();
       setupFXListListener();
       setupInteraction(); // Nuevo setup para zoom y arrastre
@@ -227,7 +214,7 @@ public class FxsController {
       return;
     FXData selectedFx = fxList.get(lstFxs.getSelectionModel().getSelectedIndex());
     if (selectedFx != null) {
-      GrhData selectedGrh = grhDataMap.get(selectedFx.getFx());
+      GrhData selectedGrh = grhIndex.get(selectedFx.getFx());
       if (selectedGrh != null)
         updateFrame(selectedGrh);
     }
@@ -240,16 +227,10 @@ public class FxsController {
     // Obtener lista de FXs desde DataManager
     fxList = dataManager.getFXList();
 
-    // Inicializar el mapa de grhData
-    grhDataMap = new HashMap<>();
+    grhIndex = dataManager.getGrhIndex();
 
     grhList = dataManager.getGrhList();
 
-    // Llenar el mapa con los datos de grhList
-    for (GrhData grh : grhList) {
-      grhDataMap.put(grh.getGrh(), grh);
-    }
-
     // Actualizar el texto de los labels con la información obtenida
     lblNFXs.setText("FXs cargados: " + dataManager.getNumFXs());
 
@@ -326,29 +307,11 @@ public class FxsController {
   private void displayAnimation(FXData selectedFX) {
 
     // Obtenemos el Grh de animación desde el indice del FX
-    GrhData selectedGrh = grhDataMap.get(selectedFX.getFx());
-
-    int nFrames = selectedGrh.getNumFrames();
-
-    // Configurar la animación
-    if (animationTimeline != null) {
-      animationTimeline.stop();
-    }
+    GrhData selectedGrh = grhIndex.get(selectedFX.getFx());
 
-    currentFrameIndex = 1; // Reiniciar el índice del frame al iniciar la animación
-
-    animationTimeline = new Timeline(new KeyFrame(Duration.ZERO, event -> {
-      // Actualizar la imagen en el ImageView con el frame actual
-      updateFrame(selectedGrh);
-      currentFrameIndex = (currentFrameIndex + 1) % nFrames; // Avanzar al siguiente frame
-                                                             // circularmente
-      if (currentFrameIndex == 0) {
-        currentFrameIndex = 1; // Omitir la posición 0
-      }
-    }), new KeyFrame(Duration.millis(100)) // Ajustar la duración según sea necesario
-    );
-    animationTimeline.setCycleCount(Animation.INDEFINITE); // Repetir la animación indefinidamente
-    animationTimeline.play(); // Iniciar la animación
+    // El reloj compartido avanza los frames según la velocidad del GRH
+    animationState.start(imgFX, selectedGrh.getNumFrames(), selectedGrh.getSpeed(),
+        () -> updateFrame(selectedGrh));
   }
 
   /**
@@ -357,26 +320,20 @@ public class FxsController {
    * @param selectedGrh El gráfico (GRH) del frame actual.
    */
   private void updateFrame(GrhData selectedGrh) {
-    int[] frames = selectedGrh.getFrames(); // Obtener índices de frames de animación
-
+    int currentFrameIndex = animationState.getCurrentFrameIndex();
     // Verificar que el índice actual esté dentro del rango adecuado
-    if (currentFrameIndex >= 0 && currentFrameIndex < frames.length) {
-      int frameId = frames[currentFrameIndex];
+    if (currentFrameIndex >= 0 && currentFrameIndex <= selectedGrh.getNumFrames()) {
+      // getFrame lee el frame sin copiar el array en cada tick
+      int frameId = selectedGrh.getFrame(currentFrameIndex);
 
       // Buscar el GrhData correspondiente al frameId utilizando el mapa
-      GrhData currentGrh = grhDataMap.get(frameId);
+      GrhData currentGrh = grhIndex.get(frameId);
 
       if (currentGrh != null) {
-        String imagePath = configManager.getGraphicsDir() + currentGrh.getFileNum() + ".png";
-
-        if (!new File(imagePath).exists()) {
-          imagePath = configManager.getGraphicsDir() + currentGrh.getFileNum() + ".bmp";
-        }
-
-        File imageFile = new File(imagePath);
+        String imagePath = graphicsIndex.getImagePath(currentGrh.getFileNum());
 
         // Verificar si el archivo de imagen existe
-        if (imageFile.exists()) {
+        if (imagePath != null) {
           Image frameImage = imageCache.getImage(imagePath);
 
           if (frameImage != null) {
@@ -412,6 +369,8 @@ public class FxsController {
         FXData data = fxList.get(selectedIndex);
 
         data.setFx(Integer.parseInt(txtFX.getText()));
+        LiveValidator.getInstance().entityChanged(LiveValidator.FX, selectedIndex,
+            LiveValidator.referencesOf(data));
         data.setOffsetX(Short.parseShort(txtOffsetX.getText()));
         data.setOffsetY(Short.parseShort(txtOffsetY.getText()));
 
@@ -23,12 +23,13 @@ import org.nexus.indexador.gamedata.enums.IndexingSystem;
 import org.nexus.indexador.gamedata.models.HeadData;
 import org.nexus.indexador.utils.ConfigManager;
 
-import java.io.File;
 
 import java.util.Optional;
 
 import org.nexus.indexador.gamedata.models.GrhData;
+import org.nexus.indexador.utils.GraphicsIndex;
 import org.nexus.indexador.utils.ImageCache;
+import org.nexus.indexador.utils.LiveValidator;
 import org.nexus.indexador.utils.Logger;
 
 public class HeadsController {
@@ -97,6 +98,7 @@ public class HeadsController {
   private ConfigManager configManager;
   private DataManager dataManager;
   private ImageCache imageCache;
+  private GraphicsIndex graphicsIndex;
   private Logger logger;
 
   /**
@@ -109,6 +111,7 @@ public class HeadsController {
     try {
       dataManager = DataManager.getInstance();
       imageCache = ImageCache.getInstance();
+      graphicsIndex = GraphicsIndex.getInstance();
       logger = Logger.getInstance();
 
       // headDataManager = new HeadData(); // No se usa, comentado
@@ -264,16 +267,10 @@ public class HeadsController {
 
     // Sistema de Moldes - código original
     // Construir la ruta completa de la imagen para imagePath
-    String imagePath = configManager.getGraphicsDir() + selectedHead.getTexture() + ".png";
-
-    if (!new File(imagePath).exists()) {
-      imagePath = configManager.getGraphicsDir() + selectedHead.getTexture() + ".bmp";
-    }
-
-    File imageFile = new File(imagePath);
+    String imagePath = graphicsIndex.getImagePath(selectedHead.getTexture());
 
     // ¿La imagen existe?
-    if (imageFile.exists()) {
+    if (imagePath != null) {
       Image staticImage = imageCache.getImage(imagePath);
 
       if (staticImage != null) {
@@ -393,13 +390,8 @@ public class HeadsController {
     if (grh == null)
       return null;
     try {
-      String fileName = String.valueOf(grh.getFileNum());
-      String imagePath = configManager.getGraphicsDir() + fileName + ".png";
-      if (!new File(imagePath).exists()) {
-        imagePath = configManager.getGraphicsDir() + fileName + ".bmp";
-      }
-      File file = new File(imagePath);
-      if (!file.exists())
+      String imagePath = graphicsIndex.getImagePath(grh.getFileNum());
+      if (imagePath == null)
         return null;
 
       Image fullImage = imageCache.getImage(imagePath);
@@ -450,6 +442,8 @@ public class HeadsController {
           selectedHead.getGrhIndex()[3] = Integer.parseInt(txtHeadLeft.getText());
           selectedHead.setGrhs(grhs);
         }
+        LiveValidator.getInstance().entityChanged(LiveValidator.HEAD, selectedHeadIndex,
+            LiveValidator.referencesOf(selectedHead));
 
         // Recargar visualizacion
         drawHeads(selectedHead, 0);
@@ -23,12 +23,13 @@ import org.nexus.indexador.gamedata.enums.IndexingSystem;
 import org.nexus.indexador.gamedata.models.HelmetData;
 import org.nexus.indexador.utils.ConfigManager;
 
-import java.io.File;
 
 import java.util.Optional;
 
 import org.nexus.indexador.gamedata.models.GrhData;
+import org.nexus.indexador.utils.GraphicsIndex;
 import org.nexus.indexador.utils.ImageCache;
+import org.nexus.indexador.utils.LiveValidator;
 import org.nexus.indexador.utils.Logger;
 
 public class HelmetsController {
@@ -97,6 +98,7 @@ public class HelmetsController {
   private ConfigManager configManager;
   private DataManager dataManager;
   private ImageCache imageCache;
+  private GraphicsIndex graphicsIndex;
   private Logger logger;
 
   /**
@@ -109,6 +111,7 @@ public class HelmetsController {
     try {
       dataManager = DataManager.getInstance();
       imageCache = ImageCache.getInstance();
+      graphicsIndex = GraphicsIndex.getInstance();
       logger = Logger.getInstance();
 
       loadHelmetData();
@@ -256,16 +259,10 @@ public class HelmetsController {
 
     // Sistema de Moldes - código original
     // Construir la ruta completa de la imagen para imagePath
-    String imagePath = configManager.getGraphicsDir() + selectedHelmet.getTexture() + ".png";
-
-    if (!new File(imagePath).exists()) {
-      imagePath = configManager.getGraphicsDir() + selectedHelmet.getTexture() + ".bmp";
-    }
-
-    File imageFile = new File(imagePath);
+    String imagePath = graphicsIndex.getImagePath(selectedHelmet.getTexture());
 
     // ¿La imagen existe?
-    if (imageFile.exists()) {
+    if (imagePath != null) {
       Image staticImage = imageCache.getImage(imagePath);
 
       if (staticImage != null) {
@@ -379,13 +376,8 @@ public class HelmetsController {
     if (grh == null)
       return null;
     try {
-      String fileName = String.valueOf(grh.getFileNum());
-      String imagePath = configManager.getGraphicsDir() + fileName + ".png";
-      if (!new File(imagePath).exists()) {
-        imagePath = configManager.getGraphicsDir() + fileName + ".bmp";
-      }
-      File file = new File(imagePath);
-      if (!file.exists())
+      String imagePath = graphicsIndex.getImagePath(grh.getFileNum());
+      if (imagePath == null)
         return null;
 
       Image fullImage = imageCache.getImage(imagePath);
@@ -439,6 +431,8 @@ public class HelmetsController {
           grhs[3] = Integer.parseInt(txtHelmLeft.getText());
           selectedHelmet.setGrhs(grhs);
         }
+        LiveValidator.getInstance().entityChanged(LiveValidator.HELMET, selectedHelmetIndex,
+            LiveValidator.referencesOf(selectedHelmet));
 
         // Recargar visualizacion
         drawHelmets(selectedHelmet, 0);
@@ -6,8 +6,12 @@ import javafx.scene.control.Label;
 import javafx.stage.Stage;
 import org.nexus.indexador.gamedata.DataManager;
 import org.nexus.indexador.utils.ConfigManager;
+import org.nexus.indexador.utils.GraphicsIndex;
 
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import javafx.scene.control.Alert;
 import org.nexus.indexador.utils.Logger;
 
@@ -23,7 +27,7 @@ public class LoadingController {
   private final Logger logger = Logger.getInstance();
 
   private static final int TOTAL_STEPS = 7;
-  private int currentStep = 0;
+  private final AtomicInteger completedSteps = new AtomicInteger();
 
   public void setStage(Stage stage) {
     this.currentStage = stage;
@@ -47,14 +51,22 @@ public class LoadingController {
         configManager.readConfig();
 
         DataManager dataManager = DataManager.getInstance();
-
-        loadDataSafe(() -> dataManager.loadGrhData(), "cargando índice de gráficos");
-        loadDataSafe(() -> dataManager.readHeadFile(), "cargando índice de cabezas");
-        loadDataSafe(() -> dataManager.readHelmetFile(), "cargando índice de cascos");
-        loadDataSafe(() -> dataManager.readBodyFile(), "cargando índice de cuerpos");
-        loadDataSafe(() -> dataManager.readShieldFile(), "cargando índice de escudos");
-        loadDataSafe(() -> dataManager.readFXsdFile(), "cargando índice de FXs");
-        loadDataSafe(() -> dataManager.readWeaponFile(), "cargando índice de armas");
+        Platform.runLater(() -> lblStatus.setText("Cargando índices..."));
+
+        // Ningún cargador consulta la tabla de gráficos mientras decodifica, así que los siete
+        // índices se leen en paralelo y el arranque dura lo que tarde el fichero más lento.
+        // El cierre del executor espera a que terminen todas las cargas.
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+          executor.submit(() -> loadDataSafe(dataManager::loadGrhData, "índice de gráficos"));
+          executor.submit(() -> loadDataSafe(dataManager::readHeadFile, "índice de cabezas"));
+          executor.submit(() -> loadDataSafe(dataManager::readHelmetFile, "índice de cascos"));
+          executor.submit(() -> loadDataSafe(dataManager::readBodyFile, "índice de cuerpos"));
+          executor.submit(() -> loadDataSafe(dataManager::readShieldFile, "índice de escudos"));
+          executor.submit(() -> loadDataSafe(dataManager::readFXsdFile, "índice de FXs"));
+          executor.submit(() -> loadDataSafe(dataManager::readWeaponFile, "índice de armas"));
+          // El índice de la carpeta de gráficos se recorre a la vez, fuera de la cuenta de pasos
+          executor.submit(() -> GraphicsIndex.getInstance().warmUp());
+        }
 
       } catch (IOException e) {
         logger.error("Error crítico al leer la configuración", e);
@@ -96,33 +108,32 @@ public class LoadingController {
 
   /**
    * Ejecuta una tarea de carga de datos de forma segura, manejando excepciones y actualizando el
-   * estado.
+   * progreso. Puede invocarse desde varios hilos a la vez.
    */
   private void loadDataSafe(DataLoadingTask task, String description) {
     try {
-      Platform.runLater(() -> {
-        lblStatus.setText(
-            Character.toUpperCase(description.charAt(0)) + description.substring(1) + "...");
-        double progress = (double) currentStep / TOTAL_STEPS;
-        if (progressBar != null)
-          progressBar.setProgress(progress);
-      });
-
       task.execute();
-
-      currentStep++;
-      Platform.runLater(() -> {
-        double progress = (double) currentStep / TOTAL_STEPS;
-        if (progressBar != null)
-          progressBar.setProgress(progress);
-      });
-
+      reportStep(Character.toUpperCase(description.charAt(0)) + description.substring(1)
+          + " cargado");
     } catch (Exception e) {
-      String errorMsg = "Error al " + description + ": " + e.getMessage();
+      String errorMsg = "Error al cargar " + description + ": " + e.getMessage();
       logger.error(errorMsg, e);
+      reportStep(errorMsg);
     }
   }
 
+  /**
+   * Marca un fichero como terminado y refleja el avance en la barra de progreso.
+   */
+  private void reportStep(String status) {
+    int done = completedSteps.incrementAndGet();
+    Platform.runLater(() -> {
+      lblStatus.setText(status + " (" + done + "/" + TOTAL_STEPS + ")");
+      if (progressBar != null)
+        progressBar.setProgress((double) done / TOTAL_STEPS);
+    });
+  }
+
   /**
    * Interfaz funcional para tareas de carga que pueden lanzar excepciones.
    */
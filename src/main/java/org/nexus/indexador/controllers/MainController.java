@@ -13,18 +13,24 @@ import javafx.scene.Scene;
 import javafx.scene.layout.VBox;
 import javafx.stage.Modality;
 import javafx.stage.Stage;
-import javafx.scene.image.PixelReader;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.control.*;
 import org.nexus.indexador.gamedata.DataManager;
+import org.nexus.indexador.gamedata.GrhIndex;
 import org.nexus.indexador.gamedata.models.GrhData;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import org.nexus.indexador.utils.BatchAutoIndexer;
 import org.nexus.indexador.utils.ConfigManager;
 import org.nexus.indexador.utils.ExportService;
+import org.nexus.indexador.utils.GraphicsIndex;
+import org.nexus.indexador.utils.GridPitchDetector;
 import org.nexus.indexador.utils.ImageCache;
+import org.nexus.indexador.utils.ImageUtils;
+import org.nexus.indexador.utils.LiveValidator;
 import org.nexus.indexador.utils.Logger;
+import org.nexus.indexador.utils.OpacityTable;
 import org.nexus.indexador.utils.ToastNotification;
 import org.nexus.indexador.utils.UndoManager;
 import org.nexus.indexador.utils.ValidationService;
@@ -220,7 +226,7 @@ public class MainController {
   private ObservableList<GrhData> grhList;
 
   // Clase con los datos de la animación y el mapa para la búsqueda rápida
-  private Map<Integer, GrhData> grhDataMap;
+  private GrhIndex grhIndex;
 
   // Objeto encargado de manejar la configuración de la aplicación, incluyendo la
   // lectura y escritura de archivos de configuración.
@@ -233,6 +239,10 @@ public class MainController {
 
   // Caché de imágenes para optimizar la carga y uso de recursos
   private ImageCache imageCache;
+  private GraphicsIndex graphicsIndex;
+
+  // Reporte de integridad abierto, que se refresca con la validación en vivo
+  private ValidationResultController validationController;
 
   // Logger para registro de eventos
   private Logger logger;
@@ -282,6 +292,7 @@ public class MainController {
     configManager = ConfigManager.getInstance();
     dataManager = org.nexus.indexador.gamedata.DataManager.getInstance();
     imageCache = ImageCache.getInstance();
+    graphicsIndex = GraphicsIndex.getInstance();
     logger = Logger.getInstance();
     windowManager = WindowManager.getInstance();
 
@@ -301,6 +312,7 @@ public class MainController {
         txtIndice, lstFrames);
     uiService = new UIService();
     uiService.init(lblStatus, progressMain);
+    LiveValidator.getInstance().setOnChanged(this::onLiveValidationChanged);
 
     // Aplicar color de fondo configurado
     updateBackgroundColor();
@@ -332,22 +344,16 @@ public class MainController {
     try {
       grhList = dataManager.loadGrhData();
 
-      // Inicializar el mapa de grhData
-      grhDataMap = new HashMap<>();
+      // El índice por ID lo mantiene DataManager sincronizado con la lista
+      grhIndex = dataManager.getGrhIndex();
 
-      // Llenar el mapa con los datos de grhList
       int animationCount = 0;
       for (GrhData grh : grhList) {
-        grhDataMap.put(grh.getGrh(), grh);
         if (grh.getNumFrames() > 1) {
           animationCount++;
         }
       }
 
-      // Compartir el mapa de datos globalmente para otras ventanas (Cabezas/Cascos)
-      // org.nexus.indexador.Main.sharedGrhData = grhDataMap; // REMOVED: Now managed
-      // by DataManager
-
       // Actualizar el texto de los labels con la información obtenida
       lblIndices.setText("Indices cargados: " + dataManager.getGrhCount());
       lblVersion.setText("Versión de Indices: " + dataManager.getGrhVersion());
@@ -385,11 +391,6 @@ public class MainController {
                 indice += " (Animación)";
               }
               lstIndices.getItems().add(indice);
-
-              // Update Map and status
-              if (grhDataMap != null) {
-                grhDataMap.put(addedItem.getGrh(), addedItem);
-              }
             }
 
             Platform.runLater(() -> {
@@ -425,6 +426,7 @@ public class MainController {
             GrhData selectedGrh = grhList.get(selectedIndex);
             updateEditor(selectedGrh);
             updateViewer(selectedGrh);
+            gameRenderer.prefetchAround(grhList, selectedIndex, grhIndex);
           }
         });
 
@@ -471,7 +473,7 @@ public class MainController {
    * @param selectedGrh El gráfico seleccionado.
    */
   private void updateViewer(GrhData selectedGrh) {
-    gameRenderer.displayGrh(selectedGrh, grhDataMap);
+    gameRenderer.displayGrh(selectedGrh, grhIndex);
   }
 
   /**
@@ -801,6 +803,7 @@ public class MainController {
       // Actualizar vista
       updateEditor(target);
       updateViewer(target);
+      LiveValidator.getInstance().grhChanged(target);
 
       UndoManager.getInstance().executeAction(new UndoManager.UndoableAction() {
         @Override
@@ -809,6 +812,7 @@ public class MainController {
 
         @Override
         public void undo() {
+          LiveValidator.getInstance().grhChanged(target);
           updateEditor(target);
           updateViewer(target);
         }
@@ -837,9 +841,9 @@ public class MainController {
     if (selectedIndex >= 0 && selectedIndex < grhList.size()) {
       GrhData original = grhList.get(selectedIndex);
 
-      // Crear nuevo ID
-      int newId = dataManager.getGrhCount() + 1;
-      dataManager.setGrhCount(newId);
+      // Crear nuevo ID en el primer hueco libre
+      int newId = dataManager.findFreeGrhRange(1);
+      dataManager.growGrhCount(newId);
 
       // Crear copia
       GrhData duplicate;
@@ -922,9 +926,42 @@ public class MainController {
    */
   @FXML
   private void mnuValidate_OnAction(ActionEvent actionEvent) {
-    ValidationService validationService = ValidationService.getInstance();
-    ValidationService.ValidationResult result = validationService.validate(grhList, configManager.getGraphicsDir());
+    // La validación trabaja sobre una copia de la lista, fuera del hilo de la interfaz; después
+    // se mantiene al día con cada edición
+    LiveValidator.Baseline baseline = LiveValidator.Baseline.capture(grhList, dataManager,
+        configManager.getGraphicsDir());
+    runAsyncTask(() -> {
+      ValidationService.ValidationResult result = baseline.validate();
+      Platform.runLater(() -> {
+        LiveValidator.getInstance().install(baseline, grhList, dataManager.getGrhIndex());
+        showValidationResult(result);
+      });
+    }, "Validando " + grhList.size() + " índices...", "Validación completada");
+  }
+
+  /**
+   * Refleja en la barra de estado y en el reporte abierto el resultado de la validación en vivo.
+   */
+  private void onLiveValidationChanged() {
+    LiveValidator liveValidator = LiveValidator.getInstance();
+    if (!liveValidator.isActive()) {
+      return;
+    }
+    if (lblStatus != null) {
+      int errors = liveValidator.getErrorCount();
+      lblStatus.setText("Integridad: " + errors + " errores, " + liveValidator.getWarningCount()
+          + " advertencias");
+      lblStatus.setStyle(errors > 0 ? "-fx-text-fill: #FF6B6B;" : "-fx-text-fill: #00FF00;");
+    }
+    if (validationController != null) {
+      validationController.setResults(liveValidator.getResult());
+    }
+  }
 
+  /**
+   * Abre la ventana con el reporte de una validación.
+   */
+  private void showValidationResult(ValidationService.ValidationResult result) {
     try {
       FXMLLoader loader = new FXMLLoader(
           getClass().getResource("/org/nexus/indexador/ValidationResultController.fxml"));
@@ -933,6 +970,7 @@ public class MainController {
       ValidationResultController controller = loader.getController();
       controller.setResults(result);
       controller.setMainController(this);
+      validationController = controller;
 
       Stage stage = new Stage();
       stage.setTitle("Reporte de Integridad - " + result.getTotalIssues() + " incidencias");
@@ -941,6 +979,11 @@ public class MainController {
       stage.setScene(scene);
       stage.initModality(Modality.NONE);
       Main.setAppIcon(stage);
+      stage.setOnHidden(event -> {
+        if (validationController == controller) {
+          validationController = null;
+        }
+      });
       stage.show();
 
     } catch (IOException e) {
@@ -955,7 +998,7 @@ public class MainController {
    * @param grhId ID del gráfico a seleccionar.
    */
   public void jumpToGrh(int grhId) {
-    if (grhDataMap.containsKey(grhId)) {
+    if (grhIndex.contains(grhId)) {
       // Buscar el índice en la lista (puede ser lento para listas gigantes, pero ok
       // para esto)
       for (int i = 0; i < grhList.size(); i++) {
@@ -1092,6 +1135,7 @@ public class MainController {
 
       try {
         editorHelper.saveGrhData(selectedGrh);
+        LiveValidator.getInstance().grhChanged(selectedGrh);
         logger.info("Cambios aplicados!");
         ToastNotification.show(WindowManager.getInstance().getWindow("MainController"),
             "Cambios aplicados");
@@ -1302,11 +1346,10 @@ public class MainController {
   }
 
   /**
-   * Método que se activa al hacer clic en el botón "Añadir". Incrementa el
-   * contador de gráficos
-   * (grhCount) en el grhDataManager, crea un nuevo objeto grhData con valores
-   * predeterminados y lo
-   * agrega tanto al ListView como al grhList.
+   * Método que se activa al hacer clic en el botón "Añadir". Asigna el primer ID
+   * libre, amplía el contador de gráficos (grhCount) en el grhDataManager si hace
+   * falta, crea un nuevo objeto grhData con valores predeterminados y lo agrega
+   * tanto al ListView como al grhList.
    *
    * @throws IllegalArgumentException Si ocurre algún error al obtener el contador
    *                                  de gráficos del
@@ -1314,16 +1357,15 @@ public class MainController {
    */
   @FXML
   private void btnAdd_OnAction() {
-    int grhCount = dataManager.getGrhCount() + 1;
-
-    // Incrementar el contador de grhDataManager
-    dataManager.setGrhCount(grhCount);
+    // Usar el primer hueco libre y ampliar el contador solo si queda por encima
+    int newId = dataManager.findFreeGrhRange(1);
+    dataManager.growGrhCount(newId);
 
     // Crear un nuevo objeto grhData con los valores adecuados
-    GrhData newGrhData = new GrhData(grhCount, (short) 1, 0, (short) 0, (short) 0, (short) 0, (short) 0);
+    GrhData newGrhData = new GrhData(newId, (short) 1, 0, (short) 0, (short) 0, (short) 0, (short) 0);
 
     // Agregar el nuevo elemento al ListView
-    lstIndices.getItems().add(String.valueOf(grhCount));
+    lstIndices.getItems().add(String.valueOf(newId));
 
     // Agregar el nuevo elemento al grhList
     grhList.add(newGrhData);
@@ -1650,6 +1692,7 @@ public class MainController {
       target.setsY(copiedGrh.getsY());
       target.setTileWidth(copiedGrh.getTileWidth());
       target.setTileHeight(copiedGrh.getTileHeight());
+      LiveValidator.getInstance().grhChanged(target);
       updateEditor(target);
       logger.info("Propiedades pegadas en Grh " + target.getGrh());
     }
@@ -1660,7 +1703,7 @@ public class MainController {
     int index = lstIndices.getSelectionModel().getSelectedIndex();
     if (index >= 0) {
       GrhData source = grhList.get(index);
-      int newId = dataManager.getGrhCount() + 1;
+      int newId = dataManager.findFreeGrhRange(1);
       GrhData newGrh = new GrhData(newId, source.getNumFrames(), source.getFileNum(),
           source.getsX(), source.getsY(), source.getTileWidth(), source.getTileHeight());
       if (source.getNumFrames() > 1) {
@@ -1668,8 +1711,7 @@ public class MainController {
         newGrh.setSpeed(source.getSpeed());
       }
       grhList.add(newGrh);
-      grhDataMap.put(newId, newGrh);
-      dataManager.setGrhCount(newId);
+      dataManager.growGrhCount(newId);
       lstIndices.getItems()
           .add(String.valueOf(newId) + (newGrh.getNumFrames() > 1 ? " (Animación)" : ""));
       lstIndices.getSelectionModel().selectLast();
@@ -1713,15 +1755,14 @@ public class MainController {
 
   @FXML
   public void btnAdd_OnAction(ActionEvent actionEvent) {
-    int newId = dataManager.getGrhCount() + 1;
+    int newId = dataManager.findFreeGrhRange(1);
     GrhData newGrh = new GrhData();
     newGrh.setGrh(newId);
     newGrh.setFileNum(0);
     newGrh.setNumFrames((short) 1);
 
     grhList.add(newGrh);
-    grhDataMap.put(newId, newGrh);
-    dataManager.setGrhCount(newId);
+    dataManager.growGrhCount(newId);
 
     lstIndices.getItems().add(String.valueOf(newId));
     lstIndices.getSelectionModel().selectLast();
@@ -1798,6 +1839,7 @@ public class MainController {
             // Establecer el nuevo array utilizando el método setFrames(), si está
             // disponible
             grhList.get(selectedIndex).setFrames(newFrames);
+            LiveValidator.getInstance().grhChanged(grhList.get(selectedIndex));
 
             updateEditor(grhList.get(selectedIndex));
 
@@ -1869,6 +1911,7 @@ public class MainController {
 
           // Disminuimos el número de frames en el objeto grhData
           selectedGrh.setNumFrames((short) (selectedGrh.getNumFrames() - 1));
+          LiveValidator.getInstance().grhChanged(selectedGrh);
 
           // Actualizamos el editor con el objeto grhData modificado
           updateEditor(selectedGrh);
@@ -1930,27 +1973,11 @@ public class MainController {
   }
 
   private int buscarGrhLibres(int numGrhLibres) {
-    int contador = 0;
-
-    // Buscar secuencias de Grh libres en grhList
-    for (int i = 1; i < dataManager.getGrhCount(); i++) {
-      GrhData currentGrh = grhDataMap.get(i);
-
-      if (currentGrh == null) { // Determina si el Grh está libre
-        contador++;
-
-        if (contador == numGrhLibres) {
-
-          return i;
-
-        }
-      } else {
-        contador = 0;
-      }
-    }
-
-    return 0;
+    // Primer hueco que admite la secuencia completa
+    int ultimo = dataManager.findFreeGrhRange(numGrhLibres) + numGrhLibres - 1;
 
+    // Solo cuentan los huecos dentro del índice, no los IDs tras el último
+    return ultimo < dataManager.getGrhCount() ? ultimo : 0;
   }
 
   /**
@@ -2015,6 +2042,139 @@ public class MainController {
     }
   }
 
+  /**
+   * Auto-indexa como GRH estáticos todas las imágenes de un rango de la carpeta de gráficos, como
+   * objetos o cortando superficies por la rejilla que se deduce de cada hoja. La detección se hace
+   * en segundo plano y los GRH se añaden juntos, como una sola acción que se puede deshacer, tras
+   * confirmar el resumen.
+   */
+  @FXML
+  private void mnuAutoIndexBatch_OnAction() {
+    TextInputDialog dialog = new TextInputDialog();
+    dialog.setTitle("Auto-Indexar Carpeta");
+    dialog.setHeaderText("Rango de imágenes a indexar (ej: 100-250).\nDéjalo vacío para toda la carpeta.");
+    dialog.setContentText("Imágenes:");
+    Main.setAppIcon((Stage) dialog.getDialogPane().getScene().getWindow());
+
+    Optional<String> input = dialog.showAndWait();
+    if (!input.isPresent()) {
+      return;
+    }
+
+    int from = 1;
+    int to = Integer.MAX_VALUE;
+    String range = input.get().trim();
+    try {
+      if (!range.isEmpty()) {
+        String[] parts = range.split("-", 2);
+        from = Integer.parseInt(parts[0].trim());
+        to = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : from;
+      }
+    } catch (NumberFormatException e) {
+      showErrorAlert("Error", "Rango inválido: " + range);
+      return;
+    }
+
+    int[] fileNums = graphicsIndex.getFileNums(from, to);
+    if (fileNums.length == 0) {
+      showWarningAlert("Sin imágenes", "No hay imágenes en ese rango.");
+      return;
+    }
+
+    String objects = "Objetos";
+    String surfaces = "Superficies (rejilla automática)";
+    ChoiceDialog<String> modeDialog = new ChoiceDialog<>(objects, objects, surfaces);
+    modeDialog.setTitle("Auto-Indexar Carpeta");
+    modeDialog.setHeaderText("¿Cómo se cortan las " + fileNums.length + " imágenes?");
+    modeDialog.setContentText("Modo:");
+    Main.setAppIcon((Stage) modeDialog.getDialogPane().getScene().getWindow());
+    Optional<String> mode = modeDialog.showAndWait();
+    if (!mode.isPresent()) {
+      return;
+    }
+    boolean tiles = surfaces.equals(mode.get());
+
+    BatchAutoIndexer batch = BatchAutoIndexer.getInstance();
+    runAsyncTask(() -> {
+      java.util.function.IntConsumer progress = done -> Platform.runLater(() -> lblStatus.setText(
+          "Auto-indexando imágenes... " + done + "/" + fileNums.length));
+      // En modo objetos, mismos parámetros que el modo Objeto del asistente
+      BatchAutoIndexer.BatchResult result = tiles
+          ? batch.detectTiles(fileNums, progress)
+          : batch.detect(fileNums, 2, 16, false, progress);
+      Platform.runLater(() -> confirmBatchAutoIndex(result));
+    }, "Auto-indexando " + fileNums.length + " imágenes...", "Detección por lotes terminada");
+  }
+
+  /**
+   * Muestra el resumen de un lote y, si se acepta, añade todos sus GRH como una sola acción.
+   */
+  private void confirmBatchAutoIndex(BatchAutoIndexer.BatchResult result) {
+    if (result.getSpriteCount() == 0) {
+      showWarningAlert("Auto-Indexar Carpeta", "No se detectaron sprites en " + result.getSheets().size()
+          + " imágenes.");
+      return;
+    }
+
+    StringBuilder errors = new StringBuilder();
+    for (BatchAutoIndexer.SheetResult sheet : result.getSheets()) {
+      if (sheet.getError() != null) {
+        errors.append("\n  ").append(sheet.getFileNum()).append(": ").append(sheet.getError());
+      }
+    }
+
+    Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+    alert.setTitle("Auto-Indexar Carpeta");
+    alert.setHeaderText("Se detectaron " + result.getSpriteCount() + " sprites en "
+        + result.getSheets().size() + " imágenes. ¿Deseas importarlos?");
+    alert.setContentText(String.format("Tiempo: %d ms (%.1f imágenes/s)%nDecodificación: %d ms"
+            + "%nDetección: %d ms%nErrores: %d%s",
+        result.getElapsedMillis(), result.getSheetsPerSecond(), result.getTotalDecodeMillis(),
+        result.getTotalDetectMillis(), result.getFailedCount(), errors));
+    Main.setAppIcon((Stage) alert.getDialogPane().getScene().getWindow());
+
+    Optional<ButtonType> answer = alert.showAndWait();
+    if (!answer.isPresent() || answer.get() != ButtonType.OK) {
+      return;
+    }
+
+    List<GrhData> created = BatchAutoIndexer.getInstance().createGrhs(result, dataManager);
+    Set<GrhData> createdSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    createdSet.addAll(created);
+    Set<String> createdLabels = new HashSet<>();
+    int maxId = 0;
+    for (GrhData grh : created) {
+      createdLabels.add(String.valueOf(grh.getGrh()));
+      maxId = Math.max(maxId, grh.getGrh());
+    }
+    int lastId = maxId;
+
+    UndoManager.getInstance().executeAction(new UndoManager.UndoableAction() {
+      @Override
+      public void execute() {
+        // Una sola notificación a la lista para todo el lote
+        grhList.addAll(created);
+        dataManager.growGrhCount(lastId);
+      }
+
+      @Override
+      public void undo() {
+        lstIndices.getItems().removeAll(createdLabels);
+        grhList.removeAll(createdSet);
+      }
+
+      @Override
+      public String getDescription() {
+        return "Auto-indexar " + result.getSheets().size() + " imágenes";
+      }
+    });
+    updateUndoRedoStatus();
+
+    ToastNotification.show(txtIndice.getScene().getWindow(),
+        "¡Éxito! Se crearon " + created.size() + " índices en " + result.getSheets().size()
+            + " imágenes.");
+  }
+
   // ========== AUTO-INDEXAR: MODOS ==========
 
   // Public wrapper methods for Wizard
@@ -2089,24 +2249,30 @@ public class MainController {
       // Si es superficies, aplicar split ANTES de la preview para que el usuario vea
       // la rejilla
       if (type != null && type.toLowerCase().startsWith("superficie")) {
-        // Obtenemos el PixelReader de la imagen actual cargada para filtrar tiles
-        // vacíos
-        PixelReader reader = null;
+        // Tabla de opacidad de la hoja, calculada una vez, para filtrar tiles vacíos
+        OpacityTable opacity = null;
+        // Rejilla deducida de la propia hoja; si no se repite nada se usan tiles de 32x32
+        GridPitchDetector.Grid grid = null;
         try {
-          String imagePath = configManager.getGraphicsDir() + fileNum + ".png";
-          if (!new java.io.File(imagePath).exists()) {
-            imagePath = configManager.getGraphicsDir() + fileNum + ".bmp";
-          }
-          Image img = imageCache.getImage(imagePath);
-          if (img != null) {
-            reader = img.getPixelReader();
-          }
+          int[] argb = ImageUtils.readArgb(result.image);
+          int imgW = (int) result.image.getWidth();
+          int imgH = (int) result.image.getHeight();
+          opacity = new OpacityTable(argb, imgW, imgH);
+          grid = GridPitchDetector.detect(argb, imgW, imgH);
         } catch (Exception e) {
           logger.error("Error loading image for tiling check", e);
         }
 
-        result.regions = org.nexus.indexador.utils.AutoTilingService.getInstance()
-            .splitRegions(result.regions, 32, 32, atlasCols, atlasRows, reader);
+        if (grid != null) {
+          logger.info("Rejilla deducida: " + grid.getTileWidth() + "x" + grid.getTileHeight()
+              + " desde (" + grid.getOffsetX() + ", " + grid.getOffsetY() + ")");
+          result.regions = org.nexus.indexador.utils.AutoTilingService.getInstance()
+              .splitRegions(result.regions, grid.getTileWidth(), grid.getTileHeight(), grid.getOffsetX(),
+                  grid.getOffsetY(), atlasCols, atlasRows, opacity);
+        } else {
+          result.regions = org.nexus.indexador.utils.AutoTilingService.getInstance()
+              .splitRegions(result.regions, 32, 32, atlasCols, atlasRows, opacity);
+        }
       }
 
       // Normalization check for Animations and Bodies
@@ -2159,8 +2325,10 @@ public class MainController {
             // No volver a splitear o causaremos recursión de división (32px -> 10px).
             createdIds = createStaticGrhs(result.regions, fileNum);
 
+            String gridSize = result.regions.isEmpty() ? "" : " (Grid " + (int) result.regions.get(0).getWidth()
+                + "x" + (int) result.regions.get(0).getHeight() + ")";
             org.nexus.indexador.utils.ToastNotification.show(txtIndice.getScene().getWindow(),
-                "¡Éxito! Se crearon (Grid 32x32) " + createdIds.size() + " índices.");
+                "¡Éxito! Se crearon" + gridSize + " " + createdIds.size() + " índices.");
           } else {
             createdIds = createStaticGrhs(result.regions, fileNum);
             org.nexus.indexador.utils.ToastNotification.show(txtIndice.getScene().getWindow(),
@@ -2172,16 +2340,10 @@ public class MainController {
   }
 
   private ImageDetectionResult loadAndDetectSpritesDirect(int fileNum, int tolX, int tolY, boolean enableGridSplit) {
-    String imagePath = configManager.getGraphicsDir() + File.separator + fileNum + ".png";
-
-    File f = new File(imagePath);
-    if (!f.exists()) {
-      imagePath = configManager.getGraphicsDir() + File.separator + fileNum + ".bmp";
-      f = new File(imagePath);
-      if (!f.exists()) {
-        showErrorAlert("Error", "No se encontró la imagen: " + fileNum);
-        return null;
-      }
+    String imagePath = graphicsIndex.getImagePath(fileNum);
+    if (imagePath == null) {
+      showErrorAlert("Error", "No se encontró la imagen: " + fileNum);
+      return null;
     }
 
     Image image = imageCache.getImage(imagePath);
@@ -2212,16 +2374,10 @@ public class MainController {
 
     try {
       int fileNum = Integer.parseInt(result.get());
-      String imagePath = configManager.getGraphicsDir() + File.separator + fileNum + ".png";
-
-      File f = new File(imagePath);
-      if (!f.exists()) {
-        imagePath = configManager.getGraphicsDir() + File.separator + fileNum + ".bmp";
-        f = new File(imagePath);
-        if (!f.exists()) {
-          showErrorAlert("Error", "No se encontró la imagen: " + fileNum);
-          return null;
-        }
+      String imagePath = graphicsIndex.getImagePath(fileNum);
+      if (imagePath == null) {
+        showErrorAlert("Error", "No se encontró la imagen: " + fileNum);
+        return null;
       }
 
       Image image = imageCache.getImage(imagePath);
@@ -2293,8 +2449,14 @@ public class MainController {
    * creados.
    */
   private List<Integer> createStaticGrhs(List<Rectangle> regions, int fileNum) {
-    int startId = dataManager.getGrhCount() + 1;
     List<Integer> createdIds = new ArrayList<>();
+    if (regions.isEmpty()) {
+      return createdIds;
+    }
+
+    // Los sprites de una misma hoja ocupan IDs consecutivos, rellenando huecos si caben
+    int startId = dataManager.findFreeGrhRange(regions.size());
+    List<GrhData> created = new ArrayList<>(regions.size());
 
     for (int i = 0; i < regions.size(); i++) {
       Rectangle r = regions.get(i);
@@ -2309,13 +2471,13 @@ public class MainController {
       newGrh.setTileHeight((short) r.getHeight());
       newGrh.setNumFrames((short) 1);
 
-      grhList.add(newGrh);
-      if (grhDataMap != null)
-        grhDataMap.put(grhId, newGrh);
+      created.add(newGrh);
       createdIds.add(grhId);
     }
 
-    dataManager.setGrhCount(dataManager.getGrhCount() + createdIds.size());
+    // Una sola notificación a la lista en lugar de una por sprite
+    grhList.addAll(created);
+    dataManager.growGrhCount(startId + regions.size() - 1);
     return createdIds;
   }
 
@@ -2324,7 +2486,12 @@ public class MainController {
    */
   private int createAnimationGrhs(List<Integer> staticIds, int framesPerAnim, int fileNum) {
     int animCount = 0;
-    int currentId = dataManager.getGrhCount();
+    int total = staticIds.size() / framesPerAnim;
+    if (total == 0) {
+      return 0;
+    }
+    int currentId = dataManager.findFreeGrhRange(total) - 1;
+    List<GrhData> created = new ArrayList<>(total);
 
     for (int i = 0; i < staticIds.size(); i += framesPerAnim) {
       if (i + framesPerAnim > staticIds.size())
@@ -2345,13 +2512,12 @@ public class MainController {
       animGrh.setFrames(frames);
       animGrh.setSpeed(120.0f);
 
-      grhList.add(animGrh);
-      if (grhDataMap != null)
-        grhDataMap.put(currentId, animGrh);
+      created.add(animGrh);
       animCount++;
     }
 
-    dataManager.setGrhCount(currentId);
+    grhList.addAll(created);
+    dataManager.growGrhCount(currentId);
     return animCount;
   }
 
@@ -2446,7 +2612,7 @@ public class MainController {
 
   /** Crea una sola animación GRH a partir de IDs */
   private void createSingleAnimation(List<Integer> frameIds, int fileNum) {
-    int currentId = dataManager.getGrhCount() + 1;
+    int currentId = dataManager.findFreeGrhRange(1);
 
     GrhData animGrh = new GrhData();
     animGrh.setGrh(currentId);
@@ -2463,9 +2629,7 @@ public class MainController {
     animGrh.setSpeed(120.0f);
 
     grhList.add(animGrh);
-    if (grhDataMap != null)
-      grhDataMap.put(currentId, animGrh);
-    dataManager.setGrhCount(currentId);
+    dataManager.growGrhCount(currentId);
   }
 
   /**
@@ -2507,16 +2671,10 @@ public class MainController {
 
     try {
       int fileNum = Integer.parseInt(fileResult.get());
-      String imagePath = configManager.getGraphicsDir() + File.separator + fileNum + ".png";
-
-      File f = new File(imagePath);
-      if (!f.exists()) {
-        imagePath = configManager.getGraphicsDir() + File.separator + fileNum + ".bmp";
-        f = new File(imagePath);
-        if (!f.exists()) {
-          showErrorAlert("Error", "No se encontró la imagen.");
-          return;
-        }
+      String imagePath = graphicsIndex.getImagePath(fileNum);
+      if (imagePath == null) {
+        showErrorAlert("Error", "No se encontró la imagen.");
+        return;
       }
 
       Image image = imageCache.getImage(imagePath);
@@ -2632,16 +2790,10 @@ public class MainController {
 
     try {
       int fileNum = Integer.parseInt(fileResult.get());
-      String imagePath = configManager.getGraphicsDir() + File.separator + fileNum + ".png";
-
-      File f = new File(imagePath);
-      if (!f.exists()) {
-        imagePath = configManager.getGraphicsDir() + File.separator + fileNum + ".bmp";
-        f = new File(imagePath);
-        if (!f.exists()) {
-          showErrorAlert("Error", "No se encontró la imagen.");
-          return;
-        }
+      String imagePath = graphicsIndex.getImagePath(fileNum);
+      if (imagePath == null) {
+        showErrorAlert("Error", "No se encontró la imagen.");
+        return;
       }
 
       Image image = imageCache.getImage(imagePath);
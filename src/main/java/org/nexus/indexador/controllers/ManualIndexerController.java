@@ -18,10 +18,13 @@ import javafx.stage.FileChooser;
 import org.nexus.indexador.gamedata.DataManager;
 import org.nexus.indexador.gamedata.models.GrhData;
 import org.nexus.indexador.utils.ConfigManager;
+import org.nexus.indexador.utils.GridPitchDetector;
 import org.nexus.indexador.utils.Logger;
+import org.nexus.indexador.utils.OpacityTable;
 import org.nexus.indexador.utils.ToastNotification;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -205,6 +208,7 @@ public class ManualIndexerController {
             selectionCanvas.setWidth(w);
             selectionCanvas.setHeight(h);
 
+            applyDetectedGrid(img);
             drawGrid();
             clearSelection();
 
@@ -217,6 +221,26 @@ public class ManualIndexerController {
         }
     }
 
+    /**
+     * Rellena los controles de la rejilla con la que se deduce de la hoja. Si la hoja no muestra
+     * un patrón que se repita, se mantienen los valores actuales.
+     */
+    private void applyDetectedGrid(Image img) {
+        if (img.isError() || img.getWidth() <= 0 || img.getHeight() <= 0)
+            return;
+
+        GridPitchDetector.Grid grid = GridPitchDetector.detect(img);
+        if (grid == null)
+            return;
+
+        spnGridW.getValueFactory().setValue(grid.getTileWidth());
+        spnGridH.getValueFactory().setValue(grid.getTileHeight());
+        spnOffX.getValueFactory().setValue(grid.getOffsetX());
+        spnOffY.getValueFactory().setValue(grid.getOffsetY());
+        logger.info("Rejilla deducida: " + grid.getTileWidth() + "x" + grid.getTileHeight()
+                + " desde (" + grid.getOffsetX() + ", " + grid.getOffsetY() + ")");
+    }
+
     @FXML
     private void onOpenImage() {
         FileChooser fc = new FileChooser();
@@ -307,6 +331,8 @@ public class ManualIndexerController {
         }
 
         int itemsFound = 0;
+        // Las celdas sin ningún píxel opaco no generan GRH
+        OpacityTable opacity = OpacityTable.of(img);
 
         for (int y = offY; y < h; y += gridH) {
             for (int x = offX; x < w; x += gridW) {
@@ -318,7 +344,7 @@ public class ManualIndexerController {
                 short pW = (short) (endX - x);
                 short pH = (short) (endY - y);
 
-                if (pW > 0 && pH > 0) {
+                if (pW > 0 && pH > 0 && opacity.hasOpaque(x, y, pW, pH)) {
                     GrhData newGrh = new GrhData(0, (short) 1, currentFileNum, sX, sY, pW, pH);
                     stagingList.add(newGrh);
                     itemsFound++;
@@ -327,6 +353,11 @@ public class ManualIndexerController {
         }
 
         if (itemsFound > 0) {
+            try {
+                renumberStaging(DataManager.getInstance());
+            } catch (IOException e) {
+                logger.error("No se pudo numerar la rejilla", e);
+            }
             ToastNotification.show(imageView.getScene().getWindow(), "¡Se han generado " + itemsFound + " cuadros!");
             if (!stagingList.isEmpty()) {
                 int firstNewIndex = stagingList.size() - itemsFound;
@@ -358,16 +389,16 @@ public class ManualIndexerController {
             return;
         }
 
-        int nextId = dm.getNextFreeGrhIndex() + stagingList.size();
         int blobsFound = 0;
 
         for (javafx.scene.shape.Rectangle r : regions) {
-            GrhData grh = new GrhData(nextId++, (short) 1, currentFileNum,
+            GrhData grh = new GrhData(0, (short) 1, currentFileNum,
                     (short) r.getX(), (short) r.getY(),
                     (short) r.getWidth(), (short) r.getHeight());
             stagingList.add(grh);
             blobsFound++;
         }
+        renumberStaging(dm);
 
         if (blobsFound > 0) {
             ToastNotification.show(imageView.getScene().getWindow(),
@@ -415,12 +446,10 @@ public class ManualIndexerController {
             return;
         }
 
-        int baseId = dm.getNextFreeGrhIndex();
-        int newId = baseId + stagingList.size();
-
-        GrhData grh = new GrhData(newId, (short) 1, currentFileNum, (short) x, (short) y, (short) w, (short) h);
+        GrhData grh = new GrhData(0, (short) 1, currentFileNum, (short) x, (short) y, (short) w, (short) h);
 
         stagingList.add(grh);
+        renumberStaging(dm);
         clearSelection();
         lstStaging.scrollTo(grh);
     }
@@ -453,6 +482,8 @@ public class ManualIndexerController {
         } catch (Exception e) {
             return;
         }
+        // Los IDs libres pueden haber cambiado desde que se prepararon los índices
+        renumberStaging(dm);
         int count = 0;
         for (GrhData grh : stagingList) {
             dm.addGrh(grh);
@@ -462,6 +493,20 @@ public class ManualIndexerController {
         ToastNotification.show(imageView.getScene().getWindow(), "¡Se guardaron " + count + " índices!");
     }
 
+    /**
+     * Asigna a los índices temporales el primer bloque de IDs consecutivos libres que los admite
+     * a todos, rellenando huecos del índice si es posible.
+     */
+    private void renumberStaging(DataManager dm) {
+        if (stagingList.isEmpty())
+            return;
+        int baseId = dm.findFreeGrhRange(stagingList.size());
+        for (int i = 0; i < stagingList.size(); i++) {
+            stagingList.get(i).setGrh(baseId + i);
+        }
+        lstStaging.refresh();
+    }
+
     private void clearSelection() {
         startX = 0;
         startY = 0;
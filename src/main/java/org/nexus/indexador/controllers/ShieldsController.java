@@ -1,8 +1,5 @@
 package org.nexus.indexador.controllers;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -14,16 +11,17 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.image.WritableImage;
 
-import javafx.util.Duration;
 import org.nexus.indexador.gamedata.DataManager;
+import org.nexus.indexador.gamedata.GrhIndex;
 import org.nexus.indexador.gamedata.models.GrhData;
 import org.nexus.indexador.gamedata.models.ShieldData;
 import org.nexus.indexador.utils.AnimationState;
 import org.nexus.indexador.utils.ConfigManager;
+import org.nexus.indexador.utils.GraphicsIndex;
 import org.nexus.indexador.utils.ImageCache;
+import org.nexus.indexador.utils.LiveValidator;
 import org.nexus.indexador.utils.Logger;
 
-import java.io.File;
 import java.io.IOException;
 
 import java.util.HashMap;
@@ -67,12 +65,13 @@ public class ShieldsController {
   private ConfigManager configManager;
   private DataManager dataManager;
   private ImageCache imageCache;
+  private GraphicsIndex graphicsIndex;
   private Logger logger;
 
   private Map<Integer, AnimationState> animationStates = new HashMap<>();
 
   // Mapa para búsqueda rápida de datos Grh
-  private Map<Integer, GrhData> grhDataMap;
+  private GrhIndex grhIndex;
 
   /**
    * Inicializa el controlador, cargando la configuración y los datos de los
@@ -84,6 +83,7 @@ public class ShieldsController {
     try {
       dataManager = DataManager.getInstance();
       imageCache = ImageCache.getInstance();
+      graphicsIndex = GraphicsIndex.getInstance();
       logger = Logger.getInstance();
 
       logger.info("Inicializando controlador ShieldsController");
@@ -114,16 +114,10 @@ public class ShieldsController {
       // Obtener lista de escudos
       shieldList = dataManager.readShieldFile();
 
-      // Inicializar el mapa de grhData
-      grhDataMap = new HashMap<>();
+      grhIndex = dataManager.getGrhIndex();
 
       grhList = dataManager.getGrhList();
 
-      // Llenar el mapa con los datos de grhList
-      for (GrhData grh : grhList) {
-        grhDataMap.put(grh.getGrh(), grh);
-      }
-
       // Actualizar el texto de los labels con la información obtenida
       lblNEscudos.setText("Escudos cargados: " + dataManager.getNumShields());
 
@@ -209,36 +203,11 @@ public class ShieldsController {
     int[] bodies = selectedShield.getShield();
 
     // Obtenemos el Grh de animación desde el indice del shield + el heading
-    GrhData selectedGrh = grhDataMap.get(bodies[heading]);
-
-    int nFrames = selectedGrh.getNumFrames();
-
-    AnimationState animationState = animationStates.get(heading);
-    Timeline animationTimeline = animationState.getTimeline();
-
-    if (animationTimeline != null) {
-      animationTimeline.stop();
-    }
-
-    animationTimeline.getKeyFrames().clear();
-    animationState.setCurrentFrameIndex(1); // Reiniciar el índice del frame a 1
-
-    animationTimeline.getKeyFrames().add(new KeyFrame(Duration.ZERO, event -> {
-      // Actualizar la imagen en el ImageView con el frame actual
-      updateFrame(selectedGrh, heading);
-      animationState.setCurrentFrameIndex((animationState.getCurrentFrameIndex() + 1) % nFrames); // Avanzar
-                                                                                                  // al
-                                                                                                  // siguiente
-                                                                                                  // frame
-                                                                                                  // circularmente
-      if (animationState.getCurrentFrameIndex() == 0) {
-        animationState.setCurrentFrameIndex(1); // Omitir la posición 0
-      }
-    }));
+    GrhData selectedGrh = grhIndex.get(bodies[heading]);
 
-    animationTimeline.getKeyFrames().add(new KeyFrame(Duration.millis(100)));
-    animationTimeline.setCycleCount(Animation.INDEFINITE);
-    animationTimeline.play();
+    // El reloj compartido avanza los frames según la velocidad del GRH
+    animationStates.get(heading).start(imgSur, selectedGrh.getNumFrames(), selectedGrh.getSpeed(),
+        () -> updateFrame(selectedGrh, heading));
 
     logger.debug("Animación iniciada para dirección " + heading);
   }
@@ -250,26 +219,21 @@ public class ShieldsController {
    * @param heading     La dirección actual.
    */
   private void updateFrame(GrhData selectedGrh, int heading) {
-    int[] frames = selectedGrh.getFrames();
-
     AnimationState animationState = animationStates.get(heading);
     int currentFrameIndex = animationState.getCurrentFrameIndex();
 
-    if (currentFrameIndex >= 0 && currentFrameIndex < frames.length) {
-      int frameId = frames[currentFrameIndex];
+    if (currentFrameIndex >= 0 && currentFrameIndex <= selectedGrh.getNumFrames()) {
+      // getFrame lee el frame sin copiar el array en cada tick
+      int frameId = selectedGrh.getFrame(currentFrameIndex);
 
       // Buscar el GrhData correspondiente al frameId utilizando el mapa
-      GrhData currentGrh = grhDataMap.get(frameId);
+      GrhData currentGrh = grhIndex.get(frameId);
 
       if (currentGrh != null) {
-        String imagePath = configManager.getGraphicsDir() + currentGrh.getFileNum() + ".png";
-
-        if (!new File(imagePath).exists()) {
-          imagePath = configManager.getGraphicsDir() + currentGrh.getFileNum() + ".bmp";
-        }
+        String imagePath = graphicsIndex.getImagePath(currentGrh.getFileNum());
 
         // Obtener imagen desde el caché
-        Image frameImage = imageCache.getImage(imagePath);
+        Image frameImage = imagePath != null ? imageCache.getImage(imagePath) : null;
 
         if (frameImage != null) {
           // Obtener la imagen recortada del caché
@@ -315,6 +279,7 @@ public class ShieldsController {
         grhs[2] = Integer.parseInt(txtSur.getText());
         grhs[3] = Integer.parseInt(txtOeste.getText());
         data.setShield(grhs);
+        LiveValidator.getInstance().entityChanged(LiveValidator.SHIELD, selectedIndex, grhs);
 
         logger.info("Cambios aplicados en memoria para el escudo " + (selectedIndex + 1));
 
@@ -1,8 +1,5 @@
 package org.nexus.indexador.controllers;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
@@ -14,16 +11,17 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.image.WritableImage;
 
-import javafx.util.Duration;
 import org.nexus.indexador.gamedata.DataManager;
+import org.nexus.indexador.gamedata.GrhIndex;
 import org.nexus.indexador.gamedata.models.GrhData;
 import org.nexus.indexador.gamedata.models.WeaponData;
 import org.nexus.indexador.utils.AnimationState;
 import org.nexus.indexador.utils.ConfigManager;
+import org.nexus.indexador.utils.GraphicsIndex;
 import org.nexus.indexador.utils.ImageCache;
+import org.nexus.indexador.utils.LiveValidator;
 import org.nexus.indexador.utils.Logger;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
@@ -69,10 +67,11 @@ public class WeaponsController {
   private ConfigManager configManager;
   private DataManager dataManager;
   private ImageCache imageCache;
+  private GraphicsIndex graphicsIndex;
   private Logger logger;
 
   private Map<Integer, AnimationState> animationStates = new HashMap<>();
-  private Map<Integer, GrhData> grhDataMap;
+  private GrhIndex grhIndex;
 
   /**
    * Inicializa el controlador, cargando dependencias y datos.
@@ -83,6 +82,7 @@ public class WeaponsController {
     try {
       dataManager = DataManager.getInstance();
       imageCache = ImageCache.getInstance();
+      graphicsIndex = GraphicsIndex.getInstance();
       logger = Logger.getInstance();
 
       logger.info("Inicializando controlador WeaponsController");
@@ -110,14 +110,9 @@ public class WeaponsController {
   private void loadWeaponData() {
     try {
       weaponList = dataManager.readWeaponFile();
-      grhDataMap = new HashMap<>();
+      grhIndex = dataManager.getGrhIndex();
       grhList = dataManager.getGrhList();
 
-      // Mapear GRHs para acceso rápido
-      for (GrhData grh : grhList) {
-        grhDataMap.put(grh.getGrh(), grh);
-      }
-
       lblNArmas.setText("Armas cargadas: " + dataManager.getNumWeapons());
 
       ObservableList<String> weaponIndices = FXCollections.observableArrayList();
@@ -189,39 +184,16 @@ public class WeaponsController {
     int[] indices = selectedWeapon.getGrhIndex();
     int grhId = indices[heading];
 
-    if (grhId <= 0 || !grhDataMap.containsKey(grhId)) {
+    if (grhId <= 0 || !grhIndex.contains(grhId)) {
+      animationStates.get(heading).stop();
       clearImage(heading);
       return;
     }
 
-    GrhData selectedGrh = grhDataMap.get(grhId);
-    int nFrames = selectedGrh.getNumFrames();
-
-    AnimationState animationState = animationStates.get(heading);
-    Timeline animationTimeline = animationState.getTimeline();
-
-    if (animationTimeline != null) {
-      animationTimeline.stop();
-    }
-
-    if (nFrames > 1) {
-      // Configurar animación si tiene múltiples frames
-      animationTimeline.getKeyFrames().clear();
-      animationState.setCurrentFrameIndex(1);
-      animationTimeline.getKeyFrames().add(new KeyFrame(Duration.ZERO, event -> {
-        updateFrame(selectedGrh, heading);
-        animationState
-            .setCurrentFrameIndex((animationState.getCurrentFrameIndex() + 1) % (nFrames + 1));
-        if (animationState.getCurrentFrameIndex() == 0)
-          animationState.setCurrentFrameIndex(1);
-      }));
-      animationTimeline.getKeyFrames().add(new KeyFrame(Duration.millis(100)));
-      animationTimeline.setCycleCount(Animation.INDEFINITE);
-      animationTimeline.play();
-    } else {
-      // Imagen estática
-      updateFrame(selectedGrh, heading);
-    }
+    GrhData selectedGrh = grhIndex.get(grhId);
+    // Estático o animado: el reloj compartido solo avanza si hay más de un frame
+    animationStates.get(heading).start(imgSur, selectedGrh.getNumFrames(), selectedGrh.getSpeed(),
+        () -> updateFrame(selectedGrh, heading));
   }
 
   private void updateFrame(GrhData selectedGrh, int heading) {
@@ -233,14 +205,11 @@ public class WeaponsController {
       frameId = selectedGrh.getGrh();
     }
 
-    GrhData currentGrh = grhDataMap.get(frameId);
+    GrhData currentGrh = grhIndex.get(frameId);
     if (currentGrh != null) {
-      String imagePath = configManager.getGraphicsDir() + currentGrh.getFileNum() + ".png";
-      if (!new File(imagePath).exists()) {
-        imagePath = configManager.getGraphicsDir() + currentGrh.getFileNum() + ".bmp";
-      }
+      String imagePath = graphicsIndex.getImagePath(currentGrh.getFileNum());
 
-      Image frameImage = imageCache.getImage(imagePath);
+      Image frameImage = imagePath != null ? imageCache.getImage(imagePath) : null;
       if (frameImage != null) {
         WritableImage croppedImage = imageCache.getCroppedImage(imagePath, currentGrh.getsX(),
             currentGrh.getsY(), currentGrh.getTileWidth(), currentGrh.getTileHeight());
@@ -286,6 +255,8 @@ public class WeaponsController {
         data.getGrhIndex()[1] = Integer.parseInt(txtEste.getText());
         data.getGrhIndex()[2] = Integer.parseInt(txtSur.getText());
         data.getGrhIndex()[3] = Integer.parseInt(txtOeste.getText());
+        LiveValidator.getInstance().entityChanged(LiveValidator.WEAPON, selectedIndex,
+            data.getGrhIndex());
 
         logger.info("Cambios aplicados en memoria para el arma " + (selectedIndex + 1));
 
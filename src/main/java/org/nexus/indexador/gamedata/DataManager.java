@@ -1,17 +1,21 @@
 package org.nexus.indexador.gamedata;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
+import org.nexus.indexador.gamedata.enums.IndexingSystem;
 import org.nexus.indexador.gamedata.loaders.IndexLoader;
 import org.nexus.indexador.gamedata.models.*;
 import org.nexus.indexador.utils.DatEditor;
 import org.nexus.indexador.utils.byteMigration;
 import org.nexus.indexador.utils.ConfigManager;
 import org.nexus.indexador.utils.Logger;
+import org.nexus.indexador.utils.ResourceResolver;
 
 import java.io.*;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DataManager {
 
@@ -23,8 +27,10 @@ public class DataManager {
   private ObservableList<FXData> fxList = FXCollections.observableArrayList();
   private ObservableList<WeaponData> weaponList = FXCollections.observableArrayList();
 
-  // Map for fast access by ID (Encapsulation of previously global sharedGrhData)
-  private final Map<Integer, GrhData> grhMap = new HashMap<>();
+  // Índice por ID compartido por todos los controladores; se mantiene sincronizado con grhList
+  private final GrhIndex grhIndex = new GrhIndex();
+  // IDs ocupados y huecos libres, sincronizado junto con el índice
+  private final GrhIdAllocator grhIds = new GrhIdAllocator();
 
   private int GrhCount;
   private int GrhVersion;
@@ -42,7 +48,8 @@ public class DataManager {
   private final Logger logger;
 
   private IndexLoader indexLoader;
-  private final Map<String, IndFileFormat> fileFormats = new HashMap<>();
+  private final Map<String, IndFileFormat> fileFormats = new ConcurrentHashMap<>();
+  private final SnapshotCache snapshotCache = new SnapshotCache(new File(SnapshotCache.DEFAULT_DIR));
 
   private static volatile DataManager instance;
 
@@ -53,6 +60,7 @@ public class DataManager {
     logger = Logger.getInstance();
 
     logger.info("DataManager inicializado");
+    grhList.addListener(this::syncGrhIndex);
     initializeIndexLoader();
   }
 
@@ -86,61 +94,101 @@ public class DataManager {
   // --- Loading Methods ---
 
   public ObservableList<GrhData> loadGrhData() throws IOException {
-    this.grhList.setAll(indexLoader.loadGrhs());
-    this.GrhCount = grhList.size();
-
-    // Populate map for O(1) access
-    grhMap.clear();
-    for (GrhData grh : grhList) {
-      grhMap.put(grh.getGrhIndex(), grh);
-    }
-
+    this.grhList.setAll(loadWithSnapshot(SnapshotCache.GRHS,
+        List.of(ResourceResolver.getGraphicsInd(configManager.getInitDir())),
+        indexLoader::loadGrhs));
+    // El contador es el ID más alto: con huecos en la numeración es mayor que el número de GRH
+    this.GrhCount = grhIndex.getMaxId();
     syncFormats();
     return grhList;
   }
 
   public ObservableList<HeadData> readHeadFile() throws IOException {
-    this.headList.setAll(indexLoader.loadHeads());
+    this.headList.setAll(loadWithSnapshot(SnapshotCache.HEADS,
+        List.of(ResourceResolver.getHeadsInd(configManager.getInitDir())),
+        indexLoader::loadHeads));
     this.NumHeads = (short) headList.size();
     syncFormats();
     return headList;
   }
 
   public ObservableList<HelmetData> readHelmetFile() throws IOException {
-    this.helmetList.setAll(indexLoader.loadHelmets());
+    this.helmetList.setAll(loadWithSnapshot(SnapshotCache.HELMETS,
+        List.of(ResourceResolver.getHelmetsInd(configManager.getInitDir())),
+        indexLoader::loadHelmets));
     this.NumHelmets = (short) helmetList.size();
     syncFormats();
     return helmetList;
   }
 
   public ObservableList<BodyData> readBodyFile() throws IOException {
-    this.bodyList.setAll(indexLoader.loadBodies());
+    this.bodyList.setAll(loadWithSnapshot(SnapshotCache.BODIES,
+        List.of(ResourceResolver.getBodiesInd(configManager.getInitDir())),
+        indexLoader::loadBodies));
     this.NumBodys = (short) bodyList.size();
     syncFormats();
     return bodyList;
   }
 
   public ObservableList<ShieldData> readShieldFile() throws IOException {
-    this.shieldList.setAll(indexLoader.loadShields());
+    // escudos.ind puede caer a Escudos.ini/.dat, así que los textos también invalidan
+    this.shieldList.setAll(loadWithSnapshot(SnapshotCache.SHIELDS,
+        List.of(ResourceResolver.getShieldsInd(configManager.getInitDir()),
+            ResourceResolver.getShieldsText(configManager.getExportDir()),
+            ResourceResolver.getShieldsText(configManager.getInitDir())),
+        indexLoader::loadShields));
     this.NumShields = (short) shieldList.size();
     syncFormats();
     return shieldList;
   }
 
   public ObservableList<FXData> readFXsdFile() throws IOException {
-    this.fxList.setAll(indexLoader.loadFXs());
+    this.fxList.setAll(loadWithSnapshot(SnapshotCache.FXS,
+        List.of(ResourceResolver.getFxsInd(configManager.getInitDir())), indexLoader::loadFXs));
     this.NumFXs = (short) fxList.size();
     syncFormats();
     return fxList;
   }
 
   public ObservableList<WeaponData> readWeaponFile() throws IOException {
-    this.weaponList.setAll(indexLoader.loadWeapons());
+    this.weaponList.setAll(loadWithSnapshot(SnapshotCache.WEAPONS,
+        List.of(ResourceResolver.getWeaponsInd(configManager.getInitDir()),
+            ResourceResolver.getWeaponsText(configManager.getExportDir()),
+            ResourceResolver.getWeaponsText(configManager.getInitDir())),
+        indexLoader::loadWeapons));
     this.NumWeapons = (short) weaponList.size();
     syncFormats();
     return weaponList;
   }
 
+  /**
+   * Carga un índice desde la caché de instantáneas si sus ficheros de origen no han cambiado;
+   * en caso contrario lo lee con el cargador y actualiza la instantánea.
+   */
+  private <T> List<T> loadWithSnapshot(SnapshotCache.Entry<T> entry, List<File> sources,
+      SourceLoader<T> loader) throws IOException {
+    IndexingSystem system = indexLoader.getSystemType();
+    SnapshotCache.Fingerprint[] fingerprints = snapshotCache.fingerprint(sources);
+
+    SnapshotCache.Snapshot<T> snapshot = snapshotCache.load(entry, system, fingerprints);
+    if (snapshot != null) {
+      if (snapshot.getFormat() != null) {
+        indexLoader.restoreFormat(entry.getFormatKey(), snapshot.getFormat());
+      }
+      return snapshot.getItems();
+    }
+
+    List<T> items = loader.load();
+    snapshotCache.store(entry, system, fingerprints, items,
+        indexLoader.getDetectedFormats().get(entry.getFormatKey()));
+    return items;
+  }
+
+  @FunctionalInterface
+  private interface SourceLoader<T> {
+    List<T> load() throws IOException;
+  }
+
   private void syncFormats() {
     if (indexLoader != null) {
       fileFormats.putAll(indexLoader.getDetectedFormats());
@@ -197,7 +245,39 @@ public class DataManager {
    * @return Objeto GrhData o null si no existe.
    */
   public GrhData getGrh(int id) {
-    return grhMap.get(id);
+    return grhIndex.get(id);
+  }
+
+  /**
+   * Obtiene el índice por ID de los gráficos cargados. Es el mismo objeto durante toda la
+   * sesión y refleja los cambios de la lista de gráficos.
+   */
+  public GrhIndex getGrhIndex() {
+    return grhIndex;
+  }
+
+  /**
+   * Mantiene el índice por ID al día con las altas y bajas de la lista de gráficos.
+   */
+  private void syncGrhIndex(ListChangeListener.Change<? extends GrhData> change) {
+    while (change.next()) {
+      if (change.getAddedSize() == change.getList().size()) {
+        // Carga completa (setAll): se reconstruye dimensionando el índice de una vez
+        grhIndex.rebuild(grhList);
+        grhIds.rebuild(grhList);
+        continue;
+      }
+      for (GrhData removed : change.getRemoved()) {
+        grhIndex.remove(removed);
+        if (!grhIndex.contains(removed.getGrh())) {
+          grhIds.release(removed.getGrh());
+        }
+      }
+      for (GrhData added : change.getAddedSubList()) {
+        grhIndex.put(added);
+        grhIds.markUsed(added.getGrh());
+      }
+    }
   }
 
   public int getGrhCount() {
@@ -208,6 +288,14 @@ public class DataManager {
     GrhCount = grhCount;
   }
 
+  /**
+   * Amplía el contador de gráficos para que cubra {@code grhId}. Al rellenar huecos el ID puede
+   * quedar por debajo del contador, que entonces no cambia.
+   */
+  public void growGrhCount(int grhId) {
+    GrhCount = Math.max(GrhCount, grhId);
+  }
+
   public int getGrhVersion() {
     return GrhVersion;
   }
@@ -439,12 +527,44 @@ public class DataManager {
    * @return El primer ID disponible.
    */
   public int getNextFreeGrhIndex() {
-    int maxId = 0;
-    for (Integer id : grhMap.keySet()) {
-      if (id > maxId)
-        maxId = id;
+    return grhIndex.getMaxId() + 1;
+  }
+
+  /**
+   * Busca el primer bloque de IDs de GRH consecutivos libres, aprovechando los huecos del índice.
+   *
+   * @param count Cantidad de IDs necesarios.
+   * @return El primer ID del bloque; si no hay hueco suficiente, el siguiente al último ID usado.
+   */
+  public int findFreeGrhRange(int count) {
+    return grhIds.findFree(count);
+  }
+
+  /**
+   * Busca un bloque de IDs consecutivos libres y lo marca como ocupado antes de que existan sus
+   * GRH, para que varias reservas seguidas no reciban el mismo hueco.
+   *
+   * @param count Cantidad de IDs necesarios.
+   * @return El primer ID del bloque.
+   */
+  public int reserveGrhRange(int count) {
+    int start = grhIds.findFree(count);
+    for (int id = start; id < start + count; id++) {
+      grhIds.markUsed(id);
+    }
+    return start;
+  }
+
+  /**
+   * Devuelve al conjunto de libres un bloque reservado con {@link #reserveGrhRange(int)} que no
+   * llegó a usarse.
+   */
+  public void releaseGrhRange(int start, int count) {
+    for (int id = start; id < start + count; id++) {
+      if (grhIndex.get(id) == null) {
+        grhIds.release(id);
+      }
     }
-    return maxId + 1;
   }
 
   /**
@@ -457,9 +577,8 @@ public class DataManager {
       return;
 
     grhList.add(grh);
-    grhMap.put(grh.getGrh(), grh);
 
     // Update count
-    setGrhCount(grhList.size());
+    growGrhCount(grh.getGrh());
   }
 }
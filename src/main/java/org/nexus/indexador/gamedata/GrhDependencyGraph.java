@@ -0,0 +1,158 @@
+package org.nexus.indexador.gamedata;
+
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Grafo de dependencias entre GRH y de las entidades hacia los GRH.
+ * <p>
+ * Guarda dos tipos de arista: de cada animación a sus frames, y de cada entidad (cabeza, casco,
+ * cuerpo, arma, escudo o FX) a los GRH que usa. Para cada arista se mantiene también la inversa,
+ * de modo que los dependientes de un GRH se obtienen sin recorrer nada: son las animaciones que lo
+ * usan como frame y las entidades que lo referencian.
+ * <p>
+ * Al igual que la lista de gráficos, no es seguro para modificaciones concurrentes.
+ */
+public final class GrhDependencyGraph {
+
+  private static final int[] NONE = new int[0];
+
+  /** Frames de cada animación, por ID de animación. */
+  private final Map<Integer, int[]> frames = new HashMap<>();
+  /** Animaciones que usan cada GRH como frame. */
+  private final Map<Integer, Set<Integer>> animationsUsing = new HashMap<>();
+  /** GRH que usa cada entidad. */
+  private final Map<String, int[]> references = new HashMap<>();
+  /** Entidades que usan cada GRH. */
+  private final Map<Integer, Set<String>> referencedBy = new HashMap<>();
+
+  /**
+   * Frames a los que apunta un GRH, en el orden de la animación; vacío si es estático.
+   */
+  public static int[] framesOf(GrhData grh) {
+    int numFrames = grh.getNumFrames();
+    int frameLength = grh.getFrameLength();
+    if (numFrames <= 1 || frameLength == 0) {
+      return NONE;
+    }
+    int count = Math.min(numFrames, frameLength - 1);
+    int[] result = new int[count];
+    for (int i = 0; i < count; i++) {
+      result[i] = grh.getFrame(i + 1);
+    }
+    return result;
+  }
+
+  /**
+   * Actualiza las aristas de un GRH a partir de su estado actual.
+   */
+  public void update(GrhData grh) {
+    setFrames(grh.getGrh(), framesOf(grh));
+  }
+
+  /**
+   * Sustituye los frames de una animación. Con un array vacío o null el GRH deja de depender de
+   * otros.
+   */
+  public void setFrames(int animationId, int[] frameIds) {
+    replace(animationId, frameIds, frames, animationsUsing);
+  }
+
+  /**
+   * Elimina las aristas que salen de un GRH. Las que llegan a él se conservan: quien lo usaba
+   * sigue apuntando a su ID aunque ya no exista.
+   */
+  public void remove(int grhId) {
+    setFrames(grhId, null);
+  }
+
+  /**
+   * Sustituye los GRH que usa una entidad. Los ID 0 (sin gráfico) se ignoran.
+   *
+   * @param owner Nombre de la entidad, por ejemplo "Cuerpo 3".
+   */
+  public void setReferences(String owner, int[] grhIds) {
+    replace(owner, grhIds, references, referencedBy);
+  }
+
+  /**
+   * @return Los frames de una animación sin repetir, o un array vacío si no lo es.
+   */
+  public int[] getFrames(int animationId) {
+    return frames.getOrDefault(animationId, NONE);
+  }
+
+  /**
+   * @return Los GRH que usa una entidad, sin repetir y sin el 0.
+   */
+  public int[] getReferences(String owner) {
+    return references.getOrDefault(owner, NONE);
+  }
+
+  /**
+   * @return Las animaciones que usan un GRH como frame.
+   */
+  public Set<Integer> getAnimationsUsing(int grhId) {
+    return animationsUsing.getOrDefault(grhId, Collections.emptySet());
+  }
+
+  /**
+   * @return Las entidades que usan un GRH, en el orden en que se registraron.
+   */
+  public Set<String> getReferencesTo(int grhId) {
+    return referencedBy.getOrDefault(grhId, Collections.emptySet());
+  }
+
+  /**
+   * @return Todas las entidades registradas.
+   */
+  public Set<String> getOwners() {
+    return Collections.unmodifiableSet(references.keySet());
+  }
+
+  public void clear() {
+    frames.clear();
+    animationsUsing.clear();
+    references.clear();
+    referencedBy.clear();
+  }
+
+  private static <K> void replace(K source, int[] targets, Map<K, int[]> forward,
+      Map<Integer, Set<K>> reverse) {
+    int[] previous = forward.remove(source);
+    if (previous != null) {
+      for (int target : previous) {
+        Set<K> sources = reverse.get(target);
+        if (sources != null && sources.remove(source) && sources.isEmpty()) {
+          reverse.remove(target);
+        }
+      }
+    }
+    if (targets == null || targets.length == 0) {
+      return;
+    }
+
+    // Sin repetidos: una animación puede usar el mismo frame varias veces
+    Set<Integer> distinct = new LinkedHashSet<>();
+    for (int target : targets) {
+      if (target != 0) {
+        distinct.add(target);
+      }
+    }
+    if (distinct.isEmpty()) {
+      return;
+    }
+    int[] stored = new int[distinct.size()];
+    int i = 0;
+    for (int target : distinct) {
+      stored[i++] = target;
+      reverse.computeIfAbsent(target, k -> new LinkedHashSet<>()).add(source);
+    }
+    forward.put(source, stored);
+  }
+}
@@ -0,0 +1,213 @@
+package org.nexus.indexador.gamedata;
+
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import java.util.List;
+
+/**
+ * Lleva la cuenta de los IDs de gráficos ocupados y localiza huecos libres.
+ * <p>
+ * Los IDs ocupados se guardan en un mapa de bits (un bit por ID, 64 por palabra). Sobre las
+ * palabras se mantiene un árbol de segmentos en el que cada nodo conoce la racha libre más larga
+ * de su intervalo y las que tocan sus extremos, de modo que el primer bloque de N IDs
+ * consecutivos libres se encuentra bajando por el árbol en tiempo logarítmico. Marcar o liberar
+ * un ID solo actualiza el camino de su hoja a la raíz.
+ * <p>
+ * El ID 0 nunca se asigna y todo lo que queda por encima del último ID registrado se considera
+ * libre. No es seguro para modificaciones concurrentes.
+ */
+public final class GrhIdAllocator {
+
+  /**
+   * IDs por encima de este valor no se registran, para que un ID aislado muy alto no dispare el
+   * tamaño del mapa de bits.
+   */
+  static final int MAX_TRACKED_ID = 1 << 22;
+
+  private static final int BITS = 64;
+
+  private long[] used;
+  private int leaves; // Número de palabras, siempre potencia de 2
+
+  // Árbol de segmentos en forma de heap (raíz en 1, hojas en [leaves, 2 * leaves))
+  private int[] prefix; // IDs libres consecutivos desde el inicio del nodo
+  private int[] suffix; // IDs libres consecutivos hasta el final del nodo
+  private int[] longest; // Racha libre más larga dentro del nodo
+
+  public GrhIdAllocator() {
+    allocate(1);
+    build();
+  }
+
+  /**
+   * Reconstruye el registro a partir de la lista de gráficos.
+   */
+  public void rebuild(List<GrhData> grhs) {
+    int top = 0;
+    for (GrhData grh : grhs) {
+      top = Math.max(top, Math.min(grh.getGrh(), MAX_TRACKED_ID));
+    }
+    allocate(wordsFor(top));
+    for (GrhData grh : grhs) {
+      int id = grh.getGrh();
+      if (id > 0 && id <= MAX_TRACKED_ID) {
+        used[id >>> 6] |= 1L << id;
+      }
+    }
+    build();
+  }
+
+  /** Marca un ID como ocupado. */
+  public void markUsed(int id) {
+    if (id <= 0 || id > MAX_TRACKED_ID) {
+      return;
+    }
+    if (id >= capacity()) {
+      grow(id);
+    }
+    int word = id >>> 6;
+    used[word] |= 1L << id;
+    update(word);
+  }
+
+  /** Devuelve un ID al conjunto de libres. */
+  public void release(int id) {
+    if (id <= 0 || id >= capacity()) {
+      return;
+    }
+    int word = id >>> 6;
+    used[word] &= ~(1L << id);
+    update(word);
+  }
+
+  public boolean isUsed(int id) {
+    return id == 0 || (id > 0 && id < capacity() && (used[id >>> 6] & (1L << id)) != 0);
+  }
+
+  /**
+   * Busca el primer bloque de {@code count} IDs consecutivos libres.
+   *
+   * @return El primer ID del bloque. Si ningún hueco es lo bastante grande, el bloque empieza
+   *         justo después del último ID ocupado.
+   */
+  public int findFree(int count) {
+    if (count < 1) {
+      throw new IllegalArgumentException("count debe ser mayor o igual a 1: " + count);
+    }
+    if (longest[1] < count) {
+      // Lo libre al final del mapa continúa indefinidamente
+      return capacity() - suffix[1];
+    }
+
+    int node = 1;
+    int start = 0;
+    int span = capacity();
+    while (node < leaves) {
+      int left = node << 1;
+      int half = span >>> 1;
+      if (longest[left] >= count) {
+        node = left;
+      } else if (suffix[left] + prefix[left + 1] >= count) {
+        return start + half - suffix[left];
+      } else {
+        node = left + 1;
+        start += half;
+      }
+      span = half;
+    }
+    return start + runStart(used[node - leaves], count);
+  }
+
+  // --- Internos ---
+
+  private int capacity() {
+    return leaves * BITS;
+  }
+
+  private static int wordsFor(int id) {
+    return Integer.highestOneBit((id >>> 6) + 1) << 1;
+  }
+
+  private void allocate(int words) {
+    leaves = Math.max(words, 1);
+    used = new long[leaves];
+    used[0] = 1L; // ID 0 reservado
+    prefix = new int[leaves << 1];
+    suffix = new int[leaves << 1];
+    longest = new int[leaves << 1];
+  }
+
+  private void grow(int id) {
+    long[] old = used;
+    allocate(wordsFor(id));
+    System.arraycopy(old, 0, used, 0, old.length);
+    build();
+  }
+
+  private void build() {
+    for (int word = 0; word < leaves; word++) {
+      setLeaf(word);
+    }
+    for (int node = leaves - 1; node >= 1; node--) {
+      combine(node);
+    }
+  }
+
+  private void update(int word) {
+    setLeaf(word);
+    for (int node = (word + leaves) >>> 1; node >= 1; node >>>= 1) {
+      combine(node);
+    }
+  }
+
+  private void setLeaf(int word) {
+    long bits = used[word];
+    int node = word + leaves;
+    prefix[node] = Long.numberOfTrailingZeros(bits);
+    suffix[node] = Long.numberOfLeadingZeros(bits);
+    longest[node] = longestRun(bits);
+  }
+
+  private void combine(int node) {
+    int left = node << 1;
+    int right = left + 1;
+    int half = capacity() >>> (32 - Integer.numberOfLeadingZeros(node));
+    prefix[node] = prefix[left] == half ? half + prefix[right] : prefix[left];
+    suffix[node] = suffix[right] == half ? half + suffix[left] : suffix[right];
+    longest[node] = Math.max(Math.max(longest[left], longest[right]),
+        suffix[left] + prefix[right]);
+  }
+
+  /** Racha más larga de bits a 0 en una palabra. */
+  private static int longestRun(long bits) {
+    long free = ~bits;
+    int best = 0;
+    while (free != 0) {
+      int start = Long.numberOfTrailingZeros(free);
+      int length = Long.numberOfTrailingZeros(~(free >>> start));
+      best = Math.max(best, length);
+      if (start + length >= BITS) {
+        break;
+      }
+      free &= -1L << (start + length);
+    }
+    return best;
+  }
+
+  /** Posición del primer bloque de {@code count} bits a 0 dentro de una palabra. */
+  private static int runStart(long bits, int count) {
+    long free = ~bits;
+    while (free != 0) {
+      int start = Long.numberOfTrailingZeros(free);
+      int length = Long.numberOfTrailingZeros(~(free >>> start));
+      if (length >= count) {
+        return start;
+      }
+      if (start + length >= BITS) {
+        break;
+      }
+      free &= -1L << (start + length);
+    }
+    throw new IllegalStateException("La hoja no contiene un hueco de " + count + " IDs");
+  }
+}
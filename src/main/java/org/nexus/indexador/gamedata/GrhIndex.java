@@ -0,0 +1,238 @@
+package org.nexus.indexador.gamedata;
+
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Índice de gráficos por ID sin boxing.
+ * <p>
+ * Los IDs de un graficos.ind son casi consecutivos, así que la mayoría se guardan en un array
+ * directo indexado por ID. Los IDs muy alejados del resto (que harían crecer el array sin
+ * sentido) van a una tabla hash de direccionamiento abierto con claves {@code int}. Las
+ * búsquedas no reservan memoria, por lo que se pueden usar en los bucles de render y validación.
+ * <p>
+ * Al igual que la lista de gráficos, no es seguro para modificaciones concurrentes.
+ */
+public final class GrhIndex {
+
+  /** Margen de IDs vacíos que se tolera en el array directo antes de pasar a la tabla hash. */
+  private static final int DENSE_SLACK = 1024;
+
+  private static final int EMPTY = 0;
+  private static final int USED = 1;
+  private static final int DELETED = 2;
+
+  private GrhData[] dense = new GrhData[0];
+  private int denseCount;
+
+  private int[] sparseKeys = new int[16];
+  private GrhData[] sparseValues = new GrhData[16];
+  private byte[] sparseState = new byte[16];
+  private int sparseCount;
+  private int sparseOccupied; // USED + DELETED, para decidir cuándo rehacer la tabla
+
+  private int maxId;
+
+  /**
+   * Reconstruye el índice a partir de una lista. Si hay IDs repetidos prevalece el último.
+   */
+  public void rebuild(List<GrhData> grhs) {
+    int top = 0;
+    for (GrhData grh : grhs) {
+      top = Math.max(top, grh.getGrh());
+    }
+    clear();
+    dense = new GrhData[Math.min(top, denseLimit(grhs.size())) + 1];
+    for (GrhData grh : grhs) {
+      put(grh);
+    }
+  }
+
+  public void clear() {
+    dense = new GrhData[0];
+    denseCount = 0;
+    sparseKeys = new int[16];
+    sparseValues = new GrhData[16];
+    sparseState = new byte[16];
+    sparseCount = 0;
+    sparseOccupied = 0;
+    maxId = 0;
+  }
+
+  /**
+   * Obtiene un gráfico por su ID.
+   *
+   * @return El gráfico, o null si no existe.
+   */
+  public GrhData get(int id) {
+    if (id >= 0 && id < dense.length) {
+      return dense[id];
+    }
+    if (sparseCount == 0) {
+      return null;
+    }
+    int slot = findSlot(id);
+    return slot >= 0 ? sparseValues[slot] : null;
+  }
+
+  public boolean contains(int id) {
+    return get(id) != null;
+  }
+
+  /**
+   * Registra un gráfico con su ID actual, sustituyendo al que tuviera ese ID.
+   */
+  public void put(GrhData grh) {
+    int id = grh.getGrh();
+    if (id >= 0 && id >= dense.length && id <= denseLimit(size())) {
+      growDense(id);
+    }
+
+    if (id >= 0 && id < dense.length) {
+      if (dense[id] == null) {
+        denseCount++;
+      }
+      dense[id] = grh;
+    } else {
+      putSparse(id, grh);
+    }
+    maxId = Math.max(maxId, id);
+  }
+
+  /**
+   * Elimina la entrada de un gráfico, solo si sigue siendo la registrada para su ID.
+   */
+  public void remove(GrhData grh) {
+    int id = grh.getGrh();
+    if (id >= 0 && id < dense.length) {
+      if (dense[id] != grh) {
+        return;
+      }
+      dense[id] = null;
+      denseCount--;
+    } else {
+      int slot = sparseCount > 0 ? findSlot(id) : -1;
+      if (slot < 0 || sparseValues[slot] != grh) {
+        return;
+      }
+      sparseValues[slot] = null;
+      sparseState[slot] = DELETED;
+      sparseCount--;
+    }
+    if (id == maxId) {
+      recomputeMaxId();
+    }
+  }
+
+  public int size() {
+    return denseCount + sparseCount;
+  }
+
+  /**
+   * ID más alto registrado, o 0 si el índice está vacío.
+   */
+  public int getMaxId() {
+    return maxId;
+  }
+
+  // --- Internos ---
+
+  private static int denseLimit(int count) {
+    return count * 2 + DENSE_SLACK;
+  }
+
+  private void recomputeMaxId() {
+    int top = 0;
+    for (int i = 0; i < sparseKeys.length; i++) {
+      if (sparseState[i] == USED) {
+        top = Math.max(top, sparseKeys[i]);
+      }
+    }
+    for (int id = dense.length - 1; id > top; id--) {
+      if (dense[id] != null) {
+        top = id;
+        break;
+      }
+    }
+    maxId = top;
+  }
+
+  private void growDense(int id) {
+    int capacity = Math.max(id + 1, dense.length + (dense.length >> 1));
+    GrhData[] grown = Arrays.copyOf(dense, capacity);
+
+    // Los IDs que ahora caben en el array directo salen de la tabla hash
+    if (sparseCount > 0) {
+      for (int i = 0; i < sparseKeys.length; i++) {
+        int key = sparseKeys[i];
+        if (sparseState[i] == USED && key >= 0 && key < capacity) {
+          grown[key] = sparseValues[i];
+          sparseValues[i] = null;
+          sparseState[i] = DELETED;
+          sparseCount--;
+          denseCount++;
+        }
+      }
+    }
+    dense = grown;
+  }
+
+  private void putSparse(int id, GrhData grh) {
+    int existing = findSlot(id);
+    if (existing >= 0) {
+      sparseValues[existing] = grh;
+      return;
+    }
+    if ((sparseOccupied + 1) * 2 > sparseKeys.length) {
+      rehash(sparseCount * 2 + 2 > sparseKeys.length / 2 ? sparseKeys.length * 2
+          : sparseKeys.length);
+    }
+    int mask = sparseKeys.length - 1;
+    int slot = mix(id) & mask;
+    while (sparseState[slot] == USED) {
+      slot = (slot + 1) & mask;
+    }
+    if (sparseState[slot] == EMPTY) {
+      sparseOccupied++;
+    }
+    sparseKeys[slot] = id;
+    sparseValues[slot] = grh;
+    sparseState[slot] = USED;
+    sparseCount++;
+  }
+
+  private int findSlot(int id) {
+    int mask = sparseKeys.length - 1;
+    int slot = mix(id) & mask;
+    while (sparseState[slot] != EMPTY) {
+      if (sparseState[slot] == USED && sparseKeys[slot] == id) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void rehash(int capacity) {
+    int[] oldKeys = sparseKeys;
+    GrhData[] oldValues = sparseValues;
+    byte[] oldState = sparseState;
+    sparseKeys = new int[capacity];
+    sparseValues = new GrhData[capacity];
+    sparseState = new byte[capacity];
+    sparseCount = 0;
+    sparseOccupied = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldState[i] == USED) {
+        putSparse(oldKeys[i], oldValues[i]);
+      }
+    }
+  }
+
+  private static int mix(int key) {
+    int h = key * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,501 @@
+package org.nexus.indexador.gamedata;
+
+import org.nexus.indexador.gamedata.enums.IndexingSystem;
+import org.nexus.indexador.gamedata.models.*;
+import org.nexus.indexador.utils.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Caché en disco con el estado ya decodificado de cada índice.
+ * <p>
+ * Cada tipo de índice se guarda en su propio fichero dentro del directorio de caché, junto con
+ * el {@link IndFileFormat} detectado y la huella (tamaño, fecha de modificación y CRC32C) de los
+ * ficheros de origen. Si la huella coincide al arrancar, la lista se reconstruye desde la
+ * instantánea con una única lectura, sin volver a interpretar el .ind ni los .ini.
+ */
+public class SnapshotCache {
+
+  /** Directorio por defecto, relativo al directorio de la aplicación (como config.ini). */
+  public static final String DEFAULT_DIR = ".nexus-cache";
+
+  private static final int MAGIC = 0x4E585343; // "NXSC"
+  private static final int VERSION = 1;
+  private static final int CHECKSUM_BUFFER = 1 << 20;
+
+  // --- Tipos de instantánea ---
+
+  public static final Entry<GrhData> GRHS = new Entry<>("graficos", "GRAFICOS", new GrhCodec());
+  public static final Entry<HeadData> HEADS = new Entry<>("cabezas", "HEADS", new HeadCodec());
+  public static final Entry<HelmetData> HELMETS =
+      new Entry<>("cascos", "HELMETS", new HelmetCodec());
+  public static final Entry<BodyData> BODIES =
+      new Entry<>("personajes", "BODIES", new BodyCodec());
+  public static final Entry<ShieldData> SHIELDS =
+      new Entry<>("escudos", "SHIELDS", new ShieldCodec());
+  public static final Entry<FXData> FXS = new Entry<>("fxs", "FXS", new FxCodec());
+  public static final Entry<WeaponData> WEAPONS =
+      new Entry<>("armas", "WEAPONS", new WeaponCodec());
+
+  private final File cacheDir;
+  private final Logger logger = Logger.getInstance();
+
+  public SnapshotCache(File cacheDir) {
+    this.cacheDir = cacheDir;
+  }
+
+  /**
+   * Calcula la huella actual de los ficheros de origen de un índice. Los ficheros inexistentes
+   * también forman parte de la huella, de modo que su aparición invalida la instantánea.
+   */
+  public Fingerprint[] fingerprint(List<File> sources) throws IOException {
+    Fingerprint[] fingerprints = new Fingerprint[sources.size()];
+    for (int i = 0; i < fingerprints.length; i++) {
+      File source = sources.get(i);
+      String path = source.getAbsolutePath();
+      if (!source.isFile()) {
+        fingerprints[i] = new Fingerprint(path, -1, 0, 0);
+      } else {
+        fingerprints[i] =
+            new Fingerprint(path, source.length(), source.lastModified(), checksum(source));
+      }
+    }
+    return fingerprints;
+  }
+
+  /**
+   * Recupera una instantánea si sigue siendo válida para el sistema de indexado y los ficheros
+   * de origen indicados.
+   *
+   * @return La instantánea, o null si no existe, está desactualizada o no se puede leer.
+   */
+  public <T> Snapshot<T> load(Entry<T> entry, IndexingSystem system, Fingerprint[] sources) {
+    File file = snapshotFile(entry);
+    if (!file.isFile()) {
+      return null;
+    }
+
+    try {
+      // Se lee entera en memoria en lugar de mapearla: en Windows un fichero mapeado no se puede
+      // reemplazar hasta que el recolector libera el mapeo, y store() lo sustituye si está obsoleto
+      ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+      if (in.getInt() != MAGIC || in.getInt() != VERSION || !system.name().equals(getString(in))) {
+        return null;
+      }
+
+      int sourceCount = in.getInt();
+      if (sourceCount != sources.length) {
+        return null;
+      }
+      for (Fingerprint expected : sources) {
+        Fingerprint stored = new Fingerprint(getString(in), in.getLong(), in.getLong(), in.getInt());
+        if (!stored.equals(expected)) {
+          return null;
+        }
+      }
+
+      IndFileFormat format = null;
+      if (in.get() != 0) {
+        long dataOffset = in.getLong();
+        boolean isLong = in.get() != 0;
+        boolean valid = in.get() != 0;
+        int recordSize = in.getInt();
+        format = new IndFileFormat(dataOffset, isLong, valid, recordSize);
+      }
+
+      List<T> items = entry.codec.read(in);
+      logger.info("Instantánea de " + entry.name + " válida: " + items.size() + " registros");
+      return new Snapshot<>(items, format);
+    } catch (IOException | RuntimeException e) {
+      // Una instantánea corrupta o de otra versión se descarta y se vuelve a generar
+      logger.warning("Instantánea de " + entry.name + " descartada: " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Guarda una instantánea. Los errores se registran pero no se propagan: la caché nunca debe
+   * impedir la carga normal de los índices.
+   */
+  public <T> void store(Entry<T> entry, IndexingSystem system, Fingerprint[] sources,
+      List<T> items, IndFileFormat format) {
+    File target = snapshotFile(entry);
+    File temp = new File(cacheDir, entry.name + ".snap.tmp");
+    try {
+      Files.createDirectories(cacheDir.toPath());
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        putString(out, system.name());
+
+        out.writeInt(sources.length);
+        for (Fingerprint source : sources) {
+          putString(out, source.path);
+          out.writeLong(source.size);
+          out.writeLong(source.lastModified);
+          out.writeInt(source.checksum);
+        }
+
+        out.writeBoolean(format != null);
+        if (format != null) {
+          out.writeLong(format.getDataOffset());
+          out.writeBoolean(format.isLong());
+          out.writeBoolean(format.isValid());
+          out.writeInt(format.getRecordSize());
+        }
+
+        entry.codec.write(out, items);
+      }
+      try {
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warning("No se pudo guardar la instantánea de " + entry.name + ": " + e.getMessage());
+      temp.delete();
+    }
+  }
+
+  private File snapshotFile(Entry<?> entry) {
+    return new File(cacheDir, entry.name + ".snap");
+  }
+
+  private static int checksum(File source) throws IOException {
+    CRC32C crc = new CRC32C();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(CHECKSUM_BUFFER);
+    try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+      while (channel.read(buffer) > 0) {
+        buffer.flip();
+        crc.update(buffer);
+        buffer.clear();
+      }
+    }
+    return (int) crc.getValue();
+  }
+
+  // --- Codificación ---
+
+  private static void putString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String getString(ByteBuffer in) {
+    byte[] bytes = new byte[in.getInt()];
+    in.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void putInts(DataOutputStream out, int[] values) throws IOException {
+    if (values == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(values.length);
+    for (int value : values) {
+      out.writeInt(value);
+    }
+  }
+
+  private static int[] getInts(ByteBuffer in) {
+    int length = in.getInt();
+    if (length < 0) {
+      return null;
+    }
+    int[] values = new int[length];
+    in.asIntBuffer().get(values);
+    in.position(in.position() + length * 4);
+    return values;
+  }
+
+  private interface Codec<T> {
+    void write(DataOutputStream out, List<T> items) throws IOException;
+
+    List<T> read(ByteBuffer in);
+  }
+
+  private static final class GrhCodec implements Codec<GrhData> {
+    @Override
+    public void write(DataOutputStream out, List<GrhData> items) throws IOException {
+      out.writeInt(items.size());
+      for (GrhData grh : items) {
+        out.writeInt(grh.getGrh());
+        out.writeShort(grh.getNumFrames());
+        out.writeInt(grh.getFileNum());
+        out.writeShort(grh.getsX());
+        out.writeShort(grh.getsY());
+        out.writeShort(grh.getTileWidth());
+        out.writeShort(grh.getTileHeight());
+        out.writeFloat(grh.getSpeed());
+        putInts(out, grh.getFrames());
+      }
+    }
+
+    @Override
+    public List<GrhData> read(ByteBuffer in) {
+      int count = in.getInt();
+      GrhStore store = new GrhStore(count, 0);
+      int[] frames = new int[0];
+      for (int i = 0; i < count; i++) {
+        int row = store.addStatic(in.getInt(), in.getShort(), in.getInt(), in.getShort(),
+            in.getShort(), in.getShort(), in.getShort());
+        store.setSpeed(row, in.getFloat());
+        int length = in.getInt();
+        if (length >= 0) {
+          if (frames.length < length) {
+            frames = new int[length];
+          }
+          in.asIntBuffer().get(frames, 0, length);
+          in.position(in.position() + length * 4);
+          store.setFrames(row, frames, length);
+        }
+      }
+      store.trimToSize();
+      return store.views();
+    }
+  }
+
+  private static final class HeadCodec implements Codec<HeadData> {
+    @Override
+    public void write(DataOutputStream out, List<HeadData> items) throws IOException {
+      out.writeInt(items.size());
+      for (HeadData head : items) {
+        boolean mold = head.getSystemType() == IndexingSystem.MOLD;
+        out.writeBoolean(mold);
+        if (mold) {
+          out.writeInt(head.getStd());
+          out.writeShort(head.getTexture());
+          out.writeShort(head.getStartX());
+          out.writeShort(head.getStartY());
+        } else {
+          putInts(out, head.getGrhIndex());
+        }
+      }
+    }
+
+    @Override
+    public List<HeadData> read(ByteBuffer in) {
+      int count = in.getInt();
+      List<HeadData> items = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        if (in.get() != 0) {
+          items.add(new HeadData(in.getInt(), in.getShort(), in.getShort(), in.getShort()));
+        } else {
+          items.add(new HeadData(getInts(in)));
+        }
+      }
+      return items;
+    }
+  }
+
+  private static final class HelmetCodec implements Codec<HelmetData> {
+    @Override
+    public void write(DataOutputStream out, List<HelmetData> items) throws IOException {
+      out.writeInt(items.size());
+      for (HelmetData helmet : items) {
+        boolean mold = helmet.getSystemType() == IndexingSystem.MOLD;
+        out.writeBoolean(mold);
+        if (mold) {
+          out.writeInt(helmet.getStd());
+          out.writeShort(helmet.getTexture());
+          out.writeShort(helmet.getStartX());
+          out.writeShort(helmet.getStartY());
+        } else {
+          putInts(out, helmet.getGrhIndex());
+        }
+      }
+    }
+
+    @Override
+    public List<HelmetData> read(ByteBuffer in) {
+      int count = in.getInt();
+      List<HelmetData> items = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        if (in.get() != 0) {
+          items.add(new HelmetData(in.getInt(), in.getShort(), in.getShort(), in.getShort()));
+        } else {
+          items.add(new HelmetData(getInts(in)));
+        }
+      }
+      return items;
+    }
+  }
+
+  private static final class BodyCodec implements Codec<BodyData> {
+    @Override
+    public void write(DataOutputStream out, List<BodyData> items) throws IOException {
+      out.writeInt(items.size());
+      for (BodyData body : items) {
+        putInts(out, body.getBody());
+        out.writeShort(body.getHeadOffsetX());
+        out.writeShort(body.getHeadOffsetY());
+      }
+    }
+
+    @Override
+    public List<BodyData> read(ByteBuffer in) {
+      int count = in.getInt();
+      List<BodyData> items = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        items.add(new BodyData(getInts(in), in.getShort(), in.getShort()));
+      }
+      return items;
+    }
+  }
+
+  private static final class ShieldCodec implements Codec<ShieldData> {
+    @Override
+    public void write(DataOutputStream out, List<ShieldData> items) throws IOException {
+      out.writeInt(items.size());
+      for (ShieldData shield : items) {
+        putInts(out, shield.getShield());
+      }
+    }
+
+    @Override
+    public List<ShieldData> read(ByteBuffer in) {
+      int count = in.getInt();
+      List<ShieldData> items = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        items.add(new ShieldData(getInts(in)));
+      }
+      return items;
+    }
+  }
+
+  private static final class FxCodec implements Codec<FXData> {
+    @Override
+    public void write(DataOutputStream out, List<FXData> items) throws IOException {
+      out.writeInt(items.size());
+      for (FXData fx : items) {
+        out.writeInt(fx.getFx());
+        out.writeShort(fx.getOffsetX());
+        out.writeShort(fx.getOffsetY());
+      }
+    }
+
+    @Override
+    public List<FXData> read(ByteBuffer in) {
+      int count = in.getInt();
+      List<FXData> items = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        items.add(new FXData(in.getInt(), in.getShort(), in.getShort()));
+      }
+      return items;
+    }
+  }
+
+  private static final class WeaponCodec implements Codec<WeaponData> {
+    @Override
+    public void write(DataOutputStream out, List<WeaponData> items) throws IOException {
+      out.writeInt(items.size());
+      for (WeaponData weapon : items) {
+        putInts(out, weapon.getGrhIndex());
+      }
+    }
+
+    @Override
+    public List<WeaponData> read(ByteBuffer in) {
+      int count = in.getInt();
+      List<WeaponData> items = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        items.add(new WeaponData(getInts(in)));
+      }
+      return items;
+    }
+  }
+
+  // --- Tipos auxiliares ---
+
+  /**
+   * Tipo de índice almacenable: nombre del fichero de instantánea, clave de formato y codificador.
+   */
+  public static final class Entry<T> {
+    private final String name;
+    private final String formatKey;
+    private final Codec<T> codec;
+
+    private Entry(String name, String formatKey, Codec<T> codec) {
+      this.name = name;
+      this.formatKey = formatKey;
+      this.codec = codec;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getFormatKey() {
+      return formatKey;
+    }
+  }
+
+  /**
+   * Huella de un fichero de origen. Un tamaño de -1 indica que el fichero no existía.
+   */
+  public static final class Fingerprint {
+    private final String path;
+    private final long size;
+    private final long lastModified;
+    private final int checksum;
+
+    Fingerprint(String path, long size, long lastModified, int checksum) {
+      this.path = path;
+      this.size = size;
+      this.lastModified = lastModified;
+      this.checksum = checksum;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o)
+        return true;
+      if (!(o instanceof Fingerprint))
+        return false;
+      Fingerprint other = (Fingerprint) o;
+      return size == other.size && lastModified == other.lastModified
+          && checksum == other.checksum && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return path.hashCode() * 31 + Long.hashCode(size);
+    }
+  }
+
+  /**
+   * Contenido recuperado de una instantánea.
+   */
+  public static final class Snapshot<T> {
+    private final List<T> items;
+    private final IndFileFormat format;
+
+    Snapshot(List<T> items, IndFileFormat format) {
+      this.items = items;
+      this.format = format;
+    }
+
+    public List<T> getItems() {
+      return items;
+    }
+
+    /** Formato detectado al generar la instantánea, o null si el origen no tenía. */
+    public IndFileFormat getFormat() {
+      return format;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+package org.nexus.indexador.gamedata.loaders;
+
+import org.nexus.indexador.gamedata.models.IndFileFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escritor con buffer para archivos .ind. Codifica los registros en little-endian sobre un buffer
+ * directo y lo vuelca al disco a través de un {@link FileChannel} en bloques grandes, en lugar de
+ * hacer una escritura por campo.
+ *
+ * Respeta el formato detectado en la carga: offset de cabecera y ancho de los índices (int/long).
+ */
+class IndFileWriter implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final boolean isLong;
+
+  /**
+   * Abre el archivo y se posiciona al inicio de los datos. Si el archivo es más corto que la
+   * cabecera, se escribe una cabecera vacía (ceros) como placeholder.
+   */
+  IndFileWriter(File archive, IndFileFormat format) throws IOException {
+    this.channel = FileChannel.open(archive.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE);
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    this.isLong = format.isLong();
+
+    long offset = format.getDataOffset();
+    try {
+      if (offset > 0 && channel.size() < offset) {
+        channel.position(0);
+        writeFully(ByteBuffer.allocate((int) offset));
+      }
+      channel.position(offset);
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  void putShort(short value) throws IOException {
+    ensure(2);
+    buffer.putShort(value);
+  }
+
+  void putInt(int value) throws IOException {
+    ensure(4);
+    buffer.putInt(value);
+  }
+
+  void putFloat(float value) throws IOException {
+    ensure(4);
+    buffer.putFloat(value);
+  }
+
+  /**
+   * Escribe un índice de GRH con el ancho del formato (4 bytes si es long, 2 si no).
+   */
+  void putIndex(int value) throws IOException {
+    if (isLong) {
+      putInt(value);
+    } else {
+      putShort((short) value);
+    }
+  }
+
+  /**
+   * Escribe un bloque de índices de GRH con el ancho del formato.
+   */
+  void putIndices(int[] values) throws IOException {
+    int width = isLong ? 4 : 2;
+    int pos = 0;
+    while (pos < values.length) {
+      ensure(width);
+      int count = Math.min(values.length - pos, buffer.remaining() / width);
+      if (isLong) {
+        buffer.asIntBuffer().put(values, pos, count);
+        buffer.position(buffer.position() + count * 4);
+      } else {
+        for (int i = pos; i < pos + count; i++) {
+          buffer.putShort((short) values[i]);
+        }
+      }
+      pos += count;
+    }
+  }
+
+  /**
+   * Vuelca al canal todo lo acumulado en el buffer.
+   */
+  void flush() throws IOException {
+    buffer.flip();
+    writeFully(buffer);
+    buffer.clear();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void ensure(int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush();
+    }
+  }
+
+  private void writeFully(ByteBuffer src) throws IOException {
+    while (src.hasRemaining()) {
+      channel.write(src);
+    }
+  }
+}
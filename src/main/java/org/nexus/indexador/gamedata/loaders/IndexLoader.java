@@ -114,4 +114,10 @@ public interface IndexLoader {
    * (HEADS, HELMETS, etc).
    */
   Map<String, IndFileFormat> getDetectedFormats();
+
+  /**
+   * Registra un formato ya conocido (por ejemplo, recuperado de la caché de instantáneas) para
+   * que los guardados posteriores lo respeten sin haber leído el archivo.
+   */
+  void restoreFormat(String key, IndFileFormat format);
 }
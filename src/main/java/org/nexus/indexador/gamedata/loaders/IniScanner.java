@@ -0,0 +1,275 @@
+package org.nexus.indexador.gamedata.loaders;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Recorre un fichero .ini/.dat exportado línea a línea directamente sobre sus bytes.
+ * <p>
+ * Las claves y los valores numéricos de los índices son ASCII, así que no hace falta decodificar
+ * a {@code String}: cada línea se delimita con índices sobre el buffer y los números se leen en
+ * sitio. Los métodos de parseo devuelven {@link #INVALID} en lugar de lanzar excepciones, ya que
+ * las líneas mal formadas simplemente se ignoran.
+ */
+final class IniScanner {
+
+  /** Valor devuelto por los métodos de parseo cuando el texto no es un número válido. */
+  static final long INVALID = Long.MIN_VALUE;
+
+  private final byte[] data;
+  private final int end;
+  private int pos;
+
+  // Línea actual (sin espacios en los extremos) y posición del primer '=' o -1
+  private int lineStart;
+  private int lineEnd;
+  private int equals;
+
+  IniScanner(byte[] data) {
+    this(data, 0, data.length);
+  }
+
+  /**
+   * @param from Inicio de la región; debe coincidir con un comienzo de línea.
+   * @param to   Fin (exclusivo) de la región.
+   */
+  IniScanner(byte[] data, int from, int to) {
+    this.data = data;
+    this.pos = from;
+    this.end = to;
+  }
+
+  static byte[] readAll(File file) throws IOException {
+    return Files.readAllBytes(file.toPath());
+  }
+
+  /**
+   * Divide {@code data} en hasta {@code parts} regiones que empiezan siempre al comienzo de una
+   * línea.
+   *
+   * @return Los límites de las regiones: la región i va de {@code bounds[i]} a
+   *         {@code bounds[i + 1]}.
+   */
+  static int[] splitLines(byte[] data, int parts) {
+    int[] bounds = new int[parts + 1];
+    int count = 1;
+    for (int i = 1; i < parts; i++) {
+      int cut = Math.max((int) ((long) data.length * i / parts), Math.max(bounds[count - 1], 1));
+      while (cut < data.length && data[cut - 1] != '\n') {
+        cut++;
+      }
+      if (cut > bounds[count - 1] && cut < data.length) {
+        bounds[count++] = cut;
+      }
+    }
+    bounds[count] = data.length;
+    return java.util.Arrays.copyOf(bounds, count + 1);
+  }
+
+  /**
+   * Avanza a la siguiente línea.
+   *
+   * @return false al llegar al final de la región.
+   */
+  boolean nextLine() {
+    if (pos >= end) {
+      return false;
+    }
+    int start = pos;
+    int stop = start;
+    while (stop < end && data[stop] != '\n' && data[stop] != '\r') {
+      stop++;
+    }
+    // Consumir el separador (\n, \r o \r\n)
+    pos = stop;
+    if (pos < end && data[pos] == '\r') {
+      pos++;
+    }
+    if (pos < end && data[pos] == '\n') {
+      pos++;
+    }
+
+    setLine(start, stop);
+    return true;
+  }
+
+  /** Descarta el comentario ('texto) de la línea actual. */
+  void stripComment() {
+    for (int i = lineStart; i < lineEnd; i++) {
+      if (data[i] == '\'') {
+        setLine(lineStart, i);
+        return;
+      }
+    }
+  }
+
+  boolean isBlank() {
+    return lineStart == lineEnd;
+  }
+
+  boolean isSection() {
+    return lineStart < lineEnd && data[lineStart] == '[';
+  }
+
+  /** Indica si la línea tiene la forma {@code clave=valor} con un valor no vacío. */
+  boolean hasValue() {
+    return equals >= 0 && valueStart() < valueEnd();
+  }
+
+  /** Compara la clave sin distinguir mayúsculas. {@code upper} debe estar en mayúsculas. */
+  boolean keyEquals(String upper) {
+    int keyEnd = keyEnd();
+    return keyEnd - lineStart == upper.length() && regionMatches(lineStart, upper);
+  }
+
+  /** Comprueba el prefijo de la clave sin distinguir mayúsculas. */
+  boolean keyStartsWith(String upper) {
+    return keyEnd() - lineStart >= upper.length() && regionMatches(lineStart, upper);
+  }
+
+  /** Interpreta como entero lo que sigue al prefijo de la clave (p. ej. el 3 de HEAD3). */
+  long keySuffix(int prefixLength) {
+    return parseInt(lineStart + prefixLength, keyEnd());
+  }
+
+  /** Interpreta el valor completo como entero. */
+  long valueInt() {
+    return parseInt(valueStart(), valueEnd());
+  }
+
+  /** Inicio del valor, tras el '=' y sin espacios. */
+  int valueStart() {
+    int i = equals + 1;
+    int stop = valueEnd();
+    while (i < stop && (data[i] & 0xFF) <= ' ') {
+      i++;
+    }
+    return i;
+  }
+
+  /** Fin del valor: hasta el siguiente '=' o el final de la línea, sin espacios. */
+  int valueEnd() {
+    int stop = equals + 1;
+    while (stop < lineEnd && data[stop] != '=') {
+      stop++;
+    }
+    while (stop > equals + 1 && (data[stop - 1] & 0xFF) <= ' ') {
+      stop--;
+    }
+    return stop;
+  }
+
+  byte[] data() {
+    return data;
+  }
+
+  /**
+   * Interpreta {@code [from, to)} como un entero de 32 bits con signo opcional, con las mismas
+   * reglas que {@link Integer#parseInt(String)}.
+   *
+   * @return El valor, o {@link #INVALID}.
+   */
+  long parseInt(int from, int to) {
+    return parseInt(data, from, to);
+  }
+
+  static long parseInt(byte[] data, int from, int to) {
+    if (from >= to) {
+      return INVALID;
+    }
+    boolean negative = false;
+    int i = from;
+    if (data[i] == '-' || data[i] == '+') {
+      negative = data[i] == '-';
+      if (++i == to) {
+        return INVALID;
+      }
+    }
+    long value = 0;
+    for (; i < to; i++) {
+      int digit = data[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return INVALID;
+      }
+      value = value * 10 + digit;
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        return INVALID;
+      }
+    }
+    value = negative ? -value : value;
+    return value > Integer.MAX_VALUE ? INVALID : value;
+  }
+
+  /**
+   * Interpreta {@code [from, to)} como float. Los enteros (con o sin ".0") se leen en sitio;
+   * cualquier otra forma se delega en {@link Float#parseFloat(String)} para conservar su
+   * redondeo exacto.
+   *
+   * @return El valor, o {@code Float.NaN} si no es un número.
+   */
+  static float parseFloat(byte[] data, int from, int to) {
+    int integerEnd = from;
+    while (integerEnd < to && data[integerEnd] != '.') {
+      integerEnd++;
+    }
+    boolean zeroFraction = true;
+    for (int i = integerEnd + 1; i < to; i++) {
+      if (data[i] != '0') {
+        zeroFraction = false;
+        break;
+      }
+    }
+    if (zeroFraction) {
+      long value = parseInt(data, from, integerEnd);
+      if (value != INVALID && Math.abs(value) <= (1 << 24)) {
+        return value == 0 && data[from] == '-' ? -0f : value;
+      }
+    }
+    try {
+      return Float.parseFloat(
+          new String(data, from, to - from, java.nio.charset.StandardCharsets.ISO_8859_1));
+    } catch (NumberFormatException e) {
+      return Float.NaN;
+    }
+  }
+
+  private int keyEnd() {
+    int stop = equals >= 0 ? equals : lineEnd;
+    while (stop > lineStart && (data[stop - 1] & 0xFF) <= ' ') {
+      stop--;
+    }
+    return stop;
+  }
+
+  private boolean regionMatches(int from, String upper) {
+    for (int i = 0; i < upper.length(); i++) {
+      int c = data[from + i];
+      if (c >= 'a' && c <= 'z') {
+        c -= 'a' - 'A';
+      }
+      if (c != upper.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void setLine(int start, int stop) {
+    while (start < stop && (data[start] & 0xFF) <= ' ') {
+      start++;
+    }
+    while (stop > start && (data[stop - 1] & 0xFF) <= ' ') {
+      stop--;
+    }
+    lineStart = start;
+    lineEnd = stop;
+    equals = -1;
+    for (int i = start; i < stop; i++) {
+      if (data[i] == '=') {
+        equals = i;
+        break;
+      }
+    }
+  }
+}
@@ -21,7 +21,8 @@ public class MoldIndexLoader implements IndexLoader {
   private final byteMigration byteMigration;
   private final Logger logger;
   private final TraditionalIndexLoader traditionalLoader;
-  private final java.util.Map<String, IndFileFormat> detectedFormats = new java.util.HashMap<>();
+  private final java.util.Map<String, IndFileFormat> detectedFormats =
+      new java.util.concurrent.ConcurrentHashMap<>();
 
   public MoldIndexLoader() throws IOException {
     this.configManager = ConfigManager.getInstance();
@@ -255,7 +256,21 @@ public class MoldIndexLoader implements IndexLoader {
 
   @Override
   public Map<String, IndFileFormat> getDetectedFormats() {
-    return detectedFormats;
+    // Los índices que no son de moldes los detecta el cargador tradicional
+    Map<String, IndFileFormat> formats =
+        new java.util.HashMap<>(traditionalLoader.getDetectedFormats());
+    formats.putAll(detectedFormats);
+    return formats;
+  }
+
+  @Override
+  public void restoreFormat(String key, IndFileFormat format) {
+    String normalized = key.toUpperCase();
+    if ("HEADS".equals(normalized) || "HELMETS".equals(normalized)) {
+      recordFormat(normalized, format);
+    } else {
+      traditionalLoader.restoreFormat(normalized, format);
+    }
   }
 
   private void recordFormat(String key, IndFileFormat format) {
@@ -10,8 +10,15 @@ import org.nexus.indexador.utils.byteMigration;
 import org.nexus.indexador.utils.ResourceResolver;
 
 import java.io.*;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 /**
  * Implementación del cargador para el sistema tradicional con detección
@@ -22,7 +29,10 @@ public class TraditionalIndexLoader implements IndexLoader {
   private final ConfigManager configManager;
   private final byteMigration byteMigration;
   private final Logger logger;
-  private final Map<String, IndFileFormat> detectedFormats = new HashMap<>();
+  private final Map<String, IndFileFormat> detectedFormats = new ConcurrentHashMap<>();
+
+  /** Tamaño a partir del cual Graficos.ini se decodifica en paralelo. */
+  private static final int PARALLEL_TEXT_THRESHOLD = 1 << 20;
 
   public TraditionalIndexLoader() throws IOException {
     this.configManager = ConfigManager.getInstance();
@@ -50,16 +60,12 @@ public class TraditionalIndexLoader implements IndexLoader {
       file.seek(format.getDataOffset());
       short numHeads = byteMigration.bigToLittle_Short(file.readShort());
 
+      int[] values = readIndexBlock(file, numHeads * 4, format.isLong());
+      if (values.length < numHeads * 4) {
+        throw new EOFException("Registros incompletos en " + archivo.getName());
+      }
       for (int i = 0; i < numHeads; i++) {
-        int[] grh = new int[4];
-        for (int j = 0; j < 4; j++) {
-          if (format.isLong()) {
-            grh[j] = byteMigration.bigToLittle_Int(file.readInt());
-          } else {
-            grh[j] = byteMigration.bigToLittle_Short(file.readShort());
-          }
-        }
-        headList.add(new HeadData(grh));
+        headList.add(new HeadData(Arrays.copyOfRange(values, i * 4, i * 4 + 4)));
       }
     } catch (FileNotFoundException e) {
       logger.error("Archivo no encontrado: " + archivo.getAbsolutePath(), e);
@@ -86,16 +92,12 @@ public class TraditionalIndexLoader implements IndexLoader {
       file.seek(format.getDataOffset());
       short numHelmets = byteMigration.bigToLittle_Short(file.readShort());
 
+      int[] values = readIndexBlock(file, numHelmets * 4, format.isLong());
+      if (values.length < numHelmets * 4) {
+        throw new EOFException("Registros incompletos en " + archivo.getName());
+      }
       for (int i = 0; i < numHelmets; i++) {
-        int[] grh = new int[4];
-        for (int j = 0; j < 4; j++) {
-          if (format.isLong()) {
-            grh[j] = byteMigration.bigToLittle_Int(file.readInt());
-          } else {
-            grh[j] = byteMigration.bigToLittle_Short(file.readShort());
-          }
-        }
-        helmetList.add(new HelmetData(grh));
+        helmetList.add(new HelmetData(Arrays.copyOfRange(values, i * 4, i * 4 + 4)));
       }
     } catch (FileNotFoundException e) {
       logger.error("Archivo no encontrado: " + archivo.getAbsolutePath(), e);
@@ -166,16 +168,13 @@ public class TraditionalIndexLoader implements IndexLoader {
       file.seek(format.getDataOffset());
       short numShields = byteMigration.bigToLittle_Short(file.readShort());
 
-      for (int i = 0; i < numShields; i++) {
-        int[] shield = new int[4];
-        for (int j = 0; j < 4; j++) {
-          if (format.isLong()) {
-            shield[j] = byteMigration.bigToLittle_Int(file.readInt());
-          } else {
-            shield[j] = byteMigration.bigToLittle_Short(file.readShort());
-          }
-        }
-        shieldList.add(new ShieldData(shield));
+      int[] values = readIndexBlock(file, numShields * 4, format.isLong());
+      int complete = values.length / 4;
+      for (int i = 0; i < complete; i++) {
+        shieldList.add(new ShieldData(Arrays.copyOfRange(values, i * 4, i * 4 + 4)));
+      }
+      if (complete < numShields) {
+        logger.info("Fin de fichero alcanzado en escudos.ind");
       }
     } catch (EOFException e) {
       logger.info("Fin de fichero alcanzado en escudos.ind");
@@ -197,46 +196,8 @@ public class TraditionalIndexLoader implements IndexLoader {
     if (!archivo.exists())
       throw new FileNotFoundException("Archivos de texto de escudos no encontrados (.ini o .dat)");
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-      String line;
-      int[] currentShield = new int[4];
-      boolean hasData = false;
-
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        if (line.isEmpty())
-          continue;
-        if (line.startsWith("[")) {
-          if (hasData) {
-            shieldList.add(new ShieldData(currentShield.clone()));
-            for (int k = 0; k < 4; k++)
-              currentShield[k] = 0;
-            hasData = false;
-          }
-          continue;
-        }
-        if (line.contains("'"))
-          line = line.split("'")[0].trim();
-        String[] parts = line.split("=");
-        if (parts.length < 2)
-          continue;
-
-        String key = parts[0].trim().toUpperCase();
-        String value = parts[1].trim();
-        try {
-          int val = Integer.parseInt(value);
-          if (key.startsWith("DIR")) {
-            int dirIndex = Integer.parseInt(key.substring(3)) - 1;
-            if (dirIndex >= 0 && dirIndex < 4) {
-              currentShield[dirIndex] = val;
-              hasData = true;
-            }
-          }
-        } catch (NumberFormatException e) {
-        }
-      }
-      if (hasData)
-        shieldList.add(new ShieldData(currentShield.clone()));
+    for (int[] grhs : readDirectionalText(archivo, "DIR", false, true)) {
+      shieldList.add(new ShieldData(grhs));
     }
     return shieldList;
   }
@@ -280,39 +241,68 @@ public class TraditionalIndexLoader implements IndexLoader {
     ObservableList<GrhData> grhList = FXCollections.observableArrayList();
     File archivo = ResourceResolver.getGraphicsInd(configManager.getInitDir());
 
-    try (RandomAccessFile file = new RandomAccessFile(archivo, "r")) {
-      handleGrhHeader(file);
-      recordFormat("GRAFICOS", new IndFileFormat(file.getFilePointer(), true, true));
+    if (!archivo.exists()) {
+      FileNotFoundException e = new FileNotFoundException(archivo.getAbsolutePath());
+      logger.error("Archivo no encontrado: " + archivo.getAbsolutePath(), e);
+      throw e;
+    }
 
-      file.readInt(); // Skip Version
-      byteMigration.bigToLittle_Int(file.readInt()); // Count
+    // El archivo se lee completo y se decodifica directamente en little-endian,
+    // evitando una llamada al sistema por cada campo leído.
+    ByteBuffer buffer = readLittleEndian(archivo);
+    int dataOffset = handleGrhHeader(buffer);
+    recordFormat("GRAFICOS", new IndFileFormat(dataOffset, true, true));
 
-      while (file.getFilePointer() < file.length()) {
-        int grh = byteMigration.bigToLittle_Int(file.readInt());
-        short numFrames = byteMigration.bigToLittle_Short(file.readShort());
+    buffer.position(dataOffset);
+    if (buffer.remaining() < 8) {
+      logger.info("Fin de fichero alcanzado en graficos.ind");
+      return grhList;
+    }
+    buffer.getInt(); // Skip Version
+    int declaredCount = buffer.getInt();
 
-        if (numFrames > 1) {
-          int[] frames = new int[numFrames + 1];
-          for (int i = 1; i <= numFrames; i++) {
-            frames[i] = byteMigration.bigToLittle_Int(file.readInt());
-          }
-          int speed = (int) byteMigration.bigToLittle_Float(file.readFloat());
-          grhList.add(new GrhData(grh, numFrames, frames, speed));
-        } else {
-          int fileNum = byteMigration.bigToLittle_Int(file.readInt());
-          short x = byteMigration.bigToLittle_Short(file.readShort());
-          short y = byteMigration.bigToLittle_Short(file.readShort());
-          short width = byteMigration.bigToLittle_Short(file.readShort());
-          short height = byteMigration.bigToLittle_Short(file.readShort());
-          grhList.add(new GrhData(grh, numFrames, fileNum, x, y, width, height));
+    // Los registros se decodifican al almacén columnar; la lista solo recibe vistas.
+    // El recuento de la cabecera se acota por el mínimo que cabe en el fichero.
+    int capacity = Math.max(0, Math.min(declaredCount, buffer.remaining() / 18));
+    GrhStore store = new GrhStore(capacity, 0);
+    int[] frames = new int[2];
+    while (buffer.hasRemaining()) {
+      if (buffer.remaining() < 6) {
+        logger.info("Fin de fichero alcanzado en graficos.ind");
+        break;
+      }
+      int grh = buffer.getInt();
+      short numFrames = buffer.getShort();
+
+      if (numFrames > 1) {
+        if (buffer.remaining() < numFrames * 4 + 4) {
+          logger.info("Fin de fichero alcanzado en graficos.ind");
+          break;
+        }
+        if (frames.length < numFrames + 1) {
+          frames = new int[numFrames + 1];
+        }
+        for (int i = 1; i <= numFrames; i++) {
+          frames[i] = buffer.getInt();
+        }
+        int speed = (int) buffer.getFloat();
+        store.addAnimation(grh, numFrames, frames, numFrames + 1, speed);
+      } else {
+        if (buffer.remaining() < 12) {
+          logger.info("Fin de fichero alcanzado en graficos.ind");
+          break;
         }
+        int fileNum = buffer.getInt();
+        short x = buffer.getShort();
+        short y = buffer.getShort();
+        short width = buffer.getShort();
+        short height = buffer.getShort();
+        store.addStatic(grh, numFrames, fileNum, x, y, width, height);
       }
-    } catch (FileNotFoundException e) {
-      logger.error("Archivo no encontrado: " + archivo.getAbsolutePath(), e);
-      throw e;
-    } catch (EOFException e) {
-      logger.info("Fin de fichero alcanzado en graficos.ind");
     }
+    store.trimToSize();
+    // Un único addAll evita notificar a la lista observable por cada registro
+    grhList.addAll(store.views());
     return grhList;
   }
 
@@ -343,16 +333,13 @@ public class TraditionalIndexLoader implements IndexLoader {
       file.seek(format.getDataOffset());
       short numWeapons = byteMigration.bigToLittle_Short(file.readShort());
 
-      for (int i = 0; i < numWeapons; i++) {
-        int[] weapon = new int[4];
-        for (int j = 0; j < 4; j++) {
-          if (format.isLong()) {
-            weapon[j] = byteMigration.bigToLittle_Int(file.readInt());
-          } else {
-            weapon[j] = byteMigration.bigToLittle_Short(file.readShort());
-          }
-        }
-        weaponList.add(new WeaponData(weapon));
+      int[] values = readIndexBlock(file, numWeapons * 4, format.isLong());
+      int complete = values.length / 4;
+      for (int i = 0; i < complete; i++) {
+        weaponList.add(new WeaponData(Arrays.copyOfRange(values, i * 4, i * 4 + 4)));
+      }
+      if (complete < numWeapons) {
+        logger.info("Fin de fichero alcanzado en armas.ind");
       }
     } catch (EOFException e) {
       logger.info("Fin de fichero alcanzado en armas.ind");
@@ -374,163 +361,87 @@ public class TraditionalIndexLoader implements IndexLoader {
     if (!archivo.exists())
       throw new FileNotFoundException("Archivos de texto de armas no encontrados (.ini o .dat)");
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-      String line;
-      int[] currentWeapon = new int[4];
-      boolean hasData = false;
-
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        if (line.isEmpty())
-          continue;
-        if (line.startsWith("[")) {
-          if (hasData) {
-            weaponList.add(new WeaponData(currentWeapon.clone()));
-            for (int k = 0; k < 4; k++)
-              currentWeapon[k] = 0;
-            hasData = false;
-          }
-          continue;
-        }
-        if (line.contains("'"))
-          line = line.split("'")[0].trim();
-        String[] parts = line.split("=");
-        if (parts.length < 2)
-          continue;
-
-        String key = parts[0].trim().toUpperCase();
-        String value = parts[1].trim();
-        try {
-          int val = Integer.parseInt(value);
-          if (key.startsWith("DIR")) {
-            int dirIndex = Integer.parseInt(key.substring(3)) - 1;
-            if (dirIndex >= 0 && dirIndex < 4) {
-              currentWeapon[dirIndex] = val;
-              hasData = true;
-            }
-          }
-        } catch (NumberFormatException e) {
-        }
-      }
-      if (hasData)
-        weaponList.add(new WeaponData(currentWeapon.clone()));
+    for (int[] grhs : readDirectionalText(archivo, "DIR", false, true)) {
+      weaponList.add(new WeaponData(grhs));
     }
     return weaponList;
   }
 
   @Override
   public void saveHeads(ObservableList<HeadData> entries) throws IOException {
-    saveIndFile(ResourceResolver.getHeadsInd(configManager.getInitDir()), "HEADS", file -> {
-      file.writeShort(byteMigration.bigToLittle_Short((short) entries.size()));
-      IndFileFormat format = detectedFormats.get("HEADS");
-      boolean isLong = (format != null) ? format.isLong() : true;
-
+    saveIndFile(ResourceResolver.getHeadsInd(configManager.getInitDir()), "HEADS", out -> {
+      out.putShort((short) entries.size());
       for (HeadData entry : entries) {
-        for (int grh : entry.getGrhIndex()) {
-          if (isLong)
-            file.writeInt(byteMigration.bigToLittle_Int(grh));
-          else
-            file.writeShort(byteMigration.bigToLittle_Short((short) grh));
-        }
+        out.putIndices(entry.getGrhIndex());
       }
     });
   }
 
   @Override
   public void saveHelmets(ObservableList<HelmetData> entries) throws IOException {
-    saveIndFile(ResourceResolver.getHelmetsInd(configManager.getInitDir()), "HELMETS", file -> {
-      file.writeShort(byteMigration.bigToLittle_Short((short) entries.size()));
-      IndFileFormat format = detectedFormats.get("HELMETS");
-      boolean isLong = (format != null) ? format.isLong() : true;
-
+    saveIndFile(ResourceResolver.getHelmetsInd(configManager.getInitDir()), "HELMETS", out -> {
+      out.putShort((short) entries.size());
       for (HelmetData entry : entries) {
-        for (int grh : entry.getGrhIndex()) {
-          if (isLong)
-            file.writeInt(byteMigration.bigToLittle_Int(grh));
-          else
-            file.writeShort(byteMigration.bigToLittle_Short((short) grh));
-        }
+        out.putIndices(entry.getGrhIndex());
       }
     });
   }
 
   @Override
   public void saveBodies(ObservableList<BodyData> entries) throws IOException {
-    saveIndFile(ResourceResolver.getBodiesInd(configManager.getInitDir()), "BODIES", file -> {
-      file.writeShort(byteMigration.bigToLittle_Short((short) entries.size()));
-      IndFileFormat format = detectedFormats.get("BODIES");
-      boolean isLong = (format != null) ? format.isLong() : true;
-
+    saveIndFile(ResourceResolver.getBodiesInd(configManager.getInitDir()), "BODIES", out -> {
+      out.putShort((short) entries.size());
       for (BodyData entry : entries) {
-        for (int grh : entry.getWalkG()) {
-          if (isLong)
-            file.writeInt(byteMigration.bigToLittle_Int(grh));
-          else
-            file.writeShort(byteMigration.bigToLittle_Short((short) grh));
-        }
-        file.writeShort(byteMigration.bigToLittle_Short(entry.getHeadOffsetX()));
-        file.writeShort(byteMigration.bigToLittle_Short(entry.getHeadOffsetY()));
+        out.putIndices(entry.getWalkG());
+        out.putShort(entry.getHeadOffsetX());
+        out.putShort(entry.getHeadOffsetY());
       }
     });
   }
 
   @Override
   public void saveShields(ObservableList<ShieldData> entries) throws IOException {
-    saveIndFile(ResourceResolver.getShieldsInd(configManager.getInitDir()), "SHIELDS", file -> {
-      file.writeShort(byteMigration.bigToLittle_Short((short) entries.size()));
-      IndFileFormat format = detectedFormats.get("SHIELDS");
-      boolean isLong = (format != null) ? format.isLong() : true;
-
+    saveIndFile(ResourceResolver.getShieldsInd(configManager.getInitDir()), "SHIELDS", out -> {
+      out.putShort((short) entries.size());
       for (ShieldData entry : entries) {
-        for (int grh : entry.getGrhIndex()) {
-          if (isLong)
-            file.writeInt(byteMigration.bigToLittle_Int(grh));
-          else
-            file.writeShort(byteMigration.bigToLittle_Short((short) grh));
-        }
+        out.putIndices(entry.getGrhIndex());
       }
     });
   }
 
   @Override
   public void saveFXs(ObservableList<FXData> entries) throws IOException {
-    saveIndFile(ResourceResolver.getFxsInd(configManager.getInitDir()), "FXS", file -> {
-      file.writeShort(byteMigration.bigToLittle_Short((short) entries.size()));
-      IndFileFormat format = detectedFormats.get("FXS");
-      boolean isLong = (format != null) ? format.isLong() : true;
-
+    saveIndFile(ResourceResolver.getFxsInd(configManager.getInitDir()), "FXS", out -> {
+      out.putShort((short) entries.size());
       for (FXData entry : entries) {
-        if (isLong)
-          file.writeInt(byteMigration.bigToLittle_Int(entry.getAnimInstance()));
-        else
-          file.writeShort(byteMigration.bigToLittle_Short((short) entry.getAnimInstance()));
-        file.writeShort(byteMigration.bigToLittle_Short(entry.getOffsetX()));
-        file.writeShort(byteMigration.bigToLittle_Short(entry.getOffsetY()));
+        out.putIndex(entry.getAnimInstance());
+        out.putShort(entry.getOffsetX());
+        out.putShort(entry.getOffsetY());
       }
     });
   }
 
   @Override
   public void saveGrhs(ObservableList<GrhData> entries) throws IOException {
-    saveIndFile(ResourceResolver.getGraphicsInd(configManager.getInitDir()), "GRAFICOS", file -> {
-      file.writeInt(byteMigration.bigToLittle_Int(1)); // Version placeholder
-      file.writeInt(byteMigration.bigToLittle_Int(entries.size()));
+    saveIndFile(ResourceResolver.getGraphicsInd(configManager.getInitDir()), "GRAFICOS", out -> {
+      out.putInt(1); // Version placeholder
+      out.putInt(entries.size());
 
       for (GrhData entry : entries) {
-        file.writeInt(byteMigration.bigToLittle_Int(entry.getGrh()));
-        file.writeShort(byteMigration.bigToLittle_Short(entry.getNumFrames()));
+        out.putInt(entry.getGrh());
+        out.putShort(entry.getNumFrames());
 
         if (entry.getNumFrames() > 1) {
           for (int i = 1; i <= entry.getNumFrames(); i++) {
-            file.writeInt(byteMigration.bigToLittle_Int(entry.getFrame(i)));
+            out.putInt(entry.getFrame(i));
           }
-          file.writeFloat(byteMigration.bigToLittle_Float(entry.getSpeed()));
+          out.putFloat(entry.getSpeed());
         } else {
-          file.writeInt(byteMigration.bigToLittle_Int(entry.getFileNum()));
-          file.writeShort(byteMigration.bigToLittle_Short(entry.getsX()));
-          file.writeShort(byteMigration.bigToLittle_Short(entry.getsY()));
-          file.writeShort(byteMigration.bigToLittle_Short(entry.getTileWidth()));
-          file.writeShort(byteMigration.bigToLittle_Short(entry.getTileHeight()));
+          out.putInt(entry.getFileNum());
+          out.putShort(entry.getsX());
+          out.putShort(entry.getsY());
+          out.putShort(entry.getTileWidth());
+          out.putShort(entry.getTileHeight());
         }
       }
     });
@@ -538,18 +449,10 @@ public class TraditionalIndexLoader implements IndexLoader {
 
   @Override
   public void saveWeapons(ObservableList<WeaponData> entries) throws IOException {
-    saveIndFile(ResourceResolver.getWeaponsInd(configManager.getInitDir()), "WEAPONS", file -> {
-      file.writeShort(byteMigration.bigToLittle_Short((short) entries.size()));
-      IndFileFormat format = detectedFormats.get("WEAPONS");
-      boolean isLong = (format != null) ? format.isLong() : true;
-
+    saveIndFile(ResourceResolver.getWeaponsInd(configManager.getInitDir()), "WEAPONS", out -> {
+      out.putShort((short) entries.size());
       for (WeaponData entry : entries) {
-        for (int grh : entry.getGrhIndex()) {
-          if (isLong)
-            file.writeInt(byteMigration.bigToLittle_Int(grh));
-          else
-            file.writeShort(byteMigration.bigToLittle_Short((short) grh));
-        }
+        out.putIndices(entry.getGrhIndex());
       }
     });
   }
@@ -557,49 +460,82 @@ public class TraditionalIndexLoader implements IndexLoader {
   // --- Helper Methods ---
 
   private interface SaveAction {
-    void accept(RandomAccessFile file) throws IOException;
+    void accept(IndFileWriter out) throws IOException;
   }
 
   private void saveIndFile(File archive, String formatKey, SaveAction action)
       throws IOException {
     IndFileFormat format = detectedFormats.get(formatKey);
-    long offset = (format != null) ? format.getDataOffset()
-        : (archive.getName().equalsIgnoreCase("graficos.ind") || archive.getName().equalsIgnoreCase("graphics.ind")
-            ? 263
-            : 0);
-
-    try (RandomAccessFile file = new RandomAccessFile(archive, "rw")) {
-      // Si hay cabecera (offset > 0), saltar o escribir placeholder
-      if (offset > 0) {
-        if (file.length() < offset) {
-          file.write(new byte[(int) offset]);
-        }
-        file.seek(offset);
-      } else {
-        file.seek(0);
+    if (format == null) {
+      long offset = archive.getName().equalsIgnoreCase("graficos.ind")
+          || archive.getName().equalsIgnoreCase("graphics.ind") ? 263 : 0;
+      format = new IndFileFormat(offset, true, true);
+    }
+
+    try (IndFileWriter out = new IndFileWriter(archive, format)) {
+      action.accept(out);
+    }
+  }
+
+  /**
+   * Lee en una sola operación un bloque de {@code count} índices (int o short según
+   * {@code isLong}) y los convierte a little-endian en bloque. Si el archivo termina antes, devuelve
+   * solo los valores completos disponibles.
+   */
+  private int[] readIndexBlock(RandomAccessFile file, int count, boolean isLong) throws IOException {
+    int width = isLong ? 4 : 2;
+    long available = (file.length() - file.getFilePointer()) / width;
+    int readable = (int) Math.max(0, Math.min(count, available));
+
+    byte[] raw = new byte[readable * width];
+    file.readFully(raw);
+    ByteBuffer block = ByteBuffer.wrap(raw);
+
+    int[] values = new int[readable];
+    if (isLong) {
+      block.asIntBuffer().get(values);
+      byteMigration.bigToLittle_Int(values);
+    } else {
+      short[] shorts = new short[readable];
+      block.asShortBuffer().get(shorts);
+      byteMigration.bigToLittle_Short(shorts);
+      for (int i = 0; i < readable; i++) {
+        values[i] = shorts[i];
       }
-      action.accept(file);
     }
+    return values;
   }
 
-  private void handleGrhHeader(RandomAccessFile file) throws IOException {
-    if (file.length() < 263 + 8) {
-      file.seek(0);
-      return;
+  /**
+   * Detecta si Graficos.ind tiene la cabecera de 263 bytes.
+   *
+   * @param buffer Contenido del archivo en little-endian.
+   * @return Offset donde comienzan los datos (0 o 263).
+   */
+  private int handleGrhHeader(ByteBuffer buffer) {
+    if (buffer.limit() < 263 + 8) {
+      return 0;
     }
-    file.seek(0);
-    int vNoHeader = byteMigration.bigToLittle_Int(file.readInt());
-    file.seek(263);
-    int vHeader = byteMigration.bigToLittle_Int(file.readInt());
+    int vNoHeader = buffer.getInt(0);
+    int vHeader = buffer.getInt(263);
 
     if (vNoHeader < 0 || vNoHeader > 500000) {
       if (vHeader >= 0 && vHeader < 500000) {
-        file.seek(263);
         logger.info("Cabecera detectada en Graficos.ind");
-        return;
+        return 263;
       }
     }
-    file.seek(0);
+    return 0;
+  }
+
+  /**
+   * Lee un archivo completo en memoria con una sola lectura, con orden little-endian.
+   * <p>
+   * No se mapea: en Windows un archivo mapeado no se puede reemplazar ni truncar hasta que el
+   * recolector libera el mapeo, y el editor sobrescribe este mismo archivo al guardar.
+   */
+  private ByteBuffer readLittleEndian(File archivo) throws IOException {
+    return ByteBuffer.wrap(Files.readAllBytes(archivo.toPath())).order(ByteOrder.LITTLE_ENDIAN);
   }
 
   @Override
@@ -612,6 +548,11 @@ public class TraditionalIndexLoader implements IndexLoader {
     return detectedFormats;
   }
 
+  @Override
+  public void restoreFormat(String key, IndFileFormat format) {
+    recordFormat(key, format);
+  }
+
   private void recordFormat(String key, IndFileFormat format) {
     detectedFormats.put(key.toUpperCase(), format);
   }
@@ -658,40 +599,8 @@ public class TraditionalIndexLoader implements IndexLoader {
     if (!archivo.exists())
       return headList;
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-      String line;
-      int[] currentGrh = new int[4];
-      boolean hasData = false;
-
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        if (line.isEmpty() || line.startsWith("[")) {
-          if (hasData) {
-            headList.add(new HeadData(currentGrh.clone()));
-            for (int k = 0; k < 4; k++)
-              currentGrh[k] = 0;
-            hasData = false;
-          }
-          continue;
-        }
-        String[] parts = line.split("=");
-        if (parts.length < 2)
-          continue;
-        String key = parts[0].trim().toUpperCase();
-        try {
-          int val = Integer.parseInt(parts[1].trim());
-          if (key.startsWith("HEAD")) {
-            int index = Integer.parseInt(key.substring(4)) - 1;
-            if (index >= 0 && index < 4) {
-              currentGrh[index] = val;
-              hasData = true;
-            }
-          }
-        } catch (NumberFormatException e) {
-        }
-      }
-      if (hasData)
-        headList.add(new HeadData(currentGrh.clone()));
+    for (int[] grhs : readDirectionalText(archivo, "HEAD", true, false)) {
+      headList.add(new HeadData(grhs));
     }
     return headList;
   }
@@ -708,40 +617,8 @@ public class TraditionalIndexLoader implements IndexLoader {
     if (!archivo.exists())
       return helmetList;
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-      String line;
-      int[] currentGrh = new int[4];
-      boolean hasData = false;
-
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        if (line.isEmpty() || line.startsWith("[")) {
-          if (hasData) {
-            helmetList.add(new HelmetData(currentGrh.clone()));
-            for (int k = 0; k < 4; k++)
-              currentGrh[k] = 0;
-            hasData = false;
-          }
-          continue;
-        }
-        String[] parts = line.split("=");
-        if (parts.length < 2)
-          continue;
-        String key = parts[0].trim().toUpperCase();
-        try {
-          int val = Integer.parseInt(parts[1].trim());
-          if (key.startsWith("HELMET")) {
-            int index = Integer.parseInt(key.substring(6)) - 1;
-            if (index >= 0 && index < 4) {
-              currentGrh[index] = val;
-              hasData = true;
-            }
-          }
-        } catch (NumberFormatException e) {
-        }
-      }
-      if (hasData)
-        helmetList.add(new HelmetData(currentGrh.clone()));
+    for (int[] grhs : readDirectionalText(archivo, "HELMET", true, false)) {
+      helmetList.add(new HelmetData(grhs));
     }
     return helmetList;
   }
@@ -758,50 +635,41 @@ public class TraditionalIndexLoader implements IndexLoader {
     if (!archivo.exists())
       return bodyList;
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-      String line;
-      int[] currentGrh = new int[4];
-      short offsetX = 0, offsetY = 0;
-      boolean hasData = false;
-
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        if (line.isEmpty() || line.startsWith("[")) {
-          if (hasData) {
-            bodyList.add(new BodyData(currentGrh.clone(), offsetX, offsetY));
-            for (int k = 0; k < 4; k++)
-              currentGrh[k] = 0;
-            offsetX = 0;
-            offsetY = 0;
-            hasData = false;
-          }
-          continue;
-        }
-        String[] parts = line.split("=");
-        if (parts.length < 2)
-          continue;
-        String key = parts[0].trim().toUpperCase();
-        try {
-          int val = Integer.parseInt(parts[1].trim());
-          if (key.startsWith("WALK")) {
-            int index = Integer.parseInt(key.substring(4)) - 1;
-            if (index >= 0 && index < 4) {
-              currentGrh[index] = val;
-              hasData = true;
-            }
-          } else if (key.equals("HEADOFFSETX")) {
-            offsetX = (short) val;
-            hasData = true;
-          } else if (key.equals("HEADOFFSETY")) {
-            offsetY = (short) val;
-            hasData = true;
-          }
-        } catch (NumberFormatException e) {
-        }
-      }
-      if (hasData)
-        bodyList.add(new BodyData(currentGrh.clone(), offsetX, offsetY));
-    }
+    IniScanner in = new IniScanner(IniScanner.readAll(archivo));
+    int[] currentGrh = new int[4];
+    short offsetX = 0, offsetY = 0;
+    boolean hasData = false;
+
+    while (in.nextLine()) {
+      if (in.isBlank() || in.isSection()) {
+        if (hasData) {
+          bodyList.add(new BodyData(currentGrh, offsetX, offsetY));
+          currentGrh = new int[4];
+          offsetX = 0;
+          offsetY = 0;
+          hasData = false;
+        }
+        continue;
+      }
+      long val = in.hasValue() ? in.valueInt() : IniScanner.INVALID;
+      if (val == IniScanner.INVALID)
+        continue;
+      if (in.keyStartsWith("WALK")) {
+        long index = in.keySuffix(4);
+        if (index >= 1 && index <= 4) {
+          currentGrh[(int) index - 1] = (int) val;
+          hasData = true;
+        }
+      } else if (in.keyEquals("HEADOFFSETX")) {
+        offsetX = (short) val;
+        hasData = true;
+      } else if (in.keyEquals("HEADOFFSETY")) {
+        offsetY = (short) val;
+        hasData = true;
+      }
+    }
+    if (hasData)
+      bodyList.add(new BodyData(currentGrh, offsetX, offsetY));
     return bodyList;
   }
 
@@ -817,46 +685,38 @@ public class TraditionalIndexLoader implements IndexLoader {
     if (!archivo.exists())
       return fxList;
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-      String line;
-      int anim = 0;
-      short offsetX = 0, offsetY = 0;
-      boolean hasData = false;
-
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        if (line.isEmpty() || line.startsWith("[")) {
-          if (hasData) {
-            fxList.add(new FXData(anim, offsetX, offsetY));
-            anim = 0;
-            offsetX = 0;
-            offsetY = 0;
-            hasData = false;
-          }
-          continue;
-        }
-        String[] parts = line.split("=");
-        if (parts.length < 2)
-          continue;
-        String key = parts[0].trim().toUpperCase();
-        try {
-          int val = Integer.parseInt(parts[1].trim());
-          if (key.equals("ANIMACION")) {
-            anim = val;
-            hasData = true;
-          } else if (key.equals("OFFSETX")) {
-            offsetX = (short) val;
-            hasData = true;
-          } else if (key.equals("OFFSETY")) {
-            offsetY = (short) val;
-            hasData = true;
-          }
-        } catch (NumberFormatException e) {
-        }
-      }
-      if (hasData)
-        fxList.add(new FXData(anim, offsetX, offsetY));
-    }
+    IniScanner in = new IniScanner(IniScanner.readAll(archivo));
+    int anim = 0;
+    short offsetX = 0, offsetY = 0;
+    boolean hasData = false;
+
+    while (in.nextLine()) {
+      if (in.isBlank() || in.isSection()) {
+        if (hasData) {
+          fxList.add(new FXData(anim, offsetX, offsetY));
+          anim = 0;
+          offsetX = 0;
+          offsetY = 0;
+          hasData = false;
+        }
+        continue;
+      }
+      long val = in.hasValue() ? in.valueInt() : IniScanner.INVALID;
+      if (val == IniScanner.INVALID)
+        continue;
+      if (in.keyEquals("ANIMACION")) {
+        anim = (int) val;
+        hasData = true;
+      } else if (in.keyEquals("OFFSETX")) {
+        offsetX = (short) val;
+        hasData = true;
+      } else if (in.keyEquals("OFFSETY")) {
+        offsetY = (short) val;
+        hasData = true;
+      }
+    }
+    if (hasData)
+      fxList.add(new FXData(anim, offsetX, offsetY));
     return fxList;
   }
 
@@ -872,49 +732,147 @@ public class TraditionalIndexLoader implements IndexLoader {
     if (!archivo.exists())
       return grhList;
 
-    try (BufferedReader reader = new BufferedReader(new FileReader(archivo))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        line = line.trim();
-        if (line.isEmpty() || line.startsWith("["))
-          continue;
-
-        String[] parts = line.split("=");
-        if (parts.length < 2)
-          continue;
-
-        String key = parts[0].trim().toUpperCase();
-        if (!key.startsWith("GRH"))
-          continue;
+    byte[] data = IniScanner.readAll(archivo);
+    GrhStore store;
+    if (data.length >= PARALLEL_TEXT_THRESHOLD) {
+      // Cada línea Grh es independiente: se reparte el fichero en trozos alineados a línea
+      // y se decodifican en paralelo, uniendo después los almacenes en orden.
+      int[] bounds = IniScanner.splitLines(data, Runtime.getRuntime().availableProcessors());
+      GrhStore[] parts = new GrhStore[bounds.length - 1];
+      IntStream.range(0, parts.length).parallel().forEach(
+          i -> parts[i] = parseGrhLines(new IniScanner(data, bounds[i], bounds[i + 1])));
+      store = parts[0];
+      for (int i = 1; i < parts.length; i++) {
+        store.addAll(parts[i]);
+      }
+    } else {
+      store = parseGrhLines(new IniScanner(data));
+    }
+    store.trimToSize();
+    grhList.addAll(store.views());
+    return grhList;
+  }
 
-        try {
-          int grhNum = Integer.parseInt(key.substring(3));
-          String[] values = parts[1].trim().split("-");
-          if (values.length < 2)
-            continue;
-
-          short numFrames = Short.parseShort(values[0]);
-          if (numFrames > 1) {
-            int[] frames = new int[numFrames + 1];
-            for (int i = 1; i <= numFrames; i++) {
-              frames[i] = Integer.parseInt(values[i]);
-            }
-            float speed = Float.parseFloat(values[values.length - 1]);
-            grhList.add(new GrhData(grhNum, numFrames, frames, speed));
-          } else {
-            int fileNum = Integer.parseInt(values[1]);
-            short sx = Short.parseShort(values[2]);
-            short sy = Short.parseShort(values[3]);
-            short w = Short.parseShort(values[4]);
-            short h = Short.parseShort(values[5]);
-            grhList.add(new GrhData(grhNum, numFrames, fileNum, sx, sy, w, h));
+  /**
+   * Decodifica las líneas {@code GrhN=frames-...} de una región de Graficos.ini. Las líneas mal
+   * formadas se ignoran, igual que las secciones y cualquier otra clave.
+   */
+  private static GrhStore parseGrhLines(IniScanner in) {
+    GrhStore store = new GrhStore();
+    byte[] data = in.data();
+    int[] starts = new int[8];
+    int[] ends = new int[8];
+    int[] frames = new int[8];
+
+    while (in.nextLine()) {
+      if (in.isSection() || !in.hasValue() || !in.keyStartsWith("GRH"))
+        continue;
+      long grhNum = in.keySuffix(3);
+      if (grhNum == IniScanner.INVALID)
+        continue;
+
+      // Campos separados por '-', descartando los vacíos del final como String.split
+      int from = in.valueStart();
+      int to = in.valueEnd();
+      int count = 0;
+      int fieldStart = from;
+      for (int i = from; i <= to; i++) {
+        if (i == to || data[i] == '-') {
+          if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
           }
-        } catch (Exception e) {
-          // Ignorar lineas mal formadas
+          starts[count] = fieldStart;
+          ends[count++] = i;
+          fieldStart = i + 1;
         }
       }
-    }
-    return grhList;
+      while (count > 0 && starts[count - 1] == ends[count - 1]) {
+        count--;
+      }
+      if (count < 2)
+        continue;
+
+      long numFrames = IniScanner.parseInt(data, starts[0], ends[0]);
+      if (!isShort(numFrames))
+        continue;
+
+      if (numFrames > 1) {
+        if (count < numFrames + 1)
+          continue;
+        if (frames.length < numFrames + 1) {
+          frames = new int[(int) numFrames + 1];
+        }
+        boolean valid = true;
+        for (int f = 1; f <= numFrames && valid; f++) {
+          long frame = IniScanner.parseInt(data, starts[f], ends[f]);
+          valid = frame != IniScanner.INVALID;
+          frames[f] = (int) frame;
+        }
+        float speed = IniScanner.parseFloat(data, starts[count - 1], ends[count - 1]);
+        if (valid && !Float.isNaN(speed)) {
+          store.addAnimation((int) grhNum, (short) numFrames, frames, (int) numFrames + 1, speed);
+        }
+      } else {
+        if (count < 6)
+          continue;
+        long fileNum = IniScanner.parseInt(data, starts[1], ends[1]);
+        long sx = IniScanner.parseInt(data, starts[2], ends[2]);
+        long sy = IniScanner.parseInt(data, starts[3], ends[3]);
+        long w = IniScanner.parseInt(data, starts[4], ends[4]);
+        long h = IniScanner.parseInt(data, starts[5], ends[5]);
+        if (fileNum != IniScanner.INVALID && isShort(sx) && isShort(sy) && isShort(w)
+            && isShort(h)) {
+          store.addStatic((int) grhNum, (short) numFrames, (int) fileNum, (short) sx, (short) sy,
+              (short) w, (short) h);
+        }
+      }
+    }
+    return store;
+  }
+
+  private static boolean isShort(long value) {
+    return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+  }
+
+  /**
+   * Lee registros de cuatro índices agrupados en secciones, con claves {@code PREFIJO1} a
+   * {@code PREFIJO4} (cabezas, cascos, escudos y armas).
+   *
+   * @param flushOnBlank  Si una línea vacía también cierra el registro en curso.
+   * @param stripComments Si se descarta el texto tras una comilla simple.
+   */
+  private static List<int[]> readDirectionalText(File archivo, String prefix,
+      boolean flushOnBlank, boolean stripComments) throws IOException {
+    List<int[]> records = new ArrayList<>();
+    IniScanner in = new IniScanner(IniScanner.readAll(archivo));
+    int[] current = new int[4];
+    boolean hasData = false;
+
+    while (in.nextLine()) {
+      if (in.isSection() || (flushOnBlank && in.isBlank())) {
+        if (hasData) {
+          records.add(current);
+          current = new int[4];
+          hasData = false;
+        }
+        continue;
+      }
+      if (stripComments)
+        in.stripComment();
+      if (!in.hasValue() || !in.keyStartsWith(prefix))
+        continue;
+
+      long val = in.valueInt();
+      long index = in.keySuffix(prefix.length());
+      if (val != IniScanner.INVALID && index >= 1 && index <= 4) {
+        current[(int) index - 1] = (int) val;
+        hasData = true;
+      }
+    }
+    if (hasData)
+      records.add(current);
+    return records;
   }
 
   @Override
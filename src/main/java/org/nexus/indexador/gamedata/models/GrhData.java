@@ -1,151 +1,155 @@
 package org.nexus.indexador.gamedata.models;
 
+/**
+ * Vista de un gráfico (GRH) sobre una fila de un {@link GrhStore}.
+ * <p>
+ * Los gráficos cargados desde disco comparten el almacén del cargador; los creados con los
+ * constructores públicos reciben un almacén propio de una sola fila.
+ */
 public class GrhData {
   // Variables
-  private int grh;
-  private int FileNum;
-
-  private int Frames[];
-  private short NumFrames;
-
-  private short sX;
-  private short sY;
-
-  private short TileWidth;
-  private short TileHeight;
-
-  private float Speed;
+  private final GrhStore store;
+  private final int row;
 
   // Constructor para graficos estaticos
   public GrhData(int grh, short NumFrames, int FileNum, short sX, short sY, short TileWidth,
       short TileHeight) {
-    this.grh = grh;
-    this.NumFrames = NumFrames;
-    this.FileNum = FileNum;
-    this.sX = sX;
-    this.sY = sY;
-    this.TileWidth = TileWidth;
-    this.TileHeight = TileHeight;
+    this.store = new GrhStore(1, 0);
+    this.row = store.addStatic(grh, NumFrames, FileNum, sX, sY, TileWidth, TileHeight);
   }
 
   // Constructor para animaciones
   public GrhData(int grh, short NumFrames, int[] Frames, float Speed) {
-    this.grh = grh;
-    this.NumFrames = NumFrames;
-    this.Frames = Frames;
-    this.Speed = Speed;
+    this.store = new GrhStore(1, Frames != null ? Frames.length : 0);
+    this.row = store.addAnimation(grh, NumFrames, Frames, Speed);
   }
 
   // Constructor vacio
   public GrhData() {
+    this(0, (short) 0, 0, (short) 0, (short) 0, (short) 0, (short) 0);
+  }
+
+  // Vista sobre una fila existente
+  GrhData(GrhStore store, int row) {
+    this.store = store;
+    this.row = row;
   }
 
   // Metodos SET
   public void setFileNum(int FileNum) {
-    this.FileNum = FileNum;
+    store.setFileNum(row, FileNum);
   }
 
   public void setNumFrames(short NumFrames) {
-    this.NumFrames = NumFrames;
+    store.setNumFrames(row, NumFrames);
   }
 
+  /** Los frames se copian al almacén; modificar el array después no tiene efecto. */
   public void setFrames(int[] Frames) {
-    this.Frames = Frames;
+    store.setFrames(row, Frames);
   }
 
   public void setsX(short sX) {
-    this.sX = sX;
+    store.setSX(row, sX);
   }
 
   public void setsY(short sY) {
-    this.sY = sY;
+    store.setSY(row, sY);
   }
 
   public void setTileWidth(short TileWidth) {
-    this.TileWidth = TileWidth;
+    store.setWidth(row, TileWidth);
   }
 
   public void setTileHeight(short TileHeight) {
-    this.TileHeight = TileHeight;
+    store.setHeight(row, TileHeight);
   }
 
   public void setSpeed(float Speed) {
-    this.Speed = Speed;
+    store.setSpeed(row, Speed);
   }
 
   public void setGrh(int grh) {
-    this.grh = grh;
+    store.setId(row, grh);
   }
 
   // Metodos GET
   public int getFileNum() {
-    return this.FileNum;
+    return store.getFileNum(row);
   }
 
   public short getNumFrames() {
-    return this.NumFrames;
+    return store.getNumFrames(row);
   }
 
+  /**
+   * Devuelve una copia de los frames con base 1. Para recorrerlos sin copiar, usar
+   * {@link #getFrame(int)}.
+   */
   public int[] getFrames() {
-    return this.Frames;
+    return store.getFrames(row);
   }
 
   public short getsX() {
-    return this.sX;
+    return store.getSX(row);
   }
 
   public short getsY() {
-    return this.sY;
+    return store.getSY(row);
   }
 
   public short getTileWidth() {
-    return this.TileWidth;
+    return store.getWidth(row);
   }
 
   public short getTileHeight() {
-    return this.TileHeight;
+    return store.getHeight(row);
   }
 
   public float getSpeed() {
-    return this.Speed;
+    return store.getSpeed(row);
   }
 
   public int getGrh() {
-    return grh;
+    return store.getId(row);
   }
 
   public int getGrhIndex() {
-    return grh;
+    return store.getId(row);
   }
 
   public int getFrame(int index) {
-    if (Frames != null && index >= 1 && index <= NumFrames) {
-      return Frames[index];
-    }
-    return 0;
+    return store.getFrame(row, index);
+  }
+
+  /**
+   * Longitud del array de frames con base 1 sin copiarlo, o 0 si no tiene frames.
+   */
+  public int getFrameLength() {
+    return store.getFrameLength(row);
   }
 
   public short getSX() {
-    return this.sX;
+    return store.getSX(row);
   }
 
   public short getSY() {
-    return this.sY;
+    return store.getSY(row);
   }
 
   public short getPixelWidth() {
-    return this.TileWidth;
+    return store.getWidth(row);
   }
 
   public short getPixelHeight() {
-    return this.TileHeight;
+    return store.getHeight(row);
   }
 
   public void setPixelWidth(short pixelWidth) {
-    this.TileWidth = pixelWidth;
+    store.setWidth(row, pixelWidth);
   }
 
   public void setPixelHeight(short pixelHeight) {
-    this.TileHeight = pixelHeight;
+    store.setHeight(row, pixelHeight);
   }
 }
@@ -0,0 +1,364 @@
+package org.nexus.indexador.gamedata.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Almacén columnar de gráficos (GRH).
+ * <p>
+ * Cada campo de {@link GrhData} se guarda en un array primitivo paralelo indexado por fila, y
+ * los frames de todas las animaciones comparten un único pool {@code int[]} empaquetado (sin el
+ * hueco del índice 0). Los objetos {@link GrhData} que recorre la aplicación son vistas ligeras
+ * (almacén + fila), por lo que un índice con cientos de miles de gráficos no paga una cabecera
+ * de objeto y un array de frames por registro.
+ * <p>
+ * No es seguro para uso concurrente, igual que las listas de {@code DataManager}.
+ */
+public final class GrhStore {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /** Marca de "sin array de frames" (gráficos estáticos). */
+  private static final int NO_FRAMES = -1;
+
+  private int size;
+
+  private int[] ids;
+  private int[] fileNums;
+  private short[] numFrames;
+  private short[] sX;
+  private short[] sY;
+  private short[] widths;
+  private short[] heights;
+  private float[] speeds;
+
+  // Posición en el pool y longitud del array de frames tal y como lo ve GrhData (incluye el
+  // índice 0), o NO_FRAMES si el gráfico no tiene frames.
+  private int[] frameStart;
+  private int[] frameLength;
+
+  private int[] framePool;
+  private int framePoolSize;
+  private int wastedFrames;
+
+  public GrhStore() {
+    this(DEFAULT_CAPACITY, 0);
+  }
+
+  /**
+   * @param capacity      Número de gráficos previsto.
+   * @param frameCapacity Número total de frames de animación previsto.
+   */
+  public GrhStore(int capacity, int frameCapacity) {
+    capacity = Math.max(capacity, 1);
+    ids = new int[capacity];
+    fileNums = new int[capacity];
+    numFrames = new short[capacity];
+    sX = new short[capacity];
+    sY = new short[capacity];
+    widths = new short[capacity];
+    heights = new short[capacity];
+    speeds = new float[capacity];
+    frameStart = new int[capacity];
+    frameLength = new int[capacity];
+    framePool = new int[Math.max(frameCapacity, 0)];
+  }
+
+  /**
+   * Añade un gráfico estático.
+   *
+   * @return La fila asignada.
+   */
+  public int addStatic(int id, short numFrames, int fileNum, short sX, short sY, short width,
+      short height) {
+    int row = newRow(id, numFrames);
+    this.fileNums[row] = fileNum;
+    this.sX[row] = sX;
+    this.sY[row] = sY;
+    this.widths[row] = width;
+    this.heights[row] = height;
+    return row;
+  }
+
+  /**
+   * Añade una animación. El array de frames se copia al pool.
+   *
+   * @param frames Frames con base 1 (el índice 0 se ignora), o null.
+   * @return La fila asignada.
+   */
+  public int addAnimation(int id, short numFrames, int[] frames, float speed) {
+    return addAnimation(id, numFrames, frames, frames != null ? frames.length : 0, speed);
+  }
+
+  /**
+   * Añade una animación tomando solo las primeras {@code length} posiciones de {@code frames},
+   * lo que permite reutilizar un mismo buffer al decodificar.
+   *
+   * @return La fila asignada.
+   */
+  public int addAnimation(int id, short numFrames, int[] frames, int length, float speed) {
+    int row = newRow(id, numFrames);
+    this.speeds[row] = speed;
+    if (frames != null) {
+      setFrames(row, frames, length);
+    }
+    return row;
+  }
+
+  /**
+   * Añade al final todas las filas de otro almacén, conservando su orden. Permite decodificar
+   * por partes en paralelo y unir el resultado.
+   */
+  public void addAll(GrhStore other) {
+    if (size + other.size > ids.length) {
+      resize(Math.max(size + other.size, size * 2));
+    }
+    System.arraycopy(other.ids, 0, ids, size, other.size);
+    System.arraycopy(other.fileNums, 0, fileNums, size, other.size);
+    System.arraycopy(other.numFrames, 0, numFrames, size, other.size);
+    System.arraycopy(other.sX, 0, sX, size, other.size);
+    System.arraycopy(other.sY, 0, sY, size, other.size);
+    System.arraycopy(other.widths, 0, widths, size, other.size);
+    System.arraycopy(other.heights, 0, heights, size, other.size);
+    System.arraycopy(other.speeds, 0, speeds, size, other.size);
+    System.arraycopy(other.frameLength, 0, frameLength, size, other.size);
+    for (int i = 0; i < other.size; i++) {
+      frameStart[size + i] = other.frameStart[i] + framePoolSize;
+    }
+
+    ensureFrameCapacity(framePoolSize + other.framePoolSize);
+    System.arraycopy(other.framePool, 0, framePool, framePoolSize, other.framePoolSize);
+    framePoolSize += other.framePoolSize;
+    wastedFrames += other.wastedFrames;
+    size += other.size;
+  }
+
+  /**
+   * Crea una vista por cada fila, en orden de inserción.
+   *
+   * @return Lista de vistas {@link GrhData} respaldadas por este almacén.
+   */
+  public List<GrhData> views() {
+    List<GrhData> views = new ArrayList<>(size);
+    for (int row = 0; row < size; row++) {
+      views.add(new GrhData(this, row));
+    }
+    return views;
+  }
+
+  /** Ajusta los arrays internos al tamaño ocupado. */
+  public void trimToSize() {
+    if (wastedFrames > 0) {
+      compactFrames();
+    }
+    resize(size);
+    if (framePool.length != framePoolSize) {
+      framePool = Arrays.copyOf(framePool, framePoolSize);
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  // --- Acceso por fila ---
+
+  public int getId(int row) {
+    return ids[row];
+  }
+
+  public void setId(int row, int id) {
+    ids[row] = id;
+  }
+
+  public int getFileNum(int row) {
+    return fileNums[row];
+  }
+
+  public void setFileNum(int row, int fileNum) {
+    fileNums[row] = fileNum;
+  }
+
+  public short getNumFrames(int row) {
+    return numFrames[row];
+  }
+
+  public void setNumFrames(int row, short value) {
+    numFrames[row] = value;
+  }
+
+  public short getSX(int row) {
+    return sX[row];
+  }
+
+  public void setSX(int row, short value) {
+    sX[row] = value;
+  }
+
+  public short getSY(int row) {
+    return sY[row];
+  }
+
+  public void setSY(int row, short value) {
+    sY[row] = value;
+  }
+
+  public short getWidth(int row) {
+    return widths[row];
+  }
+
+  public void setWidth(int row, short value) {
+    widths[row] = value;
+  }
+
+  public short getHeight(int row) {
+    return heights[row];
+  }
+
+  public void setHeight(int row, short value) {
+    heights[row] = value;
+  }
+
+  public float getSpeed(int row) {
+    return speeds[row];
+  }
+
+  public void setSpeed(int row, float value) {
+    speeds[row] = value;
+  }
+
+  /**
+   * Devuelve el frame {@code index} (base 1) sin copiar el array de frames.
+   *
+   * @return El índice del frame, o 0 si está fuera de rango.
+   */
+  public int getFrame(int row, int index) {
+    int length = frameLength[row];
+    if (index >= 1 && index <= numFrames[row] && index < length) {
+      return framePool[frameStart[row] + index - 1];
+    }
+    return 0;
+  }
+
+  /**
+   * Longitud que tendría el array de frames con base 1 de una fila (incluida la posición 0).
+   *
+   * @return La longitud, o 0 si la fila no tiene frames.
+   */
+  public int getFrameLength(int row) {
+    return Math.max(frameLength[row], 0);
+  }
+
+  /**
+   * Reconstruye el array de frames con base 1 de una fila.
+   *
+   * @return Una copia nueva, o null si la fila no tiene frames.
+   */
+  public int[] getFrames(int row) {
+    int length = frameLength[row];
+    if (length == NO_FRAMES) {
+      return null;
+    }
+    int[] frames = new int[length];
+    if (length > 1) {
+      System.arraycopy(framePool, frameStart[row], frames, 1, length - 1);
+    }
+    return frames;
+  }
+
+  /**
+   * Sustituye los frames de una fila. Si caben en el hueco actual se reescriben en sitio; si no,
+   * se añaden al final del pool y el hueco anterior se recupera en la siguiente compactación.
+   *
+   * @param frames Frames con base 1 (el índice 0 se ignora), o null.
+   */
+  public void setFrames(int row, int[] frames) {
+    if (frames == null) {
+      wastedFrames += packedLength(frameLength[row]);
+      frameLength[row] = NO_FRAMES;
+      frameStart[row] = 0;
+      return;
+    }
+    setFrames(row, frames, frames.length);
+  }
+
+  /**
+   * Sustituye los frames de una fila tomando solo las primeras {@code length} posiciones de
+   * {@code frames}.
+   */
+  public void setFrames(int row, int[] frames, int length) {
+    int oldPacked = packedLength(frameLength[row]);
+    int packed = packedLength(length);
+    if (packed <= oldPacked) {
+      wastedFrames += oldPacked - packed;
+    } else {
+      wastedFrames += oldPacked;
+      if (wastedFrames > framePoolSize / 2 && wastedFrames > 1024) {
+        frameLength[row] = NO_FRAMES;
+        compactFrames();
+      }
+      ensureFrameCapacity(framePoolSize + packed);
+      frameStart[row] = framePoolSize;
+      framePoolSize += packed;
+    }
+    if (packed > 0) {
+      System.arraycopy(frames, 1, framePool, frameStart[row], packed);
+    }
+    frameLength[row] = length;
+  }
+
+  // --- Internos ---
+
+  private int newRow(int id, short frames) {
+    if (size == ids.length) {
+      resize(Math.max(size * 2, DEFAULT_CAPACITY));
+    }
+    int row = size++;
+    ids[row] = id;
+    numFrames[row] = frames;
+    frameLength[row] = NO_FRAMES;
+    return row;
+  }
+
+  private static int packedLength(int length) {
+    return length > 1 ? length - 1 : 0;
+  }
+
+  private void resize(int capacity) {
+    capacity = Math.max(capacity, 1);
+    ids = Arrays.copyOf(ids, capacity);
+    fileNums = Arrays.copyOf(fileNums, capacity);
+    numFrames = Arrays.copyOf(numFrames, capacity);
+    sX = Arrays.copyOf(sX, capacity);
+    sY = Arrays.copyOf(sY, capacity);
+    widths = Arrays.copyOf(widths, capacity);
+    heights = Arrays.copyOf(heights, capacity);
+    speeds = Arrays.copyOf(speeds, capacity);
+    frameStart = Arrays.copyOf(frameStart, capacity);
+    frameLength = Arrays.copyOf(frameLength, capacity);
+  }
+
+  private void ensureFrameCapacity(int required) {
+    if (required > framePool.length) {
+      framePool = Arrays.copyOf(framePool, Math.max(required, framePool.length * 2));
+    }
+  }
+
+  /** Reescribe el pool eliminando los huecos dejados por ediciones de frames. */
+  private void compactFrames() {
+    int[] pool = new int[Math.max(framePoolSize - wastedFrames, 0)];
+    int next = 0;
+    for (int row = 0; row < size; row++) {
+      int packed = packedLength(frameLength[row]);
+      if (packed > 0) {
+        System.arraycopy(framePool, frameStart[row], pool, next, packed);
+      }
+      frameStart[row] = next;
+      next += packed;
+    }
+    framePool = pool;
+    framePoolSize = next;
+    wastedFrames = 0;
+  }
+}
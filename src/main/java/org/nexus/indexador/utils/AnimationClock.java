@@ -0,0 +1,102 @@
+package org.nexus.indexador.utils;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reloj único para todas las animaciones de los visores.
+ * <p>
+ * Un solo {@link AnimationTimer} avanza en cada pulso de JavaFX todas las {@link AnimationState}
+ * activas, de modo que los redibujados de todas las ventanas se hacen en el mismo pulso y solo
+ * cuando algún frame cambia. Las animaciones de ventanas minimizadas no avanzan, las de ventanas
+ * cerradas se dan de baja, y el temporizador se detiene cuando no queda ninguna suscrita. Solo debe
+ * usarse desde el hilo de JavaFX.
+ */
+public final class AnimationClock {
+  private static AnimationClock instance;
+
+  /** Salto máximo por pulso, para no adelantar varios frames de golpe tras un bloqueo. */
+  private static final long MAX_PULSE_NANOS = 250_000_000L;
+
+  private final List<AnimationState> subscribers = new ArrayList<>();
+  private final Ticker timer;
+  private long lastPulse = -1;
+
+  /** Temporizador que da los pulsos; en las pruebas se sustituye por uno sin JavaFX. */
+  interface Ticker {
+    void start();
+
+    void stop();
+  }
+
+  private AnimationClock() {
+    AnimationTimer animationTimer = new AnimationTimer() {
+      @Override
+      public void handle(long now) {
+        pulse(now);
+      }
+    };
+    this.timer = new Ticker() {
+      @Override
+      public void start() {
+        animationTimer.start();
+      }
+
+      @Override
+      public void stop() {
+        animationTimer.stop();
+      }
+    };
+  }
+
+  AnimationClock(Ticker timer) {
+    this.timer = timer;
+  }
+
+  public static synchronized AnimationClock getInstance() {
+    if (instance == null) {
+      instance = new AnimationClock();
+    }
+    return instance;
+  }
+
+  void add(AnimationState state) {
+    if (!subscribers.contains(state)) {
+      subscribers.add(state);
+    }
+    if (subscribers.size() == 1) {
+      lastPulse = -1;
+      timer.start();
+    }
+  }
+
+  void remove(AnimationState state) {
+    subscribers.remove(state);
+    if (subscribers.isEmpty()) {
+      timer.stop();
+    }
+  }
+
+  /**
+   * @return Número de animaciones suscritas.
+   */
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  private void pulse(long now) {
+    long delta = lastPulse < 0 ? 0 : Math.min(now - lastPulse, MAX_PULSE_NANOS);
+    lastPulse = now;
+    if (delta == 0) {
+      return;
+    }
+    // Copia: un redibujado puede iniciar o detener animaciones
+    for (AnimationState state : subscribers.toArray(new AnimationState[0])) {
+      if (state.isRunning() && state.isVisible() && state.advance(delta)) {
+        state.redraw();
+      }
+    }
+  }
+}
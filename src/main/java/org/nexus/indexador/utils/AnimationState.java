@@ -1,18 +1,51 @@
 package org.nexus.indexador.utils;
 
-import javafx.animation.Timeline;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.Window;
 
+/**
+ * Estado de reproducción de una animación de GRH en un visor.
+ * <p>
+ * No tiene temporizador propio: al iniciarse se suscribe al {@link AnimationClock} compartido, que
+ * avanza el frame según la velocidad del GRH y llama a la acción de redibujado solo cuando el frame
+ * cambia. Mientras la ventana del visor está minimizada la animación queda en pausa; al cerrarse,
+ * la animación se detiene y deja de estar suscrita, para que el reloj no retenga el visor.
+ */
 public class AnimationState {
-  private Timeline timeline;
-  private int currentFrameIndex;
+
+  /** Duración de cada frame cuando el GRH no tiene una velocidad válida. */
+  static final double DEFAULT_FRAME_MILLIS = 100.0;
+
+  private int currentFrameIndex = 1;
+
+  private Node owner;
+  private int numFrames;
+  private long frameNanos;
+  private long elapsedNanos;
+  private Runnable onFrame;
+  private boolean running;
+
+  private final AnimationClock clock;
+  private ObservableValue<Boolean> showing;
+  private final ChangeListener<Boolean> closeListener = (observable, wasShowing, isShowing) -> {
+    if (Boolean.TRUE.equals(wasShowing) && Boolean.FALSE.equals(isShowing)) {
+      stop();
+    }
+  };
 
   public AnimationState() {
-    this.timeline = new Timeline();
-    this.currentFrameIndex = 0;
+    this(null);
   }
 
-  public Timeline getTimeline() {
-    return timeline;
+  /**
+   * @param clock Reloj al que suscribirse, o null para el compartido.
+   */
+  AnimationState(AnimationClock clock) {
+    this.clock = clock;
   }
 
   public int getCurrentFrameIndex() {
@@ -22,4 +55,121 @@ public class AnimationState {
   public void setCurrentFrameIndex(int currentFrameIndex) {
     this.currentFrameIndex = currentFrameIndex;
   }
+
+  /**
+   * Empieza a reproducir una animación desde el primer frame, dibujándolo de inmediato.
+   *
+   * @param owner     Nodo del visor; la animación se pausa si su ventana no está visible. Puede
+   *                  ser null.
+   * @param numFrames Número de frames de la animación.
+   * @param speed     Velocidad del GRH: duración en milisegundos del ciclo completo.
+   * @param onFrame   Acción que redibuja el frame actual ({@link #getCurrentFrameIndex()}).
+   */
+  public void start(Node owner, int numFrames, float speed, Runnable onFrame) {
+    start(owner, owner != null ? showingOf(owner) : null, numFrames, speed, onFrame);
+  }
+
+  /**
+   * @param showing Si la ventana del visor se muestra; cuando pasa de true a false la animación
+   *                se detiene. Puede ser null.
+   */
+  void start(Node owner, ObservableValue<Boolean> showing, int numFrames, float speed,
+      Runnable onFrame) {
+    stop();
+    reset(owner, numFrames, speed, onFrame);
+    onFrame.run();
+    if (this.numFrames > 1) {
+      running = true;
+      clock().add(this);
+      if (showing != null) {
+        this.showing = showing;
+        showing.addListener(closeListener);
+      }
+    }
+  }
+
+  /** Visibilidad de la ventana que contiene el nodo, siguiendo los cambios de escena y ventana. */
+  private static ObservableValue<Boolean> showingOf(Node owner) {
+    return owner.sceneProperty().flatMap(Scene::windowProperty).flatMap(Window::showingProperty);
+  }
+
+  private AnimationClock clock() {
+    return clock != null ? clock : AnimationClock.getInstance();
+  }
+
+  /** Prepara la reproducción en el primer frame, sin suscribirse al reloj. */
+  void reset(Node owner, int numFrames, float speed, Runnable onFrame) {
+    this.owner = owner;
+    this.numFrames = Math.max(1, numFrames);
+    this.frameNanos = frameNanos(this.numFrames, speed);
+    this.onFrame = onFrame;
+    this.elapsedNanos = 0;
+    this.currentFrameIndex = 1;
+  }
+
+  /**
+   * Detiene la animación, conservando el frame actual.
+   */
+  public void stop() {
+    if (showing != null) {
+      showing.removeListener(closeListener);
+      showing = null;
+    }
+    if (running) {
+      running = false;
+      clock().remove(this);
+    }
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * Duración de un frame en nanosegundos. Como en el cliente, la velocidad es lo que dura el ciclo
+   * entero, repartido entre los frames.
+   */
+  static long frameNanos(int numFrames, float speed) {
+    double frameMillis = speed > 0 ? speed / numFrames : DEFAULT_FRAME_MILLIS;
+    return Math.max(1L, (long) (frameMillis * 1_000_000L));
+  }
+
+  /**
+   * Suma el tiempo transcurrido y avanza los frames que correspondan.
+   *
+   * @return true si el frame actual cambió.
+   */
+  boolean advance(long deltaNanos) {
+    elapsedNanos += deltaNanos;
+    long steps = elapsedNanos / frameNanos;
+    if (steps == 0) {
+      return false;
+    }
+    elapsedNanos -= steps * frameNanos;
+    int next = (int) ((currentFrameIndex - 1 + steps) % numFrames) + 1;
+    if (next == currentFrameIndex) {
+      return false;
+    }
+    currentFrameIndex = next;
+    return true;
+  }
+
+  void redraw() {
+    onFrame.run();
+  }
+
+  /**
+   * @return false si la ventana del visor no se muestra o está minimizada.
+   */
+  boolean isVisible() {
+    if (owner == null) {
+      return true;
+    }
+    Scene scene = owner.getScene();
+    Window window = scene != null ? scene.getWindow() : null;
+    if (window == null || !window.isShowing()) {
+      return false;
+    }
+    return !(window instanceof Stage stage && stage.isIconified());
+  }
 }
@@ -1,15 +1,13 @@
 package org.nexus.indexador.utils;
 
 import javafx.scene.image.Image;
-import javafx.scene.image.PixelReader;
-import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Servicio para la detección automática de regiones de sprites (Auto-Tiling).
@@ -20,6 +18,9 @@ public class AutoTilingService {
   private static volatile AutoTilingService instance;
   private final Logger logger = Logger.getInstance();
 
+  /** Hojas a partir de este número de píxeles se etiquetan por franjas en paralelo. */
+  private static final int PARALLEL_MIN_PIXELS = 1024 * 1024;
+
   private AutoTilingService() {
   }
 
@@ -35,11 +36,34 @@ public class AutoTilingService {
   }
 
   /**
-   * Main entry point with full control
+   * Main entry point with full control.
+   * <p>
+   * Los resultados se guardan en {@link DetectionCache} por huella del contenido: repetir la
+   * detección de una hoja con los mismos parámetros no recalcula nada, y con otros parámetros
+   * reutiliza el etiquetado en bruto y solo repite las fases de unión, división y filtrado.
    */
   public List<Rectangle> detectSprites(Image image, int toleranceX, int toleranceY, boolean enableGridSplit) {
+    if (image == null)
+      return new ArrayList<>();
+
+    int width = (int) image.getWidth();
+    int height = (int) image.getHeight();
+    int[] argb = ImageUtils.readArgb(image);
+    long hash = DetectionCache.hash(argb, width, height);
+
+    DetectionCache cache = DetectionCache.getInstance();
+    List<double[]> cached = cache.getResult(hash, toleranceX, toleranceY, enableGridSplit);
+    if (cached != null) {
+      logger.info("Detección recuperada de la caché: " + cached.size() + " sprites.");
+      List<Rectangle> regions = new ArrayList<>(cached.size());
+      for (double[] r : cached) {
+        regions.add(new Rectangle(r[0], r[1], r[2], r[3]));
+      }
+      return regions;
+    }
+
     // 1. Raw Detection
-    List<Rectangle> regions = detectRawSprites(image);
+    List<Rectangle> regions = toRectangles(rawBoxes(argb, width, height, hash));
 
     if (!regions.isEmpty()) {
       // 2. Merge
@@ -63,6 +87,13 @@ public class AutoTilingService {
       logger.info("Smart Detección (X:" + toleranceX + ", Y:" + toleranceY + ", Split:" + enableGridSplit + ") : "
           + regions.size() + " sprites.");
     }
+
+    // Se guardan copias: quien llama puede modificar los rectángulos devueltos
+    List<double[]> result = new ArrayList<>(regions.size());
+    for (Rectangle r : regions) {
+      result.add(new double[] {r.getX(), r.getY(), r.getWidth(), r.getHeight()});
+    }
+    cache.putResult(hash, toleranceX, toleranceY, enableGridSplit, result);
     return regions;
   }
 
@@ -87,35 +118,39 @@ public class AutoTilingService {
   }
 
   private List<Rectangle> detectRawSprites(Image image) {
-    List<Rectangle> regions = new ArrayList<>();
     if (image == null)
-      return regions;
+      return new ArrayList<>();
 
     int width = (int) image.getWidth();
     int height = (int) image.getHeight();
-    PixelReader reader = image.getPixelReader();
+    int[] argb = ImageUtils.readArgb(image);
+    return toRectangles(rawBoxes(argb, width, height, DetectionCache.hash(argb, width, height)));
+  }
 
-    BitSet visited = new BitSet(width * height);
+  /**
+   * Regiones conexas de la hoja antes de unir nada, desde la caché si ya se etiquetó una hoja
+   * con el mismo contenido.
+   */
+  private List<int[]> rawBoxes(int[] argb, int width, int height, long hash) {
+    DetectionCache cache = DetectionCache.getInstance();
+    List<int[]> boxes = cache.getRawBoxes(hash);
+    if (boxes != null) {
+      return boxes;
+    }
 
     logger.info("Iniciando detección de sprites en imagen de " + width + "x" + height);
 
-    for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
-        if (visited.get(y * width + x))
-          continue;
-
-        Color color = reader.getColor(x, y);
-        if (isTransparent(color)) {
-          visited.set(y * width + x);
-          continue;
-        }
-
-        Rectangle region = floodFill(reader, visited, width, height, x, y);
+    boxes = (long) width * height >= PARALLEL_MIN_PIXELS
+        ? SpriteLabeler.labelParallel(argb, width, height, ForkJoinPool.commonPool())
+        : SpriteLabeler.label(argb, width, height);
+    cache.putRawBoxes(hash, boxes);
+    return boxes;
+  }
 
-        if (region.getWidth() > 2 && region.getHeight() > 2) {
-          regions.add(region);
-        }
-      }
+  private static List<Rectangle> toRectangles(List<int[]> boxes) {
+    List<Rectangle> regions = new ArrayList<>(boxes.size());
+    for (int[] box : boxes) {
+      regions.add(new Rectangle(box[0], box[1], box[2], box[3]));
     }
     return regions;
   }
@@ -167,35 +202,51 @@ public class AutoTilingService {
     return splitOccurred ? refined : blobs;
   }
 
-  private List<Rectangle> mergeRegions(List<Rectangle> regions, int tolX, int tolY) {
-    boolean changed = true;
-    while (changed) {
-      changed = false;
-      for (int i = 0; i < regions.size(); i++) {
-        Rectangle r1 = regions.get(i);
-        for (int j = i + 1; j < regions.size(); j++) {
-          Rectangle r2 = regions.get(j);
-
-          if (shouldMerge(r1, r2, tolX, tolY)) {
-            double minX = Math.min(r1.getX(), r2.getX());
-            double minY = Math.min(r1.getY(), r2.getY());
-            double maxX = Math.max(r1.getX() + r1.getWidth(), r2.getX() + r2.getWidth());
-            double maxY = Math.max(r1.getY() + r1.getHeight(), r2.getY() + r2.getHeight());
-
-            Rectangle newRect = new Rectangle(minX, minY, maxX - minX, maxY - minY);
-            regions.set(i, newRect);
-            regions.remove(j);
-            changed = true;
-            j--;
-            r1 = newRect;
-          }
+  /**
+   * Une las regiones que quedan a menos de la tolerancia, repitiendo hasta que no quede ningún par
+   * por unir. Cada región consulta en una rejilla solo a sus vecinas, y al crecer vuelve a la cola
+   * para buscar las que ahora alcanza. Como el resultado de unir hasta agotar pares no depende del
+   * orden, coincide con el de comparar todos contra todos. Cada grupo queda en la posición de su
+   * región más temprana.
+   */
+  List<Rectangle> mergeRegions(List<Rectangle> regions, int tolX, int tolY) {
+    RegionSet set = new RegionSet(regions, Math.max(tolX, tolY));
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int i = 0; i < set.size(); i++) {
+      queue.add(i);
+    }
+
+    while (!queue.isEmpty()) {
+      int i = queue.poll();
+      if (!set.alive[i])
+        continue;
+
+      int found = set.grid.query(set.x[i] - tolX, set.y[i] - tolY, set.w[i] + tolX * 2,
+          set.h[i] + tolY * 2);
+      int[] candidates = set.grid.results();
+      for (int k = 0; k < found; k++) {
+        int j = candidates[k];
+        if (j != i && set.alive[j] && set.shouldMerge(i, j, tolX, tolY)) {
+          // Conserva la posición más temprana y vuelve a buscar vecinos con los nuevos límites
+          int keep = Math.min(i, j);
+          set.merge(keep, Math.max(i, j));
+          queue.add(keep);
+          break;
         }
       }
     }
-    return regions;
+    return set.toList();
   }
 
-  private List<Rectangle> mergeOrphanedSparks(List<Rectangle> blobs) {
+  /**
+   * Une cada "chispa" (región pequeña) con el cuerpo más cercano que la solapa en horizontal.
+   * <p>
+   * Se aplica siempre la primera chispa, en el orden de la lista, que tenga un cuerpo válido, igual
+   * que recorriendo la lista desde el principio tras cada unión. Para no recorrerla entera se
+   * guardan las chispas pendientes de evaluar: tras una unión solo se vuelven a evaluar las que
+   * tienen el cuerpo modificado a su alcance.
+   */
+  List<Rectangle> mergeOrphanedSparks(List<Rectangle> blobs) {
     if (blobs.size() < 2)
       return blobs;
 
@@ -222,149 +273,188 @@ public class AutoTilingService {
     // Helps prevent merging two stacked frames via a spark bridge.
     double maxHeightLimit = (medianHeight == Double.MAX_VALUE) ? Double.MAX_VALUE : (medianHeight * 1.4);
 
-    boolean changed = true;
-    while (changed) {
-      changed = false;
-      for (int i = 0; i < blobs.size(); i++) {
-        Rectangle spark = blobs.get(i);
-        double area = spark.getWidth() * spark.getHeight();
-
-        // Treat everything smaller than threshold as potential spark
-        // But if it's already huge, don't move it.
-        // Also don't merge if spark itself is taller than limit (unlikely)
-        if (area > sparkThreshold)
-          continue;
+    RegionSet set = new RegionSet(blobs, SPARK_GAP);
+    BitSet pending = new BitSet(set.size());
+    for (int i = 0; i < set.size(); i++) {
+      // Treat everything smaller than threshold as potential spark
+      if (set.area(i) <= sparkThreshold)
+        pending.set(i);
+    }
 
-        int bestMatchIdx = -1;
-        double minDistance = Double.MAX_VALUE;
-
-        for (int j = 0; j < blobs.size(); j++) {
-          if (i == j)
-            continue;
-          Rectangle body = blobs.get(j);
-          // Don't merge into another small spark
-          if (body.getWidth() * body.getHeight() <= sparkThreshold / 2)
-            continue;
-
-          // Loose Alignment: Check for ANY horizontal overlap
-          boolean overlapsX = (spark.getX() < body.getX() + body.getWidth()) &&
-              (spark.getX() + spark.getWidth() > body.getX());
-
-          if (overlapsX) {
-            double dist = distanceBetween(spark, body);
-            // 80px tolerance for gap
-            if (dist < 80 && dist < minDistance) {
-              // CRITICAL CHECK: Does merging break the height limit?
-              double newMinY = Math.min(spark.getY(), body.getY());
-              double newMaxY = Math.max(spark.getY() + spark.getHeight(), body.getY() + body.getHeight());
-              double newHeight = newMaxY - newMinY;
-
-              // If body is ALREADY super tall (e.g. big animation), ignore limit.
-              // But if body is normal-ish, enforce limit.
-              boolean bodyIsAlreadyTall = body.getHeight() > maxHeightLimit;
-
-              if (!bodyIsAlreadyTall && newHeight > maxHeightLimit) {
-                continue; // Skip this merge, it makes the sprite too tall (likely 2 frames)
-              }
-
-              minDistance = dist;
-              bestMatchIdx = j;
-            }
-          }
-        }
+    int i = pending.nextSetBit(0);
+    while (i >= 0) {
+      pending.clear(i);
+      // Una chispa que ya absorbió otras puede haber dejado de serlo
+      int body = set.area(i) <= sparkThreshold
+          ? findSparkBody(set, i, sparkThreshold, maxHeightLimit)
+          : -1;
+      if (body == -1) {
+        i = pending.nextSetBit(i + 1);
+        continue;
+      }
 
-        if (bestMatchIdx != -1) {
-          Rectangle body = blobs.get(bestMatchIdx);
-          double minX = Math.min(spark.getX(), body.getX());
-          double minY = Math.min(spark.getY(), body.getY());
-          double maxX = Math.max(spark.getX() + spark.getWidth(), body.getX() + body.getWidth());
-          double maxY = Math.max(spark.getY() + spark.getHeight(), body.getY() + body.getHeight());
-
-          Rectangle newBody = new Rectangle(minX, minY, maxX - minX, maxY - minY);
-          blobs.set(bestMatchIdx, newBody);
-          blobs.remove(i);
-          changed = true;
-          i--;
-          break;
-        }
+      set.merge(body, i);
+      // Solo cambia la evaluación de las chispas que alcanzan al cuerpo (que ya incluye a la chispa)
+      int found = set.grid.query(set.x[body], set.y[body] - SPARK_GAP, set.w[body],
+          set.h[body] + SPARK_GAP * 2);
+      int[] candidates = set.grid.results();
+      for (int k = 0; k < found; k++) {
+        int j = candidates[k];
+        if (set.alive[j] && set.area(j) <= sparkThreshold)
+          pending.set(j);
       }
+      i = pending.nextSetBit(0);
     }
-    return blobs;
+    return set.toList();
   }
 
-  private double distanceBetween(Rectangle r1, Rectangle r2) {
-    if (r1.getY() + r1.getHeight() < r2.getY()) {
-      return r2.getY() - (r1.getY() + r1.getHeight());
-    } else if (r2.getY() + r2.getHeight() < r1.getY()) {
-      return r1.getY() - (r2.getY() + r2.getHeight());
-    } else {
-      return 0;
+  /** Distancia vertical máxima (exclusiva) entre una chispa y su cuerpo. */
+  private static final int SPARK_GAP = 80;
+
+  /**
+   * @return El cuerpo al que se une la chispa, o -1 si no hay ninguno válido. A igual distancia
+   *         gana el que va antes en la lista.
+   */
+  private int findSparkBody(RegionSet set, int spark, double sparkThreshold, double maxHeightLimit) {
+    int bestMatchIdx = -1;
+    double minDistance = Double.MAX_VALUE;
+
+    int found = set.grid.query(set.x[spark], set.y[spark] - SPARK_GAP, set.w[spark],
+        set.h[spark] + SPARK_GAP * 2);
+    int[] candidates = set.grid.results();
+    for (int k = 0; k < found; k++) {
+      int j = candidates[k];
+      if (j == spark || !set.alive[j])
+        continue;
+      // Don't merge into another small spark
+      if (set.area(j) <= sparkThreshold / 2)
+        continue;
+
+      // Loose Alignment: Check for ANY horizontal overlap
+      boolean overlapsX = (set.x[spark] < set.x[j] + set.w[j]) &&
+          (set.x[spark] + set.w[spark] > set.x[j]);
+      if (!overlapsX)
+        continue;
+
+      double dist = set.verticalGap(spark, j);
+      if (dist < SPARK_GAP && (dist < minDistance || (dist == minDistance && j < bestMatchIdx))) {
+        // CRITICAL CHECK: Does merging break the height limit?
+        double newMinY = Math.min(set.y[spark], set.y[j]);
+        double newMaxY = Math.max(set.y[spark] + set.h[spark], set.y[j] + set.h[j]);
+        double newHeight = newMaxY - newMinY;
+
+        // If body is ALREADY super tall (e.g. big animation), ignore limit.
+        // But if body is normal-ish, enforce limit.
+        boolean bodyIsAlreadyTall = set.h[j] > maxHeightLimit;
+
+        if (!bodyIsAlreadyTall && newHeight > maxHeightLimit) {
+          continue; // Skip this merge, it makes the sprite too tall (likely 2 frames)
+        }
+
+        minDistance = dist;
+        bestMatchIdx = j;
+      }
     }
+    return bestMatchIdx;
   }
 
-  private boolean shouldMerge(Rectangle r1, Rectangle r2, int tolX, int tolY) {
-    double r1x = r1.getX() - tolX;
-    double r1y = r1.getY() - tolY;
-    double r1w = r1.getWidth() + (tolX * 2);
-    double r1h = r1.getHeight() + (tolY * 2);
+  /**
+   * Regiones en arrays paralelos, indexadas por su posición original, con una rejilla para buscar
+   * vecinas. Las regiones absorbidas se marcan como muertas y el resultado conserva el orden.
+   */
+  private static final class RegionSet {
+    final double[] x;
+    final double[] y;
+    final double[] w;
+    final double[] h;
+    final boolean[] alive;
+    final RegionGrid grid;
+
+    RegionSet(List<Rectangle> regions, double reach) {
+      int n = regions.size();
+      x = new double[n];
+      y = new double[n];
+      w = new double[n];
+      h = new double[n];
+      alive = new boolean[n];
+
+      double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+      double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+      double dimSum = 0;
+      for (int i = 0; i < n; i++) {
+        Rectangle r = regions.get(i);
+        x[i] = r.getX();
+        y[i] = r.getY();
+        w[i] = r.getWidth();
+        h[i] = r.getHeight();
+        alive[i] = true;
+        minX = Math.min(minX, x[i]);
+        minY = Math.min(minY, y[i]);
+        maxX = Math.max(maxX, x[i] + w[i]);
+        maxY = Math.max(maxY, y[i] + h[i]);
+        dimSum += Math.max(w[i], h[i]);
+      }
 
-    return r1x < r2.getX() + r2.getWidth() &&
-        r1x + r1w > r2.getX() &&
-        r1y < r2.getY() + r2.getHeight() &&
-        r1y + r1h > r2.getY();
-  }
+      // Celdas del tamaño típico de una región, para que cada una ocupe pocas
+      double cellSize = Math.max(32, Math.min(256, n > 0 ? dimSum / n : 32));
+      grid = new RegionGrid(minX - reach, minY - reach, maxX + reach, maxY + reach, cellSize, n);
+      for (int i = 0; i < n; i++) {
+        grid.insert(i, x[i], y[i], w[i], h[i]);
+      }
+    }
 
-  private boolean isTransparent(Color color) {
-    return color.getOpacity() < 0.1
-        || (color.getRed() == 0 && color.getGreen() == 0 && color.getBlue() == 0);
-  }
+    int size() {
+      return x.length;
+    }
 
-  private Rectangle floodFill(PixelReader reader, BitSet visited, int width, int height, int startX,
-      int startY) {
-    int minX = startX;
-    int maxX = startX;
-    int minY = startY;
-    int maxY = startY;
+    double area(int i) {
+      return w[i] * h[i];
+    }
 
-    Queue<Point> queue = new LinkedList<>();
-    queue.add(new Point(startX, startY));
-    visited.set(startY * width + startX);
+    boolean shouldMerge(int i, int j, int tolX, int tolY) {
+      double r1x = x[i] - tolX;
+      double r1y = y[i] - tolY;
+      double r1w = w[i] + (tolX * 2);
+      double r1h = h[i] + (tolY * 2);
 
-    while (!queue.isEmpty()) {
-      Point p = queue.poll();
-
-      if (p.x < minX)
-        minX = p.x;
-      if (p.x > maxX)
-        maxX = p.x;
-      if (p.y < minY)
-        minY = p.y;
-      if (p.y > maxY)
-        maxY = p.y;
-
-      int[] dx = { 0, 0, 1, -1 };
-      int[] dy = { 1, -1, 0, 0 };
-
-      for (int i = 0; i < 4; i++) {
-        int nx = p.x + dx[i];
-        int ny = p.y + dy[i];
-
-        if (nx >= 0 && nx < width && ny >= 0 && ny < height) {
-          int index = ny * width + nx;
-          if (!visited.get(index)) {
-            Color color = reader.getColor(nx, ny);
-            if (!isTransparent(color)) {
-              visited.set(index);
-              queue.add(new Point(nx, ny));
-            } else {
-              visited.set(index);
-            }
-          }
-        }
+      return r1x < x[j] + w[j] &&
+          r1x + r1w > x[j] &&
+          r1y < y[j] + h[j] &&
+          r1y + r1h > y[j];
+    }
+
+    double verticalGap(int i, int j) {
+      if (y[i] + h[i] < y[j]) {
+        return y[j] - (y[i] + h[i]);
+      } else if (y[j] + h[j] < y[i]) {
+        return y[i] - (y[j] + h[j]);
+      } else {
+        return 0;
       }
     }
 
-    return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    /** Amplía {@code keep} para que cubra {@code drop} y descarta esta. */
+    void merge(int keep, int drop) {
+      double minX = Math.min(x[keep], x[drop]);
+      double minY = Math.min(y[keep], y[drop]);
+      double maxX = Math.max(x[keep] + w[keep], x[drop] + w[drop]);
+      double maxY = Math.max(y[keep] + h[keep], y[drop] + h[drop]);
+      x[keep] = minX;
+      y[keep] = minY;
+      w[keep] = maxX - minX;
+      h[keep] = maxY - minY;
+      alive[drop] = false;
+      grid.insert(keep, x[keep], y[keep], w[keep], h[keep]);
+    }
+
+    List<Rectangle> toList() {
+      List<Rectangle> list = new ArrayList<>();
+      for (int i = 0; i < x.length; i++) {
+        if (alive[i])
+          list.add(new Rectangle(x[i], y[i], w[i], h[i]));
+      }
+      return list;
+    }
   }
 
   private void sortRegions(List<Rectangle> regions) {
@@ -379,25 +469,24 @@ public class AutoTilingService {
     });
   }
 
-  private static class Point {
-    int x, y;
-
-    Point(int x, int y) {
-      this.x = x;
-      this.y = y;
-    }
-  }
-
-  public List<Rectangle> splitRegions(List<Rectangle> regions, int tileW, int tileH, int atlasCols, int atlasRows,
-      PixelReader reader) {
+  /**
+   * Divide las regiones en tiles de tileW×tileH alineados a la rejilla.
+   *
+   * @param offsetX Desplazamiento horizontal de la rejilla (ver {@link GridPitchDetector}).
+   * @param offsetY Desplazamiento vertical de la rejilla.
+   * @param opacity Tabla de opacidad de la hoja para descartar los tiles vacíos, o null para
+   *                conservarlos todos.
+   */
+  public List<Rectangle> splitRegions(List<Rectangle> regions, int tileW, int tileH, int offsetX, int offsetY,
+      int atlasCols, int atlasRows, OpacityTable opacity) {
     List<Rectangle> splitList = new ArrayList<>();
 
     for (Rectangle r : regions) {
-      double startX = Math.floor(r.getX() / tileW) * tileW;
-      double startY = Math.floor(r.getY() / tileH) * tileH;
+      double startX = offsetX + Math.floor((r.getX() - offsetX) / tileW) * tileW;
+      double startY = offsetY + Math.floor((r.getY() - offsetY) / tileH) * tileH;
 
-      double endX = Math.ceil((r.getX() + r.getWidth()) / tileW) * tileW;
-      double endY = Math.ceil((r.getY() + r.getHeight()) / tileH) * tileH;
+      double endX = offsetX + Math.ceil((r.getX() + r.getWidth() - offsetX) / tileW) * tileW;
+      double endY = offsetY + Math.ceil((r.getY() + r.getHeight() - offsetY) / tileH) * tileH;
 
       double totalW = Math.max(tileW, endX - startX);
       double totalH = Math.max(tileH, endY - startY);
@@ -415,17 +504,22 @@ public class AutoTilingService {
             double bY = startY + (row * blockH);
 
             Rectangle blockRect = new Rectangle(bX, bY, blockW, blockH);
-            addSplitTiles(splitList, blockRect, tileW, tileH, reader);
+            addSplitTiles(splitList, blockRect, tileW, tileH, opacity);
           }
         }
       } else {
         Rectangle snappedR = new Rectangle(startX, startY, totalW, totalH);
-        addSplitTiles(splitList, snappedR, tileW, tileH, reader);
+        addSplitTiles(splitList, snappedR, tileW, tileH, opacity);
       }
     }
     return splitList;
   }
 
+  public List<Rectangle> splitRegions(List<Rectangle> regions, int tileW, int tileH, int atlasCols, int atlasRows,
+      OpacityTable opacity) {
+    return splitRegions(regions, tileW, tileH, 0, 0, atlasCols, atlasRows, opacity);
+  }
+
   public List<Rectangle> splitRegions(List<Rectangle> regions, int tileW, int tileH, int atlasCols, int atlasRows) {
     return splitRegions(regions, tileW, tileH, atlasCols, atlasRows, null);
   }
@@ -434,7 +528,7 @@ public class AutoTilingService {
     return splitRegions(regions, tileW, tileH, 1, 1, null);
   }
 
-  private void addSplitTiles(List<Rectangle> targetList, Rectangle r, int tileW, int tileH, PixelReader reader) {
+  private void addSplitTiles(List<Rectangle> targetList, Rectangle r, int tileW, int tileH, OpacityTable opacity) {
     double w = r.getWidth();
     double h = r.getHeight();
 
@@ -452,35 +546,29 @@ public class AutoTilingService {
       for (int col = 0; col < cols; col++) {
         Rectangle tile = new Rectangle(startX + (col * tileW), startY + (row * tileH), tileW, tileH);
 
-        if (reader != null) {
-          if (containsPixels(tile, reader)) {
-            targetList.add(tile);
-          }
-        } else {
+        // Con la rejilla desplazada, la celda parcial anterior al desplazamiento queda fuera
+        if (tile.getX() < 0 || tile.getY() < 0) {
+          continue;
+        }
+
+        if (opacity == null || containsPixels(tile, opacity)) {
           targetList.add(tile);
         }
       }
     }
   }
 
-  private boolean containsPixels(Rectangle r, PixelReader reader) {
+  /**
+   * Comprueba si el tile tiene algún píxel opaco, sin contar un margen de 2 píxeles por lado
+   * donde suelen colarse restos de los tiles vecinos.
+   */
+  private boolean containsPixels(Rectangle r, OpacityTable opacity) {
     int x1 = (int) r.getX();
     int y1 = (int) r.getY();
     int w = (int) r.getWidth();
     int h = (int) r.getHeight();
 
-    for (int y = y1 + 2; y < y1 + h - 2; y += 2) {
-      for (int x = x1 + 2; x < x1 + w - 2; x += 2) {
-        try {
-          Color c = reader.getColor(x, y);
-          if (!isTransparent(c)) {
-            return true;
-          }
-        } catch (Exception e) {
-        }
-      }
-    }
-    return false;
+    return opacity.hasOpaque(x1 + 2, y1 + 2, w - 4, h - 4);
   }
 
   public List<Rectangle> normalizeRegions(List<Rectangle> regions, int imgWidth, int imgHeight) {
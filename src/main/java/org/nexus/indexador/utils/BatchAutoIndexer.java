@@ -0,0 +1,309 @@
+package org.nexus.indexador.utils;
+
+import javafx.scene.image.Image;
+import javafx.scene.shape.Rectangle;
+import org.nexus.indexador.gamedata.DataManager;
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Auto-indexación por lotes de muchas hojas de gráficos.
+ * <p>
+ * Cada hoja se decodifica y se analiza en un hilo de trabajo propio, sin pasar por el
+ * {@link ImageCache} para no expulsar lo que el editor tiene abierto; de cada una solo se conservan
+ * los rectángulos detectados. La creación de los GRH se hace después, de una vez y en el hilo de
+ * la interfaz, reservando para cada hoja un bloque de IDs consecutivos.
+ */
+public class BatchAutoIndexer {
+
+  private static volatile BatchAutoIndexer instance;
+  private final Logger logger = Logger.getInstance();
+
+  /** Lado de los tiles cuando no se puede deducir la rejilla de una hoja. */
+  public static final int DEFAULT_TILE_SIZE = 32;
+
+  private BatchAutoIndexer() {
+  }
+
+  public static BatchAutoIndexer getInstance() {
+    if (instance == null) {
+      synchronized (BatchAutoIndexer.class) {
+        if (instance == null) {
+          instance = new BatchAutoIndexer();
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Resultado de la detección sobre una hoja.
+   */
+  public static final class SheetResult {
+    private final int fileNum;
+    private final List<Rectangle> regions;
+    private final long decodeMillis;
+    private final long detectMillis;
+    private final String error;
+
+    SheetResult(int fileNum, List<Rectangle> regions, long decodeMillis, long detectMillis,
+        String error) {
+      this.fileNum = fileNum;
+      this.regions = regions;
+      this.decodeMillis = decodeMillis;
+      this.detectMillis = detectMillis;
+      this.error = error;
+    }
+
+    public int getFileNum() {
+      return fileNum;
+    }
+
+    public List<Rectangle> getRegions() {
+      return regions;
+    }
+
+    public long getDecodeMillis() {
+      return decodeMillis;
+    }
+
+    public long getDetectMillis() {
+      return detectMillis;
+    }
+
+    /**
+     * @return El motivo del fallo, o null si la hoja se procesó bien.
+     */
+    public String getError() {
+      return error;
+    }
+  }
+
+  /**
+   * Resultado de todo el lote, con las hojas en orden de número de archivo.
+   */
+  public static final class BatchResult {
+    private final List<SheetResult> sheets;
+    private final long elapsedMillis;
+
+    BatchResult(List<SheetResult> sheets, long elapsedMillis) {
+      this.sheets = Collections.unmodifiableList(sheets);
+      this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<SheetResult> getSheets() {
+      return sheets;
+    }
+
+    /** Tiempo real transcurrido desde el inicio hasta el final del lote. */
+    public long getElapsedMillis() {
+      return elapsedMillis;
+    }
+
+    public int getSpriteCount() {
+      int count = 0;
+      for (SheetResult sheet : sheets) {
+        count += sheet.regions.size();
+      }
+      return count;
+    }
+
+    public int getFailedCount() {
+      int count = 0;
+      for (SheetResult sheet : sheets) {
+        if (sheet.error != null) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    /** Hojas procesadas por segundo de tiempo real. */
+    public double getSheetsPerSecond() {
+      return elapsedMillis > 0 ? sheets.size() * 1000.0 / elapsedMillis : sheets.size();
+    }
+
+    /** Suma de los tiempos de decodificación de todas las hojas. */
+    public long getTotalDecodeMillis() {
+      long total = 0;
+      for (SheetResult sheet : sheets) {
+        total += sheet.decodeMillis;
+      }
+      return total;
+    }
+
+    /** Suma de los tiempos de detección de todas las hojas. */
+    public long getTotalDetectMillis() {
+      long total = 0;
+      for (SheetResult sheet : sheets) {
+        total += sheet.detectMillis;
+      }
+      return total;
+    }
+  }
+
+  /**
+   * Número de hilos del lote. Se deja un núcleo libre para la interfaz, y cada hilo puede tener
+   * una hoja entera decodificada en memoria.
+   */
+  static int workerCount(int sheets) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    return Math.max(1, Math.min(sheets, cores - 1));
+  }
+
+  /**
+   * Detecta los sprites de varias hojas en paralelo. Bloquea hasta terminar, así que debe llamarse
+   * fuera del hilo de la interfaz.
+   *
+   * @param fileNums        Números de archivo a procesar.
+   * @param toleranceX      Tolerancia horizontal de unión.
+   * @param toleranceY      Tolerancia vertical de unión.
+   * @param enableGridSplit Si se dividen las regiones demasiado grandes.
+   * @param onSheetDone     Recibe el número de hojas terminadas cada vez que acaba una; se llama
+   *                        desde los hilos de trabajo. Puede ser null.
+   * @return Los resultados por hoja, en el mismo orden que {@code fileNums}.
+   */
+  public BatchResult detect(int[] fileNums, int toleranceX, int toleranceY, boolean enableGridSplit,
+      IntConsumer onSheetDone) {
+    return run(fileNums, image -> AutoTilingService.getInstance()
+        .detectSprites(image, toleranceX, toleranceY, enableGridSplit), onSheetDone);
+  }
+
+  /**
+   * Corta varias hojas en tiles siguiendo la rejilla que {@link GridPitchDetector} deduce de cada
+   * una, o tiles de {@value #DEFAULT_TILE_SIZE} px si la hoja no muestra ninguna. Las celdas sin
+   * píxeles opacos se descartan. Bloquea hasta terminar.
+   *
+   * @see #detect(int[], int, int, boolean, IntConsumer)
+   */
+  public BatchResult detectTiles(int[] fileNums, IntConsumer onSheetDone) {
+    return run(fileNums, BatchAutoIndexer::sliceGrid, onSheetDone);
+  }
+
+  /** Tiles completos de la rejilla deducida que contienen algún píxel opaco. */
+  private static List<Rectangle> sliceGrid(Image image) {
+    int width = (int) image.getWidth();
+    int height = (int) image.getHeight();
+    int[] argb = ImageUtils.readArgb(image);
+    GridPitchDetector.Grid grid = GridPitchDetector.detect(argb, width, height);
+    int tileW = grid != null ? grid.getTileWidth() : DEFAULT_TILE_SIZE;
+    int tileH = grid != null ? grid.getTileHeight() : DEFAULT_TILE_SIZE;
+    int offsetX = grid != null ? grid.getOffsetX() : 0;
+    int offsetY = grid != null ? grid.getOffsetY() : 0;
+
+    OpacityTable opacity = new OpacityTable(argb, width, height);
+    List<Rectangle> tiles = new ArrayList<>();
+    for (int y = offsetY; y + tileH <= height; y += tileH) {
+      for (int x = offsetX; x + tileW <= width; x += tileW) {
+        if (opacity.hasOpaque(x, y, tileW, tileH)) {
+          tiles.add(new Rectangle(x, y, tileW, tileH));
+        }
+      }
+    }
+    return tiles;
+  }
+
+  private BatchResult run(int[] fileNums, Function<Image, List<Rectangle>> detector,
+      IntConsumer onSheetDone) {
+    long start = System.nanoTime();
+    ExecutorService workers = Executors.newFixedThreadPool(workerCount(fileNums.length), task -> {
+      Thread thread = new Thread(task, "batch-auto-index");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.NORM_PRIORITY - 1);
+      return thread;
+    });
+    AtomicInteger done = new AtomicInteger();
+    List<Future<SheetResult>> pending = new ArrayList<>(fileNums.length);
+    try {
+      for (int fileNum : fileNums) {
+        pending.add(workers.submit(() -> {
+          SheetResult result = detectSheet(fileNum, detector);
+          int finished = done.incrementAndGet();
+          if (onSheetDone != null) {
+            onSheetDone.accept(finished);
+          }
+          return result;
+        }));
+      }
+
+      List<SheetResult> sheets = new ArrayList<>(fileNums.length);
+      for (int i = 0; i < fileNums.length; i++) {
+        try {
+          sheets.add(pending.get(i).get());
+        } catch (ExecutionException e) {
+          logger.error("Error al auto-indexar la imagen " + fileNums[i], e.getCause());
+          sheets.add(new SheetResult(fileNums[i], List.of(), 0, 0, String.valueOf(e.getCause())));
+        }
+      }
+
+      BatchResult result = new BatchResult(sheets, (System.nanoTime() - start) / 1_000_000);
+      logger.info(String.format("Auto-indexado por lotes: %d hojas, %d sprites, %d errores en %d ms"
+              + " (%.1f hojas/s, decodificación %d ms, detección %d ms)",
+          sheets.size(), result.getSpriteCount(), result.getFailedCount(),
+          result.getElapsedMillis(), result.getSheetsPerSecond(), result.getTotalDecodeMillis(),
+          result.getTotalDetectMillis()));
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Auto-indexado por lotes interrumpido", e);
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private SheetResult detectSheet(int fileNum, Function<Image, List<Rectangle>> detector) {
+    String imagePath = GraphicsIndex.getInstance().getImagePath(fileNum);
+    if (imagePath == null) {
+      return new SheetResult(fileNum, List.of(), 0, 0, "No se encontró la imagen");
+    }
+
+    long decodeStart = System.nanoTime();
+    Image image = new Image(new File(imagePath).toURI().toString());
+    long decodeMillis = (System.nanoTime() - decodeStart) / 1_000_000;
+    if (image.isError()) {
+      return new SheetResult(fileNum, List.of(), decodeMillis, 0,
+          "No se pudo cargar la imagen: " + image.getException());
+    }
+
+    long detectStart = System.nanoTime();
+    List<Rectangle> regions = detector.apply(image);
+    long detectMillis = (System.nanoTime() - detectStart) / 1_000_000;
+    return new SheetResult(fileNum, regions, decodeMillis, detectMillis, null);
+  }
+
+  /**
+   * Crea los GRH estáticos de un lote. Cada hoja recibe un bloque de IDs consecutivos, reservado
+   * en el momento, así que los GRH devueltos no se solapan entre sí ni con los existentes. Los
+   * GRH no se añaden a la lista: si no se llegan a usar hay que liberar sus IDs con
+   * {@link DataManager#releaseGrhRange(int, int)}.
+   *
+   * @return Los GRH nuevos, hoja a hoja y en el orden de detección.
+   */
+  public List<GrhData> createGrhs(BatchResult result, DataManager dataManager) {
+    List<GrhData> created = new ArrayList<>(result.getSpriteCount());
+    for (SheetResult sheet : result.sheets) {
+      List<Rectangle> regions = sheet.regions;
+      if (regions.isEmpty()) {
+        continue;
+      }
+      int startId = dataManager.reserveGrhRange(regions.size());
+      for (int i = 0; i < regions.size(); i++) {
+        Rectangle r = regions.get(i);
+        created.add(new GrhData(startId + i, (short) 1, sheet.fileNum, (short) r.getX(),
+            (short) r.getY(), (short) r.getWidth(), (short) r.getHeight()));
+      }
+    }
+    return created;
+  }
+}
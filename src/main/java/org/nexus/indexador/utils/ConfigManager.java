@@ -13,6 +13,7 @@ public class ConfigManager {
   private String backgroundColor = "#EA3FF7"; // Default magenta
   private String indexingSystem = "CLASSIC"; // Default: Sistema Clásico
   private String appTheme = "DARK"; // Default: Tema Oscuro
+  private int imageCacheMb = 256; // Memoria máxima para imágenes decodificadas
 
   private static final String CONFIG_FILE_NAME = "config.ini";
   // Guardar en el directorio de la aplicación
@@ -128,6 +129,12 @@ public class ConfigManager {
               indexingSystem = value;
             } else if (key.equals("AppTheme")) {
               appTheme = value;
+            } else if (key.equals("ImageCacheMB")) {
+              try {
+                imageCacheMb = Math.max(16, Integer.parseInt(value));
+              } catch (NumberFormatException e) {
+                // Se mantiene el valor por defecto
+              }
             }
           }
         }
@@ -155,6 +162,8 @@ public class ConfigManager {
       writer.write("IndexingSystem=" + indexingSystem);
       writer.newLine();
       writer.write("AppTheme=" + appTheme);
+      writer.newLine();
+      writer.write("ImageCacheMB=" + imageCacheMb);
     }
   }
 
@@ -166,4 +175,12 @@ public class ConfigManager {
     this.appTheme = appTheme;
   }
 
+  public int getImageCacheMb() {
+    return imageCacheMb;
+  }
+
+  public void setImageCacheMb(int imageCacheMb) {
+    this.imageCacheMb = imageCacheMb;
+  }
+
 }
@@ -0,0 +1,236 @@
+package org.nexus.indexador.utils;
+
+import org.nexus.indexador.gamedata.SnapshotCache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caché de resultados de la detección de sprites, indexada por el contenido de la hoja.
+ * <p>
+ * Guarda dos niveles. El etiquetado en bruto (las regiones conexas antes de unir nada) depende
+ * solo de los píxeles, así que se guarda por huella del contenido en memoria y en disco, y cambiar
+ * las tolerancias solo repite las fases posteriores. El resultado final se guarda en memoria con
+ * la huella y los parámetros de detección, para que reabrir la misma hoja no repita nada.
+ * <p>
+ * Las entradas nunca quedan obsoletas: si la imagen cambia, cambia su huella.
+ */
+public class DetectionCache {
+
+  private static volatile DetectionCache instance;
+  private final Logger logger = Logger.getInstance();
+
+  private static final int MAGIC = 0x4E584454; // "NXDT"
+  private static final int VERSION = 1;
+
+  /** Hojas cuyo etiquetado en bruto se mantiene en memoria. */
+  private static final int MAX_RAW_ENTRIES = 64;
+  /** Combinaciones de hoja y parámetros cuyo resultado final se mantiene en memoria. */
+  private static final int MAX_RESULT_ENTRIES = 256;
+
+  private final File cacheDir;
+
+  private final Map<Long, List<int[]>> rawBoxes = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Long, List<int[]>> eldest) {
+      return size() > MAX_RAW_ENTRIES;
+    }
+  };
+
+  private final Map<ResultKey, List<double[]>> results = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<ResultKey, List<double[]>> eldest) {
+      return size() > MAX_RESULT_ENTRIES;
+    }
+  };
+
+  DetectionCache(File cacheDir) {
+    this.cacheDir = cacheDir;
+  }
+
+  public static DetectionCache getInstance() {
+    if (instance == null) {
+      synchronized (DetectionCache.class) {
+        if (instance == null) {
+          instance = new DetectionCache(new File(SnapshotCache.DEFAULT_DIR, "deteccion"));
+        }
+      }
+    }
+    return instance;
+  }
+
+  /** Parámetros de detección junto con la huella de la hoja. */
+  private static final class ResultKey {
+    private final long hash;
+    private final int toleranceX;
+    private final int toleranceY;
+    private final boolean enableGridSplit;
+
+    ResultKey(long hash, int toleranceX, int toleranceY, boolean enableGridSplit) {
+      this.hash = hash;
+      this.toleranceX = toleranceX;
+      this.toleranceY = toleranceY;
+      this.enableGridSplit = enableGridSplit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof ResultKey)) {
+        return false;
+      }
+      ResultKey other = (ResultKey) o;
+      return hash == other.hash && toleranceX == other.toleranceX
+          && toleranceY == other.toleranceY && enableGridSplit == other.enableGridSplit;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(hash) * 31 + (toleranceX * 31 + toleranceY) * 2
+          + (enableGridSplit ? 1 : 0);
+    }
+  }
+
+  /**
+   * Huella de 64 bits del contenido de una hoja, incluidas sus dimensiones.
+   */
+  public static long hash(int[] argb, int width, int height) {
+    long h = 0xCBF29CE484222325L ^ ((long) width << 32 | height);
+    for (int pixel : argb) {
+      h = (h ^ (pixel & 0xFFFFFFFFL)) * 0x100000001B3L;
+      h ^= h >>> 29;
+    }
+    // Mezcla final para repartir bien los bits bajos
+    h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+    h = (h ^ (h >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return h ^ (h >>> 33);
+  }
+
+  /**
+   * Etiquetado en bruto de una hoja, buscándolo primero en memoria y después en disco.
+   *
+   * @return Los rectángulos {x, y, ancho, alto}, o null si no está en la caché.
+   */
+  public List<int[]> getRawBoxes(long hash) {
+    synchronized (this) {
+      List<int[]> boxes = rawBoxes.get(hash);
+      if (boxes != null) {
+        return boxes;
+      }
+    }
+    List<int[]> boxes = readFromDisk(hash);
+    if (boxes != null) {
+      synchronized (this) {
+        rawBoxes.put(hash, boxes);
+      }
+    }
+    return boxes;
+  }
+
+  /**
+   * Guarda el etiquetado en bruto de una hoja en memoria y en disco. La lista no debe modificarse
+   * después.
+   */
+  public void putRawBoxes(long hash, List<int[]> boxes) {
+    synchronized (this) {
+      rawBoxes.put(hash, boxes);
+    }
+    writeToDisk(hash, boxes);
+  }
+
+  /**
+   * Resultado final de una detección con unos parámetros concretos.
+   *
+   * @return Los rectángulos {x, y, ancho, alto}, o null si no está en la caché.
+   */
+  public synchronized List<double[]> getResult(long hash, int toleranceX, int toleranceY,
+      boolean enableGridSplit) {
+    return results.get(new ResultKey(hash, toleranceX, toleranceY, enableGridSplit));
+  }
+
+  /**
+   * Guarda el resultado final de una detección. La lista no debe modificarse después.
+   */
+  public synchronized void putResult(long hash, int toleranceX, int toleranceY,
+      boolean enableGridSplit, List<double[]> boxes) {
+    results.put(new ResultKey(hash, toleranceX, toleranceY, enableGridSplit), boxes);
+  }
+
+  /**
+   * Vacía la caché en memoria. Los ficheros en disco se conservan.
+   */
+  public synchronized void clear() {
+    rawBoxes.clear();
+    results.clear();
+  }
+
+  private File cacheFile(long hash) {
+    return new File(cacheDir, String.format("%016x.det", hash));
+  }
+
+  private List<int[]> readFromDisk(long hash) {
+    File file = cacheFile(hash);
+    if (!file.isFile()) {
+      return null;
+    }
+    try {
+      ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+      if (in.getInt() != MAGIC || in.getInt() != VERSION || in.getLong() != hash) {
+        return null;
+      }
+      int count = in.getInt();
+      List<int[]> boxes = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        boxes.add(new int[] {in.getInt(), in.getInt(), in.getInt(), in.getInt()});
+      }
+      return boxes;
+    } catch (IOException | RuntimeException e) {
+      // Un fichero corrupto se ignora y se vuelve a generar
+      logger.warning("Caché de detección descartada (" + file.getName() + "): " + e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Escribe en un temporal y lo mueve, para que otro proceso nunca lea un fichero a medias. Los
+   * errores se registran pero no se propagan.
+   */
+  private void writeToDisk(long hash, List<int[]> boxes) {
+    File target = cacheFile(hash);
+    File temp = new File(cacheDir, target.getName() + "." + Thread.currentThread().threadId() + ".tmp");
+    try {
+      Files.createDirectories(cacheDir.toPath());
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(temp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(hash);
+        out.writeInt(boxes.size());
+        for (int[] box : boxes) {
+          for (int value : box) {
+            out.writeInt(value);
+          }
+        }
+      }
+      try {
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.warning("No se pudo guardar la caché de detección: " + e.getMessage());
+      temp.delete();
+    }
+  }
+}
@@ -1,24 +1,22 @@
 package org.nexus.indexador.utils;
 
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.image.WritableImage;
 import javafx.scene.shape.Rectangle;
-import javafx.util.Duration;
+import org.nexus.indexador.gamedata.GrhIndex;
 import org.nexus.indexador.gamedata.models.GrhData;
 
-import java.io.File;
-import java.util.Map;
+import java.util.List;
+import java.util.Objects;
 
 /**
  * Encapsulates the rendering logic for GrhData, including static images,
  * animations, and selection indicators.
  */
 public class GameRenderer {
-    private final ConfigManager configManager = ConfigManager.getInstance();
+    private final GraphicsIndex graphicsIndex = GraphicsIndex.getInstance();
     private final ImageCache imageCache = ImageCache.getInstance();
     private final Logger logger = Logger.getInstance();
 
@@ -26,8 +24,16 @@ public class GameRenderer {
     private final ImageView imgGrafico;
     private final Rectangle rectanguloIndice;
 
-    private Timeline animationTimeline;
-    private int currentFrameIndex = 1;
+    private final AnimationState animation = new AnimationState();
+
+    // Imagen fijada en el caché mientras se muestra en el visor
+    private String shownImagePath;
+
+    // GRH pedido en último lugar; las decodificaciones que terminan tarde se descartan
+    private GrhData requestedGrh;
+
+    /** GRHs vecinos (antes y después en la lista) cuyas hojas se decodifican por adelantado. */
+    private static final int PREFETCH_RADIUS = 4;
 
     public GameRenderer(ImageView imgIndice, ImageView imgGrafico, Rectangle rectanguloIndice) {
         this.imgIndice = imgIndice;
@@ -38,14 +44,15 @@ public class GameRenderer {
     /**
      * Entry point to display a GrhData. Automatically handles static vs animation.
      */
-    public void displayGrh(GrhData grh, Map<Integer, GrhData> grhDataMap) {
+    public void displayGrh(GrhData grh, GrhIndex grhIndex) {
+        requestedGrh = grh;
         if (grh == null) {
             clearViews();
             return;
         }
 
         if (grh.getNumFrames() > 1) {
-            displayAnimation(grh, grh.getNumFrames(), grhDataMap);
+            displayAnimation(grh, grh.getNumFrames(), grhIndex);
         } else {
             stopAnimation();
             displayStaticImage(grh);
@@ -53,9 +60,7 @@ public class GameRenderer {
     }
 
     public void stopAnimation() {
-        if (animationTimeline != null) {
-            animationTimeline.stop();
-        }
+        animation.stop();
     }
 
     private void clearViews() {
@@ -63,13 +68,86 @@ public class GameRenderer {
         imgIndice.setImage(null);
         imgGrafico.setImage(null);
         rectanguloIndice.setVisible(false);
+        setShownImage(null);
+    }
+
+    /**
+     * Mantiene fijada en el caché la imagen visible, liberando la anterior.
+     */
+    private void setShownImage(String imagePath) {
+        if (Objects.equals(imagePath, shownImagePath)) {
+            return;
+        }
+        if (imagePath != null) {
+            imageCache.pin(imagePath);
+        }
+        if (shownImagePath != null) {
+            imageCache.unpin(shownImagePath);
+        }
+        shownImagePath = imagePath;
+    }
+
+    /**
+     * Decodifica por adelantado las hojas de los GRHs cercanos a {@code index} en la lista, para
+     * que al desplazarse por ella ya estén en caché.
+     */
+    public void prefetchAround(List<GrhData> grhList, int index, GrhIndex grhIndex) {
+        for (int distance = 1; distance <= PREFETCH_RADIUS; distance++) {
+            prefetchSheet(grhList, index + distance, grhIndex);
+            prefetchSheet(grhList, index - distance, grhIndex);
+        }
+    }
+
+    private void prefetchSheet(List<GrhData> grhList, int index, GrhIndex grhIndex) {
+        if (index < 0 || index >= grhList.size()) {
+            return;
+        }
+        GrhData grh = grhList.get(index);
+        if (grh.getNumFrames() > 1) {
+            // De una animación vecina basta con la hoja de su primer frame
+            grh = grhIndex.get(grh.getFrame(1));
+        }
+        String imagePath = grh != null ? getImagePath(grh.getFileNum()) : null;
+        if (imagePath != null) {
+            imageCache.prefetch(imagePath);
+        }
+    }
+
+    /**
+     * Deja el visor vacío mientras se decodifica la imagen pedida.
+     */
+    private void showPlaceholder() {
+        imgIndice.setImage(null);
+        imgGrafico.setImage(null);
+        rectanguloIndice.setVisible(false);
     }
 
     private void displayStaticImage(GrhData selectedGrh) {
         String imagePath = getImagePath(selectedGrh.getFileNum());
+        if (imagePath == null) {
+            showPlaceholder();
+            logger.warning("No se encontró la imagen: " + selectedGrh.getFileNum());
+            return;
+        }
 
-        Image staticImage = imageCache.getImage(imagePath);
+        Image cached = imageCache.peekImage(imagePath);
+        if (cached != null) {
+            showStaticImage(selectedGrh, imagePath, cached);
+            return;
+        }
+
+        showPlaceholder();
+        imageCache.getImageAsync(imagePath).thenAccept(image -> Platform.runLater(() -> {
+            // Si mientras tanto se eligió otro GRH, esta imagen ya no interesa
+            if (requestedGrh == selectedGrh) {
+                showStaticImage(selectedGrh, imagePath, image);
+            }
+        }));
+    }
+
+    private void showStaticImage(GrhData selectedGrh, String imagePath, Image staticImage) {
         if (staticImage != null) {
+            setShownImage(imagePath);
             drawFullImage(staticImage, selectedGrh);
             WritableImage croppedImage = imageCache.getCroppedImage(imagePath, selectedGrh.getsX(),
                     selectedGrh.getsY(), selectedGrh.getTileWidth(), selectedGrh.getTileHeight());
@@ -83,42 +161,48 @@ public class GameRenderer {
         }
     }
 
-    private void displayAnimation(GrhData selectedGrh, int nFrames, Map<Integer, GrhData> grhDataMap) {
+    private void displayAnimation(GrhData selectedGrh, int nFrames, GrhIndex grhIndex) {
         stopAnimation();
-        currentFrameIndex = 1;
 
-        animationTimeline = new Timeline(new KeyFrame(Duration.ZERO, event -> {
-            updateFrame(selectedGrh, grhDataMap);
-            currentFrameIndex = (currentFrameIndex + 1) % nFrames;
-            if (currentFrameIndex == 0) {
-                currentFrameIndex = 1;
+        // Todas las hojas de la animación empiezan a decodificarse antes del primer frame
+        for (int i = 1; i <= nFrames; i++) {
+            GrhData frame = grhIndex.get(selectedGrh.getFrame(i));
+            String imagePath = frame != null ? getImagePath(frame.getFileNum()) : null;
+            if (imagePath != null) {
+                imageCache.prefetch(imagePath);
             }
-        }), new KeyFrame(Duration.millis(100)));
+        }
 
-        animationTimeline.setCycleCount(Animation.INDEFINITE);
-        animationTimeline.play();
+        animation.start(imgIndice, nFrames, selectedGrh.getSpeed(),
+                () -> updateFrame(selectedGrh, grhIndex));
     }
 
-    private void updateFrame(GrhData selectedGrh, Map<Integer, GrhData> grhDataMap) {
-        int[] frames = selectedGrh.getFrames();
-        if (currentFrameIndex >= 0 && currentFrameIndex < frames.length) {
-            int frameId = frames[currentFrameIndex];
-            GrhData currentGrh = grhDataMap.get(frameId);
+    private void updateFrame(GrhData selectedGrh, GrhIndex grhIndex) {
+        int currentFrameIndex = animation.getCurrentFrameIndex();
+        if (currentFrameIndex >= 0 && currentFrameIndex <= selectedGrh.getNumFrames()) {
+            int frameId = selectedGrh.getFrame(currentFrameIndex);
+            GrhData currentGrh = grhIndex.get(frameId);
 
             if (currentGrh != null) {
                 String imagePath = getImagePath(currentGrh.getFileNum());
-                Image frameImage = imageCache.getImage(imagePath);
-
-                if (frameImage != null) {
-                    drawFullImage(frameImage, currentGrh);
-                    WritableImage croppedImage = imageCache.getCroppedImage(imagePath, currentGrh.getsX(),
-                            currentGrh.getsY(), currentGrh.getTileWidth(), currentGrh.getTileHeight());
-
-                    if (croppedImage != null) {
-                        imgIndice.setImage(croppedImage);
-                    }
-                } else {
-                    logger.warning("No se encontró la imagen: " + imagePath);
+                if (imagePath == null) {
+                    return;
+                }
+                Image frameImage = imageCache.peekImage(imagePath);
+                if (frameImage == null) {
+                    // Aún decodificándose: se mantiene el frame anterior y se reintenta en el
+                    // siguiente cambio de frame
+                    imageCache.getImageAsync(imagePath);
+                    return;
+                }
+
+                setShownImage(imagePath);
+                drawFullImage(frameImage, currentGrh);
+                WritableImage croppedImage = imageCache.getCroppedImage(imagePath, currentGrh.getsX(),
+                        currentGrh.getsY(), currentGrh.getTileWidth(), currentGrh.getTileHeight());
+
+                if (croppedImage != null) {
+                    imgIndice.setImage(croppedImage);
                 }
             }
         }
@@ -194,11 +278,10 @@ public class GameRenderer {
         }
     }
 
+    /**
+     * @return La ruta de la imagen según el índice de la carpeta de gráficos, o null si no existe.
+     */
     private String getImagePath(int fileNum) {
-        String base = configManager.getGraphicsDir() + fileNum;
-        String png = base + ".png";
-        if (new File(png).exists())
-            return png;
-        return base + ".bmp";
+        return graphicsIndex.getImagePath(fileNum);
     }
 }
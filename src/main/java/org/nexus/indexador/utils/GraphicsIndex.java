@@ -0,0 +1,495 @@
+package org.nexus.indexador.utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Índice de los ficheros de la carpeta de gráficos por número de archivo.
+ * <p>
+ * La carpeta se recorre una sola vez y cada {@code <fileNum>.<ext>} queda registrado con su ruta,
+ * formato, tamaño y fecha. Resolver la imagen de un GRH pasa a ser una lectura de array en lugar
+ * de comprobar con {@code File.exists()} si existe el .png y luego el .bmp, algo que en unidades
+ * de red cuesta milisegundos por consulta. Un {@link WatchService} mantiene el índice al día
+ * cuando se añaden, cambian o borran ficheros, y descarta del {@link ImageCache} las imágenes
+ * modificadas.
+ */
+public class GraphicsIndex {
+
+  private static volatile GraphicsIndex instance;
+  private final Logger logger = Logger.getInstance();
+  private final ConfigManager configManager = ConfigManager.getInstance();
+
+  /** Extensiones reconocidas, de mayor a menor preferencia si hay varias para un mismo número. */
+  private static final String[] EXTENSIONS = {"png", "bmp", "jpg", "jpeg", "gif"};
+
+  /** Los números de archivo mayores se guardan en un mapa en lugar del array directo. */
+  private static final int MAX_DENSE_FILENUM = 1 << 20;
+
+  // Se sustituyen enteros al reescanear o al aplicar cambios (copia en escritura), así las
+  // lecturas no necesitan bloqueo.
+  private volatile Entry[] entries = new Entry[0];
+  private volatile Map<Integer, Entry> sparseEntries = Map.of();
+  private volatile String indexedDir;
+
+  private WatchService watchService;
+
+  /**
+   * Datos de un fichero de la carpeta de gráficos.
+   */
+  public static final class Entry {
+    private final int fileNum;
+    private final String path;
+    private final String format;
+    private final long size;
+    private final long lastModified;
+    // Cabecera leída la primera vez que se pide; una entrada nueva sustituye a esta si cambia
+    private volatile ImageHeaderReader.ImageHeader header;
+    private volatile boolean headerProbed;
+
+    Entry(int fileNum, String path, String format, long size, long lastModified) {
+      this.fileNum = fileNum;
+      this.path = path;
+      this.format = format;
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    public int getFileNum() {
+      return fileNum;
+    }
+
+    public String getPath() {
+      return path;
+    }
+
+    /** Extensión en minúsculas, sin punto (png, bmp...). */
+    public String getFormat() {
+      return format;
+    }
+
+    public long getSize() {
+      return size;
+    }
+
+    public long getLastModified() {
+      return lastModified;
+    }
+
+    /**
+     * Dimensiones de la imagen, leídas de su cabecera sin decodificarla.
+     *
+     * @return La cabecera, o null si el formato no permite leerla (JPEG) o el fichero es inválido.
+     */
+    public ImageHeaderReader.ImageHeader getHeader() {
+      if (!headerProbed) {
+        header = ImageHeaderReader.read(Path.of(path));
+        headerProbed = true;
+      }
+      return header;
+    }
+  }
+
+  private GraphicsIndex() {}
+
+  public static GraphicsIndex getInstance() {
+    if (instance == null) {
+      synchronized (GraphicsIndex.class) {
+        if (instance == null) {
+          instance = new GraphicsIndex();
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Obtiene la ruta de la imagen de un número de archivo en la carpeta de gráficos configurada.
+   *
+   * @return La ruta, o null si no hay imagen con ese número.
+   */
+  public String getImagePath(int fileNum) {
+    Entry entry = getEntry(fileNum);
+    return entry != null ? entry.getPath() : null;
+  }
+
+  /**
+   * Obtiene los datos del fichero de un número de archivo en la carpeta de gráficos configurada.
+   *
+   * @return El fichero, o null si no hay imagen con ese número.
+   */
+  public Entry getEntry(int fileNum) {
+    return getEntry(configManager.getGraphicsDir(), fileNum);
+  }
+
+  /**
+   * Igual que {@link #getEntry(int)} pero para una carpeta concreta. Si no es la indexada, se
+   * reindexa.
+   */
+  public Entry getEntry(String graphicsDir, int fileNum) {
+    if (!graphicsDir.equals(indexedDir)) {
+      refresh(graphicsDir);
+    }
+    Entry[] dense = entries;
+    if (fileNum >= 0 && fileNum < dense.length) {
+      return dense[fileNum];
+    }
+    return fileNum > MAX_DENSE_FILENUM ? sparseEntries.get(fileNum) : null;
+  }
+
+  /**
+   * Números de archivo con imagen en la carpeta de gráficos configurada dentro de un rango.
+   *
+   * @param from Primer número incluido.
+   * @param to   Último número incluido.
+   * @return Los números encontrados, ordenados de menor a mayor.
+   */
+  public int[] getFileNums(int from, int to) {
+    return getFileNums(configManager.getGraphicsDir(), from, to);
+  }
+
+  /**
+   * Igual que {@link #getFileNums(int, int)} pero para una carpeta concreta. Si no es la
+   * indexada, se reindexa.
+   */
+  public int[] getFileNums(String graphicsDir, int from, int to) {
+    if (!graphicsDir.equals(indexedDir)) {
+      refresh(graphicsDir);
+    }
+    Entry[] dense = entries;
+    int[] found = new int[16];
+    int count = 0;
+    for (int fileNum = Math.max(0, from); fileNum <= to && fileNum < dense.length; fileNum++) {
+      if (dense[fileNum] != null) {
+        if (count == found.length) {
+          found = Arrays.copyOf(found, count * 2);
+        }
+        found[count++] = fileNum;
+      }
+    }
+    int[] sparse = sparseEntries.keySet().stream()
+        .mapToInt(Integer::intValue)
+        .filter(fileNum -> fileNum >= from && fileNum <= to)
+        .sorted()
+        .toArray();
+    int[] result = Arrays.copyOf(found, count + sparse.length);
+    System.arraycopy(sparse, 0, result, count, sparse.length);
+    return result;
+  }
+
+  /**
+   * Indexa la carpeta de gráficos configurada si todavía no lo está. Pensado para adelantar el
+   * recorrido durante la pantalla de carga.
+   */
+  public void warmUp() {
+    String graphicsDir = configManager.getGraphicsDir();
+    if (!graphicsDir.equals(indexedDir)) {
+      refresh(graphicsDir);
+    }
+  }
+
+  /**
+   * Vuelve a recorrer una carpeta desde cero y empieza a vigilarla.
+   */
+  public synchronized void refresh(String graphicsDir) {
+    if (graphicsDir.equals(indexedDir)) {
+      return; // Otro hilo la indexó mientras se esperaba el bloqueo
+    }
+    long start = System.currentTimeMillis();
+    Map<Integer, Entry> found = new HashMap<>();
+    Path dir = graphicsDir.isEmpty() ? null : Path.of(graphicsDir);
+
+    if (dir != null && Files.isDirectory(dir)) {
+      try {
+        found = scan(dir, graphicsDir);
+      } catch (IOException e) {
+        logger.error("Error al indexar la carpeta de gráficos " + graphicsDir, e);
+      }
+    } else if (dir != null) {
+      logger.warning("La carpeta de gráficos no existe: " + graphicsDir);
+    }
+
+    publish(found);
+    indexedDir = graphicsDir;
+    watch(dir);
+    logger.info("Carpeta de gráficos indexada: " + found.size() + " imágenes en "
+        + (System.currentTimeMillis() - start) + " ms");
+  }
+
+  // --- Internos ---
+
+  /**
+   * Recorre la carpeta y se queda, para cada número de archivo, con la imagen de formato
+   * preferido. Las extensiones se comparan sin distinguir mayúsculas.
+   */
+  private static Map<Integer, Entry> scan(Path dir, String graphicsDir) throws IOException {
+    Map<Integer, Entry> found = new HashMap<>();
+    // walkFileTree entrega los atributos junto al listado, sin una consulta por fichero
+    Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), 1,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (attrs.isRegularFile()) {
+              String name = file.getFileName().toString();
+              int fileNum = parseFileNum(name);
+              if (fileNum >= 0) {
+                found.merge(fileNum, toEntry(graphicsDir, name, attrs), GraphicsIndex::preferred);
+              }
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) {
+            return FileVisitResult.CONTINUE;
+          }
+        });
+    return found;
+  }
+
+  /**
+   * Interpreta un nombre de fichero como {@code <fileNum>.<ext>}.
+   *
+   * @return El número de archivo, o -1 si el nombre no corresponde a un gráfico.
+   */
+  private static int parseFileNum(String name) {
+    int dot = name.lastIndexOf('.');
+    if (dot <= 0 || dot > 9 || rank(name.substring(dot + 1).toLowerCase()) < 0) {
+      return -1;
+    }
+    int fileNum = 0;
+    for (int i = 0; i < dot; i++) {
+      char c = name.charAt(i);
+      if (c < '0' || c > '9') {
+        return -1;
+      }
+      fileNum = fileNum * 10 + (c - '0');
+    }
+    return fileNum;
+  }
+
+  private static Entry toEntry(String graphicsDir, String name, BasicFileAttributes attrs) {
+    int fileNum = parseFileNum(name);
+    if (fileNum < 0) {
+      return null;
+    }
+    String format = name.substring(name.lastIndexOf('.') + 1).toLowerCase();
+    return new Entry(fileNum, graphicsDir + name, format, attrs.size(),
+        attrs.lastModifiedTime().toMillis());
+  }
+
+  private static int rank(String format) {
+    for (int i = 0; i < EXTENSIONS.length; i++) {
+      if (EXTENSIONS[i].equals(format)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static Entry preferred(Entry a, Entry b) {
+    return rank(a.getFormat()) <= rank(b.getFormat()) ? a : b;
+  }
+
+  /** Sustituye el contenido del índice por el de {@code found}. */
+  private void publish(Map<Integer, Entry> found) {
+    int top = -1;
+    for (int fileNum : found.keySet()) {
+      if (fileNum <= MAX_DENSE_FILENUM) {
+        top = Math.max(top, fileNum);
+      }
+    }
+    Entry[] dense = new Entry[top + 1];
+    Map<Integer, Entry> sparse = new HashMap<>();
+    for (Entry entry : found.values()) {
+      if (entry.getFileNum() <= MAX_DENSE_FILENUM) {
+        dense[entry.getFileNum()] = entry;
+      } else {
+        sparse.put(entry.getFileNum(), entry);
+      }
+    }
+    entries = dense;
+    sparseEntries = sparse;
+  }
+
+  private void watch(Path dir) {
+    closeWatcher();
+    if (dir == null || !Files.isDirectory(dir)) {
+      return;
+    }
+    try {
+      WatchService service = FileSystems.getDefault().newWatchService();
+      dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+          StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+      watchService = service;
+      String graphicsDir = indexedDir;
+      Thread watcher = new Thread(() -> watchLoop(service, dir, graphicsDir), "graphics-watcher");
+      watcher.setDaemon(true);
+      watcher.start();
+    } catch (IOException e) {
+      logger.warning("No se pudo vigilar la carpeta de gráficos: " + e.getMessage());
+    }
+  }
+
+  private void closeWatcher() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        // El hilo de vigilancia termina igualmente al cerrarse el servicio
+      }
+      watchService = null;
+    }
+  }
+
+  private void watchLoop(WatchService service, Path dir, String graphicsDir) {
+    try {
+      while (true) {
+        WatchKey key = service.take();
+        boolean overflow = false;
+        Map<String, Boolean> changed = new HashMap<>();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            overflow = true;
+          } else if (event.context() instanceof Path name) {
+            changed.put(name.toString(), Boolean.TRUE);
+          }
+        }
+        if (overflow) {
+          // Se perdieron eventos: la única forma fiable es recorrer la carpeta otra vez
+          synchronized (this) {
+            if (watchService == service) {
+              indexedDir = null;
+              refresh(graphicsDir);
+            }
+          }
+          return; // refresh() arrancó un vigilante nuevo
+        }
+        applyChanges(service, dir, graphicsDir, changed.keySet());
+        if (!key.reset()) {
+          return; // La carpeta dejó de existir
+        }
+      }
+    } catch (InterruptedException | ClosedWatchServiceException e) {
+      // Vigilancia cancelada al cambiar de carpeta
+    }
+  }
+
+  /** Vuelve a leer los ficheros cambiados y publica una copia del índice con ellos. */
+  private synchronized void applyChanges(WatchService service, Path dir, String graphicsDir,
+      Iterable<String> names) {
+    if (watchService != service) {
+      return; // Evento de una carpeta que ya no se vigila
+    }
+    Entry[] dense = entries;
+    Map<Integer, Entry> sparse = sparseEntries;
+    boolean sparseCopied = false;
+    ImageCache imageCache = ImageCache.getInstance();
+
+    for (String name : names) {
+      int fileNum = parseFileNum(name);
+      if (fileNum < 0) {
+        continue;
+      }
+      Entry before = fileNum <= MAX_DENSE_FILENUM
+          ? (fileNum < dense.length ? dense[fileNum] : null)
+          : sparse.get(fileNum);
+      Entry current = resolve(dir, graphicsDir, name, before);
+      if (current == before) {
+        continue;
+      }
+
+      if (fileNum <= MAX_DENSE_FILENUM) {
+        if (fileNum >= dense.length) {
+          dense = Arrays.copyOf(dense, Math.max(fileNum + 1, dense.length + (dense.length >> 1)));
+        } else if (dense == entries) {
+          dense = dense.clone();
+        }
+        evictIfChanged(imageCache, dense[fileNum], current);
+        dense[fileNum] = current;
+      } else {
+        if (!sparseCopied) {
+          sparse = new HashMap<>(sparse);
+          sparseCopied = true;
+        }
+        evictIfChanged(imageCache, sparse.get(fileNum), current);
+        if (current != null) {
+          sparse.put(fileNum, current);
+        } else {
+          sparse.remove(fileNum);
+        }
+      }
+    }
+    entries = dense;
+    sparseEntries = sparse;
+  }
+
+  /**
+   * Decide qué fichero representa a un número de archivo tras un cambio en {@code name}. Solo se
+   * leen los atributos del fichero cambiado, que se compara con la entrada que ya había; los
+   * nombres de los eventos son los reales, así que "12.PNG" o "012.png" se resuelven igual que en
+   * el recorrido completo.
+   *
+   * @param before Entrada actual del número de archivo, o null si no tenía imagen.
+   * @return La entrada que debe quedar, o null si el número se queda sin imagen.
+   */
+  private static Entry resolve(Path dir, String graphicsDir, String name, Entry before) {
+    Entry changed = readEntry(dir, graphicsDir, name);
+    boolean wasIndexed = before != null && before.getPath().equals(graphicsDir + name);
+    if (changed != null) {
+      return before == null || wasIndexed ? changed : preferred(before, changed);
+    }
+    if (!wasIndexed) {
+      return before; // Desapareció una alternativa que no se estaba usando
+    }
+    // Se borró la imagen indexada: se prueban los otros formatos del mismo número, de más a menos
+    // preferido. Un nombre con ceros a la izquierda no se encuentra así y espera al próximo
+    // recorrido completo.
+    for (String extension : EXTENSIONS) {
+      for (String format : new String[] {extension, extension.toUpperCase()}) {
+        Entry fallback = readEntry(dir, graphicsDir, before.getFileNum() + "." + format);
+        if (fallback != null) {
+          return fallback;
+        }
+      }
+    }
+    return null;
+  }
+
+  /** Lee un fichero concreto de la carpeta, o null si no existe o no es un fichero normal. */
+  private static Entry readEntry(Path dir, String graphicsDir, String name) {
+    try {
+      BasicFileAttributes attrs = Files.readAttributes(dir.resolve(name),
+          BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+      return attrs.isRegularFile() ? toEntry(graphicsDir, name, attrs) : null;
+    } catch (IOException e) {
+      return null; // Borrado entre el evento y la consulta
+    }
+  }
+
+  private static void evictIfChanged(ImageCache imageCache, Entry before, Entry after) {
+    if (before == null) {
+      return;
+    }
+    if (after == null || !before.getPath().equals(after.getPath())
+        || before.getLastModified() != after.getLastModified()
+        || before.getSize() != after.getSize()) {
+      imageCache.invalidate(before.getPath());
+    }
+  }
+}
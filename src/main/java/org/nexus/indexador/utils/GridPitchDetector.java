@@ -0,0 +1,280 @@
+package org.nexus.indexador.utils;
+
+import javafx.scene.image.Image;
+
+/**
+ * Deduce el tamaño de celda y el desplazamiento de la rejilla de una hoja sin intervención del
+ * usuario.
+ * <p>
+ * En un solo recorrido de los píxeles se construyen, para columnas y filas, dos perfiles de
+ * proyección: cuántos píxeles opacos hay en cada una y cuántos cambian bruscamente respecto a la
+ * columna (o fila) anterior. Si la hoja tiene huecos transparentes entre sprites se usa el perfil
+ * de opacidad; si es un atlas opaco, el de bordes. El tamaño de celda es el primer pico de la
+ * autocorrelación del perfil y el desplazamiento sale de plegar el perfil sobre ese periodo. La
+ * autocorrelación trabaja sobre los perfiles (unos miles de valores), sin volver a los píxeles.
+ */
+public final class GridPitchDetector {
+
+  /** Tamaño de celda mínimo considerado. */
+  static final int MIN_PITCH = 8;
+  /** Tamaño de celda máximo considerado. */
+  static final int MAX_PITCH = 1024;
+
+  /** Correlación mínima del pico para aceptar que el perfil es periódico. */
+  private static final double MIN_SCORE = 0.35;
+  /** Un pico más corto se prefiere al máximo si llega a esta fracción; evita elegir múltiplos. */
+  private static final double PEAK_TOLERANCE = 0.9;
+  /** Suma de diferencias por canal a partir de la cual dos píxeles vecinos forman un borde. */
+  private static final int EDGE_THRESHOLD = 96;
+  /** Si la columna menos opaca no llega a esta fracción de la más opaca, la hoja tiene huecos. */
+  private static final double GAP_RATIO = 0.1;
+
+  private GridPitchDetector() {}
+
+  /**
+   * Rejilla deducida de una hoja.
+   */
+  public static final class Grid {
+    private final int tileWidth;
+    private final int tileHeight;
+    private final int offsetX;
+    private final int offsetY;
+
+    Grid(int tileWidth, int tileHeight, int offsetX, int offsetY) {
+      this.tileWidth = tileWidth;
+      this.tileHeight = tileHeight;
+      this.offsetX = offsetX;
+      this.offsetY = offsetY;
+    }
+
+    public int getTileWidth() {
+      return tileWidth;
+    }
+
+    public int getTileHeight() {
+      return tileHeight;
+    }
+
+    /** Desplazamiento horizontal de la primera celda completa, menor que el ancho de celda. */
+    public int getOffsetX() {
+      return offsetX;
+    }
+
+    /** Desplazamiento vertical de la primera celda completa, menor que el alto de celda. */
+    public int getOffsetY() {
+      return offsetY;
+    }
+  }
+
+  /**
+   * Deduce la rejilla de una hoja. Si solo uno de los ejes es periódico (una tira de cuadros, por
+   * ejemplo), en el otro la celda ocupa toda la hoja.
+   *
+   * @param argb   Píxeles de la hoja, fila a fila.
+   * @param width  Ancho de la hoja.
+   * @param height Alto de la hoja.
+   * @return La rejilla, o null si ningún eje muestra un patrón que se repita.
+   */
+  public static Grid detect(int[] argb, int width, int height) {
+    long[] colOpacity = new long[width];
+    long[] rowOpacity = new long[height];
+    long[] colEdges = new long[width];
+    long[] rowEdges = new long[height];
+
+    for (int y = 0; y < height; y++) {
+      int offset = y * width;
+      for (int x = 0; x < width; x++) {
+        int pixel = argb[offset + x];
+        if (SpriteLabeler.isOpaque(pixel)) {
+          colOpacity[x]++;
+          rowOpacity[y]++;
+        }
+        if (x > 0 && isEdge(pixel, argb[offset + x - 1])) {
+          colEdges[x]++;
+        }
+        if (y > 0 && isEdge(pixel, argb[offset + x - width])) {
+          rowEdges[y]++;
+        }
+      }
+    }
+
+    int[] horizontal = detectAxis(colOpacity, colEdges);
+    int[] vertical = detectAxis(rowOpacity, rowEdges);
+    if (horizontal == null && vertical == null) {
+      return null;
+    }
+    return new Grid(horizontal != null ? horizontal[0] : width,
+        vertical != null ? vertical[0] : height,
+        horizontal != null ? horizontal[1] : 0,
+        vertical != null ? vertical[1] : 0);
+  }
+
+  /**
+   * Deduce la rejilla leyendo los píxeles de la imagen.
+   */
+  public static Grid detect(Image image) {
+    return detect(ImageUtils.readArgb(image), (int) image.getWidth(), (int) image.getHeight());
+  }
+
+  /** Dos píxeles vecinos forman borde si solo uno es opaco o si sus colores difieren mucho. */
+  private static boolean isEdge(int a, int b) {
+    boolean opaqueA = SpriteLabeler.isOpaque(a);
+    boolean opaqueB = SpriteLabeler.isOpaque(b);
+    if (opaqueA != opaqueB) {
+      return true;
+    }
+    if (!opaqueA) {
+      return false;
+    }
+    int diff = Math.abs(((a >> 16) & 0xFF) - ((b >> 16) & 0xFF))
+        + Math.abs(((a >> 8) & 0xFF) - ((b >> 8) & 0xFF))
+        + Math.abs((a & 0xFF) - (b & 0xFF));
+    return diff >= EDGE_THRESHOLD;
+  }
+
+  /**
+   * @return {periodo, desplazamiento} de un eje, o null si no es periódico.
+   */
+  static int[] detectAxis(long[] opacity, long[] edges) {
+    long min = Long.MAX_VALUE;
+    long max = 0;
+    for (long value : opacity) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    if (max == 0) {
+      return null;
+    }
+
+    if (min <= max * GAP_RATIO) {
+      // Sprites separados por huecos: las celdas empiezan en mitad de los huecos
+      int pitch = findPitch(opacity);
+      return pitch > 0 ? new int[] {pitch, gapOffset(fold(opacity, pitch))} : null;
+    }
+    // Atlas opaco: las celdas empiezan donde se concentran los bordes
+    int pitch = findPitch(edges);
+    return pitch > 0 ? new int[] {pitch, edgeOffset(fold(edges, pitch))} : null;
+  }
+
+  /**
+   * Primer pico de la autocorrelación normalizada del perfil.
+   *
+   * @return El periodo, o 0 si el perfil no se repite lo bastante.
+   */
+  static int findPitch(long[] profile) {
+    int n = profile.length;
+    int maxLag = Math.min(MAX_PITCH, n / 2);
+    if (maxLag < MIN_PITCH) {
+      return 0;
+    }
+
+    double mean = 0;
+    for (long value : profile) {
+      mean += value;
+    }
+    mean /= n;
+    double[] centered = new double[n];
+    double energy = 0;
+    for (int i = 0; i < n; i++) {
+      centered[i] = profile[i] - mean;
+      energy += centered[i] * centered[i];
+    }
+    if (energy == 0) {
+      return 0;
+    }
+
+    // Se calcula un desfase más por cada lado para poder reconocer picos en los extremos
+    int from = MIN_PITCH - 1;
+    int to = Math.min(maxLag + 1, n - 1);
+    double[] correlation = new double[to + 1];
+    for (int lag = from; lag <= to; lag++) {
+      double sum = 0;
+      for (int i = 0, end = n - lag; i < end; i++) {
+        sum += centered[i] * centered[i + lag];
+      }
+      // Se compensa que con desfases grandes se solapan menos muestras
+      correlation[lag] = sum / energy * n / (n - lag);
+    }
+
+    double best = 0;
+    for (int lag = MIN_PITCH; lag <= maxLag; lag++) {
+      if (isPeak(correlation, lag, to)) {
+        best = Math.max(best, correlation[lag]);
+      }
+    }
+    if (best < MIN_SCORE) {
+      return 0;
+    }
+    for (int lag = MIN_PITCH; lag <= maxLag; lag++) {
+      if (isPeak(correlation, lag, to) && correlation[lag] >= best * PEAK_TOLERANCE) {
+        return lag;
+      }
+    }
+    return 0;
+  }
+
+  private static boolean isPeak(double[] correlation, int lag, int last) {
+    return correlation[lag] >= correlation[lag - 1]
+        && (lag == last || correlation[lag] >= correlation[lag + 1]);
+  }
+
+  /** Suma el perfil en cada fase del periodo. */
+  static long[] fold(long[] profile, int pitch) {
+    long[] folded = new long[pitch];
+    for (int i = 0; i < profile.length; i++) {
+      folded[i % pitch] += profile[i];
+    }
+    return folded;
+  }
+
+  /**
+   * Centro de la racha circular más larga de fases casi vacías. Si la fase 0 está dentro de la
+   * racha o la toca, se devuelve 0: es lo habitual y evita desplazar la rejilla por un margen.
+   */
+  static int gapOffset(long[] folded) {
+    int pitch = folded.length;
+    long min = Long.MAX_VALUE;
+    long max = 0;
+    for (long value : folded) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    long threshold = min + (max - min) / 20;
+
+    int bestStart = -1;
+    int bestLength = 0;
+    for (int start = 0; start < pitch; start++) {
+      // Solo se cuentan las rachas desde su primera fase
+      int previous = (start + pitch - 1) % pitch;
+      if (folded[start] > threshold || folded[previous] <= threshold) {
+        continue;
+      }
+      int length = 0;
+      while (length < pitch && folded[(start + length) % pitch] <= threshold) {
+        length++;
+      }
+      if (length > bestLength) {
+        bestStart = start;
+        bestLength = length;
+      }
+    }
+    // Sin rachas (todo vacío) o con la fase 0 dentro de la racha o justo después
+    if (bestStart <= 0 || bestStart + bestLength >= pitch) {
+      return 0;
+    }
+    return (bestStart + bestLength / 2) % pitch;
+  }
+
+  /**
+   * Fase con más bordes. Se prefiere 0 si está casi a la par con la máxima.
+   */
+  static int edgeOffset(long[] folded) {
+    int best = 0;
+    for (int phase = 1; phase < folded.length; phase++) {
+      if (folded[phase] > folded[best]) {
+        best = phase;
+      }
+    }
+    return folded[0] >= folded[best] * PEAK_TOLERANCE ? 0 : best;
+  }
+}
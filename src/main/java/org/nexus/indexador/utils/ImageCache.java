@@ -5,25 +5,122 @@ import javafx.scene.image.PixelReader;
 import javafx.scene.image.WritableImage;
 
 import java.io.File;
-import java.lang.ref.SoftReference;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
 /**
- * Clase que implementa un sistema de caché para imágenes. Utiliza referencias
- * suaves
- * (SoftReference) para permitir al recolector de basura liberar la memoria de
- * las imágenes cuando
- * el sistema lo necesite.
+ * Clase que implementa un sistema de caché para imágenes decodificadas.
+ * <p>
+ * La memoria se limita con un presupuesto en bytes (ancho × alto × 4 por imagen, configurable con
+ * {@code ImageCacheMB} en config.ini). Al superarlo se descartan primero las imágenes usadas hace
+ * más tiempo (LRU), salvo las fijadas con {@link #pin(String)} por estar en pantalla. Es seguro
+ * usarla desde el hilo de JavaFX y desde los hilos de indexado automático a la vez.
+ * <p>
+ * Los recortes de {@link #getCroppedImage} se guardan en el mismo mapa, indexados por imagen y
+ * rectángulo, y compiten por el mismo presupuesto: una animación en bucle solo recorta cada frame
+ * en la primera vuelta.
+ * <p>
+ * {@link #getImageAsync(String)} decodifica en un grupo de hilos propio para no bloquear la
+ * interfaz con hojas grandes, y {@link #prefetch(String)} lo usa para adelantar las que se van a
+ * mostrar a continuación.
  */
 public class ImageCache {
   private static ImageCache instance;
-  private final Map<String, SoftReference<Image>> imageCache = new HashMap<>();
   private final Logger logger = Logger.getInstance();
 
+  // En orden de acceso: el primero es el usado hace más tiempo. Protegido por "this".
+  // Las claves son la ruta (String) para imágenes completas o un CropKey para recortes.
+  private final LinkedHashMap<Object, CachedImage> imageCache =
+      new LinkedHashMap<>(64, 0.75f, true);
+  private final Map<String, Integer> pins = new HashMap<>();
+  private final long budgetBytes;
+  private long usedBytes;
+  // Se incrementa al invalidar o limpiar: una decodificación que empezó antes no se guarda
+  private long generation;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  // Decodificación en segundo plano; una sola tarea por ruta aunque se pida varias veces
+  private static final int DECODER_THREADS =
+      Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+  private final Executor decoder;
+  private final Function<String, Image> loader;
+  private final Map<String, CompletableFuture<Image>> pendingDecodes = new ConcurrentHashMap<>();
+
+  private static final class CachedImage {
+    final Image image;
+    final long bytes;
+
+    CachedImage(Image image, long bytes) {
+      this.image = image;
+      this.bytes = bytes;
+    }
+  }
+
+  private static final class CropKey {
+    final String path;
+    final int x;
+    final int y;
+    final int width;
+    final int height;
+
+    CropKey(String path, int x, int y, int width, int height) {
+      this.path = path;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CropKey other)) {
+        return false;
+      }
+      return x == other.x && y == other.y && width == other.width && height == other.height
+          && path.equals(other.path);
+    }
+
+    @Override
+    public int hashCode() {
+      int h = path.hashCode();
+      h = 31 * h + x;
+      h = 31 * h + y;
+      h = 31 * h + width;
+      return 31 * h + height;
+    }
+  }
+
   private ImageCache() {
     // Constructor privado para singleton
-    logger.info("ImageCache inicializado");
+    this(ConfigManager.getInstance().getImageCacheMb() * 1024L * 1024L,
+        Executors.newFixedThreadPool(DECODER_THREADS, new DecoderThreadFactory()), null);
+  }
+
+  /**
+   * Crea un caché independiente del singleton, para pruebas.
+   *
+   * @param budgetBytes Límite de memoria en bytes.
+   * @param decoder     Ejecutor de las decodificaciones en segundo plano.
+   * @param loader      Carga una imagen a partir de su ruta; si es null se lee del disco.
+   */
+  ImageCache(long budgetBytes, Executor decoder, Function<String, Image> loader) {
+    this.budgetBytes = budgetBytes;
+    this.decoder = decoder;
+    this.loader = loader != null ? loader : this::loadImage;
+    logger.info("ImageCache inicializado (límite " + (budgetBytes >> 20) + " MB)");
   }
 
   /**
@@ -45,38 +142,92 @@ public class ImageCache {
    * @return La imagen cargada, o null si no se pudo cargar.
    */
   public Image getImage(String imagePath) {
-    // Verificar si la imagen ya está en caché
-    if (imageCache.containsKey(imagePath)) {
-      SoftReference<Image> ref = imageCache.get(imagePath);
-      Image cachedImage = ref.get();
-
-      // Si la referencia no ha sido recolectada por el GC, retornarla
-      if (cachedImage != null) {
-        // logger.debug("Imagen obtenida del caché: " + imagePath);
-        return cachedImage;
+    long startGeneration;
+    synchronized (this) {
+      CachedImage cached = imageCache.get(imagePath);
+      if (cached != null) {
+        hits.increment();
+        return cached.image;
       }
-      // Si ha sido recolectada, eliminarla del caché
-      imageCache.remove(imagePath);
-      // logger.debug("Referencia de imagen liberada por GC: " + imagePath);
+      startGeneration = generation;
     }
+    return decode(imagePath, startGeneration);
+  }
 
-    // Cargar la imagen desde el archivo
-    File imageFile = new File(imagePath);
-    if (imageFile.exists()) {
-      try {
-        // logger.debug("Cargando imagen nueva: " + imagePath);
-        Image newImage = new Image(imageFile.toURI().toString());
-        // Almacenar en caché con referencia suave
-        imageCache.put(imagePath, new SoftReference<>(newImage));
-        return newImage;
-      } catch (Exception e) {
-        logger.error("Error al cargar imagen " + imagePath, e);
-        return null;
-      }
-    } else {
-      logger.warning("Archivo de imagen no encontrado: " + imagePath);
+  /**
+   * Carga una imagen que no estaba en caché y la guarda si el caché no se invalidó desde
+   * {@code startGeneration}.
+   */
+  private Image decode(String imagePath, long startGeneration) {
+    misses.increment();
+
+    // La decodificación se hace fuera del bloqueo para no frenar a otros hilos
+    Image newImage = loader.apply(imagePath);
+    if (newImage == null) {
       return null;
     }
+    if (sizeOf(newImage) > budgetBytes) {
+      logger.warning("Imagen mayor que el límite del caché, no se almacena: " + imagePath);
+      return newImage;
+    }
+    return store(imagePath, newImage, startGeneration);
+  }
+
+  /**
+   * Devuelve la imagen solo si ya está en caché, sin cargarla.
+   *
+   * @param imagePath Ruta completa de la imagen.
+   * @return La imagen, o null si todavía no se ha decodificado.
+   */
+  public Image peekImage(String imagePath) {
+    synchronized (this) {
+      CachedImage cached = imageCache.get(imagePath);
+      if (cached != null) {
+        hits.increment();
+        return cached.image;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Obtiene una imagen decodificándola en segundo plano si no está en caché.
+   *
+   * @param imagePath Ruta completa de la imagen.
+   * @return Un future que se completa con la imagen, o con null si no se pudo cargar. No se
+   *         completa en el hilo de JavaFX.
+   */
+  public CompletableFuture<Image> getImageAsync(String imagePath) {
+    long startGeneration;
+    synchronized (this) {
+      CachedImage cached = imageCache.get(imagePath);
+      if (cached != null) {
+        hits.increment();
+        return CompletableFuture.completedFuture(cached.image);
+      }
+      startGeneration = generation;
+    }
+    CompletableFuture<Image> future = pendingDecodes.computeIfAbsent(imagePath,
+        path -> CompletableFuture.supplyAsync(() -> decode(path, startGeneration), decoder));
+    // Fuera de computeIfAbsent: si la tarea ya terminó, la limpieza se ejecuta aquí mismo, y solo
+    // quita esta tarea, no otra que se haya pedido después de invalidar la ruta
+    future.whenComplete((image, error) -> pendingDecodes.remove(imagePath, future));
+    return future;
+  }
+
+  /**
+   * Pide la decodificación de una imagen que probablemente se muestre pronto.
+   *
+   * @param imagePath Ruta completa de la imagen.
+   */
+  public void prefetch(String imagePath) {
+    boolean cached;
+    synchronized (this) {
+      cached = imageCache.containsKey(imagePath);
+    }
+    if (!cached) {
+      getImageAsync(imagePath);
+    }
   }
 
   /**
@@ -87,19 +238,28 @@ public class ImageCache {
    * @param y         Coordenada Y de inicio del recorte.
    * @param width     Ancho del recorte.
    * @param height    Alto del recorte.
-   * @return La imagen recortada, o null si la imagen original no existe.
+   * @return La imagen recortada, o null si la imagen original no existe. La instancia se comparte
+   *         entre llamadas, por lo que no debe modificarse.
    */
   public WritableImage getCroppedImage(String imagePath, int x, int y, int width, int height) {
+    CropKey key = new CropKey(imagePath, x, y, width, height);
+    long startGeneration;
+    synchronized (this) {
+      CachedImage cached = imageCache.get(key);
+      if (cached != null) {
+        hits.increment();
+        return (WritableImage) cached.image;
+      }
+      startGeneration = generation;
+    }
+    misses.increment();
+
     Image sourceImage = getImage(imagePath);
     if (sourceImage != null) {
       try {
         PixelReader pixelReader = sourceImage.getPixelReader();
-        /*
-         * logger.debug("Recortando imagen: " + imagePath + " en coordenadas [" + x +
-         * "," + y
-         * + "] con tamaño " + width + "x" + height);
-         */
-        return new WritableImage(pixelReader, x, y, width, height);
+        return (WritableImage) store(key, new WritableImage(pixelReader, x, y, width, height),
+            startGeneration);
       } catch (Exception e) {
         logger.error("Error al recortar imagen " + imagePath, e);
         return null;
@@ -109,11 +269,161 @@ public class ImageCache {
   }
 
   /**
-   * Limpia el caché de imágenes.
+   * Fija una imagen para que no se descarte mientras está en pantalla. Cada llamada debe
+   * acompañarse de un {@link #unpin(String)}.
+   *
+   * @param imagePath Ruta de la imagen a fijar.
+   */
+  public synchronized void pin(String imagePath) {
+    pins.merge(imagePath, 1, Integer::sum);
+  }
+
+  /**
+   * Libera una fijación hecha con {@link #pin(String)}.
+   *
+   * @param imagePath Ruta de la imagen a liberar.
+   */
+  public synchronized void unpin(String imagePath) {
+    Integer count = pins.get(imagePath);
+    if (count == null) {
+      return;
+    }
+    if (count > 1) {
+      pins.put(imagePath, count - 1);
+    } else {
+      pins.remove(imagePath);
+      // Lo que no se pudo descartar mientras estaba fijado se descarta ahora
+      evictToBudget();
+    }
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  /**
+   * @return Bytes ocupados por las imágenes almacenadas.
+   */
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  public long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  /**
+   * Descarta una imagen y todos sus recortes, por ejemplo porque el fichero cambió en disco. Una
+   * decodificación en curso de la imagen ya no se reutiliza ni se guarda al terminar.
+   *
+   * @param imagePath Ruta de la imagen.
+   */
+  public synchronized void invalidate(String imagePath) {
+    generation++;
+    pendingDecodes.remove(imagePath);
+    Iterator<Map.Entry<Object, CachedImage>> it = imageCache.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Object, CachedImage> entry = it.next();
+      Object key = entry.getKey();
+      if (imagePath.equals(key) || (key instanceof CropKey crop && crop.path.equals(imagePath))) {
+        it.remove();
+        usedBytes -= entry.getValue().bytes;
+      }
+    }
+  }
+
+  /**
+   * Limpia el caché de imágenes. Las fijaciones se conservan.
    */
   public void clearCache() {
-    int size = imageCache.size();
-    imageCache.clear();
-    logger.info("Caché de imágenes limpiado. Se eliminaron " + size + " referencias.");
+    int size;
+    synchronized (this) {
+      size = imageCache.size();
+      imageCache.clear();
+      usedBytes = 0;
+      generation++;
+      pendingDecodes.clear();
+    }
+    logger.info("Caché de imágenes limpiado. Se eliminaron " + size + " imágenes (aciertos: "
+        + getHitCount() + ", fallos: " + getMissCount() + ", descartes: " + getEvictionCount()
+        + ").");
+  }
+
+  private Image loadImage(String imagePath) {
+    File imageFile = new File(imagePath);
+    if (!imageFile.exists()) {
+      logger.warning("Archivo de imagen no encontrado: " + imagePath);
+      return null;
+    }
+    try {
+      Image image = new Image(imageFile.toURI().toString());
+      if (image.isError()) {
+        logger.error("Error al cargar imagen " + imagePath, image.getException());
+        return null;
+      }
+      return image;
+    } catch (Exception e) {
+      logger.error("Error al cargar imagen " + imagePath, e);
+      return null;
+    }
+  }
+
+  /** Hilos de decodificación en segundo plano, que no impiden cerrar la aplicación. */
+  private static final class DecoderThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable task) {
+      Thread thread = new Thread(task, "image-decoder-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      thread.setPriority(Thread.NORM_PRIORITY - 1);
+      return thread;
+    }
+  }
+
+  private static long sizeOf(Image image) {
+    return (long) image.getWidth() * (long) image.getHeight() * 4L;
+  }
+
+  /**
+   * Guarda una imagen recién creada. Si otro hilo guardó la misma clave mientras tanto, se
+   * devuelve la suya para que todos compartan la misma instancia. Si el caché se invalidó desde
+   * que empezó la carga, la imagen puede estar desactualizada y se devuelve sin guardarla.
+   */
+  private synchronized Image store(Object key, Image image, long startGeneration) {
+    if (generation != startGeneration) {
+      return image;
+    }
+    CachedImage existing = imageCache.get(key);
+    if (existing != null) {
+      return existing.image;
+    }
+    long bytes = sizeOf(image);
+    imageCache.put(key, new CachedImage(image, bytes));
+    usedBytes += bytes;
+    evictToBudget();
+    return image;
+  }
+
+  /** Descarta imágenes no fijadas, de la menos reciente a la más, hasta cumplir el límite. */
+  private synchronized void evictToBudget() {
+    Iterator<Map.Entry<Object, CachedImage>> it = imageCache.entrySet().iterator();
+    while (usedBytes > budgetBytes && it.hasNext()) {
+      Map.Entry<Object, CachedImage> eldest = it.next();
+      if (eldest.getKey() instanceof String path && pins.containsKey(path)) {
+        continue;
+      }
+      it.remove();
+      usedBytes -= eldest.getValue().bytes;
+      evictions.increment();
+    }
   }
 }
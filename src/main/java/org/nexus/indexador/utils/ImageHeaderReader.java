@@ -0,0 +1,126 @@
+package org.nexus.indexador.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lee las dimensiones de una imagen desde su cabecera, sin decodificar los píxeles.
+ * <p>
+ * Reconoce la cabecera IHDR de PNG, las cabeceras de información de BMP (BITMAPCOREHEADER y
+ * BITMAPINFOHEADER o posteriores) y la de GIF. Solo se leen los primeros bytes del fichero, así
+ * que se puede aplicar a miles de hojas en lo que tarda en decodificarse una.
+ */
+public final class ImageHeaderReader {
+
+  /** Bytes suficientes para cualquiera de las cabeceras reconocidas. */
+  private static final int HEADER_BYTES = 32;
+
+  private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+  /**
+   * Dimensiones y profundidad de color de una imagen.
+   */
+  public static final class ImageHeader {
+    private final int width;
+    private final int height;
+    private final int bitDepth;
+
+    ImageHeader(int width, int height, int bitDepth) {
+      this.width = width;
+      this.height = height;
+      this.bitDepth = bitDepth;
+    }
+
+    public int getWidth() {
+      return width;
+    }
+
+    public int getHeight() {
+      return height;
+    }
+
+    /** Bits por muestra en PNG, bits por píxel en BMP y GIF. */
+    public int getBitDepth() {
+      return bitDepth;
+    }
+  }
+
+  private ImageHeaderReader() {}
+
+  /**
+   * Lee la cabecera de un fichero de imagen.
+   *
+   * @return La cabecera, o null si el formato no se reconoce o el fichero no se puede leer.
+   */
+  public static ImageHeader read(Path file) {
+    byte[] header = new byte[HEADER_BYTES];
+    int length;
+    try (InputStream in = Files.newInputStream(file)) {
+      length = in.readNBytes(header, 0, HEADER_BYTES);
+    } catch (IOException e) {
+      return null;
+    }
+    return parse(header, length);
+  }
+
+  /**
+   * Interpreta los primeros bytes de una imagen.
+   *
+   * @return La cabecera, o null si el formato no se reconoce.
+   */
+  static ImageHeader parse(byte[] data, int length) {
+    if (length >= 26 && startsWith(data, PNG_SIGNATURE)
+        && data[12] == 'I' && data[13] == 'H' && data[14] == 'D' && data[15] == 'R') {
+      return valid(bigEndianInt(data, 16), bigEndianInt(data, 20), data[24] & 0xFF);
+    }
+
+    if (length >= 26 && data[0] == 'B' && data[1] == 'M') {
+      int infoSize = littleEndianInt(data, 14);
+      if (infoSize == 12) {
+        // BITMAPCOREHEADER (OS/2): dimensiones de 16 bits sin signo
+        return valid(littleEndianShort(data, 18), littleEndianShort(data, 20),
+            littleEndianShort(data, 24));
+      }
+      if (infoSize >= 40 && length >= 30) {
+        // BITMAPINFOHEADER y sucesores: la altura es negativa en los BMP de arriba a abajo
+        return valid(littleEndianInt(data, 18), Math.abs(littleEndianInt(data, 22)),
+            littleEndianShort(data, 28));
+      }
+      return null;
+    }
+
+    if (length >= 11 && data[0] == 'G' && data[1] == 'I' && data[2] == 'F') {
+      return valid(littleEndianShort(data, 6), littleEndianShort(data, 8), (data[10] & 0x07) + 1);
+    }
+    return null;
+  }
+
+  private static ImageHeader valid(int width, int height, int bitDepth) {
+    return width > 0 && height > 0 ? new ImageHeader(width, height, bitDepth) : null;
+  }
+
+  private static boolean startsWith(byte[] data, byte[] prefix) {
+    for (int i = 0; i < prefix.length; i++) {
+      if (data[i] != prefix[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int bigEndianInt(byte[] data, int offset) {
+    return (data[offset] & 0xFF) << 24 | (data[offset + 1] & 0xFF) << 16
+        | (data[offset + 2] & 0xFF) << 8 | (data[offset + 3] & 0xFF);
+  }
+
+  private static int littleEndianInt(byte[] data, int offset) {
+    return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8
+        | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+  }
+
+  private static int littleEndianShort(byte[] data, int offset) {
+    return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+  }
+}
@@ -1,11 +1,12 @@
 package org.nexus.indexador.utils;
 
 import javafx.scene.image.Image;
-import javafx.scene.image.PixelReader;
-import javafx.scene.image.PixelWriter;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 
+import java.util.Arrays;
+
 public class ImageUtils {
 
     /**
@@ -29,8 +30,7 @@ public class ImageUtils {
         if (baseImage == null)
             return null;
 
-        WritableImage canvas = new WritableImage(canvasWidth, canvasHeight);
-        PixelWriter writer = canvas.getPixelWriter();
+        int[] pixels = canvasBuffer(canvasWidth, canvasHeight);
 
         int basW = (int) baseImage.getWidth();
         int basH = (int) baseImage.getHeight();
@@ -40,16 +40,7 @@ public class ImageUtils {
         int baseY = (canvasHeight - basH) / 2;
 
         // 2. Dibujar Base (Cuerpo)
-        PixelReader baseReader = baseImage.getPixelReader();
-        for (int x = 0; x < basW; x++) {
-            for (int y = 0; y < basH; y++) {
-                int argb = baseReader.getArgb(x, y);
-                // Check alpha AND black color key (0x000000 is transparent)
-                if ((argb >> 24) != 0 && (argb & 0x00FFFFFF) != 0) {
-                    writePixelSafe(writer, canvasWidth, canvasHeight, baseX + x, baseY + y, argb);
-                }
-            }
-        }
+        blit(baseImage, pixels, canvasWidth, canvasHeight, baseX, baseY, true);
 
         // 3. Dibujar Overlay (Cabeza) si existe con lógica VB6:
         // Call Draw_Grh(.Head.Head(.Heading), PixelOffsetX + .Body.HeadOffset.X,
@@ -57,82 +48,26 @@ public class ImageUtils {
         // Implica que la cabeza se dibuja RELATIVA a la posición del cuerpo usando el
         // Offset tal cual.
         if (overlayImage != null) {
-            int ovW = (int) overlayImage.getWidth();
-            int ovH = (int) overlayImage.getHeight();
-            PixelReader ovReader = overlayImage.getPixelReader();
-
-            // Offset directo sin magia
-            int absOvX = baseX + offsetX;
-            int absOvY = baseY + offsetY;
-
-            for (int x = 0; x < ovW; x++) {
-                for (int y = 0; y < ovH; y++) {
-                    int argb = ovReader.getArgb(x, y);
-                    // Dibuja solo si no es transparente total Y no es negro puro
-                    if ((argb >> 24) != 0 && (argb & 0x00FFFFFF) != 0) {
-                        writePixelSafe(writer, canvasWidth, canvasHeight, absOvX + x, absOvY + y, argb);
-                    }
-                }
-            }
+            blit(overlayImage, pixels, canvasWidth, canvasHeight, baseX + offsetX, baseY + offsetY, true);
         }
 
         // 4. Dibujar Marcador (Si se solicita)
         if (showMarker) {
             // El marcador indica el punto (0,0) del Overlay relativo a la Base
-            int markerX = baseX + offsetX;
-            int markerY = baseY + offsetY;
-            Color color = Color.RED;
-
-            // Cruz grande (5px brazos)
-            int size = 5;
-            for (int i = -size; i <= size; i++) {
-                writePixelSafeColor(writer, canvasWidth, canvasHeight, markerX + i, markerY, color); // H
-                writePixelSafeColor(writer, canvasWidth, canvasHeight, markerX, markerY + i, color); // V
-            }
+            drawCross(pixels, canvasWidth, canvasHeight, baseX + offsetX, baseY + offsetY, toArgb(Color.RED));
         }
 
-        return canvas;
-    }
-
-    /* Helper para dibujar pixel seguro (int argb) */
-    private static void writePixelSafe(PixelWriter writer, int w, int h, int x, int y, int argb) {
-        if (x >= 0 && x < w && y >= 0 && y < h) {
-            writer.setArgb(x, y, argb);
-        }
-    }
-
-    /* Helper para dibujar pixel seguro (Color) */
-    private static void writePixelSafeColor(PixelWriter writer, int w, int h, int x, int y, Color color) {
-        if (x >= 0 && x < w && y >= 0 && y < h) {
-            writer.setColor(x, y, color);
-        }
+        return toImage(pixels, canvasWidth, canvasHeight);
     }
 
     // Legacy support for FxsController (can be updated later or kept)
     public static WritableImage drawSpriteOnCanvas(Image sprite, int canvasWidth, int canvasHeight, int marginX,
             int marginY, int markerX, int markerY, Color color) {
 
-        WritableImage canvas = new WritableImage(canvasWidth, canvasHeight);
-        PixelWriter writer = canvas.getPixelWriter();
-        PixelReader reader = sprite.getPixelReader();
-        int spriteW = (int) sprite.getWidth();
-        int spriteH = (int) sprite.getHeight();
-        for (int x = 0; x < spriteW; x++) {
-            for (int y = 0; y < spriteH; y++) {
-                int destX = marginX + x;
-                int destY = marginY + y;
-                if (destX >= 0 && destX < canvasWidth && destY >= 0 && destY < canvasHeight) {
-                    writer.setArgb(destX, destY, reader.getArgb(x, y));
-                }
-            }
-        }
-        int absMarkerX = marginX + markerX;
-        int absMarkerY = marginY + markerY;
-        for (int i = -5; i <= 5; i++) {
-            writePixelSafeColor(writer, canvasWidth, canvasHeight, absMarkerX + i, absMarkerY, color);
-            writePixelSafeColor(writer, canvasWidth, canvasHeight, absMarkerX, absMarkerY + i, color);
-        }
-        return canvas;
+        int[] pixels = canvasBuffer(canvasWidth, canvasHeight);
+        blit(sprite, pixels, canvasWidth, canvasHeight, marginX, marginY, false);
+        drawCross(pixels, canvasWidth, canvasHeight, marginX + markerX, marginY + markerY, toArgb(color));
+        return toImage(pixels, canvasWidth, canvasHeight);
     }
 
     // Legacy
@@ -147,42 +82,127 @@ public class ImageUtils {
     public static WritableImage drawCenteredImageWithOffset(Image image, int canvasWidth, int canvasHeight, int offX,
             int offY,
             boolean showMarker) {
-        WritableImage canvas = new WritableImage(canvasWidth, canvasHeight);
-        PixelWriter writer = canvas.getPixelWriter();
+        int[] pixels = canvasBuffer(canvasWidth, canvasHeight);
 
         int centerX = canvasWidth / 2;
         int centerY = canvasHeight / 2;
 
         // 1. Dibujar Referencia Visual (Centro del Tile/Target) - Fijo
         if (showMarker) {
-            Color color = Color.RED;
-            int size = 5;
-            for (int i = -size; i <= size; i++) {
-                writePixelSafeColor(writer, canvasWidth, canvasHeight, centerX + i, centerY, color);
-                writePixelSafeColor(writer, canvasWidth, canvasHeight, centerX, centerY + i, color);
-            }
+            drawCross(pixels, canvasWidth, canvasHeight, centerX, centerY, toArgb(Color.RED));
         }
 
-        if (image == null)
-            return canvas;
+        // 2. Dibujar Imagen desplazada (por encima de la marca, como antes)
+        if (image != null) {
+            blit(image, pixels, canvasWidth, canvasHeight, centerX + offX, centerY + offY, true);
+        }
+
+        return toImage(pixels, canvasWidth, canvasHeight);
+    }
+
+    /**
+     * Copia todos los píxeles de una imagen a un array ARGB, fila a fila, con una sola
+     * lectura.
+     */
+    public static int[] readArgb(Image image) {
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] argb = new int[width * height];
+        image.getPixelReader().getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+        return argb;
+    }
+
+    /*
+     * Búferes reutilizados entre llamadas (uno por hilo): el lienzo completo y la
+     * región de la imagen de origen. Solo crecen, así que tras el primer frame no se
+     * reservan más arrays.
+     */
+    private static final class Buffers {
+        int[] canvas = new int[0];
+        int[] source = new int[0];
+    }
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    /* Lienzo reutilizable de w×h píxeles, limpio (transparente) */
+    private static int[] canvasBuffer(int w, int h) {
+        Buffers buffers = BUFFERS.get();
+        int size = w * h;
+        if (buffers.canvas.length < size) {
+            buffers.canvas = new int[size];
+        } else {
+            Arrays.fill(buffers.canvas, 0, size, 0);
+        }
+        return buffers.canvas;
+    }
 
-        // 2. Dibujar Imagen desplazada
-        PixelReader reader = image.getPixelReader();
+    /*
+     * Copia una imagen sobre el lienzo en (destX, destY). El recorte contra los bordes
+     * se calcula una vez; la imagen se lee con una sola llamada a getPixels y se
+     * recorre por filas. Con colorKey se omiten los píxeles transparentes y el negro
+     * puro (0x000000), que en los gráficos del juego es transparente.
+     */
+    private static void blit(Image image, int[] canvas, int canvasW, int canvasH, int destX, int destY,
+            boolean colorKey) {
         int imgW = (int) image.getWidth();
         int imgH = (int) image.getHeight();
 
-        int destX = centerX + offX;
-        int destY = centerY + offY;
+        int srcX = Math.max(0, -destX);
+        int srcY = Math.max(0, -destY);
+        int w = Math.min(imgW, canvasW - destX) - srcX;
+        int h = Math.min(imgH, canvasH - destY) - srcY;
+        if (w <= 0 || h <= 0)
+            return;
 
-        for (int x = 0; x < imgW; x++) {
-            for (int y = 0; y < imgH; y++) {
-                int argb = reader.getArgb(x, y);
-                if ((argb >> 24) != 0 && (argb & 0x00FFFFFF) != 0) {
-                    writePixelSafe(writer, canvasWidth, canvasHeight, destX + x, destY + y, argb);
+        Buffers buffers = BUFFERS.get();
+        if (buffers.source.length < w * h) {
+            buffers.source = new int[w * h];
+        }
+        int[] src = buffers.source;
+        image.getPixelReader().getPixels(srcX, srcY, w, h, PixelFormat.getIntArgbInstance(), src, 0, w);
+
+        for (int row = 0; row < h; row++) {
+            int s = row * w;
+            int d = (destY + srcY + row) * canvasW + destX + srcX;
+            if (!colorKey) {
+                System.arraycopy(src, s, canvas, d, w);
+                continue;
+            }
+            for (int end = s + w; s < end; s++, d++) {
+                int argb = src[s];
+                if ((argb >>> 24) != 0 && (argb & 0x00FFFFFF) != 0) {
+                    canvas[d] = argb;
                 }
             }
         }
+    }
+
+    /* Cruz de 5px de brazo centrada en (x, y), recortada al lienzo */
+    private static void drawCross(int[] canvas, int w, int h, int x, int y, int argb) {
+        int size = 5;
+        if (y >= 0 && y < h) {
+            for (int i = Math.max(0, x - size), end = Math.min(w - 1, x + size); i <= end; i++) {
+                canvas[y * w + i] = argb;
+            }
+        }
+        if (x >= 0 && x < w) {
+            for (int j = Math.max(0, y - size), end = Math.min(h - 1, y + size); j <= end; j++) {
+                canvas[j * w + x] = argb;
+            }
+        }
+    }
+
+    private static int toArgb(Color color) {
+        return (int) Math.round(color.getOpacity() * 255) << 24
+                | (int) Math.round(color.getRed() * 255) << 16
+                | (int) Math.round(color.getGreen() * 255) << 8
+                | (int) Math.round(color.getBlue() * 255);
+    }
 
+    /* Vuelca el lienzo en una imagen nueva con una sola escritura */
+    private static WritableImage toImage(int[] pixels, int w, int h) {
+        WritableImage canvas = new WritableImage(w, h);
+        canvas.getPixelWriter().setPixels(0, 0, w, h, PixelFormat.getIntArgbInstance(), pixels, 0, w);
         return canvas;
     }
 }
@@ -0,0 +1,483 @@
+package org.nexus.indexador.utils;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.nexus.indexador.gamedata.DataManager;
+import org.nexus.indexador.gamedata.GrhDependencyGraph;
+import org.nexus.indexador.gamedata.GrhIndex;
+import org.nexus.indexador.gamedata.enums.IndexingSystem;
+import org.nexus.indexador.gamedata.models.BodyData;
+import org.nexus.indexador.gamedata.models.FXData;
+import org.nexus.indexador.gamedata.models.GrhData;
+import org.nexus.indexador.gamedata.models.HeadData;
+import org.nexus.indexador.gamedata.models.HelmetData;
+import org.nexus.indexador.gamedata.models.ShieldData;
+import org.nexus.indexador.gamedata.models.WeaponData;
+import org.nexus.indexador.utils.ValidationService.Severity;
+import org.nexus.indexador.utils.ValidationService.ValidationIssue;
+import org.nexus.indexador.utils.ValidationService.ValidationResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Mantiene al día el resultado de la validación de integridad mientras se edita.
+ * <p>
+ * Parte de una validación completa ({@link Baseline}) y guarda sus incidencias agrupadas por GRH
+ * y por entidad, junto con un {@link GrhDependencyGraph}. Cada edición vuelve a validar solo el GRH
+ * tocado y sus dependientes: las animaciones que lo usan como frame y, si aparece o desaparece,
+ * las entidades que lo referencian. Editar una entidad solo vuelve a comprobar sus referencias. El
+ * coste por edición no depende del tamaño de la lista.
+ * <p>
+ * Se usa desde el hilo de la interfaz, igual que la lista de gráficos que observa.
+ */
+public class LiveValidator {
+
+  private static volatile LiveValidator instance;
+
+  // Tipos de entidad, que dan nombre a sus nodos en el grafo ("Cuerpo 3")
+  public static final String HEAD = "Cabeza";
+  public static final String HELMET = "Casco";
+  public static final String BODY = "Cuerpo";
+  public static final String WEAPON = "Arma";
+  public static final String SHIELD = "Escudo";
+  public static final String FX = "FX";
+
+  private final Logger logger = Logger.getInstance();
+  private final ValidationService validationService = ValidationService.getInstance();
+
+  private GrhDependencyGraph graph = new GrhDependencyGraph();
+  private final TreeMap<Integer, List<ValidationIssue>> grhIssues = new TreeMap<>();
+  private final Map<String, List<ValidationIssue>> entityIssues = new LinkedHashMap<>();
+  private final List<ValidationIssue> infos = new ArrayList<>();
+  private final ListChangeListener<GrhData> listener = this::onListChanged;
+  private final List<EntityList<?>> entityLists = new ArrayList<>();
+  /** Entidades registradas en el grafo por tipo. */
+  private final Map<String, Integer> entityCounts = new LinkedHashMap<>();
+
+  private ObservableList<GrhData> grhList;
+  private GrhIndex grhIndex;
+  private String graphicsDir;
+  private int errorCount;
+  private int warningCount;
+  private Runnable onChanged;
+
+  LiveValidator() {}
+
+  public static LiveValidator getInstance() {
+    if (instance == null) {
+      synchronized (LiveValidator.class) {
+        if (instance == null) {
+          instance = new LiveValidator();
+        }
+      }
+    }
+    return instance;
+  }
+
+  /**
+   * Validación completa de partida, con las referencias de las entidades. Se captura en el hilo
+   * de la interfaz y se calcula fuera de él.
+   */
+  public static final class Baseline {
+    private final List<GrhData> grhs;
+    private final Map<String, int[]> references = new LinkedHashMap<>();
+    private final List<EntityList<?>> entityLists = new ArrayList<>();
+    private final String graphicsDir;
+    private final GrhDependencyGraph graph = new GrhDependencyGraph();
+    private final Map<Integer, List<ValidationIssue>> grhIssues = new TreeMap<>();
+    private final Map<String, List<ValidationIssue>> entityIssues = new LinkedHashMap<>();
+    private ValidationResult result;
+
+    Baseline(List<GrhData> grhs, String graphicsDir) {
+      this.grhs = grhs;
+      this.graphicsDir = graphicsDir;
+    }
+
+    /**
+     * Copia la lista de gráficos y las referencias de todas las entidades cargadas.
+     */
+    public static Baseline capture(List<GrhData> grhList, DataManager dataManager,
+        String graphicsDir) {
+      return new Baseline(new ArrayList<>(grhList), graphicsDir)
+          .track(HEAD, dataManager.getHeadList(), LiveValidator::referencesOf)
+          .track(HELMET, dataManager.getHelmetList(), LiveValidator::referencesOf)
+          .track(BODY, dataManager.getBodyList(), LiveValidator::referencesOf)
+          .track(WEAPON, dataManager.getWeaponList(), LiveValidator::referencesOf)
+          .track(SHIELD, dataManager.getShieldList(), LiveValidator::referencesOf)
+          .track(FX, dataManager.getFXList(), LiveValidator::referencesOf);
+    }
+
+    /**
+     * Copia las referencias de una lista de entidades. Una vez instalada la validación, las altas,
+     * bajas y recargas de la lista se siguen solas.
+     */
+    <T> Baseline track(String kind, ObservableList<T> entities, Function<T, int[]> references) {
+      if (entities == null) {
+        return this;
+      }
+      entityLists.add(new EntityList<>(kind, entities, references));
+      for (int i = 0; i < entities.size(); i++) {
+        // Copia: la validación se calcula en otro hilo mientras se sigue editando
+        int[] grhIds = references.apply(entities.get(i));
+        this.references.put(owner(kind, i), grhIds != null ? grhIds.clone() : null);
+      }
+      return this;
+    }
+
+    /**
+     * Ejecuta la validación completa y construye el grafo de dependencias. Bloquea hasta
+     * terminar, así que debe llamarse fuera del hilo de la interfaz.
+     *
+     * @return El resultado completo, incluidas las referencias rotas de las entidades.
+     */
+    public ValidationResult validate() {
+      result = ValidationService.getInstance().validate(grhs, graphicsDir);
+
+      long start = System.nanoTime();
+      for (ValidationIssue issue : result.getErrors()) {
+        grhIssues.computeIfAbsent(issue.getGrhId(), k -> new ArrayList<>()).add(issue);
+      }
+      for (ValidationIssue issue : result.getWarnings()) {
+        grhIssues.computeIfAbsent(issue.getGrhId(), k -> new ArrayList<>()).add(issue);
+      }
+      for (GrhData grh : grhs) {
+        graph.update(grh);
+      }
+
+      GrhIndex index = new GrhIndex();
+      index.rebuild(grhs);
+      for (Map.Entry<String, int[]> entry : references.entrySet()) {
+        graph.setReferences(entry.getKey(), entry.getValue());
+        List<ValidationIssue> issues = checkReferences(entry.getKey(),
+            graph.getReferences(entry.getKey()), index);
+        if (!issues.isEmpty()) {
+          entityIssues.put(entry.getKey(), issues);
+          for (ValidationIssue issue : issues) {
+            result.addError(issue.getMessage(), issue.getGrhId());
+          }
+        }
+      }
+      long millis = (System.nanoTime() - start) / 1_000_000;
+      result.addRuleTime("Dependencias", millis);
+      result.addInfo("Tiempo de Dependencias: " + millis + " ms", 0);
+      return result;
+    }
+  }
+
+  /**
+   * Adopta una validación completa y empieza a seguir las altas y bajas de la lista.
+   *
+   * @param baseline Validación ya calculada con {@link Baseline#validate()}.
+   * @param grhList  Lista de gráficos que se edita, la misma que se capturó.
+   * @param grhIndex Índice por ID de esa lista, mantenido al día por {@link DataManager}.
+   */
+  public void install(Baseline baseline, ObservableList<GrhData> grhList, GrhIndex grhIndex) {
+    detach();
+    this.grhList = grhList;
+    this.grhIndex = grhIndex;
+    this.graphicsDir = baseline.graphicsDir;
+    this.graph = baseline.graph;
+    grhIssues.clear();
+    entityIssues.clear();
+    entityCounts.clear();
+    infos.clear();
+    errorCount = 0;
+    warningCount = 0;
+
+    baseline.grhIssues.forEach(this::putGrhIssues);
+    baseline.entityIssues.forEach(this::putEntityIssues);
+    infos.addAll(baseline.result.getInfos());
+
+    grhList.addListener(listener);
+    for (EntityList<?> entities : baseline.entityLists) {
+      attach(entities);
+    }
+    logger.info("Validación en vivo activa: " + errorCount + " errores, " + warningCount
+        + " advertencias");
+    fireChanged();
+  }
+
+  /**
+   * Deja de seguir la lista y descarta el resultado. Hace falta una nueva validación completa
+   * para volver a activarlo.
+   */
+  public void reset() {
+    detach();
+    graph.clear();
+    grhIssues.clear();
+    entityIssues.clear();
+    entityCounts.clear();
+    infos.clear();
+    errorCount = 0;
+    warningCount = 0;
+    fireChanged();
+  }
+
+  public boolean isActive() {
+    return grhList != null;
+  }
+
+  /**
+   * Vuelve a validar un GRH que se modificó en el sitio y las animaciones que lo usan. Sin una
+   * validación de partida no hace nada.
+   */
+  public void grhChanged(GrhData grh) {
+    if (!isActive()) {
+      return;
+    }
+    revalidate(grh.getGrh(), false);
+    fireChanged();
+  }
+
+  /**
+   * Vuelve a comprobar las referencias de una entidad modificada en el sitio. Las altas y bajas
+   * de entidades no hace falta notificarlas. Sin una validación de partida no hace nada.
+   *
+   * @param kind   Tipo de entidad, por ejemplo {@link #BODY}.
+   * @param index  Posición de la entidad en su lista, desde 0.
+   * @param grhIds GRH que usa ahora; null si no usa ninguno.
+   */
+  public void entityChanged(String kind, int index, int[] grhIds) {
+    if (!isActive()) {
+      return;
+    }
+    setEntity(owner(kind, index), grhIds);
+    fireChanged();
+  }
+
+  // --- Referencias de cada tipo de entidad ---
+
+  /** Las cabezas por moldes apuntan a una imagen, no a GRH. */
+  public static int[] referencesOf(HeadData head) {
+    return head.getSystemType() == IndexingSystem.TRADITIONAL ? head.getGrhIndex() : null;
+  }
+
+  /** Los cascos por moldes apuntan a una imagen, no a GRH. */
+  public static int[] referencesOf(HelmetData helmet) {
+    return helmet.getSystemType() == IndexingSystem.TRADITIONAL ? helmet.getGrhIndex() : null;
+  }
+
+  public static int[] referencesOf(BodyData body) {
+    return body.getBody();
+  }
+
+  public static int[] referencesOf(WeaponData weapon) {
+    return weapon.getGrhIndex();
+  }
+
+  public static int[] referencesOf(ShieldData shield) {
+    return shield.getShield();
+  }
+
+  public static int[] referencesOf(FXData fx) {
+    return new int[] {fx.getFx()};
+  }
+
+  public int getErrorCount() {
+    return errorCount;
+  }
+
+  public int getWarningCount() {
+    return warningCount;
+  }
+
+  /**
+   * @return Las incidencias actuales de un GRH.
+   */
+  public List<ValidationIssue> getIssues(int grhId) {
+    return grhIssues.getOrDefault(grhId, List.of());
+  }
+
+  /**
+   * Resultado actual, con los GRH en orden de ID seguidos de las entidades. La información
+   * (estadísticas y tiempos) es la de la validación de partida.
+   */
+  public ValidationResult getResult() {
+    ValidationResult result = new ValidationResult();
+    for (List<ValidationIssue> issues : grhIssues.values()) {
+      addAll(result, issues);
+    }
+    for (List<ValidationIssue> issues : entityIssues.values()) {
+      addAll(result, issues);
+    }
+    for (ValidationIssue info : infos) {
+      result.addInfo(info.getMessage(), info.getGrhId());
+    }
+    return result;
+  }
+
+  /**
+   * @param onChanged Se ejecuta tras cada cambio del resultado. Puede ser null.
+   */
+  public void setOnChanged(Runnable onChanged) {
+    this.onChanged = onChanged;
+  }
+
+  // --- Internos ---
+
+  /** Nombre del nodo de una entidad: el tipo y la posición desde 1, como en los editores. */
+  static String owner(String kind, int index) {
+    return kind + " " + (index + 1);
+  }
+
+  /** Lista de entidades observada, con la forma de obtener sus referencias. */
+  private static final class EntityList<T> {
+    final String kind;
+    final ObservableList<T> list;
+    final Function<T, int[]> references;
+    ListChangeListener<T> listener;
+
+    EntityList(String kind, ObservableList<T> list, Function<T, int[]> references) {
+      this.kind = kind;
+      this.list = list;
+      this.references = references;
+    }
+  }
+
+  /**
+   * Registra de nuevo todas las entidades de un tipo. Las posiciones cambian con cada alta o
+   * baja, así que se rehacen todas; son pocas comparadas con los GRH.
+   */
+  private <T> void reloadEntities(EntityList<T> entities) {
+    int previous = entityCounts.getOrDefault(entities.kind, 0);
+    for (int i = entities.list.size(); i < previous; i++) {
+      setEntity(owner(entities.kind, i), null);
+    }
+    for (int i = 0; i < entities.list.size(); i++) {
+      setEntity(owner(entities.kind, i), entities.references.apply(entities.list.get(i)));
+    }
+    entityCounts.put(entities.kind, entities.list.size());
+    fireChanged();
+  }
+
+  private void setEntity(String owner, int[] grhIds) {
+    graph.setReferences(owner, grhIds);
+    putEntityIssues(owner, checkReferences(owner, graph.getReferences(owner), grhIndex));
+  }
+
+  private void onListChanged(ListChangeListener.Change<? extends GrhData> change) {
+    while (change.next()) {
+      if (change.getAddedSize() == change.getList().size()) {
+        // Carga completa (setAll): el resultado de partida ya no corresponde a la lista
+        logger.info("Lista de gráficos recargada; validación en vivo desactivada");
+        reset();
+        return;
+      }
+      for (GrhData removed : change.getRemoved()) {
+        revalidate(removed.getGrh(), true);
+      }
+      for (GrhData added : change.getAddedSubList()) {
+        revalidate(added.getGrh(), true);
+      }
+    }
+    fireChanged();
+  }
+
+  /**
+   * Valida de nuevo un GRH y sus dependientes.
+   *
+   * @param existenceChanged Si el GRH pudo aparecer o desaparecer; solo entonces cambia el
+   *                         resultado de las entidades que lo referencian.
+   */
+  private void revalidate(int grhId, boolean existenceChanged) {
+    GrhData grh = grhIndex.get(grhId);
+    if (grh != null) {
+      graph.update(grh);
+      putGrhIssues(grhId, validationService.validateGrh(grh, grhIndex, graphicsDir));
+    } else {
+      graph.remove(grhId);
+      putGrhIssues(grhId, List.of());
+    }
+
+    // Las animaciones que lo usan comprueban que exista y que no sea a su vez una animación
+    for (int animationId : graph.getAnimationsUsing(grhId)) {
+      GrhData animation = grhIndex.get(animationId);
+      if (animation != null) {
+        putGrhIssues(animationId, validationService.validateGrh(animation, grhIndex, graphicsDir));
+      }
+    }
+    if (existenceChanged) {
+      for (String owner : graph.getReferencesTo(grhId)) {
+        putEntityIssues(owner, checkReferences(owner, graph.getReferences(owner), grhIndex));
+      }
+    }
+  }
+
+  /** Referencias de una entidad a GRH que no existen. */
+  static List<ValidationIssue> checkReferences(String owner, int[] grhIds, GrhIndex index) {
+    List<ValidationIssue> issues = new ArrayList<>();
+    for (int grhId : grhIds) {
+      if (!index.contains(grhId)) {
+        issues.add(new ValidationIssue(Severity.ERROR,
+            owner + " referencia GRH inexistente: " + grhId, 0));
+      }
+    }
+    return issues;
+  }
+
+  private void putGrhIssues(int grhId, List<ValidationIssue> issues) {
+    count(issues.isEmpty() ? grhIssues.remove(grhId) : grhIssues.put(grhId, issues), -1);
+    count(issues, 1);
+  }
+
+  private void putEntityIssues(String owner, List<ValidationIssue> issues) {
+    count(issues.isEmpty() ? entityIssues.remove(owner) : entityIssues.put(owner, issues), -1);
+    count(issues, 1);
+  }
+
+  private void count(List<ValidationIssue> issues, int sign) {
+    if (issues == null) {
+      return;
+    }
+    for (ValidationIssue issue : issues) {
+      if (issue.getSeverity() == Severity.ERROR) {
+        errorCount += sign;
+      } else if (issue.getSeverity() == Severity.WARNING) {
+        warningCount += sign;
+      }
+    }
+  }
+
+  private static void addAll(ValidationResult result, List<ValidationIssue> issues) {
+    for (ValidationIssue issue : issues) {
+      if (issue.getSeverity() == Severity.ERROR) {
+        result.addError(issue.getMessage(), issue.getGrhId());
+      } else {
+        result.addWarning(issue.getMessage(), issue.getGrhId());
+      }
+    }
+  }
+
+  private void detach() {
+    if (grhList != null) {
+      grhList.removeListener(listener);
+      grhList = null;
+    }
+    for (EntityList<?> entities : entityLists) {
+      removeListener(entities);
+    }
+    entityLists.clear();
+  }
+
+  private <T> void attach(EntityList<T> entities) {
+    entityCounts.put(entities.kind, entities.list.size());
+    entities.listener = change -> reloadEntities(entities);
+    entities.list.addListener(entities.listener);
+    entityLists.add(entities);
+  }
+
+  private static <T> void removeListener(EntityList<T> entities) {
+    entities.list.removeListener(entities.listener);
+  }
+
+  private void fireChanged() {
+    if (onChanged != null) {
+      onChanged.run();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package org.nexus.indexador.utils;
+
+import javafx.scene.image.Image;
+
+/**
+ * Tabla de sumas acumuladas (imagen integral) del número de píxeles opacos de una hoja.
+ * <p>
+ * Se construye una vez por hoja, en un solo recorrido, y después responde cuántos píxeles opacos
+ * hay en cualquier rectángulo con cuatro accesos, sin importar su tamaño. La opacidad es la misma
+ * que usa la detección de sprites ({@link SpriteLabeler#isOpaque(int)}).
+ */
+public final class OpacityTable {
+  private final int width;
+  private final int height;
+  // (width + 1) × (height + 1); la fila y la columna 0 valen 0
+  private final int[] sums;
+
+  public OpacityTable(int[] argb, int width, int height) {
+    this.width = width;
+    this.height = height;
+    int stride = width + 1;
+    this.sums = new int[stride * (height + 1)];
+    for (int y = 0; y < height; y++) {
+      int rowSum = 0;
+      int src = y * width;
+      int above = y * stride + 1;
+      int dst = above + stride;
+      for (int x = 0; x < width; x++) {
+        if (SpriteLabeler.isOpaque(argb[src + x])) {
+          rowSum++;
+        }
+        sums[dst + x] = sums[above + x] + rowSum;
+      }
+    }
+  }
+
+  /**
+   * Construye la tabla leyendo los píxeles de la imagen.
+   */
+  public static OpacityTable of(Image image) {
+    int width = (int) image.getWidth();
+    int height = (int) image.getHeight();
+    return new OpacityTable(ImageUtils.readArgb(image), width, height);
+  }
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Cuenta los píxeles opacos del rectángulo. La parte que cae fuera de la hoja no cuenta.
+   */
+  public int count(int x, int y, int w, int h) {
+    int x0 = Math.max(0, x);
+    int y0 = Math.max(0, y);
+    int x1 = Math.min(width, x + w);
+    int y1 = Math.min(height, y + h);
+    if (x0 >= x1 || y0 >= y1) {
+      return 0;
+    }
+    int stride = width + 1;
+    return sums[y1 * stride + x1] - sums[y0 * stride + x1] - sums[y1 * stride + x0]
+        + sums[y0 * stride + x0];
+  }
+
+  /**
+   * @return true si el rectángulo contiene al menos un píxel opaco.
+   */
+  public boolean hasOpaque(int x, int y, int w, int h) {
+    return count(x, y, w, h) > 0;
+  }
+}
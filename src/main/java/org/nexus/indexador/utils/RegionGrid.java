@@ -0,0 +1,113 @@
+package org.nexus.indexador.utils;
+
+import java.util.Arrays;
+
+/**
+ * Rejilla uniforme de rectángulos identificados por un entero, para encontrar los vecinos de una
+ * región sin compararla con todas las demás.
+ * <p>
+ * Un rectángulo se apunta en todas las celdas que cubre. Al crecer se vuelve a insertar y las
+ * entradas antiguas quedan como duplicados inofensivos: quien consulta comprueba siempre los
+ * límites actuales del candidato.
+ */
+final class RegionGrid {
+  private final double originX;
+  private final double originY;
+  private final double cellSize;
+  private final int cols;
+  private final int rows;
+  private final int[][] cells;
+  private final int[] cellCounts;
+
+  // Evita devolver dos veces el mismo id en una consulta
+  private final int[] seen;
+  private int stamp;
+
+  private int[] result = new int[64];
+  private int resultCount;
+
+  /**
+   * @param minX     Límite izquierdo de todo lo que se va a insertar.
+   * @param minY     Límite superior.
+   * @param maxX     Límite derecho.
+   * @param maxY     Límite inferior.
+   * @param cellSize Lado de cada celda.
+   * @param maxId    Cantidad de ids distintos (de 0 a maxId - 1).
+   */
+  RegionGrid(double minX, double minY, double maxX, double maxY, double cellSize, int maxId) {
+    this.originX = minX;
+    this.originY = minY;
+    this.cellSize = cellSize;
+    this.cols = Math.max(1, (int) Math.ceil((maxX - minX) / cellSize) + 1);
+    this.rows = Math.max(1, (int) Math.ceil((maxY - minY) / cellSize) + 1);
+    this.cells = new int[cols * rows][];
+    this.cellCounts = new int[cols * rows];
+    this.seen = new int[maxId];
+  }
+
+  void insert(int id, double x, double y, double w, double h) {
+    int c0 = col(x);
+    int c1 = col(x + w);
+    int r0 = row(y);
+    int r1 = row(y + h);
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+        int cell = r * cols + c;
+        int[] ids = cells[cell];
+        if (ids == null) {
+          ids = cells[cell] = new int[4];
+        } else if (cellCounts[cell] == ids.length) {
+          ids = cells[cell] = Arrays.copyOf(ids, ids.length * 2);
+        }
+        ids[cellCounts[cell]++] = id;
+      }
+    }
+  }
+
+  /**
+   * Ids insertados en alguna celda que toque el rectángulo. Puede incluir ids que en realidad no
+   * lo intersectan. El resultado es válido hasta la siguiente consulta.
+   *
+   * @return Número de ids escritos en {@link #results()}.
+   */
+  int query(double x, double y, double w, double h) {
+    if (++stamp == 0) {
+      Arrays.fill(seen, 0);
+      stamp = 1;
+    }
+    resultCount = 0;
+    int c0 = col(x);
+    int c1 = col(x + w);
+    int r0 = row(y);
+    int r1 = row(y + h);
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+        int cell = r * cols + c;
+        int[] ids = cells[cell];
+        for (int k = 0, n = cellCounts[cell]; k < n; k++) {
+          int id = ids[k];
+          if (seen[id] != stamp) {
+            seen[id] = stamp;
+            if (resultCount == result.length) {
+              result = Arrays.copyOf(result, resultCount * 2);
+            }
+            result[resultCount++] = id;
+          }
+        }
+      }
+    }
+    return resultCount;
+  }
+
+  int[] results() {
+    return result;
+  }
+
+  private int col(double x) {
+    return Math.min(cols - 1, Math.max(0, (int) Math.floor((x - originX) / cellSize)));
+  }
+
+  private int row(double y) {
+    return Math.min(rows - 1, Math.max(0, (int) Math.floor((y - originY) / cellSize)));
+  }
+}
@@ -0,0 +1,253 @@
+package org.nexus.indexador.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Etiquetado de componentes conexas (4-vecindad) sobre una hoja en formato ARGB.
+ * <p>
+ * En lugar de recorrer píxel a píxel con una cola, cada fila se reduce a tramos horizontales de
+ * píxeles opacos y los tramos que se tocan con los de la fila anterior se unen con union-find. La
+ * memoria depende del número de tramos, no del tamaño de la hoja. Las componentes se devuelven en
+ * el orden de su primer píxel (de arriba a abajo y de izquierda a derecha), como el relleno por
+ * inundación al que sustituye.
+ * <p>
+ * {@link #labelParallel} reparte la hoja en franjas horizontales que se etiquetan en paralelo y
+ * luego se cosen uniendo los tramos de la última fila de cada franja con los de la primera de la
+ * siguiente. El resultado es idéntico al secuencial.
+ */
+public final class SpriteLabeler {
+
+  /** Alfa mínimo para considerar un píxel opaco (opacidad 0.1 redondeada hacia arriba). */
+  private static final int MIN_ALPHA = 26;
+
+  /** Filas por franja por debajo de las cuales no compensa seguir dividiendo. */
+  static final int MIN_BAND_ROWS = 64;
+
+  private SpriteLabeler() {}
+
+  /**
+   * @return true si el píxel forma parte de un sprite: no es casi transparente ni negro puro, que
+   *         en los gráficos del juego hace de color clave.
+   */
+  public static boolean isOpaque(int argb) {
+    return (argb >>> 24) >= MIN_ALPHA && (argb & 0x00FFFFFF) != 0;
+  }
+
+  /**
+   * Detecta las regiones conexas de píxeles opacos.
+   *
+   * @param argb   Píxeles de la hoja, fila a fila.
+   * @param width  Ancho de la hoja.
+   * @param height Alto de la hoja.
+   * @return Rectángulos envolventes {x, y, ancho, alto} de las regiones de más de 2×2 píxeles.
+   */
+  public static List<int[]> label(int[] argb, int width, int height) {
+    Runs runs = new Runs();
+    runs.scanRows(argb, width, 0, height);
+    return runs.boxes();
+  }
+
+  /**
+   * Como {@link #label}, pero etiquetando franjas de la hoja en paralelo.
+   *
+   * @param pool Grupo de hilos donde repartir las franjas.
+   */
+  public static List<int[]> labelParallel(int[] argb, int width, int height, ForkJoinPool pool) {
+    return pool.invoke(new BandTask(argb, width, 0, height)).boxes();
+  }
+
+  /**
+   * Etiqueta un rango de filas, dividiéndolo en dos mitades mientras sea grande. Como toda
+   * ForkJoinTask es Serializable, pero nunca se serializa.
+   */
+  @SuppressWarnings("serial")
+  private static final class BandTask extends RecursiveTask<Runs> {
+    private final int[] argb;
+    private final int width;
+    private final int fromY;
+    private final int toY;
+
+    BandTask(int[] argb, int width, int fromY, int toY) {
+      this.argb = argb;
+      this.width = width;
+      this.fromY = fromY;
+      this.toY = toY;
+    }
+
+    @Override
+    protected Runs compute() {
+      if (toY - fromY <= MIN_BAND_ROWS * 2) {
+        Runs runs = new Runs();
+        runs.scanRows(argb, width, fromY, toY);
+        return runs;
+      }
+      int middle = (fromY + toY) >>> 1;
+      BandTask lower = new BandTask(argb, width, middle, toY);
+      lower.fork();
+      Runs upper = new BandTask(argb, width, fromY, middle).compute();
+      upper.append(lower.join(), middle);
+      return upper;
+    }
+  }
+
+  /**
+   * Tramos horizontales de píxeles opacos con su bosque union-find. Los tramos se numeran en orden
+   * de recorrido y la raíz de cada componente es siempre su tramo de menor índice, es decir, el que
+   * contiene su primer píxel.
+   */
+  static final class Runs {
+    int count;
+    int[] y = new int[256];
+    int[] x0 = new int[256];
+    int[] x1 = new int[256];
+    int[] parent = new int[256];
+
+    /** Etiqueta las filas [fromY, toY) y une cada fila con la anterior dentro del rango. */
+    void scanRows(int[] argb, int width, int fromY, int toY) {
+      int prevStart = count;
+      int prevEnd = count;
+      for (int row = fromY; row < toY; row++) {
+        int rowStart = count;
+        int offset = row * width;
+        int x = 0;
+        while (x < width) {
+          while (x < width && !isOpaque(argb[offset + x])) {
+            x++;
+          }
+          if (x == width) {
+            break;
+          }
+          int start = x;
+          while (x < width && isOpaque(argb[offset + x])) {
+            x++;
+          }
+          add(row, start, x - 1);
+        }
+        if (row > fromY) {
+          connect(prevStart, prevEnd, rowStart, count);
+        }
+        prevStart = rowStart;
+        prevEnd = count;
+      }
+    }
+
+    /**
+     * Une los tramos [aStart, aEnd) de una fila con los [bStart, bEnd) de la fila siguiente que se
+     * solapan en horizontal. Ambos rangos están ordenados por x, así que basta un recorrido.
+     */
+    void connect(int aStart, int aEnd, int bStart, int bEnd) {
+      int a = aStart;
+      int b = bStart;
+      while (a < aEnd && b < bEnd) {
+        if (x0[a] <= x1[b] && x1[a] >= x0[b]) {
+          union(a, b);
+        }
+        // Avanza el tramo que termina antes; el otro aún puede tocar al siguiente
+        if (x1[a] < x1[b]) {
+          a++;
+        } else {
+          b++;
+        }
+      }
+    }
+
+    /**
+     * Añade a continuación los tramos de la franja que empieza en {@code boundaryY} y une los de su
+     * primera fila con los de la última fila de esta.
+     */
+    void append(Runs lower, int boundaryY) {
+      int offset = count;
+      ensureCapacity(count + lower.count);
+      System.arraycopy(lower.y, 0, y, offset, lower.count);
+      System.arraycopy(lower.x0, 0, x0, offset, lower.count);
+      System.arraycopy(lower.x1, 0, x1, offset, lower.count);
+      for (int i = 0; i < lower.count; i++) {
+        parent[offset + i] = lower.parent[i] + offset;
+      }
+      count += lower.count;
+
+      int lastRowStart = offset;
+      while (lastRowStart > 0 && y[lastRowStart - 1] == boundaryY - 1) {
+        lastRowStart--;
+      }
+      int firstRowEnd = offset;
+      while (firstRowEnd < count && y[firstRowEnd] == boundaryY) {
+        firstRowEnd++;
+      }
+      connect(lastRowStart, offset, offset, firstRowEnd);
+    }
+
+    private void ensureCapacity(int capacity) {
+      if (capacity > y.length) {
+        capacity = Math.max(capacity, y.length * 2);
+        y = Arrays.copyOf(y, capacity);
+        x0 = Arrays.copyOf(x0, capacity);
+        x1 = Arrays.copyOf(x1, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+      }
+    }
+
+    private void add(int row, int start, int end) {
+      ensureCapacity(count + 1);
+      y[count] = row;
+      x0[count] = start;
+      x1[count] = end;
+      parent[count] = count;
+      count++;
+    }
+
+    int find(int i) {
+      while (parent[i] != i) {
+        parent[i] = parent[parent[i]];
+        i = parent[i];
+      }
+      return i;
+    }
+
+    void union(int a, int b) {
+      int ra = find(a);
+      int rb = find(b);
+      if (ra < rb) {
+        parent[rb] = ra;
+      } else if (rb < ra) {
+        parent[ra] = rb;
+      }
+    }
+
+    /** Rectángulos envolventes de cada componente, en orden de su primer tramo. */
+    List<int[]> boxes() {
+      int[] minX = new int[count];
+      int[] maxX = new int[count];
+      int[] maxY = new int[count];
+      for (int i = 0; i < count; i++) {
+        int root = find(i);
+        if (root == i) {
+          minX[i] = x0[i];
+          maxX[i] = x1[i];
+          maxY[i] = y[i];
+        } else {
+          // La raíz tiene índice menor, así que ya está inicializada
+          minX[root] = Math.min(minX[root], x0[i]);
+          maxX[root] = Math.max(maxX[root], x1[i]);
+          maxY[root] = Math.max(maxY[root], y[i]);
+        }
+      }
+
+      List<int[]> boxes = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        if (parent[i] == i) {
+          int w = maxX[i] - minX[i] + 1;
+          int h = maxY[i] - y[i] + 1;
+          if (w > 2 && h > 2) {
+            boxes.add(new int[] {minX[i], y[i], w, h});
+          }
+        }
+      }
+      return boxes;
+    }
+  }
+}
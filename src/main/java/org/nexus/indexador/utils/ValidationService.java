@@ -1,18 +1,27 @@
 package org.nexus.indexador.utils;
 
+import org.nexus.indexador.gamedata.GrhIndex;
 import org.nexus.indexador.gamedata.models.GrhData;
 
-import java.io.File;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Servicio para validar la integridad de los datos de GRH. Detecta problemas como frames huérfanos,
  * FileNum inexistentes, duplicados, etc.
+ * <p>
+ * La validación se divide en reglas independientes que recorren una instantánea de solo lectura
+ * de la lista. Cada regla se reparte por tramos en un {@link ForkJoinPool}; cada tramo anota sus
+ * incidencias en una lista propia y al final se juntan en el mismo orden que tendría un recorrido
+ * secuencial. La existencia de las imágenes se resuelve con {@link GraphicsIndex}, que recorre la
+ * carpeta una sola vez.
  */
 public class ValidationService {
 
   private static volatile ValidationService instance;
   private final Logger logger = Logger.getInstance();
+  private final GraphicsIndex graphicsIndex = GraphicsIndex.getInstance();
 
   private ValidationService() {}
 
@@ -34,6 +43,7 @@ public class ValidationService {
     private final List<ValidationIssue> errors = new ArrayList<>();
     private final List<ValidationIssue> warnings = new ArrayList<>();
     private final List<ValidationIssue> infos = new ArrayList<>();
+    private final Map<String, Long> ruleMillis = new LinkedHashMap<>();
 
     public void addError(String message, int grhId) {
       errors.add(new ValidationIssue(Severity.ERROR, message, grhId));
@@ -71,6 +81,17 @@ public class ValidationService {
       return errors.size() + warnings.size() + infos.size();
     }
 
+    public void addRuleTime(String rule, long millis) {
+      ruleMillis.put(rule, millis);
+    }
+
+    /**
+     * @return Tiempo en milisegundos que tardó cada regla, en el orden en que se aplicaron.
+     */
+    public Map<String, Long> getRuleTimes() {
+      return ruleMillis;
+    }
+
     @Override
     public String toString() {
       return String.format("Validación: %d errores, %d advertencias, %d info", errors.size(),
@@ -111,6 +132,93 @@ public class ValidationService {
     }
   }
 
+  /** GRH por tramo por debajo de los cuales no compensa seguir dividiendo. */
+  static final int MIN_CHUNK = 2048;
+
+  /**
+   * Lista a validar, copiada una vez, con su índice por ID. Ninguna regla la modifica, así que
+   * los hilos la comparten sin bloqueos.
+   */
+  private static final class Snapshot {
+    final GrhData[] grhs;
+    final GrhIndex grhIndex = new GrhIndex();
+    final String graphicsDir;
+
+    Snapshot(List<GrhData> grhList, String graphicsDir) {
+      this.grhs = grhList.toArray(new GrhData[0]);
+      // Índice propio: la lista a validar no tiene por qué ser la cargada en DataManager
+      this.grhIndex.rebuild(grhList);
+      this.graphicsDir = graphicsDir;
+    }
+  }
+
+  /** Regla de validación que se aplica a cada GRH por separado. */
+  private interface Rule {
+    void check(GrhData grh, GrhIndex grhIndex, String graphicsDir, Issues out);
+  }
+
+  /** Incidencia pendiente de volcar, con la posición del GRH en la lista. */
+  private static final class Pending {
+    final int position;
+    final ValidationIssue issue;
+
+    Pending(int position, ValidationIssue issue) {
+      this.position = position;
+      this.issue = issue;
+    }
+  }
+
+  /** Incidencias de un tramo de la lista, en orden de posición. */
+  private static final class Issues {
+    final List<Pending> list = new ArrayList<>();
+    int position;
+
+    void error(String message, int grhId) {
+      list.add(new Pending(position, new ValidationIssue(Severity.ERROR, message, grhId)));
+    }
+
+    void warning(String message, int grhId) {
+      list.add(new Pending(position, new ValidationIssue(Severity.WARNING, message, grhId)));
+    }
+  }
+
+  /**
+   * Aplica una regla a un tramo [from, to) de la instantánea, dividiéndolo mientras sea grande.
+   * ForkJoinTask es Serializable, pero estas tareas nunca salen del pool.
+   */
+  @SuppressWarnings("serial")
+  private static final class RuleTask extends RecursiveTask<Issues> {
+    private final Rule rule;
+    private final Snapshot snapshot;
+    private final int from;
+    private final int to;
+
+    RuleTask(Rule rule, Snapshot snapshot, int from, int to) {
+      this.rule = rule;
+      this.snapshot = snapshot;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Issues compute() {
+      if (to - from <= MIN_CHUNK) {
+        Issues issues = new Issues();
+        for (int i = from; i < to; i++) {
+          issues.position = i;
+          rule.check(snapshot.grhs[i], snapshot.grhIndex, snapshot.graphicsDir, issues);
+        }
+        return issues;
+      }
+      int middle = (from + to) >>> 1;
+      RuleTask upper = new RuleTask(rule, snapshot, middle, to);
+      upper.fork();
+      Issues issues = new RuleTask(rule, snapshot, from, middle).compute();
+      issues.list.addAll(upper.join().list);
+      return issues;
+    }
+  }
+
   /**
    * Valida la integridad de la lista de GRH.
    *
@@ -119,125 +227,175 @@ public class ValidationService {
    * @return Resultado de la validación con errores y advertencias.
    */
   public ValidationResult validate(List<GrhData> grhList, String graphicsDir) {
+    return validate(grhList, graphicsDir, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Igual que {@link #validate(List, String)} pero repartiendo el trabajo en un grupo de hilos
+   * concreto.
+   */
+  public ValidationResult validate(List<GrhData> grhList, String graphicsDir, ForkJoinPool pool) {
     logger.info("Iniciando validación de integridad para " + grhList.size() + " GRHs");
 
     ValidationResult result = new ValidationResult();
-    Map<Integer, GrhData> grhMap = new HashMap<>();
-    Set<Integer> usedFileNums = new HashSet<>();
-
-    // Construir mapa para búsquedas rápidas
-    for (GrhData grh : grhList) {
-      grhMap.put(grh.getGrh(), grh);
+    long start = System.nanoTime();
+    Snapshot snapshot = new Snapshot(grhList, graphicsDir);
+    result.addRuleTime("Instantánea", (System.nanoTime() - start) / 1_000_000);
+
+    List<Pending> pending = new ArrayList<>();
+    for (Map.Entry<String, Rule> rule : rules().entrySet()) {
+      long ruleStart = System.nanoTime();
+      pending.addAll(pool.invoke(new RuleTask(rule.getValue(), snapshot, 0, snapshot.grhs.length)).list);
+      result.addRuleTime(rule.getKey(), (System.nanoTime() - ruleStart) / 1_000_000);
     }
 
-    for (GrhData grh : grhList) {
-      validateGrh(grh, grhMap, graphicsDir, usedFileNums, result);
+    // Cada regla ya viene ordenada por posición; el orden estable conserva el de las reglas
+    pending.sort(Comparator.comparingInt(p -> p.position));
+    for (Pending p : pending) {
+      ValidationIssue issue = p.issue;
+      if (issue.getSeverity() == Severity.ERROR) {
+        result.addError(issue.getMessage(), issue.getGrhId());
+      } else {
+        result.addWarning(issue.getMessage(), issue.getGrhId());
+      }
     }
 
     // Estadísticas
+    long statsStart = System.nanoTime();
     int animCount = 0;
     int staticCount = 0;
-    for (GrhData grh : grhList) {
+    BitSet usedFileNums = new BitSet();
+    for (GrhData grh : snapshot.grhs) {
       if (grh.getNumFrames() > 1) {
         animCount++;
       } else {
         staticCount++;
+        if (grh.getFileNum() > 0) {
+          usedFileNums.set(grh.getFileNum());
+        }
       }
     }
     result.addInfo("Total GRHs estáticos: " + staticCount, 0);
     result.addInfo("Total GRHs animados: " + animCount, 0);
-    result.addInfo("FileNums únicos utilizados: " + usedFileNums.size(), 0);
+    result.addInfo("FileNums únicos utilizados: " + usedFileNums.cardinality(), 0);
+    result.addRuleTime("Estadísticas", (System.nanoTime() - statsStart) / 1_000_000);
+
+    StringBuilder times = new StringBuilder();
+    for (Map.Entry<String, Long> time : result.getRuleTimes().entrySet()) {
+      result.addInfo("Tiempo de " + time.getKey() + ": " + time.getValue() + " ms", 0);
+      times.append(times.length() > 0 ? ", " : "").append(time.getKey()).append(' ')
+          .append(time.getValue()).append(" ms");
+    }
 
-    logger.info("Validación completada: " + result);
+    logger.info("Validación completada en " + (System.nanoTime() - start) / 1_000_000 + " ms: "
+        + result + " (" + times + ")");
     return result;
   }
 
-  private void validateGrh(GrhData grh, Map<Integer, GrhData> grhMap, String graphicsDir,
-      Set<Integer> usedFileNums, ValidationResult result) {
-
-    if (grh.getNumFrames() > 1) {
-      // Validar animación
-      validateAnimation(grh, grhMap, result);
-    } else {
-      // Validar GRH estático
-      validateStaticGrh(grh, graphicsDir, usedFileNums, result);
+  /**
+   * Valida un único GRH con las mismas reglas, y en el mismo orden, que {@link #validate}.
+   *
+   * @param grhIndex Índice por ID de la lista a la que pertenece el GRH.
+   * @return Los errores y advertencias del GRH.
+   */
+  public List<ValidationIssue> validateGrh(GrhData grh, GrhIndex grhIndex, String graphicsDir) {
+    Issues issues = new Issues();
+    for (Rule rule : rules().values()) {
+      rule.check(grh, grhIndex, graphicsDir, issues);
+    }
+    List<ValidationIssue> result = new ArrayList<>(issues.list.size());
+    for (Pending p : issues.list) {
+      result.add(p.issue);
     }
+    return result;
+  }
+
+  /** Reglas por nombre; su orden es el de las comprobaciones de un mismo GRH. */
+  private Map<String, Rule> rules() {
+    Map<String, Rule> rules = new LinkedHashMap<>();
+    rules.put("Animaciones", this::checkAnimation);
+    rules.put("Imágenes", this::checkImage);
+    rules.put("Dimensiones", this::checkDimensions);
+    return rules;
   }
 
-  private void validateAnimation(GrhData grh, Map<Integer, GrhData> grhMap,
-      ValidationResult result) {
-    int[] frames = grh.getFrames();
+  private void checkAnimation(GrhData grh, GrhIndex grhIndex, String graphicsDir, Issues out) {
+    if (grh.getNumFrames() <= 1) {
+      return;
+    }
+    int frameLength = grh.getFrameLength();
 
-    if (frames == null || frames.length == 0) {
-      result.addError("Animación sin frames definidos", grh.getGrh());
+    if (frameLength == 0) {
+      out.error("Animación sin frames definidos", grh.getGrh());
       return;
     }
 
     // Verificar que los frames referenciados existan
-    for (int i = 1; i <= grh.getNumFrames() && i < frames.length; i++) {
-      int frameId = frames[i];
-      GrhData referencedGrh = grhMap.get(frameId);
+    for (int i = 1; i <= grh.getNumFrames() && i < frameLength; i++) {
+      int frameId = grh.getFrame(i);
+      GrhData referencedGrh = grhIndex.get(frameId);
 
       if (referencedGrh == null) {
-        result.addError("Frame " + i + " referencia GRH inexistente: " + frameId, grh.getGrh());
+        out.error("Frame " + i + " referencia GRH inexistente: " + frameId, grh.getGrh());
       } else if (referencedGrh.getNumFrames() > 1) {
-        result.addWarning("Frame " + i + " referencia otra animación: " + frameId, grh.getGrh());
+        out.warning("Frame " + i + " referencia otra animación: " + frameId, grh.getGrh());
       }
     }
 
     // Verificar velocidad
     if (grh.getSpeed() <= 0) {
-      result.addWarning("Velocidad de animación inválida: " + grh.getSpeed(), grh.getGrh());
+      out.warning("Velocidad de animación inválida: " + grh.getSpeed(), grh.getGrh());
     }
   }
 
-  private void validateStaticGrh(GrhData grh, String graphicsDir, Set<Integer> usedFileNums,
-      ValidationResult result) {
+  private void checkImage(GrhData grh, GrhIndex grhIndex, String graphicsDir, Issues out) {
+    if (grh.getNumFrames() > 1) {
+      return;
+    }
     int fileNum = grh.getFileNum();
 
     if (fileNum <= 0) {
-      result.addError("FileNum inválido: " + fileNum, grh.getGrh());
+      out.error("FileNum inválido: " + fileNum, grh.getGrh());
       return;
     }
 
-    usedFileNums.add(fileNum);
-
-    // Verificar que el archivo de imagen exista
+    // Verificar que el archivo de imagen exista y que el recorte quepa en él
     if (graphicsDir != null && !graphicsDir.isEmpty()) {
-      File imageFile = findImageFile(graphicsDir, fileNum);
-      if (imageFile == null) {
-        result.addWarning("Imagen no encontrada para FileNum: " + fileNum, grh.getGrh());
+      GraphicsIndex.Entry entry = graphicsIndex.getEntry(graphicsDir, fileNum);
+      if (entry == null) {
+        out.warning("Imagen no encontrada para FileNum: " + fileNum, grh.getGrh());
+      } else {
+        // Solo se lee la cabecera, una vez por imagen
+        ImageHeaderReader.ImageHeader header = entry.getHeader();
+        if (header != null && (grh.getsX() + grh.getTileWidth() > header.getWidth()
+            || grh.getsY() + grh.getTileHeight() > header.getHeight())) {
+          out.error("Recorte fuera de la imagen " + fileNum + " (" + header.getWidth() + "x"
+              + header.getHeight() + "): sX=" + grh.getsX() + ", sY=" + grh.getsY() + ", "
+              + grh.getTileWidth() + "x" + grh.getTileHeight(), grh.getGrh());
+        }
       }
     }
+  }
+
+  private void checkDimensions(GrhData grh, GrhIndex grhIndex, String graphicsDir, Issues out) {
+    // Un FileNum inválido ya es un error; el resto del recorte no se comprueba
+    if (grh.getNumFrames() > 1 || grh.getFileNum() <= 0) {
+      return;
+    }
 
     // Verificar dimensiones
     if (grh.getTileWidth() <= 0 || grh.getTileHeight() <= 0) {
-      result.addError("Dimensiones inválidas: " + grh.getTileWidth() + "x" + grh.getTileHeight(),
+      out.error("Dimensiones inválidas: " + grh.getTileWidth() + "x" + grh.getTileHeight(),
           grh.getGrh());
     }
 
     // Verificar coordenadas negativas
     if (grh.getsX() < 0 || grh.getsY() < 0) {
-      result.addWarning("Coordenadas negativas: sX=" + grh.getsX() + ", sY=" + grh.getsY(),
+      out.warning("Coordenadas negativas: sX=" + grh.getsX() + ", sY=" + grh.getsY(),
           grh.getGrh());
     }
   }
 
-  /**
-   * Busca un archivo de imagen con diferentes extensiones.
-   */
-  private File findImageFile(String graphicsDir, int fileNum) {
-    String[] extensions = {".png", ".bmp", ".jpg", ".jpeg", ".gif"};
-
-    for (String ext : extensions) {
-      File file = new File(graphicsDir, fileNum + ext);
-      if (file.exists()) {
-        return file;
-      }
-    }
-    return null;
-  }
-
   /**
    * Encuentra GRHs libres (no utilizados) consecutivos.
    *
@@ -1,6 +1,7 @@
 package org.nexus.indexador.utils.actions;
 
 import org.nexus.indexador.gamedata.models.GrhData;
+import org.nexus.indexador.utils.LiveValidator;
 import org.nexus.indexador.utils.UndoManager.UndoableAction;
 
 /**
@@ -101,6 +102,7 @@ public class ModifyGrhAction implements UndoableAction {
       grh.setTileWidth(newTileWidth);
       grh.setTileHeight(newTileHeight);
     }
+    LiveValidator.getInstance().grhChanged(grh);
   }
 
   @Override
@@ -113,6 +115,7 @@ public class ModifyGrhAction implements UndoableAction {
     grh.setTileHeight(oldTileHeight);
     grh.setSpeed(oldSpeed);
     grh.setFrames(oldFrames);
+    LiveValidator.getInstance().grhChanged(grh);
   }
 
   @Override
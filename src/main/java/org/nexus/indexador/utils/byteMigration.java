@@ -1,7 +1,6 @@
 package org.nexus.indexador.utils;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 
 public class byteMigration {
   // Instancia única de ByteMigration (volatile para thread safety)
@@ -26,62 +25,112 @@ public class byteMigration {
   }
 
   /**
+   * Invierte el orden de bytes de un int.
    *
-   * @param bigendian
-   * @return
+   * @param bigendian Valor leído en big-endian.
+   * @return El mismo valor interpretado en little-endian.
    */
   public int bigToLittle_Int(int bigendian) {
-    ByteBuffer buf = ByteBuffer.allocate(4);
+    return Integer.reverseBytes(bigendian);
+  }
 
-    buf.order(ByteOrder.BIG_ENDIAN);
-    buf.putInt(bigendian);
+  /**
+   * Invierte el orden de bytes de un float, conservando los bits tal cual.
+   *
+   * @param bigendian Valor leído en big-endian.
+   * @return El mismo valor interpretado en little-endian.
+   */
+  public float bigToLittle_Float(float bigendian) {
+    return Float.intBitsToFloat(Integer.reverseBytes(Float.floatToRawIntBits(bigendian)));
+  }
 
-    buf.order(ByteOrder.LITTLE_ENDIAN);
-    return buf.getInt(0);
+  /**
+   * Invierte el orden de bytes de un short.
+   *
+   * @param bigendian Valor leído en big-endian.
+   * @return El mismo valor interpretado en little-endian.
+   */
+  public short bigToLittle_Short(short bigendian) {
+    return Short.reverseBytes(bigendian);
   }
 
   /**
+   * Un byte no tiene orden; se conserva por compatibilidad.
    *
-   * @param bigendian
-   * @return
+   * @param bigendian Valor leído.
+   * @return El mismo valor.
    */
-  public float bigToLittle_Float(float bigendian) {
-    ByteBuffer buf = ByteBuffer.allocate(4);
+  public byte bigToLittle_Byte(byte bigendian) {
+    return bigendian;
+  }
 
-    buf.order(ByteOrder.BIG_ENDIAN);
-    buf.putFloat(bigendian);
+  // --- Conversiones en bloque (in place) ---
 
-    buf.order(ByteOrder.LITTLE_ENDIAN);
-    return buf.getFloat(0);
+  /**
+   * Invierte el orden de bytes de todos los elementos del array.
+   */
+  public void bigToLittle_Int(int[] values) {
+    bigToLittle_Int(values, 0, values.length);
   }
 
   /**
-   *
-   * @param bigendian
-   * @return
+   * Invierte el orden de bytes de {@code length} elementos a partir de {@code offset}.
    */
-  public short bigToLittle_Short(short bigendian) {
-    ByteBuffer buf = ByteBuffer.allocate(2);
+  public void bigToLittle_Int(int[] values, int offset, int length) {
+    for (int i = offset, end = offset + length; i < end; i++) {
+      values[i] = Integer.reverseBytes(values[i]);
+    }
+  }
+
+  /**
+   * Invierte el orden de bytes de todos los elementos del array.
+   */
+  public void bigToLittle_Short(short[] values) {
+    bigToLittle_Short(values, 0, values.length);
+  }
 
-    buf.order(ByteOrder.BIG_ENDIAN);
-    buf.putShort(bigendian);
+  /**
+   * Invierte el orden de bytes de {@code length} elementos a partir de {@code offset}.
+   */
+  public void bigToLittle_Short(short[] values, int offset, int length) {
+    for (int i = offset, end = offset + length; i < end; i++) {
+      values[i] = Short.reverseBytes(values[i]);
+    }
+  }
 
-    buf.order(ByteOrder.LITTLE_ENDIAN);
-    return buf.getShort(0);
+  /**
+   * Invierte el orden de bytes de todos los elementos del array.
+   */
+  public void bigToLittle_Float(float[] values) {
+    bigToLittle_Float(values, 0, values.length);
   }
 
   /**
-   *
-   * @param bigendian
-   * @return
+   * Invierte el orden de bytes de {@code length} elementos a partir de {@code offset}.
    */
-  public byte bigToLittle_Byte(byte bigendian) {
-    ByteBuffer buf = ByteBuffer.allocate(1);
+  public void bigToLittle_Float(float[] values, int offset, int length) {
+    for (int i = offset, end = offset + length; i < end; i++) {
+      values[i] = Float.intBitsToFloat(Integer.reverseBytes(Float.floatToRawIntBits(values[i])));
+    }
+  }
 
-    buf.order(ByteOrder.BIG_ENDIAN);
-    buf.put(bigendian);
+  /**
+   * Invierte in place {@code count} valores de 4 bytes (int o float) de un buffer, empezando en la
+   * posición absoluta {@code index}. No modifica la posición ni el orden del buffer.
+   */
+  public void bigToLittle_Int(ByteBuffer buffer, int index, int count) {
+    for (int i = 0, pos = index; i < count; i++, pos += 4) {
+      buffer.putInt(pos, Integer.reverseBytes(buffer.getInt(pos)));
+    }
+  }
 
-    buf.order(ByteOrder.LITTLE_ENDIAN);
-    return buf.get(0);
+  /**
+   * Invierte in place {@code count} valores de 2 bytes de un buffer, empezando en la posición
+   * absoluta {@code index}. No modifica la posición ni el orden del buffer.
+   */
+  public void bigToLittle_Short(ByteBuffer buffer, int index, int count) {
+    for (int i = 0, pos = index; i < count; i++, pos += 2) {
+      buffer.putShort(pos, Short.reverseBytes(buffer.getShort(pos)));
+    }
   }
 }
@@ -0,0 +1,53 @@
+package org.nexus.indexador.gamedata;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the GRH dependency graph.
+ */
+class GrhDependencyGraphTest {
+
+  @Test
+  @DisplayName("Should move reverse edges when an animation's frames change")
+  void shouldMoveReverseEdgesWhenFramesChange() {
+    // Arrange
+    GrhDependencyGraph graph = new GrhDependencyGraph();
+    graph.update(new GrhData(10, (short) 3, new int[] {0, 1, 2, 2}, 1f));
+    graph.update(new GrhData(11, (short) 2, new int[] {0, 2, 3}, 1f));
+
+    // Act
+    graph.setFrames(10, new int[] {3});
+
+    // Assert
+    assertArrayEquals(new int[] {3}, graph.getFrames(10));
+    assertTrue(graph.getAnimationsUsing(1).isEmpty());
+    assertEquals(Set.of(11), graph.getAnimationsUsing(2));
+    assertEquals(Set.of(10, 11), graph.getAnimationsUsing(3));
+  }
+
+  @Test
+  @DisplayName("Should register entity references without duplicates or empty slots")
+  void shouldRegisterEntityReferences() {
+    // Arrange
+    GrhDependencyGraph graph = new GrhDependencyGraph();
+    GrhData still = new GrhData(7, (short) 1, 1, (short) 0, (short) 0, (short) 32, (short) 32);
+
+    // Act
+    graph.setReferences("Cuerpo 1", new int[] {5, 0, 5, 6});
+    graph.setReferences("Cuerpo 2", new int[] {6});
+    graph.update(still);
+
+    // Assert
+    assertArrayEquals(new int[] {5, 6}, graph.getReferences("Cuerpo 1"));
+    assertEquals(Set.of("Cuerpo 1"), graph.getReferencesTo(5));
+    assertEquals(Set.of("Cuerpo 1", "Cuerpo 2"), graph.getReferencesTo(6));
+    assertTrue(graph.getReferencesTo(0).isEmpty());
+    assertEquals(0, GrhDependencyGraph.framesOf(still).length);
+  }
+}
@@ -0,0 +1,80 @@
+package org.nexus.indexador.gamedata;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the free GRH id allocator.
+ */
+class GrhIdAllocatorTest {
+
+  /** GRHs ocupando todos los IDs de 1 a {@code top} salvo los indicados. */
+  private static List<GrhData> grhsExcept(int top, int... holes) {
+    List<GrhData> grhs = new ArrayList<>();
+    outer:
+    for (int id = 1; id <= top; id++) {
+      for (int hole : holes) {
+        if (hole == id) {
+          continue outer;
+        }
+      }
+      grhs.add(new GrhData(id, (short) 1, 1, (short) 0, (short) 0, (short) 32, (short) 32));
+    }
+    return grhs;
+  }
+
+  @Test
+  @DisplayName("Should return the first hole large enough, including holes across words")
+  void shouldFindFirstFittingHole() {
+    // Arrange
+    GrhIdAllocator allocator = new GrhIdAllocator();
+    allocator.rebuild(grhsExcept(1000, 10, 62, 63, 64, 65, 66, 500));
+
+    // Act & Assert
+    assertEquals(10, allocator.findFree(1));
+    assertEquals(62, allocator.findFree(2));
+    assertEquals(62, allocator.findFree(5));
+    assertEquals(1001, allocator.findFree(6));
+  }
+
+  @Test
+  @DisplayName("Should track ids marked and released after the rebuild")
+  void shouldFollowMarkAndRelease() {
+    // Arrange
+    GrhIdAllocator allocator = new GrhIdAllocator();
+    allocator.rebuild(grhsExcept(200, 50));
+
+    // Act
+    allocator.markUsed(50);
+    allocator.release(120);
+    allocator.release(121);
+    allocator.markUsed(5000);
+
+    // Assert
+    assertTrue(allocator.isUsed(50));
+    assertFalse(allocator.isUsed(121));
+    assertEquals(120, allocator.findFree(2));
+    assertEquals(201, allocator.findFree(3));
+    assertEquals(5001, allocator.findFree(5000));
+  }
+
+  @Test
+  @DisplayName("Should never hand out id 0")
+  void shouldSkipIdZero() {
+    // Arrange
+    GrhIdAllocator allocator = new GrhIdAllocator();
+
+    // Act
+    allocator.rebuild(List.of());
+
+    // Assert
+    assertEquals(1, allocator.findFree(1));
+    assertEquals(1, allocator.findFree(300));
+  }
+}
@@ -0,0 +1,74 @@
+package org.nexus.indexador.gamedata;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the id-indexed GRH lookup.
+ */
+class GrhIndexTest {
+
+  private static GrhData grh(int id) {
+    return new GrhData(id, (short) 1, 1, (short) 0, (short) 0, (short) 32, (short) 32);
+  }
+
+  @Test
+  @DisplayName("Should resolve both consecutive and far-away ids")
+  void shouldResolveDenseAndSparseIds() {
+    // Arrange
+    GrhIndex index = new GrhIndex();
+    GrhData near = grh(3);
+    GrhData far = grh(5_000_000);
+
+    // Act
+    index.rebuild(List.of(grh(1), grh(2), near, far));
+
+    // Assert
+    assertSame(near, index.get(3));
+    assertSame(far, index.get(5_000_000));
+    assertNull(index.get(4));
+    assertNull(index.get(-1));
+    assertEquals(4, index.size());
+    assertEquals(5_000_000, index.getMaxId());
+  }
+
+  @Test
+  @DisplayName("Should recompute the max id after removing the highest entry")
+  void shouldRecomputeMaxIdOnRemove() {
+    // Arrange
+    GrhIndex index = new GrhIndex();
+    GrhData top = grh(900_000);
+    index.rebuild(List.of(grh(1), grh(10), top));
+
+    // Act
+    index.remove(top);
+
+    // Assert
+    assertFalse(index.contains(900_000));
+    assertEquals(10, index.getMaxId());
+    assertEquals(2, index.size());
+  }
+
+  @Test
+  @DisplayName("Should ignore removal of a GRH that was replaced for its id")
+  void shouldKeepReplacementOnStaleRemove() {
+    // Arrange
+    GrhIndex index = new GrhIndex();
+    GrhData original = grh(7);
+    GrhData replacement = grh(7);
+    index.put(original);
+    index.put(replacement);
+
+    // Act
+    index.remove(original);
+
+    // Assert
+    assertSame(replacement, index.get(7));
+    assertEquals(1, index.size());
+  }
+}
@@ -0,0 +1,119 @@
+package org.nexus.indexador.gamedata;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nexus.indexador.gamedata.enums.IndexingSystem;
+import org.nexus.indexador.gamedata.models.GrhData;
+import org.nexus.indexador.gamedata.models.HeadData;
+import org.nexus.indexador.gamedata.models.IndFileFormat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the on-disk snapshot cache.
+ */
+class SnapshotCacheTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("Should restore GRHs and format from a valid snapshot")
+  void shouldRoundTripGrhs() throws IOException {
+    // Arrange
+    File source = Files.write(tempDir.resolve("graficos.ind"), new byte[] {1, 2, 3}).toFile();
+    SnapshotCache cache = new SnapshotCache(tempDir.resolve("cache").toFile());
+    List<GrhData> grhs = List.of(
+        new GrhData(1, (short) 1, 10, (short) 2, (short) 3, (short) 32, (short) 16),
+        new GrhData(2, (short) 2, new int[] {0, 1, 1}, 90f));
+    SnapshotCache.Fingerprint[] fingerprints = cache.fingerprint(List.of(source));
+
+    // Act
+    cache.store(SnapshotCache.GRHS, IndexingSystem.TRADITIONAL, fingerprints, grhs,
+        new IndFileFormat(263, true, true));
+    SnapshotCache.Snapshot<GrhData> snapshot = cache.load(SnapshotCache.GRHS,
+        IndexingSystem.TRADITIONAL, cache.fingerprint(List.of(source)));
+
+    // Assert
+    assertNotNull(snapshot);
+    assertEquals(263, snapshot.getFormat().getDataOffset());
+    List<GrhData> restored = snapshot.getItems();
+    assertEquals(2, restored.size());
+    assertEquals(10, restored.get(0).getFileNum());
+    assertEquals(16, restored.get(0).getTileHeight());
+    assertNull(restored.get(0).getFrames());
+    assertArrayEquals(new int[] {0, 1, 1}, restored.get(1).getFrames());
+    assertEquals(90f, restored.get(1).getSpeed());
+  }
+
+  @Test
+  @DisplayName("Should reject a snapshot when the source file changes")
+  void shouldInvalidateOnSourceChange() throws IOException {
+    // Arrange
+    Path sourcePath = Files.write(tempDir.resolve("cabezas.ind"), new byte[] {1, 2, 3});
+    SnapshotCache cache = new SnapshotCache(tempDir.resolve("cache").toFile());
+    List<File> sources = List.of(sourcePath.toFile());
+    cache.store(SnapshotCache.HEADS, IndexingSystem.TRADITIONAL, cache.fingerprint(sources),
+        List.of(new HeadData(new int[] {0, 1, 2, 3, 4})), null);
+
+    // Act
+    Files.write(sourcePath, new byte[] {1, 2, 4});
+    SnapshotCache.Snapshot<HeadData> snapshot =
+        cache.load(SnapshotCache.HEADS, IndexingSystem.TRADITIONAL, cache.fingerprint(sources));
+
+    // Assert
+    assertNull(snapshot);
+  }
+
+  @Test
+  @DisplayName("Should replace a stale snapshot right after rejecting it")
+  void shouldRefreshStaleSnapshot() throws IOException {
+    // Arrange
+    Path sourcePath = Files.write(tempDir.resolve("cabezas.ind"), new byte[] {1, 2, 3});
+    SnapshotCache cache = new SnapshotCache(tempDir.resolve("cache").toFile());
+    List<File> sources = List.of(sourcePath.toFile());
+    cache.store(SnapshotCache.HEADS, IndexingSystem.TRADITIONAL, cache.fingerprint(sources),
+        List.of(new HeadData(new int[] {0, 1, 2, 3, 4})), null);
+    Files.write(sourcePath, new byte[] {1, 2, 4});
+    assertNull(cache.load(SnapshotCache.HEADS, IndexingSystem.TRADITIONAL,
+        cache.fingerprint(sources)));
+
+    // Act: como hace el cargador tras descartarla
+    cache.store(SnapshotCache.HEADS, IndexingSystem.TRADITIONAL, cache.fingerprint(sources),
+        List.of(new HeadData(new int[] {0, 5, 6, 7, 8})), null);
+    SnapshotCache.Snapshot<HeadData> snapshot =
+        cache.load(SnapshotCache.HEADS, IndexingSystem.TRADITIONAL, cache.fingerprint(sources));
+
+    // Assert
+    assertNotNull(snapshot);
+    assertArrayEquals(new int[] {0, 5, 6, 7, 8}, snapshot.getItems().get(0).getGrhIndex());
+  }
+
+  @Test
+  @DisplayName("Should reject a snapshot taken with another indexing system")
+  void shouldInvalidateOnSystemChange() throws IOException {
+    // Arrange
+    File source = tempDir.resolve("missing.ind").toFile();
+    SnapshotCache cache = new SnapshotCache(tempDir.resolve("cache").toFile());
+    SnapshotCache.Fingerprint[] fingerprints = cache.fingerprint(List.of(source));
+    cache.store(SnapshotCache.HEADS, IndexingSystem.TRADITIONAL, fingerprints, List.of(), null);
+
+    // Act
+    SnapshotCache.Snapshot<HeadData> mold =
+        cache.load(SnapshotCache.HEADS, IndexingSystem.MOLD, fingerprints);
+    SnapshotCache.Snapshot<HeadData> traditional =
+        cache.load(SnapshotCache.HEADS, IndexingSystem.TRADITIONAL, fingerprints);
+
+    // Assert
+    assertNull(mold);
+    assertNotNull(traditional);
+    assertTrue(traditional.getItems().isEmpty());
+  }
+}
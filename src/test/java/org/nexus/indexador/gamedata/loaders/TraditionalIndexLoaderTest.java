@@ -0,0 +1,217 @@
+package org.nexus.indexador.gamedata.loaders;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nexus.indexador.gamedata.models.GrhData;
+import org.nexus.indexador.gamedata.models.HeadData;
+import org.nexus.indexador.gamedata.models.ShieldData;
+import org.nexus.indexador.utils.ConfigManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TraditionalIndexLoader binary and text loading.
+ */
+class TraditionalIndexLoaderTest {
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeEach
+  void setUp() {
+    ConfigManager.getInstance().setInitDir(tempDir.toString());
+    ConfigManager.getInstance().setExportDir(tempDir.toString());
+  }
+
+  private byte[] buildGraficos(int headerSize) {
+    ByteBuffer buf = ByteBuffer.allocate(headerSize + 8 + 18 + 18).order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < headerSize; i++) {
+      buf.put((byte) 0xFF);
+    }
+    buf.putInt(1); // Version
+    buf.putInt(2); // Count
+    // Static GRH 1
+    buf.putInt(1).putShort((short) 1).putInt(100).putShort((short) 8).putShort((short) 16)
+        .putShort((short) 32).putShort((short) 64);
+    // Animation GRH 2 (2 frames)
+    buf.putInt(2).putShort((short) 2).putInt(1).putInt(1).putFloat(120.0f);
+    return buf.array();
+  }
+
+  @Test
+  @DisplayName("Should decode static and animated GRHs from Graficos.ind")
+  void shouldLoadGrhsWithoutHeader() throws IOException {
+    // Arrange
+    Files.write(tempDir.resolve("graficos.ind"), buildGraficos(0));
+
+    // Act
+    ObservableList<GrhData> grhs = new TraditionalIndexLoader().loadGrhs();
+
+    // Assert
+    assertEquals(2, grhs.size());
+    GrhData staticGrh = grhs.get(0);
+    assertEquals(1, staticGrh.getGrh());
+    assertEquals(100, staticGrh.getFileNum());
+    assertEquals(8, staticGrh.getsX());
+    assertEquals(16, staticGrh.getsY());
+    assertEquals(32, staticGrh.getTileWidth());
+    assertEquals(64, staticGrh.getTileHeight());
+
+    GrhData anim = grhs.get(1);
+    assertEquals(2, anim.getNumFrames());
+    assertEquals(1, anim.getFrame(1));
+    assertEquals(1, anim.getFrame(2));
+    assertEquals(120.0f, anim.getSpeed());
+  }
+
+  @Test
+  @DisplayName("Should skip the 263 byte header when present")
+  void shouldLoadGrhsWithHeader() throws IOException {
+    // Arrange
+    Files.write(tempDir.resolve("graficos.ind"), buildGraficos(263));
+    TraditionalIndexLoader loader = new TraditionalIndexLoader();
+
+    // Act
+    ObservableList<GrhData> grhs = loader.loadGrhs();
+
+    // Assert
+    assertEquals(2, grhs.size());
+    assertEquals(263, loader.getDetectedFormats().get("GRAFICOS").getDataOffset());
+  }
+
+  @Test
+  @DisplayName("Should stop at a truncated record")
+  void shouldStopAtTruncatedRecord() throws IOException {
+    // Arrange
+    byte[] full = buildGraficos(0);
+    byte[] truncated = new byte[full.length - 3];
+    System.arraycopy(full, 0, truncated, 0, truncated.length);
+    File archivo = tempDir.resolve("graficos.ind").toFile();
+    Files.write(archivo.toPath(), truncated);
+
+    // Act
+    ObservableList<GrhData> grhs = new TraditionalIndexLoader().loadGrhs();
+
+    // Assert
+    assertEquals(1, grhs.size());
+  }
+
+  @Test
+  @DisplayName("Should round-trip heads through the block writer and reader")
+  void shouldRoundTripHeads() throws IOException {
+    // Arrange
+    TraditionalIndexLoader loader = new TraditionalIndexLoader();
+    ObservableList<HeadData> heads = FXCollections.observableArrayList(
+        new HeadData(new int[] {1, 2, 3, 4}), new HeadData(new int[] {70000, -1, 0, 5}));
+
+    // Act
+    loader.saveHeads(heads);
+    ObservableList<HeadData> loaded = new TraditionalIndexLoader().loadHeads();
+
+    // Assert
+    assertEquals(2 + 2 * 16, Files.size(tempDir.resolve("cabezas.ind")));
+    assertEquals(2, loaded.size());
+    assertArrayEquals(new int[] {1, 2, 3, 4}, loaded.get(0).getGrhIndex());
+    assertArrayEquals(new int[] {70000, -1, 0, 5}, loaded.get(1).getGrhIndex());
+  }
+
+  @Test
+  @DisplayName("Should write Graficos.ind byte for byte in the loaded format")
+  void shouldSaveGrhsInLoadedFormat() throws IOException {
+    // Arrange
+    byte[] original = buildGraficos(263);
+    Path archivo = tempDir.resolve("graficos.ind");
+    Files.write(archivo, original);
+    TraditionalIndexLoader loader = new TraditionalIndexLoader();
+    ObservableList<GrhData> grhs = loader.loadGrhs();
+    Files.write(archivo, new byte[0]);
+
+    // Act
+    loader.saveGrhs(grhs);
+
+    // Assert: the header is rewritten as a zeroed placeholder, the records are identical
+    byte[] saved = Files.readAllBytes(archivo);
+    assertEquals(original.length, saved.length);
+    for (int i = 0; i < 263; i++) {
+      assertEquals(0, saved[i]);
+    }
+    for (int i = 263; i < original.length; i++) {
+      assertEquals(original[i], saved[i], "byte " + i);
+    }
+  }
+
+  @Test
+  @DisplayName("Should parse Graficos.ini and skip malformed lines")
+  void shouldLoadGrhsText() throws IOException {
+    // Arrange
+    Files.writeString(tempDir.resolve("Graficos.ini"), String.join("\r\n",
+        "[INIT]", "NumGrh=3", "", "[Graphics]",
+        "Grh1=1-100-8-16-32-64",
+        "grh2 = 2-1-1-120.0",
+        "Grh3=1-abc-0-0-1-1",
+        "Grh4=3-1-2-3-33.5-"));
+
+    // Act
+    ObservableList<GrhData> grhs = new TraditionalIndexLoader().loadGrhsText();
+
+    // Assert
+    assertEquals(3, grhs.size());
+    assertEquals(100, grhs.get(0).getFileNum());
+    assertEquals(64, grhs.get(0).getTileHeight());
+    assertArrayEquals(new int[] {0, 1, 1}, grhs.get(1).getFrames());
+    assertEquals(120f, grhs.get(1).getSpeed());
+    assertEquals(4, grhs.get(2).getGrh());
+    assertEquals(33.5f, grhs.get(2).getSpeed());
+  }
+
+  @Test
+  @DisplayName("Should decode a large Graficos.ini in parallel chunks preserving order")
+  void shouldLoadLargeGrhsTextInOrder() throws IOException {
+    // Arrange
+    StringBuilder ini = new StringBuilder("[Graphics]\n");
+    int count = 60_000;
+    for (int i = 1; i <= count; i++) {
+      ini.append("Grh").append(i).append("=1-").append(i).append("-0-0-32-32\n");
+    }
+    Files.writeString(tempDir.resolve("Graficos.ini"), ini);
+
+    // Act
+    ObservableList<GrhData> grhs = new TraditionalIndexLoader().loadGrhsText();
+
+    // Assert
+    assertEquals(count, grhs.size());
+    for (int i = 0; i < count; i++) {
+      assertEquals(i + 1, grhs.get(i).getGrh());
+      assertEquals(i + 1, grhs.get(i).getFileNum());
+    }
+  }
+
+  @Test
+  @DisplayName("Should parse shield sections ignoring comments")
+  void shouldLoadShieldsText() throws IOException {
+    // Arrange
+    Files.writeString(tempDir.resolve("Escudos.ini"), String.join("\n",
+        "[INIT]", "NumShields=2", "[SHIELD1]", "Dir1=10 ' norte", "Dir2=11", "Dir3=12",
+        "Dir4=13", "", "[SHIELD2]", "'Dir1=99", "dir4=7"));
+
+    // Act
+    List<ShieldData> shields = new TraditionalIndexLoader().loadShieldsText();
+
+    // Assert
+    assertEquals(2, shields.size());
+    assertArrayEquals(new int[] {10, 11, 12, 13}, shields.get(0).getShield());
+    assertArrayEquals(new int[] {0, 0, 0, 7}, shields.get(1).getShield());
+  }
+}
@@ -0,0 +1,88 @@
+package org.nexus.indexador.gamedata.models;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the columnar GrhStore and its GrhData views.
+ */
+class GrhStoreTest {
+
+  @Test
+  @DisplayName("Should expose stored rows through GrhData views")
+  void shouldExposeRowsThroughViews() {
+    // Arrange
+    GrhStore store = new GrhStore();
+    store.addStatic(1, (short) 1, 100, (short) 0, (short) 32, (short) 64, (short) 48);
+    store.addAnimation(2, (short) 3, new int[] {0, 5, 6, 7}, 120f);
+
+    // Act
+    List<GrhData> views = store.views();
+
+    // Assert
+    assertEquals(2, views.size());
+    assertEquals(100, views.get(0).getFileNum());
+    assertEquals(32, views.get(0).getsY());
+    assertEquals(48, views.get(0).getTileHeight());
+    assertNull(views.get(0).getFrames());
+    assertArrayEquals(new int[] {0, 5, 6, 7}, views.get(1).getFrames());
+    assertEquals(6, views.get(1).getFrame(2));
+    assertEquals(0, views.get(1).getFrame(4));
+    assertEquals(120f, views.get(1).getSpeed());
+  }
+
+  @Test
+  @DisplayName("Should write view edits back to the store")
+  void shouldWriteViewEditsToStore() {
+    // Arrange
+    GrhStore store = new GrhStore();
+    store.addStatic(1, (short) 1, 100, (short) 0, (short) 0, (short) 32, (short) 32);
+    GrhData view = store.views().get(0);
+
+    // Act
+    view.setFileNum(200);
+    view.setTileWidth((short) 16);
+
+    // Assert
+    assertEquals(200, store.getFileNum(0));
+    assertEquals(16, store.getWidth(0));
+  }
+
+  @Test
+  @DisplayName("Should keep other rows intact when frames grow, shrink and compact")
+  void shouldKeepFramesIntactAcrossEdits() {
+    // Arrange
+    GrhStore store = new GrhStore();
+    store.addAnimation(1, (short) 2, new int[] {0, 10, 11}, 100f);
+    store.addAnimation(2, (short) 2, new int[] {0, 20, 21}, 100f);
+
+    // Act
+    store.setNumFrames(0, (short) 3);
+    store.setFrames(0, new int[] {0, 10, 11, 12});
+    store.setNumFrames(1, (short) 1);
+    store.setFrames(1, new int[] {0, 20});
+    store.trimToSize();
+
+    // Assert
+    assertArrayEquals(new int[] {0, 10, 11, 12}, store.getFrames(0));
+    assertArrayEquals(new int[] {0, 20}, store.getFrames(1));
+  }
+
+  @Test
+  @DisplayName("Should not alias the caller's frames array")
+  void shouldCopyFramesOnSet() {
+    // Arrange
+    int[] frames = {0, 1, 2};
+    GrhData grh = new GrhData(5, (short) 2, frames, 80f);
+
+    // Act
+    frames[1] = 99;
+
+    // Assert
+    assertEquals(1, grh.getFrame(1));
+  }
+}
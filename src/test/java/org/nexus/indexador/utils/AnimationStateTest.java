@@ -0,0 +1,75 @@
+package org.nexus.indexador.utils;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for frame advancing driven by the shared animation clock.
+ */
+class AnimationStateTest {
+
+  private static final long MS = 1_000_000L;
+
+  @Test
+  @DisplayName("Should spread the GRH speed over its frames and fall back when it is invalid")
+  void shouldDeriveFrameDurationFromSpeed() {
+    // Act & Assert
+    assertEquals(100 * MS, AnimationState.frameNanos(4, 400f));
+    assertEquals(30 * MS, AnimationState.frameNanos(4, 120f));
+    assertEquals((long) (AnimationState.DEFAULT_FRAME_MILLIS * MS), AnimationState.frameNanos(4, 0f));
+  }
+
+  @Test
+  @DisplayName("Should visit every frame, including the last one, and wrap around")
+  void shouldCycleThroughAllFrames() {
+    // Arrange
+    AnimationState state = new AnimationState();
+    state.reset(null, 3, 300f, () -> { });
+    StringBuilder visited = new StringBuilder().append(state.getCurrentFrameIndex());
+
+    // Act
+    for (int i = 0; i < 4; i++) {
+      assertFalse(state.advance(40 * MS));
+      assertTrue(state.advance(60 * MS));
+      visited.append(state.getCurrentFrameIndex());
+    }
+
+    // Assert
+    assertEquals("12312", visited.toString());
+  }
+
+  @Test
+  @DisplayName("Should unsubscribe from the clock and stop its timer when the owner window closes")
+  void shouldLeaveClockWhenOwnerCloses() {
+    // Arrange
+    boolean[] ticking = new boolean[1];
+    AnimationClock clock = new AnimationClock(new AnimationClock.Ticker() {
+      @Override
+      public void start() {
+        ticking[0] = true;
+      }
+
+      @Override
+      public void stop() {
+        ticking[0] = false;
+      }
+    });
+    AnimationState state = new AnimationState(clock);
+    BooleanProperty showing = new SimpleBooleanProperty(true);
+    state.start(null, showing, 3, 300f, () -> { });
+    assertEquals(1, clock.getSubscriberCount());
+    assertTrue(ticking[0]);
+
+    // Act
+    showing.set(false);
+
+    // Assert
+    assertEquals(0, clock.getSubscriberCount());
+    assertFalse(ticking[0]);
+    assertFalse(state.isRunning());
+  }
+}
@@ -0,0 +1,170 @@
+package org.nexus.indexador.utils;
+
+import javafx.scene.shape.Rectangle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the region merge phases of sprite detection.
+ */
+class AutoTilingServiceTest {
+
+  private final AutoTilingService service = AutoTilingService.getInstance();
+
+  /** Sprites de distintos tamaños con partículas pequeñas alrededor. */
+  private static List<double[]> randomRegions(Random random, int count) {
+    List<double[]> regions = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      boolean spark = random.nextInt(3) > 0;
+      double w = spark ? 1 + random.nextInt(6) : 20 + random.nextInt(50);
+      double h = spark ? 1 + random.nextInt(6) : 20 + random.nextInt(60);
+      regions.add(new double[] {random.nextInt(600), random.nextInt(600), w, h});
+    }
+    return regions;
+  }
+
+  private static List<Rectangle> toRectangles(List<double[]> regions) {
+    List<Rectangle> list = new ArrayList<>();
+    for (double[] r : regions) {
+      list.add(new Rectangle(r[0], r[1], r[2], r[3]));
+    }
+    return list;
+  }
+
+  private static double[] union(double[] a, double[] b) {
+    double minX = Math.min(a[0], b[0]);
+    double minY = Math.min(a[1], b[1]);
+    double maxX = Math.max(a[0] + a[2], b[0] + b[2]);
+    double maxY = Math.max(a[1] + a[3], b[1] + b[3]);
+    return new double[] {minX, minY, maxX - minX, maxY - minY};
+  }
+
+  /** Unión por pares reiniciando tras cada cambio, como la implementación original. */
+  private static List<double[]> mergeRegionsReference(List<double[]> regions, int tolX, int tolY) {
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < regions.size(); i++) {
+        double[] r1 = regions.get(i);
+        for (int j = i + 1; j < regions.size(); j++) {
+          double[] r2 = regions.get(j);
+          boolean merge = r1[0] - tolX < r2[0] + r2[2] && r1[0] - tolX + r1[2] + tolX * 2 > r2[0]
+              && r1[1] - tolY < r2[1] + r2[3] && r1[1] - tolY + r1[3] + tolY * 2 > r2[1];
+          if (merge) {
+            r1 = union(r1, r2);
+            regions.set(i, r1);
+            regions.remove(j);
+            changed = true;
+            j--;
+          }
+        }
+      }
+    }
+    return regions;
+  }
+
+  /** Unión de chispas recorriendo toda la lista tras cada cambio, como la original. */
+  private static List<double[]> mergeSparksReference(List<double[]> blobs) {
+    double maxArea = 0;
+    for (double[] r : blobs) {
+      maxArea = Math.max(maxArea, r[2] * r[3]);
+    }
+    double sparkThreshold = maxArea * 0.4;
+    List<Double> heights = new ArrayList<>();
+    for (double[] r : blobs) {
+      if (r[2] * r[3] > sparkThreshold) {
+        heights.add(r[3]);
+      }
+    }
+    heights.sort(Double::compare);
+    double medianHeight = heights.isEmpty() ? Double.MAX_VALUE : heights.get(heights.size() / 2);
+    double maxHeightLimit = medianHeight == Double.MAX_VALUE ? Double.MAX_VALUE : medianHeight * 1.4;
+
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < blobs.size(); i++) {
+        double[] spark = blobs.get(i);
+        if (spark[2] * spark[3] > sparkThreshold) {
+          continue;
+        }
+        int best = -1;
+        double minDistance = Double.MAX_VALUE;
+        for (int j = 0; j < blobs.size(); j++) {
+          double[] body = blobs.get(j);
+          if (i == j || body[2] * body[3] <= sparkThreshold / 2) {
+            continue;
+          }
+          if (spark[0] < body[0] + body[2] && spark[0] + spark[2] > body[0]) {
+            double dist = spark[1] + spark[3] < body[1] ? body[1] - (spark[1] + spark[3])
+                : body[1] + body[3] < spark[1] ? spark[1] - (body[1] + body[3]) : 0;
+            if (dist < 80 && dist < minDistance) {
+              double newHeight = Math.max(spark[1] + spark[3], body[1] + body[3])
+                  - Math.min(spark[1], body[1]);
+              if (!(body[3] > maxHeightLimit) && newHeight > maxHeightLimit) {
+                continue;
+              }
+              minDistance = dist;
+              best = j;
+            }
+          }
+        }
+        if (best != -1) {
+          blobs.set(best, union(spark, blobs.get(best)));
+          blobs.remove(i);
+          changed = true;
+          break;
+        }
+      }
+    }
+    return blobs;
+  }
+
+  private static void assertSameRegions(List<double[]> expected, List<Rectangle> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      Rectangle r = actual.get(i);
+      assertArrayEquals(expected.get(i), new double[] {r.getX(), r.getY(), r.getWidth(), r.getHeight()});
+    }
+  }
+
+  @Test
+  @DisplayName("Should merge regions within tolerance exactly like the pairwise loop")
+  void shouldMatchPairwiseRegionMerge() {
+    Random random = new Random(3);
+    for (int round = 0; round < 30; round++) {
+      // Arrange
+      List<double[]> regions = randomRegions(random, 40 + random.nextInt(120));
+      int tolX = random.nextInt(6);
+      int tolY = random.nextInt(6);
+
+      // Act
+      List<Rectangle> merged = service.mergeRegions(toRectangles(regions), tolX, tolY);
+
+      // Assert
+      assertSameRegions(mergeRegionsReference(new ArrayList<>(regions), tolX, tolY), merged);
+    }
+  }
+
+  @Test
+  @DisplayName("Should attach sparks to the same bodies, in the same order, as the full rescan")
+  void shouldMatchFullRescanSparkMerge() {
+    Random random = new Random(11);
+    for (int round = 0; round < 30; round++) {
+      // Arrange
+      List<double[]> blobs = randomRegions(random, 20 + random.nextInt(150));
+
+      // Act
+      List<Rectangle> merged = service.mergeOrphanedSparks(toRectangles(blobs));
+
+      // Assert
+      assertSameRegions(mergeSparksReference(new ArrayList<>(blobs)), merged);
+    }
+  }
+}
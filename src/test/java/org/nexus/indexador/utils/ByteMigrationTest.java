@@ -3,6 +3,8 @@ package org.nexus.indexador.utils;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -38,6 +40,57 @@ class ByteMigrationTest {
     assertEquals(0x0201, littleEndian);
   }
 
+  @Test
+  @DisplayName("Should convert float bits without altering them")
+  void shouldConvertBigToLittleFloat() {
+    // Arrange
+    byteMigration migration = byteMigration.getInstance();
+    float bigEndian = Float.intBitsToFloat(0x0000F042);
+
+    // Act
+    float littleEndian = migration.bigToLittle_Float(bigEndian);
+
+    // Assert
+    assertEquals(120.0f, littleEndian);
+  }
+
+  @Test
+  @DisplayName("Should convert int and short arrays in place")
+  void shouldConvertArraysInPlace() {
+    // Arrange
+    byteMigration migration = byteMigration.getInstance();
+    int[] ints = {0x01020304, 0x0A0B0C0D, 0x11223344};
+    short[] shorts = {0x0102, 0x0A0B};
+
+    // Act
+    migration.bigToLittle_Int(ints, 1, 2);
+    migration.bigToLittle_Short(shorts);
+
+    // Assert
+    assertArrayEquals(new int[] {0x01020304, 0x0D0C0B0A, 0x44332211}, ints);
+    assertArrayEquals(new short[] {0x0201, 0x0B0A}, shorts);
+  }
+
+  @Test
+  @DisplayName("Should convert a buffer region in place")
+  void shouldConvertBufferRegion() {
+    // Arrange
+    byteMigration migration = byteMigration.getInstance();
+    ByteBuffer buffer = ByteBuffer.allocate(10);
+    buffer.putShort(0, (short) 0x0102);
+    buffer.putInt(2, 0x01020304);
+    buffer.putInt(6, 0x05060708);
+
+    // Act
+    migration.bigToLittle_Int(buffer, 2, 2);
+
+    // Assert
+    assertEquals(0x0102, buffer.getShort(0));
+    assertEquals(0x04030201, buffer.getInt(2));
+    assertEquals(0x08070605, buffer.getInt(6));
+    assertEquals(0, buffer.position());
+  }
+
   @Test
   @DisplayName("Singleton should return same instance")
   void singletonShouldReturnSameInstance() {
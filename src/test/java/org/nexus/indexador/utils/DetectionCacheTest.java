@@ -0,0 +1,64 @@
+package org.nexus.indexador.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the content-keyed sprite detection cache.
+ */
+class DetectionCacheTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("Should reload the raw labeling from disk in a new session")
+  void shouldPersistRawBoxes() {
+    // Arrange
+    File dir = tempDir.resolve("deteccion").toFile();
+    List<int[]> boxes = List.of(new int[] {0, 0, 5, 4}, new int[] {7, 1, 3, 3});
+    new DetectionCache(dir).putRawBoxes(42L, boxes);
+
+    // Act
+    DetectionCache reopened = new DetectionCache(dir);
+    List<int[]> loaded = reopened.getRawBoxes(42L);
+
+    // Assert
+    assertNotNull(loaded);
+    assertEquals(2, loaded.size());
+    assertArrayEquals(boxes.get(0), loaded.get(0));
+    assertArrayEquals(boxes.get(1), loaded.get(1));
+    assertNull(reopened.getRawBoxes(43L));
+  }
+
+  @Test
+  @DisplayName("Should key final results by content and every detection parameter")
+  void shouldKeyResultsByContentAndParameters() {
+    // Arrange
+    int[] sheet = new int[64];
+    sheet[10] = 0xFF808080;
+    int[] changed = sheet.clone();
+    changed[11] = 0xFF808080;
+    long hash = DetectionCache.hash(sheet, 8, 8);
+    DetectionCache cache = new DetectionCache(tempDir.toFile());
+    List<double[]> result = List.of(new double[] {1, 2, 3, 4});
+
+    // Act
+    cache.putResult(hash, 2, 16, false, result);
+
+    // Assert
+    assertNotEquals(hash, DetectionCache.hash(changed, 8, 8));
+    assertNotEquals(hash, DetectionCache.hash(sheet, 16, 4));
+    assertEquals(hash, DetectionCache.hash(sheet.clone(), 8, 8));
+    assertSame(result, cache.getResult(hash, 2, 16, false));
+    assertNull(cache.getResult(hash, 2, 16, true));
+    assertNull(cache.getResult(hash, 0, 16, false));
+  }
+}
@@ -0,0 +1,133 @@
+package org.nexus.indexador.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the graphics directory index.
+ */
+class GraphicsIndexTest {
+
+  @TempDir
+  Path tempDir;
+
+  /** Espera a que el vigilante, que aplica los cambios en segundo plano, deje la entrada así. */
+  private static GraphicsIndex.Entry awaitEntry(GraphicsIndex index, String dir, int fileNum,
+      Predicate<GraphicsIndex.Entry> done) throws InterruptedException {
+    GraphicsIndex.Entry entry = index.getEntry(dir, fileNum);
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!done.test(entry) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+      entry = index.getEntry(dir, fileNum);
+    }
+    return entry;
+  }
+
+  @Test
+  @DisplayName("Should map file numbers to images, preferring PNG over BMP")
+  void shouldIndexNumberedImages() throws IOException {
+    // Arrange
+    Files.write(tempDir.resolve("12.bmp"), new byte[] {1});
+    Files.write(tempDir.resolve("12.png"), new byte[] {1, 2});
+    Files.write(tempDir.resolve("7.BMP"), new byte[] {1, 2, 3});
+    Files.write(tempDir.resolve("fondo.png"), new byte[] {1});
+    Files.write(tempDir.resolve("3.txt"), new byte[] {1});
+    String dir = tempDir.toString() + File.separator;
+
+    // Act
+    GraphicsIndex index = GraphicsIndex.getInstance();
+    index.refresh(dir);
+    GraphicsIndex.Entry png = index.getEntry(dir, 12);
+    GraphicsIndex.Entry bmp = index.getEntry(dir, 7);
+
+    // Assert
+    assertNotNull(png);
+    assertEquals("png", png.getFormat());
+    assertEquals(dir + "12.png", png.getPath());
+    assertEquals(2, png.getSize());
+    assertNotNull(bmp);
+    assertEquals("bmp", bmp.getFormat());
+    assertNull(index.getEntry(dir, 3));
+    assertNull(index.getEntry(dir, 99));
+  }
+
+  @Test
+  @DisplayName("Should list the file numbers of a range in ascending order")
+  void shouldListFileNumsInRange() throws IOException {
+    // Arrange
+    for (String name : new String[] {"40.png", "5.bmp", "12.png", "13.gif", "2000000.png", "otro.png"}) {
+      Files.write(tempDir.resolve(name), new byte[] {1});
+    }
+    String dir = tempDir.toString() + File.separator;
+    GraphicsIndex index = GraphicsIndex.getInstance();
+    index.refresh(dir);
+
+    // Act
+    int[] all = index.getFileNums(dir, 1, Integer.MAX_VALUE);
+    int[] range = index.getFileNums(dir, 6, 40);
+
+    // Assert
+    assertArrayEquals(new int[] {5, 12, 13, 40, 2000000}, all);
+    assertArrayEquals(new int[] {12, 13, 40}, range);
+  }
+
+  @Test
+  @DisplayName("Should keep an upper-case extension indexed after the file changes on disk")
+  void shouldResolveChangedUpperCaseExtension() throws IOException, InterruptedException {
+    // Arrange
+    Path image = Files.write(tempDir.resolve("12.PNG"), new byte[] {1});
+    String dir = tempDir.toString() + File.separator;
+    GraphicsIndex index = GraphicsIndex.getInstance();
+    index.refresh(dir);
+    assertNotNull(index.getEntry(dir, 12));
+
+    // Act
+    Files.write(image, new byte[] {1, 2, 3});
+    GraphicsIndex.Entry entry = awaitEntry(index, dir, 12, e -> e != null && e.getSize() == 3);
+
+    // Assert
+    assertNotNull(entry);
+    assertEquals(3, entry.getSize());
+    assertEquals("png", entry.getFormat());
+    assertEquals(dir + "12.PNG", entry.getPath());
+  }
+
+  @Test
+  @DisplayName("Should fall back to the BMP when the indexed PNG is deleted and return to it when restored")
+  void shouldFallBackWhenPreferredImageIsDeleted() throws IOException, InterruptedException {
+    // Arrange
+    Path png = Files.write(tempDir.resolve("12.png"), new byte[] {1, 2});
+    Files.write(tempDir.resolve("12.bmp"), new byte[] {1});
+    String dir = tempDir.toString() + File.separator;
+    GraphicsIndex index = GraphicsIndex.getInstance();
+    index.refresh(dir);
+    assertEquals("png", index.getEntry(dir, 12).getFormat());
+
+    // Act
+    Files.delete(png);
+    GraphicsIndex.Entry fallback = awaitEntry(index, dir, 12,
+        e -> e != null && e.getFormat().equals("bmp"));
+
+    // Assert
+    assertNotNull(fallback);
+    assertEquals(dir + "12.bmp", fallback.getPath());
+
+    // Act
+    Files.write(png, new byte[] {1, 2, 3});
+    GraphicsIndex.Entry restored = awaitEntry(index, dir, 12,
+        e -> e != null && e.getFormat().equals("png") && e.getSize() == 3);
+
+    // Assert
+    assertEquals(dir + "12.png", restored.getPath());
+    assertEquals(3, restored.getSize());
+  }
+}
@@ -0,0 +1,111 @@
+package org.nexus.indexador.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for grid pitch inference from projection profiles.
+ */
+class GridPitchDetectorTest {
+
+  @Test
+  @DisplayName("Should find the cell size of sprites separated by transparent gaps")
+  void shouldDetectSpriteCells() {
+    // Arrange: 6x3 celdas de 48x40 con un sprite de tamaño variable centrado en cada una
+    Random random = new Random(1);
+    int width = 48 * 6;
+    int height = 40 * 3;
+    int[] argb = new int[width * height];
+    for (int row = 0; row < 3; row++) {
+      for (int col = 0; col < 6; col++) {
+        int w = 30 + random.nextInt(8);
+        int h = 26 + random.nextInt(8);
+        int x0 = col * 48 + (48 - w) / 2;
+        int y0 = row * 40 + (40 - h) / 2;
+        for (int y = y0; y < y0 + h; y++) {
+          for (int x = x0; x < x0 + w; x++) {
+            argb[y * width + x] = 0xFF000000 | random.nextInt(0xFFFFFF) | 1;
+          }
+        }
+      }
+    }
+
+    // Act
+    GridPitchDetector.Grid grid = GridPitchDetector.detect(argb, width, height);
+
+    // Assert
+    assertNotNull(grid);
+    assertEquals(48, grid.getTileWidth());
+    assertEquals(40, grid.getTileHeight());
+    assertEquals(0, grid.getOffsetX());
+    assertEquals(0, grid.getOffsetY());
+  }
+
+  @Test
+  @DisplayName("Should find pitch and offset of an opaque tile atlas from its edges")
+  void shouldDetectOpaqueAtlasWithOffset() {
+    // Arrange: tiles opacos de 32x32 de colores distintos, con la rejilla desplazada (5, 12)
+    Random random = new Random(2);
+    int width = 32 * 8 + 5;
+    int height = 32 * 6 + 12;
+    int[] colors = new int[9 * 7];
+    for (int i = 0; i < colors.length; i++) {
+      colors[i] = 0xFF000000 | (random.nextInt(256) << 16) | (random.nextInt(256) << 8)
+          | random.nextInt(256) | 1;
+    }
+    int[] argb = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int col = (x + 32 - 5) / 32;
+        int row = (y + 32 - 12) / 32;
+        argb[y * width + x] = colors[row * 9 + col];
+      }
+    }
+
+    // Act
+    GridPitchDetector.Grid grid = GridPitchDetector.detect(argb, width, height);
+
+    // Assert
+    assertNotNull(grid);
+    assertEquals(32, grid.getTileWidth());
+    assertEquals(32, grid.getTileHeight());
+    assertEquals(5, grid.getOffsetX());
+    assertEquals(12, grid.getOffsetY());
+  }
+
+  @Test
+  @DisplayName("Should use the whole sheet on the axis without repetition and reject noise")
+  void shouldHandleStripsAndNoise() {
+    // Arrange: tira de 8 cuadros de 24x50 y una hoja de ruido
+    int width = 24 * 8;
+    int height = 50;
+    int[] strip = new int[width * height];
+    for (int y = 5; y < 45; y++) {
+      for (int x = 0; x < width; x++) {
+        if (x % 24 >= 4 && x % 24 < 20) {
+          strip[y * width + x] = 0xFF808080;
+        }
+      }
+    }
+    Random random = new Random(3);
+    int[] noise = new int[128 * 128];
+    for (int i = 0; i < noise.length; i++) {
+      noise[i] = random.nextBoolean() ? 0xFF808080 : 0;
+    }
+
+    // Act
+    GridPitchDetector.Grid grid = GridPitchDetector.detect(strip, width, height);
+    GridPitchDetector.Grid none = GridPitchDetector.detect(noise, 128, 128);
+
+    // Assert
+    assertNotNull(grid);
+    assertEquals(24, grid.getTileWidth());
+    assertEquals(50, grid.getTileHeight());
+    assertEquals(0, grid.getOffsetY());
+    assertNull(none);
+  }
+}
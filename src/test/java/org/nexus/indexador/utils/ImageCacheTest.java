@@ -0,0 +1,162 @@
+package org.nexus.indexador.utils;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the byte-budgeted image cache and its background decoding.
+ */
+class ImageCacheTest {
+
+  private static final long MB = 1024L * 1024L;
+  // Una imagen de 10x10 ocupa 400 bytes
+  private static final long SHEET = 10 * 10 * 4;
+
+  private static ImageCache cacheOf(long budgetBytes) {
+    return new ImageCache(budgetBytes, Runnable::run, path -> new WritableImage(10, 10));
+  }
+
+  @Test
+  @DisplayName("Should evict the least recently used images first when over budget")
+  void shouldEvictLeastRecentlyUsedFirst() {
+    // Arrange
+    ImageCache cache = cacheOf(3 * SHEET);
+    cache.getImage("a.png");
+    cache.getImage("b.png");
+    cache.getImage("c.png");
+    cache.getImage("a.png");
+
+    // Act
+    cache.getImage("d.png");
+    cache.getImage("e.png");
+
+    // Assert
+    assertNull(cache.peekImage("b.png"));
+    assertNull(cache.peekImage("c.png"));
+    assertNotNull(cache.peekImage("a.png"));
+    assertNotNull(cache.peekImage("d.png"));
+    assertNotNull(cache.peekImage("e.png"));
+    assertEquals(2, cache.getEvictionCount());
+    assertEquals(3 * SHEET, cache.getUsedBytes());
+  }
+
+  @Test
+  @DisplayName("Should never evict pinned images and release them once unpinned")
+  void shouldKeepPinnedImages() {
+    // Arrange
+    ImageCache cache = cacheOf(SHEET);
+    cache.pin("a.png");
+    cache.pin("b.png");
+
+    // Act
+    cache.getImage("a.png");
+    cache.getImage("b.png");
+    cache.getImage("c.png");
+
+    // Assert: las fijadas pueden superar el límite, pero ninguna se descarta
+    assertNotNull(cache.peekImage("a.png"));
+    assertNotNull(cache.peekImage("b.png"));
+    assertNull(cache.peekImage("c.png"));
+    assertEquals(2 * SHEET, cache.getUsedBytes());
+
+    // Act
+    cache.unpin("a.png");
+
+    // Assert
+    assertNull(cache.peekImage("a.png"));
+    assertNotNull(cache.peekImage("b.png"));
+    assertEquals(SHEET, cache.getUsedBytes());
+  }
+
+  @Test
+  @DisplayName("Should account bytes exactly when crops are reused and a sheet is replaced")
+  void shouldAccountBytesOnReplacement() {
+    // Arrange
+    Map<String, Integer> sides = new HashMap<>(Map.of("a.png", 10));
+    ImageCache cache = new ImageCache(MB, Runnable::run,
+        path -> new WritableImage(sides.get(path), sides.get(path)));
+    WritableImage crop = cache.getCroppedImage("a.png", 2, 2, 2, 3);
+
+    // Act
+    WritableImage again = cache.getCroppedImage("a.png", 2, 2, 2, 3);
+
+    // Assert
+    assertSame(crop, again);
+    assertEquals(SHEET + 2 * 3 * 4, cache.getUsedBytes());
+
+    // Act: la hoja cambia en disco y se vuelve a recortar
+    sides.put("a.png", 20);
+    cache.invalidate("a.png");
+    long afterInvalidate = cache.getUsedBytes();
+    cache.getCroppedImage("a.png", 2, 2, 4, 4);
+
+    // Assert
+    assertEquals(0, afterInvalidate);
+    assertEquals(20 * 20 * 4 + 4 * 4 * 4, cache.getUsedBytes());
+  }
+
+  @Test
+  @DisplayName("Should not keep a decode pending when it completes before being registered")
+  void shouldForgetDecodeThatCompletesImmediately() {
+    // Arrange: con un ejecutor directo la tarea termina dentro de computeIfAbsent
+    AtomicInteger loads = new AtomicInteger();
+    ImageCache cache = new ImageCache(MB, Runnable::run, path -> {
+      loads.incrementAndGet();
+      return new WritableImage(4, 4);
+    });
+
+    // Act
+    Image first = cache.getImageAsync("a.png").join();
+    cache.invalidate("a.png");
+    Image second = cache.getImageAsync("a.png").join();
+
+    // Assert
+    assertNotNull(first);
+    assertNotSame(first, second);
+    assertEquals(2, loads.get());
+    assertSame(second, cache.peekImage("a.png"));
+  }
+
+  @Test
+  @DisplayName("Should neither reuse nor store a decode that was pending when the image was invalidated")
+  void shouldDropPendingDecodeOnInvalidate() {
+    // Arrange
+    Queue<Runnable> tasks = new ArrayDeque<>();
+    AtomicInteger loads = new AtomicInteger();
+    ImageCache cache = new ImageCache(MB, tasks::add, path -> {
+      loads.incrementAndGet();
+      return new WritableImage(4, 4);
+    });
+    CompletableFuture<Image> stale = cache.getImageAsync("a.png");
+
+    // Act
+    cache.invalidate("a.png");
+    CompletableFuture<Image> fresh = cache.getImageAsync("a.png");
+    tasks.poll().run();
+
+    // Assert
+    assertNotSame(stale, fresh);
+    assertNotNull(stale.join());
+    assertNull(cache.peekImage("a.png"));
+    assertEquals(0, cache.getUsedBytes());
+
+    // Act
+    tasks.poll().run();
+
+    // Assert
+    assertEquals(2, loads.get());
+    assertSame(fresh.join(), cache.peekImage("a.png"));
+    assertEquals(4 * 4 * 4, cache.getUsedBytes());
+  }
+}
@@ -0,0 +1,78 @@
+package org.nexus.indexador.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the header-only image dimension reader.
+ */
+class ImageHeaderReaderTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("Should read width, height and bit depth from the PNG IHDR chunk")
+  void shouldReadPngHeader() throws IOException {
+    // Arrange
+    ByteBuffer png = ByteBuffer.allocate(33).order(ByteOrder.BIG_ENDIAN);
+    png.put(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+    png.putInt(13).put(new byte[] {'I', 'H', 'D', 'R'});
+    png.putInt(1024).putInt(768).put((byte) 8).put((byte) 6);
+    Path file = tempDir.resolve("1.png");
+    Files.write(file, png.array());
+
+    // Act
+    ImageHeaderReader.ImageHeader header = ImageHeaderReader.read(file);
+
+    // Assert
+    assertNotNull(header);
+    assertEquals(1024, header.getWidth());
+    assertEquals(768, header.getHeight());
+    assertEquals(8, header.getBitDepth());
+  }
+
+  @Test
+  @DisplayName("Should read BMP info headers, including top-down bitmaps")
+  void shouldReadBmpHeader() throws IOException {
+    // Arrange
+    ByteBuffer bmp = ByteBuffer.allocate(54).order(ByteOrder.LITTLE_ENDIAN);
+    bmp.put((byte) 'B').put((byte) 'M').putInt(54).putInt(0).putInt(54);
+    bmp.putInt(40).putInt(256).putInt(-128).putShort((short) 1).putShort((short) 24);
+    Path file = tempDir.resolve("2.bmp");
+    Files.write(file, bmp.array());
+
+    // Act
+    ImageHeaderReader.ImageHeader header = ImageHeaderReader.read(file);
+
+    // Assert
+    assertNotNull(header);
+    assertEquals(256, header.getWidth());
+    assertEquals(128, header.getHeight());
+    assertEquals(24, header.getBitDepth());
+  }
+
+  @Test
+  @DisplayName("Should return null for unknown or truncated files")
+  void shouldRejectUnknownFormats() throws IOException {
+    // Arrange
+    Path text = tempDir.resolve("3.png");
+    Files.write(text, "no es una imagen".getBytes());
+    Path truncated = tempDir.resolve("4.png");
+    Files.write(truncated, new byte[] {(byte) 0x89, 'P', 'N', 'G'});
+
+    // Act & Assert
+    assertNull(ImageHeaderReader.read(text));
+    assertNull(ImageHeaderReader.read(truncated));
+    assertNull(ImageHeaderReader.read(tempDir.resolve("missing.png")));
+  }
+}
@@ -0,0 +1,103 @@
+package org.nexus.indexador.utils;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the bulk-pixel sprite compositing.
+ */
+class ImageUtilsTest {
+
+  private static final int RED = 0xFFFF0000;
+  private static final int GREEN = 0xFF00FF00;
+  private static final int BLUE = 0xFF0000FF;
+  private static final int WHITE = 0xFFFFFFFF;
+  private static final int BLACK = 0xFF000000;
+  private static final int INK = 0xFF123456;
+
+  /** Imagen de w×h rellena con {@code fill}. */
+  private static WritableImage image(int w, int h, int fill) {
+    WritableImage image = new WritableImage(w, h);
+    for (int y = 0; y < h; y++) {
+      for (int x = 0; x < w; x++) {
+        image.getPixelWriter().setArgb(x, y, fill);
+      }
+    }
+    return image;
+  }
+
+  @Test
+  @DisplayName("Should key out black and transparent overlay pixels and clip the overlay to the canvas")
+  void shouldCompositeWithColorKeyAndClipping() {
+    // Arrange: cuerpo 2x2 centrado en un lienzo 4x4 y cabeza 3x3 desplazada (1, 1)
+    WritableImage body = new WritableImage(2, 2);
+    body.getPixelWriter().setArgb(0, 0, RED);
+    body.getPixelWriter().setArgb(1, 0, GREEN);
+    body.getPixelWriter().setArgb(0, 1, BLUE);
+    body.getPixelWriter().setArgb(1, 1, WHITE);
+    WritableImage head = image(3, 3, INK);
+    head.getPixelWriter().setArgb(0, 0, BLACK);
+    head.getPixelWriter().setArgb(1, 0, 0x00ABCDEF);
+
+    // Act
+    PixelReader result = ImageUtils.drawComposite(body, head, 4, 4, 1, 1, false).getPixelReader();
+
+    // Assert
+    assertEquals(0, result.getArgb(0, 0));
+    assertEquals(RED, result.getArgb(1, 1));
+    assertEquals(GREEN, result.getArgb(2, 1));
+    assertEquals(BLUE, result.getArgb(1, 2));
+    assertEquals(WHITE, result.getArgb(2, 2), "El negro de la cabeza es transparente");
+    assertEquals(0, result.getArgb(3, 2), "El alfa 0 de la cabeza es transparente");
+    assertEquals(INK, result.getArgb(2, 3));
+    assertEquals(INK, result.getArgb(3, 3));
+  }
+
+  @Test
+  @DisplayName("Should copy sprites without color key, clip negative margins and draw the marker")
+  void shouldDrawSpriteWithMarker() {
+    // Arrange
+    WritableImage sprite = image(3, 3, BLACK);
+    sprite.getPixelWriter().setArgb(1, 1, GREEN);
+
+    // Act
+    PixelReader result = ImageUtils.drawSpriteOnCanvas(sprite, 20, 20, -1, -1, 10, 10, Color.BLUE)
+        .getPixelReader();
+
+    // Assert
+    assertEquals(GREEN, result.getArgb(0, 0));
+    assertEquals(BLACK, result.getArgb(1, 0));
+    assertEquals(0, result.getArgb(2, 0));
+    assertEquals(BLUE, result.getArgb(9, 9));
+    assertEquals(BLUE, result.getArgb(4, 9));
+    assertEquals(BLUE, result.getArgb(14, 9));
+    assertEquals(BLUE, result.getArgb(9, 4));
+    assertEquals(BLUE, result.getArgb(9, 14));
+    assertEquals(0, result.getArgb(3, 9));
+    assertEquals(0, result.getArgb(10, 10));
+  }
+
+  @Test
+  @DisplayName("Should start every canvas transparent even when its buffer is reused")
+  void shouldClearReusedCanvas() {
+    // Arrange
+    Image sheet = image(8, 8, INK);
+    ImageUtils.drawComposite(sheet, null, 8, 8, 0, 0, false);
+
+    // Act
+    Image empty = ImageUtils.drawCenteredImageWithOffset(null, 5, 5, 0, 0, false);
+
+    // Assert
+    int[] pixels = ImageUtils.readArgb(empty);
+    assertEquals(25, pixels.length);
+    for (int argb : pixels) {
+      assertEquals(0, argb);
+    }
+  }
+}
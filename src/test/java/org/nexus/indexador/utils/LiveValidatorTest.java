@@ -0,0 +1,125 @@
+package org.nexus.indexador.utils;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nexus.indexador.gamedata.GrhIndex;
+import org.nexus.indexador.gamedata.models.BodyData;
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for incremental validation driven by the dependency graph.
+ */
+class LiveValidatorTest {
+
+  private static GrhData still(int id) {
+    return new GrhData(id, (short) 1, 1, (short) 0, (short) 0, (short) 32, (short) 32);
+  }
+
+  /** Lista con su índice al día, como la mantiene DataManager. */
+  private static LiveValidator install(ObservableList<GrhData> grhs, ObservableList<BodyData> bodies) {
+    GrhIndex index = new GrhIndex();
+    index.rebuild(grhs);
+    grhs.addListener((ListChangeListener<GrhData>) change -> {
+      while (change.next()) {
+        change.getRemoved().forEach(index::remove);
+        change.getAddedSubList().forEach(index::put);
+      }
+    });
+    LiveValidator.Baseline baseline = new LiveValidator.Baseline(grhs, "")
+        .track(LiveValidator.BODY, bodies, LiveValidator::referencesOf);
+    baseline.validate();
+    LiveValidator validator = new LiveValidator();
+    validator.install(baseline, grhs, index);
+    return validator;
+  }
+
+  @Test
+  @DisplayName("Should flag animations and entities when a referenced GRH is removed and clear them when it returns")
+  void shouldRevalidateDependentsOnRemoveAndAdd() {
+    // Arrange
+    GrhData frame = still(2);
+    ObservableList<GrhData> grhs = FXCollections.observableArrayList(
+        still(1), frame, new GrhData(10, (short) 2, new int[] {0, 1, 2}, 1f));
+    LiveValidator validator = install(grhs, FXCollections.observableArrayList(
+        new BodyData(new int[] {2, 0, 0, 0}, (short) 0, (short) 0)));
+    assertEquals(0, validator.getErrorCount());
+
+    // Act
+    grhs.remove(frame);
+
+    // Assert
+    assertEquals(2, validator.getErrorCount());
+    assertEquals(1, validator.getIssues(10).size());
+    assertTrue(validator.getResult().getErrors().stream()
+        .anyMatch(issue -> issue.getMessage().startsWith("Cuerpo 1 ")));
+
+    // Act
+    grhs.add(frame);
+
+    // Assert
+    assertEquals(0, validator.getErrorCount());
+    assertTrue(validator.getIssues(10).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should re-validate the animations using a GRH when it is edited in place")
+  void shouldRevalidateAnimationsOnEdit() {
+    // Arrange
+    GrhData frame = still(1);
+    ObservableList<GrhData> grhs = FXCollections.observableArrayList(
+        frame, still(2), new GrhData(10, (short) 2, new int[] {0, 1, 2}, 1f));
+    LiveValidator validator = install(grhs, FXCollections.observableArrayList());
+
+    // Act: el frame pasa a ser una animación
+    frame.setNumFrames((short) 2);
+    frame.setFrames(new int[] {0, 2, 2});
+    frame.setSpeed(1f);
+    validator.grhChanged(frame);
+
+    // Assert
+    assertEquals(0, validator.getErrorCount());
+    assertEquals(1, validator.getWarningCount());
+    assertEquals(1, validator.getIssues(10).size());
+    assertTrue(validator.getIssues(1).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Should re-check an entity's references when it is edited, added or removed")
+  void shouldRevalidateEntityEdits() {
+    // Arrange
+    ObservableList<GrhData> grhs = FXCollections.observableArrayList(still(1), still(2));
+    ObservableList<BodyData> bodies = FXCollections.observableArrayList(
+        new BodyData(new int[] {1, 1, 1, 1}, (short) 0, (short) 0),
+        new BodyData(new int[] {9, 2, 2, 2}, (short) 0, (short) 0));
+    LiveValidator validator = install(grhs, bodies);
+    assertEquals(1, validator.getErrorCount());
+
+    // Act: se corrige el cuerpo 2 y se rompe el 1
+    bodies.get(1).getBody()[0] = 2;
+    validator.entityChanged(LiveValidator.BODY, 1, bodies.get(1).getBody());
+    bodies.get(0).getBody()[0] = 7;
+    validator.entityChanged(LiveValidator.BODY, 0, bodies.get(0).getBody());
+
+    // Assert
+    assertEquals(1, validator.getErrorCount());
+    assertTrue(validator.getResult().getErrors().get(0).getMessage().startsWith("Cuerpo 1 "));
+
+    // Act: al borrar el cuerpo 1, el 2 pasa a ser el 1
+    bodies.remove(0);
+
+    // Assert
+    assertEquals(0, validator.getErrorCount());
+
+    // Act
+    bodies.add(new BodyData(new int[] {5, 0, 0, 0}, (short) 0, (short) 0));
+
+    // Assert
+    assertEquals(1, validator.getErrorCount());
+    assertTrue(validator.getResult().getErrors().get(0).getMessage().startsWith("Cuerpo 2 "));
+  }
+}
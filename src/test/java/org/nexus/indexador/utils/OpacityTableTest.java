@@ -0,0 +1,64 @@
+package org.nexus.indexador.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the summed-area table of opaque pixels.
+ */
+class OpacityTableTest {
+
+  @Test
+  @DisplayName("Should count opaque pixels in any rectangle like a direct scan")
+  void shouldMatchDirectCount() {
+    // Arrange
+    Random random = new Random(5);
+    int width = 37;
+    int height = 23;
+    int[] argb = new int[width * height];
+    for (int i = 0; i < argb.length; i++) {
+      int pick = random.nextInt(4);
+      argb[i] = pick == 0 ? 0xFF336699 : pick == 1 ? 0xFF000000 : pick == 2 ? 0x10FFFFFF : 0;
+    }
+    OpacityTable table = new OpacityTable(argb, width, height);
+
+    for (int round = 0; round < 500; round++) {
+      int x = random.nextInt(width);
+      int y = random.nextInt(height);
+      int w = 1 + random.nextInt(width - x);
+      int h = 1 + random.nextInt(height - y);
+      int expected = 0;
+      for (int yy = y; yy < y + h; yy++) {
+        for (int xx = x; xx < x + w; xx++) {
+          if (SpriteLabeler.isOpaque(argb[yy * width + xx])) {
+            expected++;
+          }
+        }
+      }
+
+      // Act & Assert
+      assertEquals(expected, table.count(x, y, w, h));
+    }
+  }
+
+  @Test
+  @DisplayName("Should clip rectangles that fall partly or fully outside the sheet")
+  void shouldClipToSheet() {
+    // Arrange
+    int[] argb = new int[16];
+    argb[0] = 0xFFFFFFFF;
+    argb[15] = 0xFFFFFFFF;
+    OpacityTable table = new OpacityTable(argb, 4, 4);
+
+    // Act & Assert
+    assertEquals(2, table.count(-10, -10, 100, 100));
+    assertTrue(table.hasOpaque(3, 3, 32, 32));
+    assertFalse(table.hasOpaque(1, 1, 2, 2));
+    assertFalse(table.hasOpaque(4, 0, 10, 10));
+    assertFalse(table.hasOpaque(0, 0, 0, 0));
+  }
+}
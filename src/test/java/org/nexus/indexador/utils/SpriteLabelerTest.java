@@ -0,0 +1,149 @@
+package org.nexus.indexador.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for run-based connected-component sprite labeling.
+ */
+class SpriteLabelerTest {
+
+  private static final int OPAQUE = 0xFF808080;
+
+  /** Relleno por inundación píxel a píxel, como hacía la detección original. */
+  private static List<int[]> floodFillReference(int[] argb, int width, int height) {
+    boolean[] visited = new boolean[width * height];
+    List<int[]> boxes = new ArrayList<>();
+    for (int start = 0; start < argb.length; start++) {
+      if (visited[start] || !SpriteLabeler.isOpaque(argb[start])) {
+        continue;
+      }
+      int minX = width, minY = height, maxX = -1, maxY = -1;
+      ArrayDeque<Integer> queue = new ArrayDeque<>();
+      queue.add(start);
+      visited[start] = true;
+      while (!queue.isEmpty()) {
+        int p = queue.poll();
+        int x = p % width;
+        int y = p / width;
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+        int[] neighbours = {x > 0 ? p - 1 : -1, x < width - 1 ? p + 1 : -1, p - width, p + width};
+        for (int n : neighbours) {
+          if (n >= 0 && n < argb.length && !visited[n] && SpriteLabeler.isOpaque(argb[n])) {
+            visited[n] = true;
+            queue.add(n);
+          }
+        }
+      }
+      int w = maxX - minX + 1;
+      int h = maxY - minY + 1;
+      if (w > 2 && h > 2) {
+        boxes.add(new int[] {minX, minY, w, h});
+      }
+    }
+    return boxes;
+  }
+
+  @Test
+  @DisplayName("Should join branches that only meet further down, like a U shape")
+  void shouldMergeBranchesThatMeetLater() {
+    // Arrange: una U de 5x4 y un bloque de 3x3 separado
+    int width = 10;
+    int height = 4;
+    int[] argb = new int[width * height];
+    for (int y = 0; y < 4; y++) {
+      argb[y * width] = OPAQUE;
+      argb[y * width + 4] = OPAQUE;
+    }
+    for (int x = 0; x < 5; x++) {
+      argb[3 * width + x] = OPAQUE;
+    }
+    for (int y = 1; y < 4; y++) {
+      for (int x = 7; x < 10; x++) {
+        argb[y * width + x] = OPAQUE;
+      }
+    }
+
+    // Act
+    List<int[]> boxes = SpriteLabeler.label(argb, width, height);
+
+    // Assert
+    assertEquals(2, boxes.size());
+    assertArrayEquals(new int[] {0, 0, 5, 4}, boxes.get(0));
+    assertArrayEquals(new int[] {7, 1, 3, 3}, boxes.get(1));
+  }
+
+  @Test
+  @DisplayName("Should treat pure black and nearly transparent pixels as background")
+  void shouldIgnoreColorKeyAndLowAlpha() {
+    // Act & Assert
+    assertFalse(SpriteLabeler.isOpaque(0xFF000000));
+    assertFalse(SpriteLabeler.isOpaque(0x19FFFFFF));
+    assertTrue(SpriteLabeler.isOpaque(0x1AFFFFFF));
+    assertTrue(SpriteLabeler.isOpaque(0xFF010000));
+  }
+
+  @Test
+  @DisplayName("Should produce the same boxes, in the same order, as pixel flood fill")
+  void shouldMatchFloodFill() {
+    // Arrange
+    Random random = new Random(42);
+    for (int round = 0; round < 20; round++) {
+      int width = 20 + random.nextInt(60);
+      int height = 20 + random.nextInt(60);
+      int[] argb = new int[width * height];
+      for (int i = 0; i < argb.length; i++) {
+        argb[i] = random.nextInt(100) < 45 ? OPAQUE : 0;
+      }
+
+      // Act
+      List<int[]> expected = floodFillReference(argb, width, height);
+      List<int[]> actual = SpriteLabeler.label(argb, width, height);
+
+      // Assert
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+        assertArrayEquals(expected.get(i), actual.get(i));
+      }
+    }
+  }
+
+  @Test
+  @DisplayName("Should give exactly the sequential result when labeling bands in parallel")
+  void shouldMatchSequentialWhenParallel() {
+    // Arrange: bandas pequeñas y sprites que cruzan varias fronteras
+    Random random = new Random(7);
+    int width = 150;
+    int height = SpriteLabeler.MIN_BAND_ROWS * 9 + 13;
+    int[] argb = new int[width * height];
+    for (int i = 0; i < argb.length; i++) {
+      argb[i] = random.nextInt(100) < 40 ? OPAQUE : 0;
+    }
+    for (int y = 0; y < height; y++) {
+      argb[y * width + 75] = OPAQUE;
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    // Act
+    List<int[]> sequential = SpriteLabeler.label(argb, width, height);
+    List<int[]> parallel = SpriteLabeler.labelParallel(argb, width, height, pool);
+    pool.shutdown();
+
+    // Assert
+    assertEquals(sequential.size(), parallel.size());
+    for (int i = 0; i < sequential.size(); i++) {
+      assertArrayEquals(sequential.get(i), parallel.get(i));
+    }
+  }
+}
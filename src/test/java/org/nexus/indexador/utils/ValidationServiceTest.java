@@ -0,0 +1,63 @@
+package org.nexus.indexador.utils;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nexus.indexador.gamedata.models.GrhData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the parallel GRH integrity validation.
+ */
+class ValidationServiceTest {
+
+  @Test
+  @DisplayName("Should report issues in list order across chunks and rules, with rule timings")
+  void shouldKeepSequentialOrderWhenParallel() {
+    // Arrange: cada bloque de 1000 GRH tiene tres con problemas
+    int count = ValidationService.MIN_CHUNK * 5 + 123;
+    List<GrhData> grhs = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int id = i + 1;
+      switch (i % 1000) {
+        case 1 -> grhs.add(new GrhData(id, (short) 1, 0, (short) 0, (short) 0, (short) 32, (short) 32));
+        case 2 -> grhs.add(new GrhData(id, (short) 1, 5, (short) -1, (short) 0, (short) 0, (short) 32));
+        case 3 -> grhs.add(new GrhData(id, (short) 2, new int[] {0, 999999, 1}, 0f));
+        default -> grhs.add(new GrhData(id, (short) 1, 1, (short) 0, (short) 0, (short) 32, (short) 32));
+      }
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+
+    // Act
+    ValidationService.ValidationResult result =
+        ValidationService.getInstance().validate(grhs, "", pool);
+    pool.shutdown();
+
+    // Assert
+    int blocks = (count - 4) / 1000 + 1;
+    assertEquals(blocks * 3, result.getErrors().size());
+    assertEquals(blocks * 2, result.getWarnings().size());
+    for (int block = 0; block < blocks; block++) {
+      int base = block * 1000 + 1;
+      List<ValidationService.ValidationIssue> errors = result.getErrors().subList(block * 3, block * 3 + 3);
+      assertEquals(base + 1, errors.get(0).getGrhId());
+      assertEquals("FileNum inválido: 0", errors.get(0).getMessage());
+      assertEquals(base + 2, errors.get(1).getGrhId());
+      assertTrue(errors.get(1).getMessage().startsWith("Dimensiones inválidas"));
+      assertEquals(base + 3, errors.get(2).getGrhId());
+      assertEquals("Frame 1 referencia GRH inexistente: 999999", errors.get(2).getMessage());
+
+      List<ValidationService.ValidationIssue> warnings =
+          result.getWarnings().subList(block * 2, block * 2 + 2);
+      assertTrue(warnings.get(0).getMessage().startsWith("Coordenadas negativas"));
+      assertTrue(warnings.get(1).getMessage().startsWith("Velocidad de animación inválida"));
+    }
+    assertEquals(List.of("Instantánea", "Animaciones", "Imágenes", "Dimensiones", "Estadísticas"),
+        new ArrayList<>(result.getRuleTimes().keySet()));
+    assertEquals("FileNums únicos utilizados: 2", result.getInfos().get(2).getMessage());
+  }
+}